@@ -0,0 +1,154 @@
+package com.azki.banking_system.benchmarks;
+
+import com.azki.banking_system.cache.AccountIdIndex;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.utils.AccountNumbers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Account key layout on a file-backed H2 table: a 36-char varchar against a 16-byte uuid column,
+ * filled with random (v4) or time-ordered (v7) keys, plus lookups through the in-process id index.
+ * Use -p rows=10000000 for the large run; the default keeps a quick run under a minute of setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountKeyBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"varchar", "uuid"})
+    public String keyType;
+
+    @Param({"random", "timeOrdered"})
+    public String keyOrder;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private Path workDir;
+    private String url;
+    private UUID[] keys;
+    private AccountIdIndex accountIdIndex;
+    private final AtomicLong nextId = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        workDir = Files.createTempDirectory("account-key-benchmark");
+        url = "jdbc:h2:file:" + workDir.resolve("accounts").toAbsolutePath();
+        keys = new UUID[rows];
+        accountIdIndex = new AccountIdIndex(rows * 2, new BankMetrics(new SimpleMeterRegistry()));
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table account (id bigint primary key, account_number "
+                    + (keyType.equals("uuid") ? "uuid" : "varchar(36)") + " not null unique, balance bigint not null)");
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into account (id, account_number, balance) values (?, ?, 0)")) {
+                for (int i = 0; i < rows; i++) {
+                    keys[i] = newKey();
+                    long id = nextId.incrementAndGet();
+                    insert.setLong(1, id);
+                    bindKey(insert, 2, keys[i]);
+                    insert.addBatch();
+                    accountIdIndex.put(keys[i], id);
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException, IOException {
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("shutdown");
+        }
+        BenchmarkContexts.delete(workDir);
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        Connection connection;
+        PreparedStatement insert;
+        PreparedStatement byKey;
+        PreparedStatement byId;
+
+        @Setup(Level.Trial)
+        public void open(AccountKeyBenchmark benchmark) throws SQLException {
+            connection = DriverManager.getConnection(benchmark.url);
+            insert = connection.prepareStatement("insert into account (id, account_number, balance) values (?, ?, 0)");
+            byKey = connection.prepareStatement("select id, balance from account where account_number = ?");
+            byId = connection.prepareStatement("select id, balance from account where id = ?");
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int insert(Session session) throws SQLException {
+        session.insert.setLong(1, nextId.incrementAndGet());
+        bindKey(session.insert, 2, newKey());
+        return session.insert.executeUpdate();
+    }
+
+    @Benchmark
+    public long lookupByKey(Session session) throws SQLException {
+        bindKey(session.byKey, 1, randomExistingKey());
+        return balance(session.byKey);
+    }
+
+    @Benchmark
+    public long lookupThroughIndex(Session session) throws SQLException {
+        session.byId.setLong(1, accountIdIndex.get(randomExistingKey()));
+        return balance(session.byId);
+    }
+
+    private UUID newKey() {
+        return keyOrder.equals("random") ? UUID.randomUUID() : AccountNumbers.nextUuid();
+    }
+
+    private UUID randomExistingKey() {
+        return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+
+    private void bindKey(PreparedStatement statement, int index, UUID key) throws SQLException {
+        if (keyType.equals("uuid")) {
+            statement.setObject(index, key);
+        } else {
+            statement.setString(index, key.toString());
+        }
+    }
+
+    private static long balance(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(2) : -1;
+        }
+    }
+}
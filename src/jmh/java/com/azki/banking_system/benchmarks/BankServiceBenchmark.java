@@ -0,0 +1,108 @@
+package com.azki.banking_system.benchmarks;
+
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.services.BankService;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import com.azki.banking_system.transactions.TransactionStrategy;
+import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end service throughput. accountCount=1 measures single-account contention,
+ * larger counts spread the load uniformly over many accounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankServiceBenchmark {
+
+    private static final long OPENING_BALANCE = 1_000_000_000_00L;
+    private static final long AMOUNT = 100;
+
+    private final TransactionStrategy depositStrategy = new DepositTransactionStrategy();
+    private final TransactionStrategy withdrawStrategy = new WithdrawTransactionStrategy();
+
+    @Param({"jpa", "ledger", "sharded", "optimistic", "pessimistic"})
+    public String engine;
+
+    @Param({"pool", "direct"})
+    public String executionMode;
+
+    @Param({"1", "10000"})
+    public int accountCount;
+
+    private Path workDir;
+    private ConfigurableApplicationContext context;
+    private BankService bankService;
+    private String[] accountNumbers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("bank-benchmark");
+        context = BenchmarkContexts.start(workDir,
+                "bank.engine=" + engine,
+                "execution.mode=" + executionMode,
+                "thread.pool.capacity=" + Runtime.getRuntime().availableProcessors());
+        bankService = context.getBean(BankService.class);
+        accountNumbers = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accountNumbers[i] = bankService.createAccount(
+                    new BankAccountDto(null, null, OPENING_BALANCE, "holder", "bank")).accountNumber();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        BenchmarkContexts.delete(workDir);
+    }
+
+    @Benchmark
+    public BankAccountDto deposit() throws Exception {
+        return bankService.deposit(randomAccount(), AMOUNT, depositStrategy);
+    }
+
+    @Benchmark
+    public BankAccountDto withdraw() throws Exception {
+        return bankService.withdraw(randomAccount(), AMOUNT, withdrawStrategy);
+    }
+
+    @Benchmark
+    public List<BankAccountDto> transfer() throws Exception {
+        return bankService.transferFund(randomAccount(), randomAccount(), AMOUNT);
+    }
+
+    /**
+     * 40% deposits, 40% withdrawals, 20% transfers.
+     */
+    @Benchmark
+    public Object mixed() throws Exception {
+        int dice = ThreadLocalRandom.current().nextInt(10);
+        if (dice < 4) {
+            return bankService.deposit(randomAccount(), AMOUNT, depositStrategy);
+        }
+        if (dice < 8) {
+            return bankService.withdraw(randomAccount(), AMOUNT, withdrawStrategy);
+        }
+        return bankService.transferFund(randomAccount(), randomAccount(), AMOUNT);
+    }
+
+    @Benchmark
+    public long getBalance() {
+        return bankService.getBalance(randomAccount());
+    }
+
+    private String randomAccount() {
+        return accountNumbers[ThreadLocalRandom.current().nextInt(accountNumbers.length)];
+    }
+}
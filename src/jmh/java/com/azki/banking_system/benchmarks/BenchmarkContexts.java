@@ -0,0 +1,63 @@
+package com.azki.banking_system.benchmarks;
+
+import com.azki.banking_system.BankingSystemApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    /**
+     * Overrides are registered ahead of application.properties so they win over the shipped defaults.
+     */
+    static ConfigurableApplicationContext start(Path workDir, String... overrides) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.shell.interactive.enabled", "false");
+        properties.put("logging.level.root", "warn");
+        // Every optimistic conflict is logged by Hibernate before it is retried.
+        properties.put("logging.level.org.hibernate.orm.jdbc.batch", "off");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.h2.console.enabled", "false");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID());
+        properties.put("log.file.path", workDir.resolve("transactions.log").toString());
+        properties.put("log.binary.dir", workDir.resolve("transactions").toString());
+        properties.put("ledger.journal.dir", workDir.resolve("ledger").toString());
+        // The benchmarks drive a few accounts far past any per-account rate; they measure the work, not rejections.
+        properties.put("admission.enabled", "false");
+        for (String override : overrides) {
+            int separator = override.indexOf('=');
+            properties.put(override.substring(0, separator), override.substring(separator + 1));
+        }
+
+        return new SpringApplicationBuilder(BankingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> context.getEnvironment().getPropertySources()
+                        .addFirst(new MapPropertySource("benchmark", properties)))
+                .run();
+    }
+
+    static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.azki.banking_system.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Runs the selected benchmarks once per thread count and writes one JSON result file per run.
+ * Usage: {@code BenchmarkRunner <threads,csv> <resultDir> [jmh options...]}
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        String[] threadCounts = args[0].split(",");
+        Path resultDir = Path.of(args[1]);
+        CommandLineOptions jmhOptions = new CommandLineOptions(Arrays.copyOfRange(args, 2, args.length));
+        Files.createDirectories(resultDir);
+
+        for (String threadCount : threadCounts) {
+            int threads = Integer.parseInt(threadCount.trim());
+            Options options = new OptionsBuilder()
+                    .parent(jmhOptions)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultDir.resolve("result-t" + threads + ".json").toString())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.azki.banking_system.benchmarks;
+
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.services.BankService;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import com.azki.banking_system.transactions.TransactionStrategy;
+import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JVM stripe locks (locks) against version-checked retries (version) and guarded single-statement
+ * updates (atomic) on a small, hot set of accounts. The conflicts the engine retried or gave up on are
+ * reported as a secondary "conflicts" result next to each score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrencyModeBenchmark {
+
+    private static final long OPENING_BALANCE = 1_000_000_000_00L;
+    private static final long AMOUNT = 100;
+
+    private final TransactionStrategy depositStrategy = new DepositTransactionStrategy();
+    private final TransactionStrategy withdrawStrategy = new WithdrawTransactionStrategy();
+    private final AtomicLong reportedConflicts = new AtomicLong();
+
+    @Param({"locks", "version", "atomic"})
+    public String mode;
+
+    @Param({"1", "16"})
+    public int accountCount;
+
+    private Path workDir;
+    private ConfigurableApplicationContext context;
+    private BankService bankService;
+    private Counter[] conflictCounters;
+    private String[] accountNumbers;
+
+    // The engine counts conflicts globally; each thread claims the part not yet reported, so the per-thread
+    // counts JMH adds up equal the conflicts of the iteration without reading metrics from a teardown.
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Conflicts {
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            conflicts = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("concurrency-benchmark");
+        context = BenchmarkContexts.start(workDir,
+                "bank.engine=" + (mode.equals("locks") ? "jpa" : "optimistic"),
+                "optimistic.atomic.updates=" + mode.equals("atomic"),
+                "optimistic.max.attempts=1000",
+                "account.cache.max.size=0",
+                "execution.mode=direct",
+                "log.text.enabled=false",
+                "log.binary.enabled=false",
+                "history.enabled=false");
+        bankService = context.getBean(BankService.class);
+        conflictCounters = context.getBean(MeterRegistry.class)
+                .find("bank.optimistic.conflicts").counters().toArray(Counter[]::new);
+        accountNumbers = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accountNumbers[i] = bankService.createAccount(
+                    new BankAccountDto(null, null, OPENING_BALANCE, "holder", "bank")).accountNumber();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        reportedConflicts.set(conflicts());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        BenchmarkContexts.delete(workDir);
+    }
+
+    @Benchmark
+    public BankAccountDto deposit(Conflicts conflicts) throws Exception {
+        BankAccountDto account = bankService.deposit(randomAccount(), AMOUNT, depositStrategy);
+        claimConflicts(conflicts);
+        return account;
+    }
+
+    @Benchmark
+    public Object mixed(Conflicts conflicts) throws Exception {
+        Object result;
+        int dice = ThreadLocalRandom.current().nextInt(10);
+        if (dice < 4) {
+            result = bankService.deposit(randomAccount(), AMOUNT, depositStrategy);
+        } else if (dice < 8) {
+            result = bankService.withdraw(randomAccount(), AMOUNT, withdrawStrategy);
+        } else {
+            List<BankAccountDto> accounts = bankService.transferFund(randomAccount(), randomAccount(), AMOUNT);
+            result = accounts;
+        }
+        claimConflicts(conflicts);
+        return result;
+    }
+
+    private void claimConflicts(Conflicts conflicts) {
+        long total = conflicts();
+        long reported = reportedConflicts.get();
+        if (total > reported && reportedConflicts.compareAndSet(reported, total)) {
+            conflicts.conflicts += total - reported;
+        }
+    }
+
+    private long conflicts() {
+        double total = 0;
+        for (Counter counter : conflictCounters) {
+            total += counter.count();
+        }
+        return (long) total;
+    }
+
+    private String randomAccount() {
+        return accountNumbers[ThreadLocalRandom.current().nextInt(accountNumbers.length)];
+    }
+}
@@ -0,0 +1,64 @@
+package com.azki.banking_system.benchmarks;
+
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.services.BankService;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import com.azki.banking_system.transactions.TransactionStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every thread deposits into the same destination account, once as a plain account (cells = 0) and once
+ * split into balance cells. Run with several threads; a single thread only shows the cost of the extra read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotAccountBenchmark {
+
+    private static final long AMOUNT = 100;
+
+    private final TransactionStrategy depositStrategy = new DepositTransactionStrategy();
+
+    @Param({"0", "16"})
+    public int cells;
+
+    private Path workDir;
+    private ConfigurableApplicationContext context;
+    private BankService bankService;
+    private String destination;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("hot-account-benchmark");
+        context = BenchmarkContexts.start(workDir,
+                "bank.engine=jpa",
+                "execution.mode=direct",
+                "log.text.enabled=false",
+                "log.binary.enabled=false",
+                "history.enabled=false");
+        bankService = context.getBean(BankService.class);
+        destination = bankService.createAccount(new BankAccountDto(null, null, 0, "merchant", "bank")).accountNumber();
+        if (cells > 0) {
+            bankService.markHot(destination, cells);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        BenchmarkContexts.delete(workDir);
+    }
+
+    @Benchmark
+    public BankAccountDto depositToSingleAccount() throws Exception {
+        return bankService.deposit(destination, AMOUNT, depositStrategy);
+    }
+}
@@ -0,0 +1,63 @@
+package com.azki.banking_system.benchmarks;
+
+import com.azki.banking_system.log.FsyncPolicy;
+import com.azki.banking_system.log.OverflowPolicy;
+import com.azki.banking_system.log.TransactionFileLogger;
+import com.azki.banking_system.log.binary.BinaryTransactionLogger;
+import com.azki.banking_system.metrics.BankMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.azki.banking_system.utils.Constants.DEPOSIT;
+
+/**
+ * Producer-side cost of the transaction loggers as seen by the calling thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionLoggerBenchmark {
+
+    @Param({"none", "interval"})
+    public String fsyncPolicy;
+
+    private final String accountNumber = UUID.randomUUID().toString();
+
+    private Path workDir;
+    private TransactionFileLogger textLogger;
+    private BinaryTransactionLogger binaryLogger;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("logger-benchmark");
+        textLogger = new TransactionFileLogger(workDir.resolve("transactions.log").toString(), 65536, 512,
+                FsyncPolicy.valueOf(fsyncPolicy.toUpperCase()), 1000, 100 * 1024 * 1024, OverflowPolicy.BLOCK,
+                new BankMetrics(new SimpleMeterRegistry()));
+        binaryLogger = new BinaryTransactionLogger(workDir.resolve("transactions").toString(), 1 << 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        textLogger.close();
+        binaryLogger.close();
+        BenchmarkContexts.delete(workDir);
+    }
+
+    @Benchmark
+    public void textLogger() {
+        textLogger.onTransaction(accountNumber, DEPOSIT, 100);
+    }
+
+    @Benchmark
+    public void binaryLogger() {
+        binaryLogger.onTransaction(accountNumber, DEPOSIT, 100);
+    }
+}
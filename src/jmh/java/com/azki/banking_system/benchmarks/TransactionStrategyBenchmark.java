@@ -0,0 +1,45 @@
+package com.azki.banking_system.benchmarks;
+
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import com.azki.banking_system.transactions.TransactionStrategy;
+import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Strategy dispatch and entity arithmetic without any locking or persistence.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionStrategyBenchmark {
+
+    private final TransactionStrategy depositStrategy = new DepositTransactionStrategy();
+    private final TransactionStrategy withdrawStrategy = new WithdrawTransactionStrategy();
+
+    private BankAccountEntity account;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        account = new BankAccountEntity("benchmark-account", 1_000_000_000_00L, "holder", "bank");
+    }
+
+    @Benchmark
+    public long depositThenWithdraw() {
+        depositStrategy.processTransaction(account, 100);
+        withdrawStrategy.processTransaction(account, 100);
+        return account.getBalance();
+    }
+
+    @Benchmark
+    public long entityWithdraw() {
+        account.withdraw(1);
+        account.deposit(1);
+        return account.getBalance();
+    }
+}
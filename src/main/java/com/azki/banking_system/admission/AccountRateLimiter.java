@@ -0,0 +1,86 @@
+package com.azki.banking_system.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Token buckets for any number of accounts in one fixed array. An account hashes to a slot that packs the tokens
+// it has used and the time they were last refilled into a single long, updated with CAS, so the memory stays at
+// eight bytes per slot no matter how many accounts exist. Accounts that share a slot share a bucket, which can
+// only make limiting stricter; sizing the array well above the number of busy accounts keeps that rare.
+final class AccountRateLimiter {
+
+    private static final int USED_BITS = 20;
+    private static final long USED_MASK = (1L << USED_BITS) - 1;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final long ratePerSecond;
+    private final long burst;
+    private final long fullRefillMillis;
+    private final long origin = System.nanoTime();
+
+    AccountRateLimiter(int slotCount, long ratePerSecond, long burst) {
+        int size = 1;
+        while (size < slotCount) {
+            size <<= 1;
+        }
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.min(burst, USED_MASK);
+        this.fullRefillMillis = this.burst * 1000 / ratePerSecond + 1;
+    }
+
+    boolean tryAcquire(String accountNumber) {
+        return tryAcquire(accountNumber, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - origin));
+    }
+
+    // A slot of zero is a full bucket, so the array needs no initialization. Refill time only advances by the
+    // milliseconds that produced whole tokens, so slow rates are not rounded away by frequent calls.
+    boolean tryAcquire(String accountNumber, long nowMillis) {
+        int index = slot(accountNumber);
+        while (true) {
+            long current = slots.get(index);
+            long refilledAt = current >>> USED_BITS;
+            long used = current & USED_MASK;
+
+            long refilled = Math.min(nowMillis - refilledAt, fullRefillMillis) * ratePerSecond / 1000;
+            if (refilled >= used) {
+                used = 0;
+                refilledAt = nowMillis;
+            } else if (refilled > 0) {
+                used -= refilled;
+                refilledAt += refilled * 1000 / ratePerSecond;
+            }
+            if (used >= burst) {
+                return false;
+            }
+            if (slots.compareAndSet(index, current, (refilledAt << USED_BITS) | (used + 1))) {
+                return true;
+            }
+        }
+    }
+
+    // Hands back a token to a request that was then turned away for another reason; one already refilled is gone.
+    void release(String accountNumber) {
+        int index = slot(accountNumber);
+        while (true) {
+            long current = slots.get(index);
+            if ((current & USED_MASK) == 0 || slots.compareAndSet(index, current, current - 1)) {
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return slots.length();
+    }
+
+    private int slot(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash & mask;
+    }
+}
@@ -0,0 +1,105 @@
+package com.azki.banking_system.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Concurrency limit driven by latency. Each window's average latency is compared with a slowly moving baseline:
+// while they agree the limit grows by about sqrt(limit), and once requests start queueing it shrinks in proportion
+// to how far latency has risen, by at most half. A window in which the limit was never half used does not grow it.
+final class AdaptiveLimit {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_WEIGHT = 0.05;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int minLimit;
+    private final int maxLimit;
+    private volatile int limit;
+
+    private double estimate;
+    private double baselineRtt;
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInflight;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimate = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimate;
+        this.windowStart = System.nanoTime();
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Samples are dropped while another thread is closing a window; the limit only needs a representative share.
+    void release(long rttNanos) {
+        int inflightBefore = inflight.getAndDecrement();
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            sample(rttNanos, inflightBefore, System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // An admission that never ran says nothing about latency, so it only gives its permit back.
+    void cancel() {
+        inflight.decrementAndGet();
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inflight() {
+        return inflight.get();
+    }
+
+    void sample(long rttNanos, int inflightAtRelease, long now) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInflight = Math.max(windowMaxInflight, inflightAtRelease);
+        if (windowSamples < MIN_WINDOW_SAMPLES || now - windowStart < WINDOW_NANOS) {
+            return;
+        }
+
+        double shortRtt = Math.max(1, (double) windowRttSum / windowSamples);
+        baselineRtt = baselineRtt == 0 ? shortRtt : baselineRtt + (shortRtt - baselineRtt) * BASELINE_WEIGHT;
+        if (baselineRtt > 2 * shortRtt) {
+            // latency dropped for good (a slow warm-up, a recovered database), so the baseline catches up faster
+            baselineRtt *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineRtt / shortRtt));
+        double target = estimate * gradient + Math.sqrt(estimate);
+        if (windowMaxInflight < estimate / 2) {
+            target = Math.min(target, estimate);
+        }
+        estimate = Math.max(minLimit, Math.min(maxLimit, estimate * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimate;
+
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInflight = 0;
+    }
+}
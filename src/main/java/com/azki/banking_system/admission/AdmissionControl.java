@@ -0,0 +1,81 @@
+package com.azki.banking_system.admission;
+
+import com.azki.banking_system.exceptions.TooManyRequestsException;
+import com.azki.banking_system.metrics.BankMetrics;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import static com.azki.banking_system.utils.Constants.ACCOUNT_RATE_LIMITED_ERROR_MESSAGE;
+import static com.azki.banking_system.utils.Constants.OVERLOADED_ERROR_MESSAGE;
+
+// Decides before an operation is queued whether it may run at all. Rejections are immediate, so callers over the
+// limit get a fast answer instead of waiting behind work the executor cannot finish in time. Since admitted
+// operations are bounded by the limit, so is the executor's queue.
+@Component
+public class AdmissionControl {
+
+    private final boolean enabled;
+    private final AdaptiveLimit limit;
+    private final AccountRateLimiter accountRateLimiter;
+    private final Counter overloaded;
+    private final Counter rateLimited;
+
+    @Autowired
+    public AdmissionControl(@Value("${admission.enabled}") boolean enabled,
+                            @Value("${admission.limit.initial}") int initialLimit,
+                            @Value("${admission.limit.min}") int minLimit,
+                            @Value("${admission.limit.max}") int maxLimit,
+                            @Value("${admission.account.rate}") long accountRate,
+                            @Value("${admission.account.burst}") long accountBurst,
+                            @Value("${admission.account.slots}") int accountSlots,
+                            BankMetrics metrics) {
+        this.enabled = enabled;
+        this.limit = new AdaptiveLimit(initialLimit, minLimit, maxLimit);
+        this.accountRateLimiter = accountRate > 0 ? new AccountRateLimiter(accountSlots, accountRate, accountBurst) : null;
+        this.overloaded = metrics.counter("bank.admission.rejected", "reason", "overloaded");
+        this.rateLimited = metrics.counter("bank.admission.rejected", "reason", "account_rate");
+        metrics.gauge("bank.admission.limit", limit, AdaptiveLimit::limit);
+        metrics.gauge("bank.admission.inflight", limit, AdaptiveLimit::inflight);
+    }
+
+    // Returns the admission time to hand back to release(); accountNumber may be null for operations without one.
+    // A request turned away by the global limit gets its account token back, so overload does not use up the
+    // accounts' rates as well.
+    public long admit(String accountNumber) {
+        if (!enabled) {
+            return 0;
+        }
+        boolean tokenTaken = accountNumber != null && accountRateLimiter != null;
+        if (tokenTaken && !accountRateLimiter.tryAcquire(accountNumber)) {
+            rateLimited.increment();
+            throw new TooManyRequestsException(ACCOUNT_RATE_LIMITED_ERROR_MESSAGE);
+        }
+        if (!limit.tryAcquire()) {
+            if (tokenTaken) {
+                accountRateLimiter.release(accountNumber);
+            }
+            overloaded.increment();
+            throw new TooManyRequestsException(OVERLOADED_ERROR_MESSAGE);
+        }
+        return System.nanoTime();
+    }
+
+    public void release(long admittedAt) {
+        if (enabled) {
+            limit.release(System.nanoTime() - admittedAt);
+        }
+    }
+
+    // For an admitted operation that could not be started: the permit and the account token are handed back.
+    public void cancel(String accountNumber) {
+        if (!enabled) {
+            return;
+        }
+        limit.cancel();
+        if (accountNumber != null && accountRateLimiter != null) {
+            accountRateLimiter.release(accountNumber);
+        }
+    }
+}
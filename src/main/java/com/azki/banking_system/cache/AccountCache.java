@@ -0,0 +1,126 @@
+package com.azki.banking_system.cache;
+
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.metrics.BankMetrics;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Bounded LRU of account snapshots with a time-to-live. The map is split into independently locked segments
+// so concurrent readers of different accounts rarely meet on the same monitor. A max size of 0 disables it.
+@Component
+public class AccountCache {
+
+    private static final int SEGMENTS = 16;
+
+    private record Entry(BankAccountDto account, long expiresAt) {
+    }
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expirations;
+
+    @Autowired
+    public AccountCache(@Value("${account.cache.max.size}") int maxSize,
+                        @Value("${account.cache.ttl.ms}") long ttlMs,
+                        BankMetrics metrics) {
+        this.enabled = maxSize > 0;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        int segmentSize = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+
+        hits = metrics.counter("bank.cache.requests", "result", "hit");
+        misses = metrics.counter("bank.cache.requests", "result", "miss");
+        sizeEvictions = metrics.counter("bank.cache.evictions", "cause", "size");
+        expirations = metrics.counter("bank.cache.evictions", "cause", "expired");
+        metrics.gauge("bank.cache.size", this, AccountCache::size);
+    }
+
+    public BankAccountDto get(String accountNumber) {
+        if (!enabled) {
+            return null;
+        }
+        Segment segment = segmentFor(accountNumber);
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.get(accountNumber);
+            if (entry != null && entry.expiresAt() - System.nanoTime() < 0) {
+                segment.remove(accountNumber);
+                expirations.increment();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.account();
+    }
+
+    public void put(BankAccountDto account) {
+        if (!enabled) {
+            return;
+        }
+        Segment segment = segmentFor(account.accountNumber());
+        Entry entry = new Entry(account, System.nanoTime() + ttlNanos);
+        synchronized (segment) {
+            segment.put(account.accountNumber(), entry);
+        }
+    }
+
+    public void invalidate(String accountNumber) {
+        if (!enabled) {
+            return;
+        }
+        Segment segment = segmentFor(accountNumber);
+        synchronized (segment) {
+            segment.remove(accountNumber);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private final class Segment extends LinkedHashMap<String, Entry> {
+
+        private final int maxSize;
+
+        private Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() <= maxSize) {
+                return false;
+            }
+            sizeEvictions.increment();
+            return true;
+        }
+    }
+}
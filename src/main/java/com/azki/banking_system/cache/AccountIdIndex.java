@@ -0,0 +1,202 @@
+package com.azki.banking_system.cache;
+
+import com.azki.banking_system.metrics.BankMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+// Account number -> primary key, kept in primitive open-addressing tables (24 bytes per slot, no boxing).
+// Readers use optimistic stamps and only fall back to the read lock when a writer got in the way.
+// Once a segment reaches its share of max.entries new keys are simply not indexed and callers use the database.
+@Component
+public class AccountIdIndex {
+
+    public static final long NOT_FOUND = 0;
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int INITIAL_SLOTS = 1024;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int maxEntriesPerSegment;
+
+    @Autowired
+    public AccountIdIndex(@Value("${account.index.max.entries}") int maxEntries, BankMetrics metrics) {
+        this.maxEntriesPerSegment = maxEntries / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+        metrics.gauge("bank.index.size", this, AccountIdIndex::size);
+    }
+
+    public long get(UUID accountNumber) {
+        long hash = hash(accountNumber);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.tryOptimisticRead();
+        long id = segment.table.find(accountNumber, hash);
+        if (segment.lock.validate(stamp)) {
+            return id;
+        }
+        stamp = segment.lock.readLock();
+        try {
+            return segment.table.find(accountNumber, hash);
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    public void put(UUID accountNumber, long id) {
+        if (maxEntriesPerSegment == 0) {
+            return;
+        }
+        long hash = hash(accountNumber);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            Table table = segment.table;
+            if (table.size >= maxEntriesPerSegment && table.find(accountNumber, hash) == NOT_FOUND) {
+                return;
+            }
+            if ((table.size + 1) * 4L > table.ids.length * 3L) {
+                table = table.grow();
+                segment.table = table;
+            }
+            table.put(accountNumber, hash, id);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(UUID accountNumber) {
+        long hash = hash(accountNumber);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            segment.table.remove(accountNumber, hash);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.table.size;
+        }
+        return size;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+
+    private static long hash(UUID accountNumber) {
+        return hash(accountNumber.getMostSignificantBits(), accountNumber.getLeastSignificantBits());
+    }
+
+    private static long hash(long msb, long lsb) {
+        long h = msb * 31 + lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table = new Table(INITIAL_SLOTS);
+    }
+
+    // Linear probing; an id of 0 marks an empty slot, which is safe because generated ids start at 1.
+    private static final class Table {
+        private final long[] msbs;
+        private final long[] lsbs;
+        private final long[] ids;
+        private final int mask;
+        private int size;
+
+        private Table(int slots) {
+            msbs = new long[slots];
+            lsbs = new long[slots];
+            ids = new long[slots];
+            mask = slots - 1;
+        }
+
+        private long find(UUID key, long hash) {
+            long msb = key.getMostSignificantBits();
+            long lsb = key.getLeastSignificantBits();
+            for (int slot = (int) hash & mask, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+                long id = ids[slot];
+                if (id == NOT_FOUND) {
+                    return NOT_FOUND;
+                }
+                if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                    return id;
+                }
+            }
+            return NOT_FOUND;
+        }
+
+        private void put(UUID key, long hash, long id) {
+            insert(key.getMostSignificantBits(), key.getLeastSignificantBits(), hash, id);
+        }
+
+        private void insert(long msb, long lsb, long hash, long id) {
+            int slot = (int) hash & mask;
+            while (ids[slot] != NOT_FOUND) {
+                if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                    ids[slot] = id;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            msbs[slot] = msb;
+            lsbs[slot] = lsb;
+            ids[slot] = id;
+            size++;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones.
+        private void remove(UUID key, long hash) {
+            long msb = key.getMostSignificantBits();
+            long lsb = key.getLeastSignificantBits();
+            int slot = (int) hash & mask;
+            while (ids[slot] != NOT_FOUND) {
+                if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (ids[slot] == NOT_FOUND) {
+                return;
+            }
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (ids[next] != NOT_FOUND) {
+                int home = (int) hash(msbs[next], lsbs[next]) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    msbs[hole] = msbs[next];
+                    lsbs[hole] = lsbs[next];
+                    ids[hole] = ids[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            ids[hole] = NOT_FOUND;
+            size--;
+        }
+
+        private Table grow() {
+            Table grown = new Table(ids.length * 2);
+            for (int slot = 0; slot < ids.length; slot++) {
+                if (ids[slot] != NOT_FOUND) {
+                    grown.insert(msbs[slot], lsbs[slot], hash(msbs[slot], lsbs[slot]), ids[slot]);
+                }
+            }
+            return grown;
+        }
+    }
+}
@@ -1,18 +1,68 @@
 package com.azki.banking_system.commands;
 
+import com.azki.banking_system.dto.AccountFileFormat;
 import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BankStats;
+import com.azki.banking_system.dto.BatchMode;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.dto.ImportResult;
+import com.azki.banking_system.dto.Recurrence;
+import com.azki.banking_system.dto.ReconciliationReport;
+import com.azki.banking_system.dto.ScheduledTransferDto;
+import com.azki.banking_system.dto.ScheduledTransferPage;
+import com.azki.banking_system.dto.StatementPage;
 import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.exceptions.BatchTooLargeException;
+import com.azki.banking_system.exceptions.ConcurrentUpdateException;
+import com.azki.banking_system.exceptions.HotAccountsUnsupportedException;
+import com.azki.banking_system.exceptions.InvalidAmountException;
+import com.azki.banking_system.exceptions.InvalidImportFileException;
+import com.azki.banking_system.exceptions.InvalidPageTokenException;
+import com.azki.banking_system.exceptions.InvalidScheduleException;
+import com.azki.banking_system.exceptions.MoneyOverflowException;
 import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.exceptions.TooManyRequestsException;
+import com.azki.banking_system.exceptions.ReconciliationRunningException;
+import com.azki.banking_system.exceptions.SameAccountTransferException;
+import com.azki.banking_system.exceptions.ScheduleNotFoundException;
+import com.azki.banking_system.log.LogLineFormatter;
+import com.azki.banking_system.log.binary.BinaryLogReader;
+import com.azki.banking_system.services.AccountExportService;
+import com.azki.banking_system.services.AccountImportService;
 import com.azki.banking_system.services.BankService;
+import com.azki.banking_system.services.ReconciliationService;
+import com.azki.banking_system.services.ScheduledTransferService;
+import com.azki.banking_system.services.StatementService;
 import com.azki.banking_system.transactions.DepositTransactionStrategy;
 import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import com.azki.banking_system.utils.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.shell.standard.ShellComponent;
 import org.springframework.shell.standard.ShellMethod;
 import org.springframework.shell.standard.ShellOption;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 import static com.azki.banking_system.utils.Constants.*;
@@ -20,30 +70,56 @@ import static com.azki.banking_system.utils.Constants.*;
 @ShellComponent
 public class BankCommand {
 
+    private static final Logger log = LoggerFactory.getLogger(BankCommand.class);
+
     private final BankService bankService;
+    private final AccountImportService accountImportService;
+    private final AccountExportService accountExportService;
+    private final StatementService statementService;
+    private final ReconciliationService reconciliationService;
+    private final ScheduledTransferService scheduledTransferService;
+    private final BinaryLogReader binaryLogReader;
+    private final ObjectMapper objectMapper;
+    private final int maxHotCells;
 
     @Autowired
-    public BankCommand(BankService bankService) {
+    public BankCommand(BankService bankService, AccountImportService accountImportService,
+                       AccountExportService accountExportService, StatementService statementService,
+                       ReconciliationService reconciliationService, ScheduledTransferService scheduledTransferService,
+                       BinaryLogReader binaryLogReader,
+                       ObjectMapper objectMapper, @Value("${hot.max.cells}") int maxHotCells) {
         this.bankService = bankService;
+        this.accountImportService = accountImportService;
+        this.accountExportService = accountExportService;
+        this.statementService = statementService;
+        this.reconciliationService = reconciliationService;
+        this.scheduledTransferService = scheduledTransferService;
+        this.binaryLogReader = binaryLogReader;
+        this.objectMapper = objectMapper;
+        this.maxHotCells = maxHotCells;
     }
 
     @ShellMethod(key = "create_account")
     public ResponseEntity<BankAccountResponse> create(
-            @ShellOption(value = "balance", defaultValue = "1000.0") double balance,
+            @ShellOption(value = "balance", defaultValue = "1000.00") BigDecimal balance,
             @ShellOption(value = "accountHolderName", defaultValue = "unknown") String accountHolderName,
             @ShellOption(value = "bankName", defaultValue = "unknown") String bankName
     ) {
-        var account = new BankAccountDto(null,
-                null,
-                balance,
-                accountHolderName,
-                bankName);
-        var result = bankService.createAccount(account);
-        if (result.accountNumber().isEmpty()) {
-            return new ResponseEntity<>(new BankAccountResponse(null, SOMETHING_WENT_WRONG),
-                    HttpStatus.INTERNAL_SERVER_ERROR);
+        try {
+            var account = new BankAccountDto(null,
+                    null,
+                    Money.fromDecimal(balance),
+                    accountHolderName,
+                    bankName);
+            var result = bankService.createAccount(account);
+            if (result.accountNumber().isEmpty()) {
+                return new ResponseEntity<>(new BankAccountResponse(null, SOMETHING_WENT_WRONG),
+                        HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            return new ResponseEntity<>(new BankAccountResponse(result, SUCCESS), HttpStatus.CREATED);
+        } catch (InvalidAmountException | MoneyOverflowException e) {
+            return new ResponseEntity<>(new BankAccountResponse(null, e.getMessage()), HttpStatus.BAD_REQUEST);
         }
-        return new ResponseEntity<>(new BankAccountResponse(result, SUCCESS), HttpStatus.CREATED);
     }
 
     @ShellMethod(key = "delete_account")
@@ -59,6 +135,37 @@ public class BankCommand {
         }
     }
 
+    @ShellMethod(key = "mark_hot")
+    public ResponseEntity<String> markHot(
+            @ShellOption("account_number") String accountNumber,
+            @ShellOption(value = "cells", defaultValue = "8") int cells) {
+        if (cells < 1 || cells > maxHotCells) {
+            return new ResponseEntity<>(INVALID_CELL_COUNT_ERROR_MESSAGE, HttpStatus.BAD_REQUEST);
+        }
+        try {
+            bankService.markHot(accountNumber, cells);
+            return new ResponseEntity<>(SUCCESS, HttpStatus.OK);
+        } catch (AccountNotFoundException e) {
+            return new ResponseEntity<>(ACCOUNT_NOT_FOUND_ERROR_MESSAGE, HttpStatus.NOT_FOUND);
+        } catch (HotAccountsUnsupportedException e) {
+            return new ResponseEntity<>(HOT_ACCOUNTS_UNSUPPORTED_ERROR_MESSAGE, HttpStatus.CONFLICT);
+        } catch (ConcurrentUpdateException e) {
+            return new ResponseEntity<>(CONCURRENT_UPDATE_ERROR_MESSAGE, HttpStatus.CONFLICT);
+        }
+    }
+
+    @ShellMethod(key = "unmark_hot")
+    public ResponseEntity<String> unmarkHot(@ShellOption("account_number") String accountNumber) {
+        try {
+            bankService.unmarkHot(accountNumber);
+            return new ResponseEntity<>(SUCCESS, HttpStatus.OK);
+        } catch (AccountNotFoundException e) {
+            return new ResponseEntity<>(ACCOUNT_NOT_FOUND_ERROR_MESSAGE, HttpStatus.NOT_FOUND);
+        } catch (ConcurrentUpdateException e) {
+            return new ResponseEntity<>(CONCURRENT_UPDATE_ERROR_MESSAGE, HttpStatus.CONFLICT);
+        }
+    }
+
     @ShellMethod(key = "get_account")
     public ResponseEntity<BankAccountResponse> getByAccountNumber(
             @ShellOption("account_number") String accountNumber) {
@@ -68,7 +175,7 @@ public class BankCommand {
         } catch (AccountNotFoundException e) {
             return new ResponseEntity<>(new BankAccountResponse(null, ACCOUNT_NOT_FOUND_ERROR_MESSAGE), HttpStatus.NOT_FOUND);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Could not read account {}", accountNumber, e);
             return new ResponseEntity<>(new BankAccountResponse(null, SOMETHING_WENT_WRONG), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -76,15 +183,25 @@ public class BankCommand {
     @ShellMethod(key = "deposit")
     public ResponseEntity<BankAccountResponse> deposit(
             @ShellOption("account_number") String accountNumber,
-            @ShellOption("amount") double amount) {
+            @ShellOption("amount") BigDecimal amount) {
         try {
-            var result = bankService.deposit(accountNumber, amount, new DepositTransactionStrategy());
+            var result = bankService.deposit(accountNumber, Money.fromDecimal(amount), new DepositTransactionStrategy());
             return new ResponseEntity<>(new BankAccountResponse(result, SUCCESS), HttpStatus.OK);
+        } catch (InvalidAmountException | MoneyOverflowException e) {
+            return new ResponseEntity<>(new BankAccountResponse(null, e.getMessage()), HttpStatus.BAD_REQUEST);
         } catch (ExecutionException | InterruptedException e) {
             if (e.getCause() instanceof AccountNotFoundException) {
                 return new ResponseEntity<>(new BankAccountResponse(null, ACCOUNT_NOT_FOUND_ERROR_MESSAGE), HttpStatus.NOT_FOUND);
+            } else if (e.getCause() instanceof MoneyOverflowException) {
+                return new ResponseEntity<>(new BankAccountResponse(null, AMOUNT_OVERFLOW_ERROR_MESSAGE), HttpStatus.BAD_REQUEST);
+            } else if (e.getCause() instanceof InvalidAmountException) {
+                return new ResponseEntity<>(new BankAccountResponse(null, e.getCause().getMessage()), HttpStatus.BAD_REQUEST);
+            } else if (e.getCause() instanceof ConcurrentUpdateException) {
+                return new ResponseEntity<>(new BankAccountResponse(null, CONCURRENT_UPDATE_ERROR_MESSAGE), HttpStatus.CONFLICT);
+            } else if (e.getCause() instanceof TooManyRequestsException) {
+                return new ResponseEntity<>(new BankAccountResponse(null, e.getCause().getMessage()), HttpStatus.TOO_MANY_REQUESTS);
             }
-            e.printStackTrace();
+            log.error("Deposit to {} failed", accountNumber, e);
             return new ResponseEntity<>(new BankAccountResponse(null, SOMETHING_WENT_WRONG), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -92,17 +209,27 @@ public class BankCommand {
     @ShellMethod(key = "withdraw")
     public ResponseEntity<BankAccountResponse> withdraw(
             @ShellOption("account_number") String accountNumber,
-            @ShellOption("amount") double amount) {
+            @ShellOption("amount") BigDecimal amount) {
         try {
-            var result = bankService.withdraw(accountNumber, amount, new WithdrawTransactionStrategy());
+            var result = bankService.withdraw(accountNumber, Money.fromDecimal(amount), new WithdrawTransactionStrategy());
             return new ResponseEntity<>(new BankAccountResponse(result, SUCCESS), HttpStatus.OK);
+        } catch (InvalidAmountException | MoneyOverflowException e) {
+            return new ResponseEntity<>(new BankAccountResponse(null, e.getMessage()), HttpStatus.BAD_REQUEST);
         } catch (ExecutionException | InterruptedException e) {
             if (e.getCause() instanceof AccountNotFoundException) {
                 return new ResponseEntity<>(new BankAccountResponse(null, ACCOUNT_NOT_FOUND_ERROR_MESSAGE), HttpStatus.NOT_FOUND);
             } else if (e.getCause() instanceof NotEnoughBalanceException) {
                 return new ResponseEntity<>(new BankAccountResponse(null, NOT_ENOUGH_BALANCE_ERROR_MESSAGE), HttpStatus.BAD_REQUEST);
+            } else if (e.getCause() instanceof MoneyOverflowException) {
+                return new ResponseEntity<>(new BankAccountResponse(null, AMOUNT_OVERFLOW_ERROR_MESSAGE), HttpStatus.BAD_REQUEST);
+            } else if (e.getCause() instanceof InvalidAmountException) {
+                return new ResponseEntity<>(new BankAccountResponse(null, e.getCause().getMessage()), HttpStatus.BAD_REQUEST);
+            } else if (e.getCause() instanceof ConcurrentUpdateException) {
+                return new ResponseEntity<>(new BankAccountResponse(null, CONCURRENT_UPDATE_ERROR_MESSAGE), HttpStatus.CONFLICT);
+            } else if (e.getCause() instanceof TooManyRequestsException) {
+                return new ResponseEntity<>(new BankAccountResponse(null, e.getCause().getMessage()), HttpStatus.TOO_MANY_REQUESTS);
             }
-            e.printStackTrace();
+            log.error("Withdrawal from {} failed", accountNumber, e);
             return new ResponseEntity<>(new BankAccountResponse(null, SOMETHING_WENT_WRONG), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -111,27 +238,41 @@ public class BankCommand {
     public ResponseEntity<TransferResponse> transferTo(
             @ShellOption("origin") String origin,
             @ShellOption("dest") String dest,
-            @ShellOption("amount") double amount
+            @ShellOption("amount") BigDecimal amount
     ) {
         try {
-            var result = bankService.transferFund(origin, dest, amount);
+            var result = bankService.transferFund(origin, dest, Money.fromDecimal(amount));
             return new ResponseEntity<>(new TransferResponse(result, SUCCESS), HttpStatus.OK);
+        } catch (InvalidAmountException | MoneyOverflowException e) {
+            return new ResponseEntity<>(new TransferResponse(null, e.getMessage()), HttpStatus.BAD_REQUEST);
         } catch (ExecutionException | InterruptedException e) {
             if (e.getCause() instanceof AccountNotFoundException) {
-                e.printStackTrace();
                 return new ResponseEntity<>(new TransferResponse(null, ACCOUNT_NOT_FOUND_ERROR_MESSAGE), HttpStatus.NOT_FOUND);
             } else if (e.getCause() instanceof NotEnoughBalanceException) {
                 return new ResponseEntity<>(new TransferResponse(null, NOT_ENOUGH_BALANCE_ERROR_MESSAGE), HttpStatus.BAD_REQUEST);
+            } else if (e.getCause() instanceof MoneyOverflowException) {
+                return new ResponseEntity<>(new TransferResponse(null, AMOUNT_OVERFLOW_ERROR_MESSAGE), HttpStatus.BAD_REQUEST);
+            } else if (e.getCause() instanceof InvalidAmountException || e.getCause() instanceof SameAccountTransferException) {
+                return new ResponseEntity<>(new TransferResponse(null, e.getCause().getMessage()), HttpStatus.BAD_REQUEST);
+            } else if (e.getCause() instanceof ConcurrentUpdateException) {
+                return new ResponseEntity<>(new TransferResponse(null, CONCURRENT_UPDATE_ERROR_MESSAGE), HttpStatus.CONFLICT);
+            } else if (e.getCause() instanceof TooManyRequestsException) {
+                return new ResponseEntity<>(new TransferResponse(null, e.getCause().getMessage()), HttpStatus.TOO_MANY_REQUESTS);
             }
-            e.printStackTrace();
+            log.error("Transfer from {} to {} failed", origin, dest, e);
             return new ResponseEntity<>(new TransferResponse(null, SOMETHING_WENT_WRONG), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @ShellMethod(key = "bank_stats")
+    public ResponseEntity<List<BankStats>> bankStats() {
+        return new ResponseEntity<>(bankService.bankStats(), HttpStatus.OK);
+    }
+
     @ShellMethod(key = "get_balance")
     public ResponseEntity<GetBalanceResponse> getBalance(@ShellOption("account_number") String accountNumber) {
         try {
-            double balance = bankService.getBalance(accountNumber);
+            long balance = bankService.getBalance(accountNumber);
             return new ResponseEntity<>(new GetBalanceResponse(balance, SUCCESS), HttpStatus.OK);
         } catch (AccountNotFoundException e) {
             return new ResponseEntity<>(new GetBalanceResponse(null, ACCOUNT_NOT_FOUND_ERROR_MESSAGE), HttpStatus.NOT_FOUND);
@@ -139,4 +280,147 @@ public class BankCommand {
             return new ResponseEntity<>(new GetBalanceResponse(null, SOMETHING_WENT_WRONG), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    @ShellMethod(key = "statement")
+    public ResponseEntity<StatementPage> statement(
+            @ShellOption("account_number") String accountNumber,
+            @ShellOption(value = "from", defaultValue = ShellOption.NULL) String from,
+            @ShellOption(value = "to", defaultValue = ShellOption.NULL) String to,
+            @ShellOption(value = "page_token", defaultValue = ShellOption.NULL) String pageToken,
+            @ShellOption(value = "limit", defaultValue = "20") int limit) {
+        try {
+            var page = statementService.statement(accountNumber, from == null ? Instant.EPOCH : Instant.parse(from),
+                    to == null ? Instant.now() : Instant.parse(to), pageToken, limit);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (AccountNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (InvalidPageTokenException | DateTimeParseException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @ShellMethod(key = "batch")
+    public ResponseEntity<BatchResponse> batch(
+            @ShellOption("file") String file,
+            @ShellOption(value = "mode", defaultValue = "BEST_EFFORT") BatchMode mode) {
+        try (InputStream in = Files.newInputStream(Path.of(file));
+             MappingIterator<BatchOperation> operations = objectMapper.readerFor(BatchOperation.class).readValues(in)) {
+            return new ResponseEntity<>(new BatchResponse(bankService.processBatch(operations, mode), SUCCESS), HttpStatus.OK);
+        } catch (TooManyRequestsException e) {
+            return new ResponseEntity<>(new BatchResponse(null, e.getMessage()), HttpStatus.TOO_MANY_REQUESTS);
+        } catch (BatchTooLargeException | JsonProcessingException | RuntimeJsonMappingException | NoSuchFileException e) {
+            return new ResponseEntity<>(new BatchResponse(null, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            // MappingIterator wraps a parse error in a plain RuntimeException
+            if (e.getCause() instanceof JsonProcessingException) {
+                return new ResponseEntity<>(new BatchResponse(null, e.getCause().getMessage()), HttpStatus.BAD_REQUEST);
+            }
+            log.error("Batch from {} failed", file, e);
+            return new ResponseEntity<>(new BatchResponse(null, SOMETHING_WENT_WRONG), HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (IOException | ExecutionException | InterruptedException e) {
+            log.error("Batch from {} failed", file, e);
+            return new ResponseEntity<>(new BatchResponse(null, SOMETHING_WENT_WRONG), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @ShellMethod(key = "import_accounts")
+    public ResponseEntity<ImportResult> importAccounts(
+            @ShellOption("file") String file,
+            @ShellOption(value = "format", defaultValue = "CSV") AccountFileFormat format) {
+        try (InputStream in = Files.newInputStream(Path.of(file))) {
+            return new ResponseEntity<>(accountImportService.importAccounts(in, format), HttpStatus.OK);
+        } catch (InvalidImportFileException | IOException e) {
+            log.warn("Could not import accounts from {}: {}", file, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (SQLException e) {
+            log.error("Could not import accounts from {}", file, e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @ShellMethod(key = "export_accounts")
+    public ResponseEntity<String> exportAccounts(
+            @ShellOption(value = "output", defaultValue = "accounts-export.ndjson") String output,
+            @ShellOption(value = "format", defaultValue = "NDJSON") AccountFileFormat format) {
+        try (OutputStream out = Files.newOutputStream(Path.of(output))) {
+            long exported = accountExportService.exportAccounts(out, format);
+            return new ResponseEntity<>(String.format("Exported %d accounts to %s", exported, output), HttpStatus.OK);
+        } catch (IOException | SQLException e) {
+            log.error("Could not export accounts to {}", output, e);
+            return new ResponseEntity<>(SOMETHING_WENT_WRONG, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @ShellMethod(key = "export_log")
+    public ResponseEntity<String> exportLog(
+            @ShellOption(value = "from", defaultValue = "1") long from,
+            @ShellOption(value = "to", defaultValue = "9223372036854775807") long to,
+            @ShellOption(value = "output", defaultValue = "transactions-export.log") String output) {
+        StringBuilder line = new StringBuilder(128);
+        try (BufferedWriter writer = Files.newBufferedWriter(Path.of(output))) {
+            long exported = binaryLogReader.read(from, to, record -> {
+                line.setLength(0);
+                LogLineFormatter.appendLine(line.append('#').append(record.sequence()).append(' '), record.timestamp(),
+                        record.accountNumber(), record.transactionType(), record.amountMinorUnits());
+                try {
+                    writer.append(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return new ResponseEntity<>(String.format("Exported %d records to %s", exported, output), HttpStatus.OK);
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Could not export the binary log to {}", output, e);
+            return new ResponseEntity<>(SOMETHING_WENT_WRONG, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @ShellMethod(key = "reconcile")
+    public ResponseEntity<ReconciliationReport> reconcile() {
+        try {
+            return new ResponseEntity<>(reconciliationService.reconcile(), HttpStatus.OK);
+        } catch (ReconciliationRunningException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (IOException | SQLException e) {
+            log.error("Reconciliation failed", e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @ShellMethod(key = "schedule_transfer")
+    public ResponseEntity<ScheduledTransferDto> scheduleTransfer(
+            @ShellOption("origin") String origin,
+            @ShellOption("dest") String dest,
+            @ShellOption("amount") BigDecimal amount,
+            @ShellOption(value = "first_run", defaultValue = ShellOption.NULL) String firstRun,
+            @ShellOption(value = "recurrence", defaultValue = "ONCE") Recurrence recurrence) {
+        try {
+            var schedule = scheduledTransferService.schedule(origin, dest, Money.fromDecimal(amount),
+                    firstRun == null ? null : Instant.parse(firstRun), recurrence);
+            return new ResponseEntity<>(schedule, HttpStatus.CREATED);
+        } catch (AccountNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (InvalidScheduleException | InvalidAmountException | MoneyOverflowException | DateTimeParseException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @ShellMethod(key = "list_schedules")
+    public ResponseEntity<ScheduledTransferPage> listSchedules(
+            @ShellOption(value = "account_number", defaultValue = ShellOption.NULL) String accountNumber,
+            @ShellOption(value = "after", defaultValue = "0") long after,
+            @ShellOption(value = "limit", defaultValue = "20") int limit) {
+        return new ResponseEntity<>(scheduledTransferService.listSchedules(accountNumber, after, limit), HttpStatus.OK);
+    }
+
+    @ShellMethod(key = "cancel_schedule")
+    public ResponseEntity<String> cancelSchedule(@ShellOption("id") long id) {
+        try {
+            return scheduledTransferService.cancel(id)
+                    ? new ResponseEntity<>(SUCCESS, HttpStatus.OK)
+                    : new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (ScheduleNotFoundException e) {
+            return new ResponseEntity<>(SCHEDULE_NOT_FOUND_ERROR_MESSAGE, HttpStatus.NOT_FOUND);
+        }
+    }
 }
@@ -0,0 +1,6 @@
+package com.azki.banking_system.commands;
+
+import com.azki.banking_system.dto.BatchResult;
+
+public record BatchResponse(BatchResult result, String message) {
+}
@@ -1,4 +1,4 @@
 package com.azki.banking_system.commands;
 
-public record GetBalanceResponse(Double balance, String message) {
+public record GetBalanceResponse(Long balance, String message) {
 }
@@ -0,0 +1,97 @@
+package com.azki.banking_system.concurrency;
+
+import com.azki.banking_system.metrics.BankMetrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class AccountLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final Timer lockWait;
+
+    @Autowired
+    public AccountLockManager(@Value("${lock.stripes}") int stripeCount, BankMetrics metrics) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+        lockWait = metrics.lockWait();
+    }
+
+    public Lock lock(String accountNumber) {
+        Lock lock = stripes[indexOf(accountNumber)];
+        acquire(lock);
+        return lock;
+    }
+
+    // Stripes are always taken in ascending index order so two opposite transfers cannot deadlock.
+    public List<Lock> lock(String first, String second) {
+        int firstIndex = indexOf(first);
+        int secondIndex = indexOf(second);
+        if (firstIndex == secondIndex) {
+            return List.of(lock(first));
+        }
+        Lock low = stripes[Math.min(firstIndex, secondIndex)];
+        Lock high = stripes[Math.max(firstIndex, secondIndex)];
+        acquire(low);
+        try {
+            acquire(high);
+        } catch (RuntimeException e) {
+            low.unlock();
+            throw e;
+        }
+        return List.of(low, high);
+    }
+
+    public List<Lock> lockAll(Collection<String> accountNumbers) {
+        BitSet indexes = new BitSet(stripes.length);
+        for (String accountNumber : accountNumbers) {
+            indexes.set(indexOf(accountNumber));
+        }
+        List<Lock> locks = new ArrayList<>(indexes.cardinality());
+        try {
+            for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+                acquire(stripes[i]);
+                locks.add(stripes[i]);
+            }
+        } catch (RuntimeException e) {
+            unlock(locks);
+            throw e;
+        }
+        return locks;
+    }
+
+    public void unlock(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    private void acquire(Lock lock) {
+        long start = System.nanoTime();
+        lock.lock();
+        lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private int indexOf(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,57 @@
+package com.azki.banking_system.concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Bounded multi-producer single-consumer queue: producers claim a slot with one CAS, the consumer never locks.
+public class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> buffer;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    public MpscRingBuffer(int requestedCapacity) {
+        int size = 1;
+        while (size < requestedCapacity) {
+            size <<= 1;
+        }
+        buffer = new AtomicReferenceArray<>(size);
+        capacity = size;
+        mask = size - 1;
+    }
+
+    public boolean offer(E element) {
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        buffer.lazySet((int) claimed & mask, element);
+        return true;
+    }
+
+    // Must only be called from the single consumer thread.
+    public E poll() {
+        long current = head;
+        int index = (int) current & mask;
+        E element = buffer.get(index);
+        if (element == null) {
+            return null;
+        }
+        buffer.lazySet(index, null);
+        head = current + 1;
+        return element;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
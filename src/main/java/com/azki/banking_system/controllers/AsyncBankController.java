@@ -0,0 +1,71 @@
+package com.azki.banking_system.controllers;
+
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.exceptions.ConcurrentUpdateException;
+import com.azki.banking_system.exceptions.InvalidAmountException;
+import com.azki.banking_system.exceptions.MoneyOverflowException;
+import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.exceptions.SameAccountTransferException;
+import com.azki.banking_system.exceptions.TooManyRequestsException;
+import com.azki.banking_system.services.BankService;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Same operations as BankController, but the servlet thread is released while the operation runs.
+@RestController
+@RequestMapping("/bank/async")
+public class AsyncBankController {
+
+    private final BankService bankService;
+
+    @Autowired
+    public AsyncBankController(BankService bankService) {
+        this.bankService = bankService;
+    }
+
+    @PostMapping("/deposit/{account_number}")
+    public CompletableFuture<ResponseEntity<BankAccountDto>> deposit(@PathVariable("account_number") String accountNumber, @RequestBody DepositRequest req) {
+        return bankService.depositAsync(accountNumber, req.amount(), new DepositTransactionStrategy())
+                .handle(this::toResponse);
+    }
+
+    @PostMapping("/withdraw/{account_number}")
+    public CompletableFuture<ResponseEntity<BankAccountDto>> withdraw(@PathVariable("account_number") String accountNumber, @RequestBody WithdrawRequest req) {
+        return bankService.withdrawAsync(accountNumber, req.amount(), new WithdrawTransactionStrategy())
+                .handle(this::toResponse);
+    }
+
+    @PostMapping("/transfer")
+    public CompletableFuture<ResponseEntity<List<BankAccountDto>>> transferTo(@RequestBody TransferRequest req) {
+        return bankService.transferFundAsync(req.origin(), req.dest(), req.amount())
+                .handle(this::toResponse);
+    }
+
+    private <T> ResponseEntity<T> toResponse(T result, Throwable error) {
+        if (error == null) {
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        }
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        if (cause instanceof AccountNotFoundException) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } else if (cause instanceof NotEnoughBalanceException || cause instanceof MoneyOverflowException
+                || cause instanceof InvalidAmountException || cause instanceof SameAccountTransferException) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } else if (cause instanceof ConcurrentUpdateException) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        } else if (cause instanceof TooManyRequestsException) {
+            return new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
+        }
+        cause.printStackTrace();
+        return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
@@ -1,16 +1,57 @@
 package com.azki.banking_system.controllers;
 
+import com.azki.banking_system.dto.AccountFileFormat;
+import com.azki.banking_system.dto.AccountPage;
 import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BankStats;
+import com.azki.banking_system.dto.BatchMode;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.dto.BatchResult;
+import com.azki.banking_system.dto.ImportResult;
+import com.azki.banking_system.dto.ReconciliationReport;
+import com.azki.banking_system.dto.ScheduledTransferDto;
+import com.azki.banking_system.dto.ScheduledTransferPage;
+import com.azki.banking_system.dto.StatementPage;
 import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.exceptions.BatchTooLargeException;
+import com.azki.banking_system.exceptions.ConcurrentUpdateException;
+import com.azki.banking_system.exceptions.HotAccountsUnsupportedException;
+import com.azki.banking_system.exceptions.InvalidAmountException;
+import com.azki.banking_system.exceptions.InvalidImportFileException;
+import com.azki.banking_system.exceptions.InvalidPageTokenException;
+import com.azki.banking_system.exceptions.InvalidScheduleException;
+import com.azki.banking_system.exceptions.MoneyOverflowException;
 import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.exceptions.TooManyRequestsException;
+import com.azki.banking_system.exceptions.ReconciliationRunningException;
+import com.azki.banking_system.exceptions.SameAccountTransferException;
+import com.azki.banking_system.exceptions.ScheduleNotFoundException;
+import com.azki.banking_system.services.AccountExportService;
+import com.azki.banking_system.services.AccountImportService;
 import com.azki.banking_system.services.BankService;
+import com.azki.banking_system.services.ReconciliationService;
+import com.azki.banking_system.services.ScheduledTransferService;
+import com.azki.banking_system.services.StatementService;
 import com.azki.banking_system.transactions.DepositTransactionStrategy;
 import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
@@ -19,10 +60,34 @@ import java.util.concurrent.ExecutionException;
 public class BankController {
 
     private final BankService bankService;
+    private final AccountImportService accountImportService;
+    private final AccountExportService accountExportService;
+    private final StatementService statementService;
+    private final ReconciliationService reconciliationService;
+    private final ScheduledTransferService scheduledTransferService;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+    private final int maxHotCells;
 
     @Autowired
-    public BankController(BankService bankService) {
+    public BankController(BankService bankService,
+                          AccountImportService accountImportService,
+                          AccountExportService accountExportService,
+                          StatementService statementService,
+                          ReconciliationService reconciliationService,
+                          ScheduledTransferService scheduledTransferService,
+                          ObjectMapper objectMapper,
+                          @Value("${accounts.page.max.size}") int maxPageSize,
+                          @Value("${hot.max.cells}") int maxHotCells) {
         this.bankService = bankService;
+        this.accountImportService = accountImportService;
+        this.accountExportService = accountExportService;
+        this.statementService = statementService;
+        this.reconciliationService = reconciliationService;
+        this.scheduledTransferService = scheduledTransferService;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+        this.maxHotCells = maxHotCells;
     }
 
     @PostMapping("/account")
@@ -46,6 +111,34 @@ public class BankController {
         }
     }
 
+    @PutMapping("/account/{account_number}/hot")
+    public ResponseEntity<Void> markHot(@PathVariable("account_number") String accountNumber,
+                                        @RequestParam(value = "cells", defaultValue = "8") int cells) {
+        if (cells < 1 || cells > maxHotCells) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            bankService.markHot(accountNumber, cells);
+            return new ResponseEntity<>(HttpStatus.OK);
+        } catch (AccountNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (HotAccountsUnsupportedException | ConcurrentUpdateException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    @DeleteMapping("/account/{account_number}/hot")
+    public ResponseEntity<Void> unmarkHot(@PathVariable("account_number") String accountNumber) {
+        try {
+            bankService.unmarkHot(accountNumber);
+            return new ResponseEntity<>(HttpStatus.OK);
+        } catch (AccountNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (ConcurrentUpdateException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
     @GetMapping(path = "/account/{account_number}", produces = "application/json")
     public ResponseEntity<BankAccountDto> getByAccountNumber(@PathVariable("account_number") String accountNumber) {
         try {
@@ -67,6 +160,12 @@ public class BankController {
         } catch (ExecutionException | InterruptedException e) {
             if (e.getCause() instanceof AccountNotFoundException) {
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            } else if (e.getCause() instanceof MoneyOverflowException || e.getCause() instanceof InvalidAmountException) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            } else if (e.getCause() instanceof ConcurrentUpdateException) {
+                return new ResponseEntity<>(HttpStatus.CONFLICT);
+            } else if (e.getCause() instanceof TooManyRequestsException) {
+                return new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
             }
             e.printStackTrace();
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -83,6 +182,12 @@ public class BankController {
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
             } else if (e.getCause() instanceof NotEnoughBalanceException) {
                 return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            } else if (e.getCause() instanceof MoneyOverflowException || e.getCause() instanceof InvalidAmountException) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            } else if (e.getCause() instanceof ConcurrentUpdateException) {
+                return new ResponseEntity<>(HttpStatus.CONFLICT);
+            } else if (e.getCause() instanceof TooManyRequestsException) {
+                return new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
             }
             e.printStackTrace();
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -99,16 +204,111 @@ public class BankController {
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
             } else if (e.getCause() instanceof NotEnoughBalanceException) {
                 return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            } else if (e.getCause() instanceof MoneyOverflowException || e.getCause() instanceof InvalidAmountException
+                    || e.getCause() instanceof SameAccountTransferException) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            } else if (e.getCause() instanceof ConcurrentUpdateException) {
+                return new ResponseEntity<>(HttpStatus.CONFLICT);
+            } else if (e.getCause() instanceof TooManyRequestsException) {
+                return new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
             }
             e.printStackTrace();
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Accepts either a JSON array or newline-delimited JSON and reads it incrementally.
+    @PostMapping(path = "/batch", consumes = {"application/json", "application/x-ndjson"})
+    public ResponseEntity<BatchResult> batch(@RequestParam(value = "mode", defaultValue = "BEST_EFFORT") BatchMode mode,
+                                             InputStream body) {
+        try (MappingIterator<BatchOperation> operations = objectMapper.readerFor(BatchOperation.class).readValues(body)) {
+            return new ResponseEntity<>(bankService.processBatch(operations, mode), HttpStatus.OK);
+        } catch (TooManyRequestsException e) {
+            return new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
+        } catch (BatchTooLargeException | JsonProcessingException | RuntimeJsonMappingException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            // MappingIterator wraps a parse error in a plain RuntimeException
+            if (e.getCause() instanceof JsonProcessingException) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            e.printStackTrace();
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (IOException | ExecutionException | InterruptedException e) {
+            e.printStackTrace();
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping(path = "/accounts", produces = "application/json")
+    public ResponseEntity<AccountPage> listAccounts(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                    @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(bankService.listAccounts(after, limit), HttpStatus.OK);
+    }
+
+    // The body is written after the handler returns, straight from the database cursor to the socket.
+    @GetMapping("/accounts/export")
+    public ResponseEntity<StreamingResponseBody> exportAccounts(@RequestParam(value = "format", defaultValue = "NDJSON") AccountFileFormat format) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(format == AccountFileFormat.CSV
+                ? MediaType.parseMediaType("text/csv") : MediaType.parseMediaType("application/x-ndjson"));
+        StreamingResponseBody body = out -> {
+            try {
+                accountExportService.exportAccounts(out, format);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                throw new IOException(e);
+            }
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    @PostMapping(path = "/accounts/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportResult> importAccounts(@RequestParam(value = "format", defaultValue = "CSV") AccountFileFormat format,
+                                                       InputStream body) {
+        try {
+            return new ResponseEntity<>(accountImportService.importAccounts(body, format), HttpStatus.OK);
+        } catch (InvalidImportFileException | IOException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping(path = "/account/{account_number}/statement", produces = "application/json")
+    public ResponseEntity<StatementPage> statement(@PathVariable("account_number") String accountNumber,
+                                                   @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                   @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                   @RequestParam(value = "pageToken", required = false) String pageToken,
+                                                   @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            var page = statementService.statement(accountNumber, from == null ? Instant.EPOCH : from,
+                    to == null ? Instant.now() : to, pageToken, limit);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (AccountNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (InvalidPageTokenException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(path = "/stats", produces = "application/json")
+    public ResponseEntity<List<BankStats>> bankStats() {
+        return new ResponseEntity<>(bankService.bankStats(), HttpStatus.OK);
+    }
+
     @GetMapping("/account/balance/{account_number}")
-    public ResponseEntity<Double> getBalance(@PathVariable("account_number") String accountNumber) {
+    public ResponseEntity<Long> getBalance(@PathVariable("account_number") String accountNumber,
+                                           @RequestParam(value = "at", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
         try {
-            double balance = bankService.getBalance(accountNumber);
+            long balance = at == null ? bankService.getBalance(accountNumber) : statementService.balanceAt(accountNumber, at);
             return new ResponseEntity<>(balance, HttpStatus.OK);
         } catch (AccountNotFoundException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -116,4 +316,56 @@ public class BankController {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    @PostMapping("/reconciliation")
+    public ResponseEntity<ReconciliationReport> reconcile() {
+        try {
+            return new ResponseEntity<>(reconciliationService.reconcile(), HttpStatus.OK);
+        } catch (ReconciliationRunningException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (IOException | SQLException e) {
+            e.printStackTrace();
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PostMapping("/schedules")
+    public ResponseEntity<ScheduledTransferDto> scheduleTransfer(@RequestBody ScheduleTransferRequest req) {
+        try {
+            var schedule = scheduledTransferService.schedule(req.origin(), req.dest(), req.amount(), req.firstRunAt(), req.recurrence());
+            return new ResponseEntity<>(schedule, HttpStatus.CREATED);
+        } catch (AccountNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (InvalidScheduleException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(path = "/schedules", produces = "application/json")
+    public ResponseEntity<ScheduledTransferPage> listSchedules(@RequestParam(value = "account", required = false) String account,
+                                                               @RequestParam(value = "after", defaultValue = "0") long after,
+                                                               @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(scheduledTransferService.listSchedules(account, after, limit), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/schedules/{id}", produces = "application/json")
+    public ResponseEntity<ScheduledTransferDto> getSchedule(@PathVariable("id") long id) {
+        try {
+            return new ResponseEntity<>(scheduledTransferService.getSchedule(id), HttpStatus.OK);
+        } catch (ScheduleNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @DeleteMapping("/schedules/{id}")
+    public ResponseEntity<Void> cancelSchedule(@PathVariable("id") long id) {
+        try {
+            return new ResponseEntity<>(scheduledTransferService.cancel(id) ? HttpStatus.OK : HttpStatus.CONFLICT);
+        } catch (ScheduleNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
 }
@@ -1,4 +1,4 @@
 package com.azki.banking_system.controllers;
 
-public record DepositRequest(double amount) {
+public record DepositRequest(long amount) {
 }
@@ -0,0 +1,9 @@
+package com.azki.banking_system.controllers;
+
+import com.azki.banking_system.dto.Recurrence;
+
+import java.time.Instant;
+
+// firstRunAt defaults to now and recurrence to ONCE.
+public record ScheduleTransferRequest(String origin, String dest, long amount, Instant firstRunAt, Recurrence recurrence) {
+}
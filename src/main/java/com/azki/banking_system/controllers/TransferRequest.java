@@ -1,4 +1,4 @@
 package com.azki.banking_system.controllers;
 
-public record TransferRequest(String origin, String dest, double amount) {
+public record TransferRequest(String origin, String dest, long amount) {
 }
@@ -1,4 +1,4 @@
 package com.azki.banking_system.controllers;
 
-public record WithdrawRequest(double amount) {
+public record WithdrawRequest(long amount) {
 }
@@ -0,0 +1,6 @@
+package com.azki.banking_system.dto;
+
+public enum AccountFileFormat {
+    CSV,
+    NDJSON
+}
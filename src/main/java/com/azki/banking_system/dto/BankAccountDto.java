@@ -1,4 +1,4 @@
 package com.azki.banking_system.dto;
 
-public record BankAccountDto(Long id, String accountNumber, double balance, String accountHolderName, String bankName) {
+public record BankAccountDto(Long id, String accountNumber, long balance, String accountHolderName, String bankName) {
 }
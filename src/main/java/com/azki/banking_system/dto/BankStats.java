@@ -0,0 +1,5 @@
+package com.azki.banking_system.dto;
+
+// inflowToday and outflowToday cover the current UTC day and include transfers between accounts of the same bank.
+public record BankStats(String bankName, long accounts, long totalBalance, long inflowToday, long outflowToday) {
+}
@@ -0,0 +1,14 @@
+package com.azki.banking_system.dto;
+
+import java.time.Instant;
+
+// The balances are the ones the operation left behind, read while the engine still held the accounts, and the
+// sequences number the operation in each account's statement; the destination fields are only set for transfers,
+// and all of them are null for failed operations.
+public record BatchItemResult(int index, boolean succeeded, String message, Long balanceAfter, Long destinationBalanceAfter,
+                              Long sequence, Long destinationSequence, Instant time) {
+
+    public BatchItemResult(int index, boolean succeeded, String message) {
+        this(index, succeeded, message, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,4 @@
+package com.azki.banking_system.dto;
+
+public record BatchOperation(String type, String accountNumber, String destination, long amount) {
+}
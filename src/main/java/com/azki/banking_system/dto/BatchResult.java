@@ -0,0 +1,6 @@
+package com.azki.banking_system.dto;
+
+import java.util.List;
+
+public record BatchResult(int total, int succeeded, int failed, List<BatchItemResult> items) {
+}
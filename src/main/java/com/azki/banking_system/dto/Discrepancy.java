@@ -0,0 +1,5 @@
+package com.azki.banking_system.dto;
+
+// storedBalance is null when the account is not in the table; loggedBalance is what the log nets out to.
+public record Discrepancy(String accountNumber, DiscrepancyKind kind, Long storedBalance, long loggedBalance) {
+}
@@ -0,0 +1,8 @@
+package com.azki.banking_system.dto;
+
+public enum DiscrepancyKind {
+    BALANCE_MISMATCH,
+    NO_OPENING_RECORD,
+    MISSING_ACCOUNT,
+    CLOSED_BUT_PRESENT
+}
@@ -0,0 +1,4 @@
+package com.azki.banking_system.dto;
+
+public record ImportResult(long imported, long rejected, String rejectedRowsFile, long elapsedMillis) {
+}
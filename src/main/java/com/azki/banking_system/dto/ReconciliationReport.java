@@ -0,0 +1,10 @@
+package com.azki.banking_system.dto;
+
+import java.util.List;
+
+// discrepancies lists at most reconcile.max.reported entries; discrepancyCount is the full count. note says how far
+// the comparison can be trusted.
+public record ReconciliationReport(long recordsScanned, long accountsChecked, long accountsMatched,
+                                   long discrepancyCount, List<Discrepancy> discrepancies,
+                                   int passes, long elapsedMillis, String note) {
+}
@@ -0,0 +1,24 @@
+package com.azki.banking_system.dto;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+// Occurrences are counted from the first run in UTC, so a monthly transfer first run on the 31st runs on the last
+// day of shorter months and returns to the 31st afterwards.
+public enum Recurrence {
+    ONCE,
+    DAILY,
+    WEEKLY,
+    MONTHLY;
+
+    // Returns null when there is no such occurrence.
+    public Instant occurrence(Instant firstRunAt, long index) {
+        var first = firstRunAt.atOffset(ZoneOffset.UTC);
+        return switch (this) {
+            case ONCE -> index == 0 ? firstRunAt : null;
+            case DAILY -> first.plusDays(index).toInstant();
+            case WEEKLY -> first.plusWeeks(index).toInstant();
+            case MONTHLY -> first.plusMonths(index).toInstant();
+        };
+    }
+}
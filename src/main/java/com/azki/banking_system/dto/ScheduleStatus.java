@@ -0,0 +1,8 @@
+package com.azki.banking_system.dto;
+
+public enum ScheduleStatus {
+    ACTIVE,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
@@ -0,0 +1,9 @@
+package com.azki.banking_system.dto;
+
+import java.time.Instant;
+
+// nextRunAt is the occurrence that runs next, or the last one once the schedule is no longer active.
+public record ScheduledTransferDto(Long id, String origin, String destination, long amount, Recurrence recurrence,
+                                   Instant firstRunAt, Instant nextRunAt, ScheduleStatus status, long runs,
+                                   long failures, Instant lastRunAt, String lastError) {
+}
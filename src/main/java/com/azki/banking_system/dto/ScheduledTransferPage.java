@@ -0,0 +1,7 @@
+package com.azki.banking_system.dto;
+
+import java.util.List;
+
+// nextAfter is the id to pass as "after" for the following page, or null on the last page.
+public record ScheduledTransferPage(List<ScheduledTransferDto> schedules, Long nextAfter) {
+}
@@ -0,0 +1,6 @@
+package com.azki.banking_system.dto;
+
+import java.time.Instant;
+
+public record StatementEntry(long sequence, Instant time, String transactionType, long amount, Long balanceAfter) {
+}
@@ -0,0 +1,7 @@
+package com.azki.banking_system.dto;
+
+import java.util.List;
+
+// nextPageToken continues the statement after the last entry, or is null when the range is exhausted.
+public record StatementPage(String accountNumber, List<StatementEntry> entries, String nextPageToken) {
+}
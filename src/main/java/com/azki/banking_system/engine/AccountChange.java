@@ -0,0 +1,9 @@
+package com.azki.banking_system.engine;
+
+import com.azki.banking_system.dto.BankAccountDto;
+
+import java.time.Instant;
+
+// An account as a change left it, with the history sequence and time the engine gave the change while holding it.
+public record AccountChange(BankAccountDto account, long sequence, Instant time) {
+}
@@ -0,0 +1,20 @@
+package com.azki.banking_system.engine;
+
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BatchItemResult;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.transactions.TransactionStrategy;
+
+import java.util.List;
+
+public interface AccountEngine {
+    BankAccountDto getAccount(String accountNumber);
+
+    AccountChange process(String accountNumber, long amount, TransactionStrategy strategy);
+
+    List<AccountChange> transfer(String origin, String destination, long amount);
+
+    List<BatchItemResult> processBatch(List<BatchOperation> operations, int firstIndex, boolean atomic);
+
+    void evict(String accountNumber);
+}
@@ -0,0 +1,144 @@
+package com.azki.banking_system.engine;
+
+import com.azki.banking_system.dto.BatchItemResult;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.exceptions.MoneyOverflowException;
+import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.transactions.Account;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.azki.banking_system.utils.Constants.*;
+
+// Applies a chunk of operations to already locked, in-memory accounts; an atomic chunk restores every balance on failure.
+class BatchApplication {
+
+    private final List<BatchOperation> operations;
+    private final int firstIndex;
+    private final Map<String, ? extends Account> accounts;
+    private final boolean atomic;
+    private final List<BatchItemResult> results = new ArrayList<>();
+    private boolean failed;
+
+    BatchApplication(List<BatchOperation> operations, int firstIndex, Map<String, ? extends Account> accounts, boolean atomic) {
+        this.operations = operations;
+        this.firstIndex = firstIndex;
+        this.accounts = accounts;
+        this.atomic = atomic;
+    }
+
+    static Set<String> accountNumbers(List<BatchOperation> operations) {
+        Set<String> accountNumbers = new HashSet<>();
+        for (BatchOperation operation : operations) {
+            if (operation.accountNumber() != null) {
+                accountNumbers.add(operation.accountNumber());
+            }
+            if (operation.destination() != null) {
+                accountNumbers.add(operation.destination());
+            }
+        }
+        return accountNumbers;
+    }
+
+    // Checked before any account is touched, the same way a scheduled transfer is: a negative amount would turn a
+    // deposit into a withdrawal without the balance check, and a transfer to itself would only add a history row.
+    static String invalid(BatchOperation operation) {
+        if (operation.amount() <= 0) {
+            return INVALID_AMOUNT_ERROR_MESSAGE;
+        }
+        if (TRANSFER.equals(operation.type()) && operation.accountNumber() != null
+                && operation.accountNumber().equals(operation.destination())) {
+            return SAME_ACCOUNT_TRANSFER_ERROR_MESSAGE;
+        }
+        return null;
+    }
+
+    void apply() {
+        Map<Account, Long> before = new IdentityHashMap<>();
+        for (Account account : accounts.values()) {
+            before.put(account, account.getBalance());
+        }
+
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            String error = applyOne(operation);
+            failed |= error != null;
+            results.add(error == null ? succeeded(firstIndex + i, operation) : new BatchItemResult(firstIndex + i, false, error));
+        }
+
+        if (atomic && failed) {
+            before.forEach((account, balance) -> restore(account, balance));
+            results.replaceAll(result -> result.succeeded()
+                    ? new BatchItemResult(result.index(), false, BATCH_ROLLED_BACK_MESSAGE)
+                    : result);
+        }
+    }
+
+    List<BatchItemResult> results() {
+        return results;
+    }
+
+    // A rolled back chunk leaves gaps in the sequences it took, which statements do not mind.
+    private BatchItemResult succeeded(int index, BatchOperation operation) {
+        Account account = accounts.get(operation.accountNumber());
+        if (!TRANSFER.equals(operation.type())) {
+            return new BatchItemResult(index, true, SUCCESS, account.getBalance(), null,
+                    account.nextSequence(), null, Instant.now());
+        }
+        Account destination = accounts.get(operation.destination());
+        return new BatchItemResult(index, true, SUCCESS, account.getBalance(), destination.getBalance(),
+                account.nextSequence(), destination.nextSequence(), Instant.now());
+    }
+
+    private String applyOne(BatchOperation operation) {
+        String invalid = invalid(operation);
+        if (invalid != null) {
+            return invalid;
+        }
+        Account account = accounts.get(operation.accountNumber());
+        if (account == null) {
+            return ACCOUNT_NOT_FOUND_ERROR_MESSAGE;
+        }
+        try {
+            if (DEPOSIT.equals(operation.type())) {
+                account.deposit(operation.amount());
+            } else if (WITHDRAW.equals(operation.type())) {
+                account.withdraw(operation.amount());
+            } else if (TRANSFER.equals(operation.type())) {
+                Account destination = accounts.get(operation.destination());
+                if (destination == null) {
+                    return ACCOUNT_NOT_FOUND_ERROR_MESSAGE;
+                }
+                account.withdraw(operation.amount());
+                try {
+                    destination.deposit(operation.amount());
+                } catch (MoneyOverflowException e) {
+                    account.deposit(operation.amount());
+                    throw e;
+                }
+            } else {
+                return UNKNOWN_OPERATION_ERROR_MESSAGE;
+            }
+        } catch (NotEnoughBalanceException e) {
+            return NOT_ENOUGH_BALANCE_ERROR_MESSAGE;
+        } catch (MoneyOverflowException e) {
+            return AMOUNT_OVERFLOW_ERROR_MESSAGE;
+        }
+        return null;
+    }
+
+    private static void restore(Account account, long balance) {
+        long delta = balance - account.getBalance();
+        if (delta > 0) {
+            account.deposit(delta);
+        } else if (delta < 0) {
+            account.withdraw(-delta);
+        }
+    }
+}
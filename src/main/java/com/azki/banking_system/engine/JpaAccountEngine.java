@@ -0,0 +1,171 @@
+package com.azki.banking_system.engine;
+
+import com.azki.banking_system.cache.AccountCache;
+import com.azki.banking_system.concurrency.AccountLockManager;
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BatchItemResult;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.repositories.AccountLookup;
+import com.azki.banking_system.repositories.BankAccountRepository;
+import com.azki.banking_system.transactions.TransactionStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+import static com.azki.banking_system.utils.Constants.ACCOUNT_NOT_FOUND_ERROR_MESSAGE;
+
+@Component
+@ConditionalOnProperty(name = "bank.engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaAccountEngine implements AccountEngine {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final AccountLockManager lockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountCache accountCache;
+    private final AccountLookup accountLookup;
+
+    @Autowired
+    public JpaAccountEngine(BankAccountRepository bankAccountRepository, AccountLockManager lockManager,
+                            TransactionTemplate transactionTemplate, AccountCache accountCache,
+                            AccountLookup accountLookup) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.lockManager = lockManager;
+        this.transactionTemplate = transactionTemplate;
+        this.accountCache = accountCache;
+        this.accountLookup = accountLookup;
+    }
+
+    // Cache entries are only written while holding the account lock, after the database agrees with them,
+    // so a miss that loads the row cannot overwrite a newer snapshot put by a concurrent mutation.
+    @Override
+    public BankAccountDto getAccount(String accountNumber) {
+        var cached = accountCache.get(accountNumber);
+        if (cached != null) {
+            return cached;
+        }
+        Lock lock = lockManager.lock(accountNumber);
+        try {
+            var accountEntity = accountLookup.find(accountNumber)
+                    .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+            var account = toAccountDto(accountEntity);
+            accountCache.put(account);
+            return account;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public AccountChange process(String accountNumber, long amount, TransactionStrategy strategy) {
+        Lock lock = lockManager.lock(accountNumber);
+        try {
+            var change = transactionTemplate.execute(status -> {
+                var accountEntity = accountLookup.find(accountNumber)
+                        .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+
+                strategy.processTransaction(accountEntity, amount);
+                long sequence = accountEntity.nextSequence();
+                bankAccountRepository.save(accountEntity);
+                return new AccountChange(toAccountDto(accountEntity), sequence, Instant.now());
+            });
+            accountCache.put(change.account());
+            return change;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<AccountChange> transfer(String origin, String destination, long amount) {
+        List<Lock> locks = lockManager.lock(origin, destination);
+        try {
+            var changes = transactionTemplate.execute(status -> {
+                var originEntity = accountLookup.find(origin)
+                        .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+
+                var destEntity = accountLookup.find(destination)
+                        .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+
+                originEntity.withdraw(amount);
+                destEntity.deposit(amount);
+                long originSequence = originEntity.nextSequence();
+                long destSequence = destEntity.nextSequence();
+
+                bankAccountRepository.save(originEntity);
+                bankAccountRepository.save(destEntity);
+
+                Instant time = Instant.now();
+                return List.of(new AccountChange(toAccountDto(originEntity), originSequence, time),
+                        new AccountChange(toAccountDto(destEntity), destSequence, time));
+            });
+            changes.forEach(change -> accountCache.put(change.account()));
+            return changes;
+        } finally {
+            lockManager.unlock(locks);
+        }
+    }
+
+    @Override
+    public List<BatchItemResult> processBatch(List<BatchOperation> operations, int firstIndex, boolean atomic) {
+        Set<String> accountNumbers = BatchApplication.accountNumbers(operations);
+
+        List<Lock> locks = lockManager.lockAll(accountNumbers);
+        try {
+            var results = transactionTemplate.execute(status -> {
+                Map<String, BankAccountEntity> accounts = new HashMap<>();
+                for (var accountEntity : bankAccountRepository.findByAccountNumberIn(accountNumbers)) {
+                    accounts.put(accountEntity.getAccountNumber(), accountEntity);
+                }
+
+                var batch = new BatchApplication(operations, firstIndex, accounts, atomic);
+                batch.apply();
+                bankAccountRepository.saveAll(accounts.values());
+                return batch.results();
+            });
+            accountNumbers.forEach(accountCache::invalidate);
+            return results;
+        } finally {
+            lockManager.unlock(locks);
+        }
+    }
+
+    @Override
+    public void evict(String accountNumber) {
+        accountLookup.forget(accountNumber);
+        accountCache.invalidate(accountNumber);
+        // A reader may reload the row before the delete commits, so drop it again once the transaction ends.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    Lock lock = lockManager.lock(accountNumber);
+                    try {
+                        accountCache.invalidate(accountNumber);
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            });
+        }
+    }
+
+    private BankAccountDto toAccountDto(BankAccountEntity accountEntity) {
+        return new BankAccountDto(accountEntity.getId(),
+                accountEntity.getAccountNumber(),
+                accountEntity.getBalance(),
+                accountEntity.getAccountHolderName(),
+                accountEntity.getBankName());
+    }
+}
@@ -0,0 +1,111 @@
+package com.azki.banking_system.engine;
+
+import com.azki.banking_system.concurrency.AccountLockManager;
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BatchItemResult;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.ledger.InMemoryLedger;
+import com.azki.banking_system.ledger.LedgerAccount;
+import com.azki.banking_system.transactions.TransactionStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+@Component
+@ConditionalOnProperty(name = "bank.engine", havingValue = "ledger")
+public class LedgerAccountEngine implements AccountEngine {
+
+    private final InMemoryLedger ledger;
+    private final AccountLockManager lockManager;
+
+    @Autowired
+    public LedgerAccountEngine(InMemoryLedger ledger, AccountLockManager lockManager) {
+        this.ledger = ledger;
+        this.lockManager = lockManager;
+    }
+
+    @Override
+    public BankAccountDto getAccount(String accountNumber) {
+        return toAccountDto(ledger.get(accountNumber));
+    }
+
+    @Override
+    public AccountChange process(String accountNumber, long amount, TransactionStrategy strategy) {
+        Lock lock = lockManager.lock(accountNumber);
+        try {
+            LedgerAccount account = ledger.get(accountNumber);
+            ledger.apply(List.of(account), () -> strategy.processTransaction(account, amount));
+            return new AccountChange(toAccountDto(account), account.nextSequence(), Instant.now());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<AccountChange> transfer(String origin, String destination, long amount) {
+        List<Lock> locks = lockManager.lock(origin, destination);
+        try {
+            LedgerAccount originAccount = ledger.get(origin);
+            LedgerAccount destAccount = ledger.get(destination);
+            ledger.apply(List.of(originAccount, destAccount), () -> {
+                originAccount.withdraw(amount);
+                destAccount.deposit(amount);
+            });
+            Instant time = Instant.now();
+            return List.of(new AccountChange(toAccountDto(originAccount), originAccount.nextSequence(), time),
+                    new AccountChange(toAccountDto(destAccount), destAccount.nextSequence(), time));
+        } finally {
+            lockManager.unlock(locks);
+        }
+    }
+
+    @Override
+    public List<BatchItemResult> processBatch(List<BatchOperation> operations, int firstIndex, boolean atomic) {
+        Set<String> accountNumbers = BatchApplication.accountNumbers(operations);
+
+        List<Lock> locks = lockManager.lockAll(accountNumbers);
+        try {
+            Map<String, LedgerAccount> accounts = new HashMap<>();
+            for (String accountNumber : accountNumbers) {
+                try {
+                    accounts.put(accountNumber, ledger.get(accountNumber));
+                } catch (AccountNotFoundException e) {
+                    // reported per operation by the batch
+                }
+            }
+
+            var batch = new BatchApplication(operations, firstIndex, accounts, atomic);
+            ledger.apply(new ArrayList<>(accounts.values()), batch::apply);
+            return batch.results();
+        } finally {
+            lockManager.unlock(locks);
+        }
+    }
+
+    @Override
+    public void evict(String accountNumber) {
+        Lock lock = lockManager.lock(accountNumber);
+        try {
+            ledger.evict(accountNumber);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private BankAccountDto toAccountDto(LedgerAccount account) {
+        return new BankAccountDto(account.getId(),
+                account.getAccountNumber(),
+                account.getBalance(),
+                account.getAccountHolderName(),
+                account.getBankName());
+    }
+}
@@ -0,0 +1,212 @@
+package com.azki.banking_system.engine;
+
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BatchItemResult;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.exceptions.ConcurrentUpdateException;
+import com.azki.banking_system.exceptions.MoneyOverflowException;
+import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.repositories.AccountLookup;
+import com.azki.banking_system.repositories.BankAccountRepository;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import com.azki.banking_system.transactions.TransactionStrategy;
+import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.azki.banking_system.utils.Constants.*;
+
+// Takes no JVM locks, so several instances can share one database. Read-modify-write paths rely on the
+// entity version and are retried with capped, jittered exponential backoff when another writer wins.
+// With atomic updates enabled, plain deposits, withdrawals and transfers are single guarded UPDATE statements
+// instead, which never conflict and only wait on the database row lock.
+@Component
+@ConditionalOnProperty(name = "bank.engine", havingValue = "optimistic")
+public class OptimisticAccountEngine implements AccountEngine {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountLookup accountLookup;
+    private final boolean atomicUpdates;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Counter conflicts;
+    private final Counter exhausted;
+
+    @Autowired
+    public OptimisticAccountEngine(BankAccountRepository bankAccountRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   AccountLookup accountLookup,
+                                   @Value("${optimistic.atomic.updates}") boolean atomicUpdates,
+                                   @Value("${optimistic.max.attempts}") int maxAttempts,
+                                   @Value("${optimistic.backoff.initial.micros}") long initialBackoffMicros,
+                                   @Value("${optimistic.backoff.max.micros}") long maxBackoffMicros,
+                                   BankMetrics metrics) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.accountLookup = accountLookup;
+        this.atomicUpdates = atomicUpdates;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = TimeUnit.MICROSECONDS.toNanos(initialBackoffMicros);
+        this.maxBackoffNanos = TimeUnit.MICROSECONDS.toNanos(maxBackoffMicros);
+        this.conflicts = metrics.counter("bank.optimistic.conflicts", "outcome", "retried");
+        this.exhausted = metrics.counter("bank.optimistic.conflicts", "outcome", "exhausted");
+    }
+
+    @Override
+    public BankAccountDto getAccount(String accountNumber) {
+        return toAccountDto(load(accountNumber));
+    }
+
+    @Override
+    public AccountChange process(String accountNumber, long amount, TransactionStrategy strategy) {
+        if (atomicUpdates && strategy instanceof DepositTransactionStrategy) {
+            return transactionTemplate.execute(status -> {
+                depositAtomically(accountNumber, amount);
+                return updated(load(accountNumber), Instant.now());
+            });
+        }
+        if (atomicUpdates && strategy instanceof WithdrawTransactionStrategy) {
+            return transactionTemplate.execute(status -> {
+                withdrawAtomically(accountNumber, amount);
+                return updated(load(accountNumber), Instant.now());
+            });
+        }
+        return withRetries(status -> {
+            var accountEntity = load(accountNumber);
+
+            strategy.processTransaction(accountEntity, amount);
+            long sequence = accountEntity.nextSequence();
+            bankAccountRepository.save(accountEntity);
+            return new AccountChange(toAccountDto(accountEntity), sequence, Instant.now());
+        });
+    }
+
+    @Override
+    public List<AccountChange> transfer(String origin, String destination, long amount) {
+        if (atomicUpdates) {
+            // Rows are updated in account number order so two opposite transfers cannot deadlock in the database.
+            return transactionTemplate.execute(status -> {
+                if (origin.compareTo(destination) <= 0) {
+                    withdrawAtomically(origin, amount);
+                    depositAtomically(destination, amount);
+                } else {
+                    depositAtomically(destination, amount);
+                    withdrawAtomically(origin, amount);
+                }
+                Instant time = Instant.now();
+                return List.of(updated(load(origin), time), updated(load(destination), time));
+            });
+        }
+        return withRetries(status -> {
+            var originEntity = load(origin);
+            var destEntity = load(destination);
+
+            originEntity.withdraw(amount);
+            destEntity.deposit(amount);
+            long originSequence = originEntity.nextSequence();
+            long destSequence = destEntity.nextSequence();
+
+            bankAccountRepository.save(originEntity);
+            bankAccountRepository.save(destEntity);
+
+            Instant time = Instant.now();
+            return List.of(new AccountChange(toAccountDto(originEntity), originSequence, time),
+                    new AccountChange(toAccountDto(destEntity), destSequence, time));
+        });
+    }
+
+    @Override
+    public List<BatchItemResult> processBatch(List<BatchOperation> operations, int firstIndex, boolean atomic) {
+        Set<String> accountNumbers = BatchApplication.accountNumbers(operations);
+
+        return withRetries(status -> {
+            Map<String, BankAccountEntity> accounts = new HashMap<>();
+            for (var accountEntity : bankAccountRepository.findByAccountNumberIn(accountNumbers)) {
+                accounts.put(accountEntity.getAccountNumber(), accountEntity);
+            }
+
+            var batch = new BatchApplication(operations, firstIndex, accounts, atomic);
+            batch.apply();
+            bankAccountRepository.saveAll(accounts.values());
+            return batch.results();
+        });
+    }
+
+    @Override
+    public void evict(String accountNumber) {
+        accountLookup.forget(accountNumber);
+    }
+
+    private <T> T withRetries(TransactionCallback<T> work) {
+        long backoff = initialBackoffNanos;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(work);
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw new ConcurrentUpdateException(CONCURRENT_UPDATE_ERROR_MESSAGE);
+                }
+                conflicts.increment();
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(backoff + 1));
+                backoff = Math.min(backoff * 2, maxBackoffNanos);
+            }
+        }
+    }
+
+    private void depositAtomically(String accountNumber, long amount) {
+        if (bankAccountRepository.depositAtomically(accountNumber, amount, Long.MAX_VALUE - amount) == 0) {
+            throw guardFailure(accountNumber, new MoneyOverflowException(AMOUNT_OVERFLOW_ERROR_MESSAGE));
+        }
+    }
+
+    private void withdrawAtomically(String accountNumber, long amount) {
+        if (bankAccountRepository.withdrawAtomically(accountNumber, amount) == 0) {
+            throw guardFailure(accountNumber, new NotEnoughBalanceException(NOT_ENOUGH_BALANCE_ERROR_MESSAGE));
+        }
+    }
+
+    private RuntimeException guardFailure(String accountNumber, RuntimeException guardViolation) {
+        return accountLookup.find(accountNumber).isPresent()
+                ? guardViolation
+                : new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE);
+    }
+
+    // The guarded UPDATE already advanced the sequence; the row lock it took is held until the transaction ends.
+    private AccountChange updated(BankAccountEntity accountEntity, Instant time) {
+        return new AccountChange(toAccountDto(accountEntity), accountEntity.getHistorySequence(), time);
+    }
+
+    private BankAccountEntity load(String accountNumber) {
+        return accountLookup.find(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+    }
+
+    private BankAccountDto toAccountDto(BankAccountEntity accountEntity) {
+        return new BankAccountDto(accountEntity.getId(),
+                accountEntity.getAccountNumber(),
+                accountEntity.getBalance(),
+                accountEntity.getAccountHolderName(),
+                accountEntity.getBankName());
+    }
+}
@@ -0,0 +1,136 @@
+package com.azki.banking_system.engine;
+
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BatchItemResult;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.exceptions.ConcurrentUpdateException;
+import com.azki.banking_system.repositories.AccountLookup;
+import com.azki.banking_system.repositories.BankAccountRepository;
+import com.azki.banking_system.transactions.TransactionStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static com.azki.banking_system.utils.Constants.ACCOUNT_NOT_FOUND_ERROR_MESSAGE;
+import static com.azki.banking_system.utils.Constants.CONCURRENT_UPDATE_ERROR_MESSAGE;
+
+// Cluster-safe engine: every mutation takes SELECT ... FOR UPDATE row locks in its own transaction, so the
+// database serializes writers from any number of instances. Rows are always locked in ascending account
+// number order, which keeps opposite transfers and overlapping batches from deadlocking each other.
+@Component
+@ConditionalOnProperty(name = "bank.engine", havingValue = "pessimistic")
+public class PessimisticAccountEngine implements AccountEngine {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountLookup accountLookup;
+
+    @Autowired
+    public PessimisticAccountEngine(BankAccountRepository bankAccountRepository, TransactionTemplate transactionTemplate,
+                                    AccountLookup accountLookup) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.accountLookup = accountLookup;
+    }
+
+    @Override
+    public BankAccountDto getAccount(String accountNumber) {
+        var accountEntity = accountLookup.find(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+        return toAccountDto(accountEntity);
+    }
+
+    @Override
+    public AccountChange process(String accountNumber, long amount, TransactionStrategy strategy) {
+        return execute(status -> {
+            var accountEntity = lockRow(accountNumber);
+
+            strategy.processTransaction(accountEntity, amount);
+            long sequence = accountEntity.nextSequence();
+            bankAccountRepository.save(accountEntity);
+            return new AccountChange(toAccountDto(accountEntity), sequence, Instant.now());
+        });
+    }
+
+    @Override
+    public List<AccountChange> transfer(String origin, String destination, long amount) {
+        return execute(status -> {
+            BankAccountEntity originEntity;
+            BankAccountEntity destEntity;
+            if (origin.compareTo(destination) <= 0) {
+                originEntity = lockRow(origin);
+                destEntity = lockRow(destination);
+            } else {
+                destEntity = lockRow(destination);
+                originEntity = lockRow(origin);
+            }
+
+            originEntity.withdraw(amount);
+            destEntity.deposit(amount);
+            long originSequence = originEntity.nextSequence();
+            long destSequence = destEntity.nextSequence();
+
+            bankAccountRepository.save(originEntity);
+            bankAccountRepository.save(destEntity);
+
+            Instant time = Instant.now();
+            return List.of(new AccountChange(toAccountDto(originEntity), originSequence, time),
+                    new AccountChange(toAccountDto(destEntity), destSequence, time));
+        });
+    }
+
+    @Override
+    public List<BatchItemResult> processBatch(List<BatchOperation> operations, int firstIndex, boolean atomic) {
+        var accountNumbers = new TreeSet<>(BatchApplication.accountNumbers(operations));
+
+        return execute(status -> {
+            Map<String, BankAccountEntity> accounts = new HashMap<>();
+            for (String accountNumber : accountNumbers) {
+                accountLookup.findForUpdate(accountNumber)
+                        .ifPresent(accountEntity -> accounts.put(accountNumber, accountEntity));
+            }
+
+            var batch = new BatchApplication(operations, firstIndex, accounts, atomic);
+            batch.apply();
+            bankAccountRepository.saveAll(accounts.values());
+            return batch.results();
+        });
+    }
+
+    @Override
+    public void evict(String accountNumber) {
+        accountLookup.forget(accountNumber);
+    }
+
+    private <T> T execute(TransactionCallback<T> work) {
+        try {
+            return transactionTemplate.execute(work);
+        } catch (PessimisticLockingFailureException e) {
+            throw new ConcurrentUpdateException(CONCURRENT_UPDATE_ERROR_MESSAGE);
+        }
+    }
+
+    private BankAccountEntity lockRow(String accountNumber) {
+        return accountLookup.findForUpdate(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+    }
+
+    private BankAccountDto toAccountDto(BankAccountEntity accountEntity) {
+        return new BankAccountDto(accountEntity.getId(),
+                accountEntity.getAccountNumber(),
+                accountEntity.getBalance(),
+                accountEntity.getAccountHolderName(),
+                accountEntity.getBankName());
+    }
+}
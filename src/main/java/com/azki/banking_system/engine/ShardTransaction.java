@@ -0,0 +1,395 @@
+package com.azki.banking_system.engine;
+
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BatchItemResult;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.exceptions.MoneyOverflowException;
+import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.exceptions.TransferIncompleteException;
+import com.azki.banking_system.ledger.InMemoryLedger;
+import com.azki.banking_system.ledger.LedgerAccount;
+import com.azki.banking_system.ledger.TransferIntent;
+import com.azki.banking_system.sharding.AccountShard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static com.azki.banking_system.utils.Constants.*;
+
+// Applies operations whose accounts live on different shards as one all-or-nothing transaction. Each shard runs its
+// own share of the operations in order, keeps only the net debits and journals them, together with the credits it
+// still owes, as a prepared part. Once every part is prepared the credits are paid; if a part failed, the debits
+// already taken are refunded. Recovery finishes either path from the journal after a crash.
+class ShardTransaction {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardTransaction.class);
+    private static final int CREDIT_RETRIES = 3;
+    private static final long CREDIT_RETRY_BACKOFF_MILLIS = 10;
+
+    // destination marks the credit side of a transfer.
+    private record Step(int index, String accountNumber, boolean deposit, boolean destination, long amount) {
+    }
+
+    private record Leg(LedgerAccount account, long amount) {
+    }
+
+    private record Prepared(int part, AccountShard shard, List<Leg> debits, List<Leg> credits, List<BankAccountDto> accounts) {
+    }
+
+    // What each side of an operation got on its shard; the two sides of a transfer are filled in by different shards.
+    private static final class Stamp {
+        private Long balance;
+        private Long destinationBalance;
+        private Long sequence;
+        private Long destinationSequence;
+        private Instant time;
+
+        private synchronized void record(boolean destination, long balance, long sequence, Instant time) {
+            if (destination) {
+                this.destinationBalance = balance;
+                this.destinationSequence = sequence;
+            } else {
+                this.balance = balance;
+                this.sequence = sequence;
+            }
+            if (this.time == null || time.isAfter(this.time)) {
+                this.time = time;
+            }
+        }
+    }
+
+    // Carries the index of the operation a shard could not apply.
+    private static class StepFailure extends RuntimeException {
+        private final int index;
+
+        StepFailure(int index, RuntimeException cause) {
+            super(cause);
+            this.index = index;
+        }
+    }
+
+    // The failure, if any, of the operation at failedIndex; if rolledBack, every other operation was rolled back with
+    // it, otherwise the transaction is stuck half paid and every operation reports the failure. The balances,
+    // sequences and times are the ones each operation got within the transaction, by operation index.
+    record Outcome(RuntimeException failure, int failedIndex, String message, boolean rolledBack,
+                   Map<String, BankAccountDto> accounts, Map<Integer, Stamp> stamps) {
+
+        boolean succeeded() {
+            return message == null;
+        }
+
+        BatchItemResult result(int index) {
+            if (succeeded()) {
+                Stamp stamp = stamps.get(index);
+                return new BatchItemResult(index, true, SUCCESS, stamp.balance, stamp.destinationBalance,
+                        stamp.sequence, stamp.destinationSequence, stamp.time);
+            }
+            return new BatchItemResult(index, false, rolledBack && index != failedIndex ? BATCH_ROLLED_BACK_MESSAGE : message);
+        }
+    }
+
+    private final InMemoryLedger ledger;
+    private final Function<String, AccountShard> shardFor;
+    private final long id;
+    private final Map<String, BankAccountDto> accounts = new HashMap<>();
+    private final Map<Integer, Stamp> stamps = new ConcurrentHashMap<>();
+
+    ShardTransaction(InMemoryLedger ledger, Function<String, AccountShard> shardFor) {
+        this.ledger = ledger;
+        this.shardFor = shardFor;
+        this.id = ledger.nextTransferId();
+    }
+
+    Outcome apply(List<BatchOperation> operations, int firstIndex) {
+        Map<AccountShard, List<Step>> steps = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            int index = firstIndex + i;
+            if (operation.accountNumber() == null || TRANSFER.equals(operation.type()) && operation.destination() == null) {
+                return failed(new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE), index, ACCOUNT_NOT_FOUND_ERROR_MESSAGE);
+            }
+            String invalid = BatchApplication.invalid(operation);
+            if (invalid != null) {
+                return failed(new IllegalArgumentException(invalid), index, invalid);
+            }
+            if (DEPOSIT.equals(operation.type())) {
+                add(steps, new Step(index, operation.accountNumber(), true, false, operation.amount()));
+            } else if (WITHDRAW.equals(operation.type())) {
+                add(steps, new Step(index, operation.accountNumber(), false, false, operation.amount()));
+            } else if (TRANSFER.equals(operation.type())) {
+                add(steps, new Step(index, operation.accountNumber(), false, false, operation.amount()));
+                add(steps, new Step(index, operation.destination(), true, true, operation.amount()));
+            } else {
+                return failed(new IllegalArgumentException(UNKNOWN_OPERATION_ERROR_MESSAGE), index, UNKNOWN_OPERATION_ERROR_MESSAGE);
+            }
+        }
+
+        int parts = steps.size();
+        List<CompletableFuture<Prepared>> preparing = new ArrayList<>(parts);
+        int part = 0;
+        for (Map.Entry<AccountShard, List<Step>> entry : steps.entrySet()) {
+            preparing.add(prepare(part++, parts, entry.getKey(), entry.getValue()));
+        }
+
+        List<Prepared> prepared = new ArrayList<>(parts);
+        List<List<Step>> stepsByPart = new ArrayList<>(steps.values());
+        StepFailure failure = null;
+        for (int i = 0; i < parts; i++) {
+            try {
+                prepared.add(preparing.get(i).join());
+            } catch (CompletionException e) {
+                // a part that failed as a whole, such as on a journal write, is charged to its first operation
+                StepFailure stepFailure = e.getCause() instanceof StepFailure cause ? cause
+                        : new StepFailure(stepsByPart.get(i).get(0).index(), (RuntimeException) e.getCause());
+                if (failure == null || stepFailure.index < failure.index) {
+                    failure = stepFailure;
+                }
+            }
+        }
+        if (failure != null) {
+            refund(prepared);
+            return failed((RuntimeException) failure.getCause(), failure.index);
+        }
+
+        return credit(prepared, steps);
+    }
+
+    private CompletableFuture<Prepared> prepare(int part, int parts, AccountShard shard, List<Step> steps) {
+        Set<String> accountNumbers = new LinkedHashSet<>();
+        steps.forEach(step -> accountNumbers.add(step.accountNumber()));
+        return shard.submit(() -> resolve(accountNumbers), resolved -> {
+            Map<String, LedgerAccount> byNumber = new HashMap<>();
+            Map<LedgerAccount, Long> before = new LinkedHashMap<>();
+            for (LedgerAccount account : resolved) {
+                byNumber.put(account.getAccountNumber(), account);
+                before.put(account, account.getBalance());
+            }
+            for (Step step : steps) {
+                LedgerAccount account = byNumber.get(step.accountNumber());
+                try {
+                    if (account == null) {
+                        throw new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE);
+                    } else if (step.deposit()) {
+                        account.deposit(step.amount());
+                    } else {
+                        account.withdraw(step.amount());
+                    }
+                } catch (RuntimeException e) {
+                    before.forEach(ShardTransaction::restore);
+                    throw new StepFailure(step.index(), e);
+                }
+                stamps.computeIfAbsent(step.index(), index -> new Stamp())
+                        .record(step.destination(), account.getBalance(), account.nextSequence(), Instant.now());
+            }
+
+            // credits are held back until every part has prepared, so no one can spend money that may be refunded
+            List<Leg> debits = new ArrayList<>();
+            List<Leg> credits = new ArrayList<>();
+            before.forEach((account, balance) -> {
+                long delta = account.getBalance() - balance;
+                if (delta > 0) {
+                    account.withdraw(delta);
+                    credits.add(new Leg(account, delta));
+                } else if (delta < 0) {
+                    debits.add(new Leg(account, -delta));
+                }
+            });
+            return new Prepared(part, shard, debits, credits, resolved.stream().map(ShardTransaction::toAccountDto).toList());
+        }, result -> TransferIntent.prepared(id, part, parts, legs(result.debits()), legs(result.credits())));
+    }
+
+    private Outcome credit(List<Prepared> prepared, Map<AccountShard, List<Step>> steps) {
+        prepared.forEach(part -> part.accounts().forEach(this::remember));
+
+        Map<Prepared, CompletableFuture<List<BankAccountDto>>> crediting = new LinkedHashMap<>();
+        for (Prepared part : prepared) {
+            if (!part.credits().isEmpty()) {
+                crediting.put(part, pay(part));
+            }
+        }
+
+        Map<Prepared, RuntimeException> unpaid = new LinkedHashMap<>();
+        for (Map.Entry<Prepared, CompletableFuture<List<BankAccountDto>>> entry : crediting.entrySet()) {
+            try {
+                entry.getValue().join().forEach(this::remember);
+            } catch (CompletionException e) {
+                unpaid.put(entry.getKey(), (RuntimeException) e.getCause());
+            }
+        }
+        if (unpaid.isEmpty()) {
+            return settled();
+        }
+        if (unpaid.size() == crediting.size()) {
+            // nothing has landed yet, so the whole transaction can still be undone
+            Map.Entry<Prepared, RuntimeException> first = unpaid.entrySet().iterator().next();
+            refund(prepared);
+            return failed(first.getValue(), firstCreditIndex(first.getKey(), steps.get(first.getKey().shard())));
+        }
+
+        // credits that landed may already be spent, so the others can only be paid, never undone
+        unpaid.keySet().removeIf(this::retryCredit);
+        if (unpaid.isEmpty()) {
+            return settled();
+        }
+        unpaid.forEach((part, failure) -> log.error(
+                "Transfer {} is taken but part {} could not be credited; it stays pending and is paid on the next start",
+                id, part.part(), failure));
+        return new Outcome(new TransferIncompleteException(TRANSFER_INCOMPLETE_ERROR_MESSAGE), -1,
+                TRANSFER_INCOMPLETE_ERROR_MESSAGE, false, accounts, Map.of());
+    }
+
+    private Outcome settled() {
+        ledger.settle(id);
+        return new Outcome(null, -1, null, false, accounts, stamps);
+    }
+
+    private CompletableFuture<List<BankAccountDto>> pay(Prepared part) {
+        return deposit(part.shard(), part.credits(), TransferIntent.credited(id, part.part()));
+    }
+
+    // A failed credit left its shard as it was, so it can simply be sent again.
+    private boolean retryCredit(Prepared part) {
+        long backoff = CREDIT_RETRY_BACKOFF_MILLIS;
+        for (int retry = 1; retry <= CREDIT_RETRIES; retry++) {
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            backoff *= 2;
+            try {
+                pay(part).join().forEach(this::remember);
+                return true;
+            } catch (CompletionException e) {
+                log.warn("Transfer {} could not credit part {} on retry {}", id, part.part(), retry, e.getCause());
+            }
+        }
+        return false;
+    }
+
+    private void refund(List<Prepared> prepared) {
+        Map<Prepared, CompletableFuture<List<BankAccountDto>>> refunding = new LinkedHashMap<>();
+        for (Prepared part : prepared) {
+            if (!part.debits().isEmpty()) {
+                refunding.put(part, deposit(part.shard(), part.debits(), TransferIntent.refunded(id, part.part())));
+            }
+        }
+        boolean refunded = true;
+        for (Map.Entry<Prepared, CompletableFuture<List<BankAccountDto>>> entry : refunding.entrySet()) {
+            try {
+                entry.getValue().join().forEach(this::remember);
+            } catch (CompletionException e) {
+                refunded = false;
+                log.error("Transfer {} could not refund part {}; it stays pending and is retried on the next start",
+                        id, entry.getKey().part(), e.getCause());
+            }
+        }
+        if (refunded) {
+            ledger.settle(id);
+        }
+    }
+
+    // Accounts are looked up again, so one closed since the prepare fails here instead of being credited.
+    private CompletableFuture<List<BankAccountDto>> deposit(AccountShard shard, List<Leg> legs, TransferIntent intent) {
+        return shard.submit(() -> legs.stream().map(leg -> ledger.get(leg.account().getAccountNumber())).toList(), resolved -> {
+            for (int i = 0; i < legs.size(); i++) {
+                try {
+                    resolved.get(i).deposit(legs.get(i).amount());
+                } catch (RuntimeException e) {
+                    for (int j = i - 1; j >= 0; j--) {
+                        resolved.get(j).withdraw(legs.get(j).amount());
+                    }
+                    throw e;
+                }
+            }
+            return resolved.stream().map(ShardTransaction::toAccountDto).toList();
+        }, result -> intent);
+    }
+
+    private Outcome failed(RuntimeException failure, int index) {
+        return failed(failure, index, messageFor(failure));
+    }
+
+    private Outcome failed(RuntimeException failure, int index, String message) {
+        return new Outcome(failure, index, message, true, accounts, Map.of());
+    }
+
+    static String messageFor(Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        if (cause instanceof AccountNotFoundException) {
+            return ACCOUNT_NOT_FOUND_ERROR_MESSAGE;
+        } else if (cause instanceof NotEnoughBalanceException) {
+            return NOT_ENOUGH_BALANCE_ERROR_MESSAGE;
+        } else if (cause instanceof MoneyOverflowException) {
+            return AMOUNT_OVERFLOW_ERROR_MESSAGE;
+        } else if (cause instanceof TransferIncompleteException) {
+            return TRANSFER_INCOMPLETE_ERROR_MESSAGE;
+        }
+        return SOMETHING_WENT_WRONG;
+    }
+
+    private void remember(BankAccountDto account) {
+        accounts.put(account.accountNumber(), account);
+    }
+
+    private List<LedgerAccount> resolve(Set<String> accountNumbers) {
+        List<LedgerAccount> resolved = new ArrayList<>();
+        for (String accountNumber : accountNumbers) {
+            try {
+                resolved.add(ledger.get(accountNumber));
+            } catch (AccountNotFoundException e) {
+                // reported by the operation that needs it
+            }
+        }
+        return resolved;
+    }
+
+    private void add(Map<AccountShard, List<Step>> steps, Step step) {
+        steps.computeIfAbsent(shardFor.apply(step.accountNumber()), shard -> new ArrayList<>()).add(step);
+    }
+
+    private static int firstCreditIndex(Prepared part, List<Step> steps) {
+        Set<String> credited = new LinkedHashSet<>();
+        part.credits().forEach(leg -> credited.add(leg.account().getAccountNumber()));
+        return steps.stream()
+                .filter(step -> step.deposit() && credited.contains(step.accountNumber()))
+                .mapToInt(Step::index)
+                .findFirst()
+                .orElse(steps.get(0).index());
+    }
+
+    private static List<TransferIntent.Leg> legs(List<Leg> legs) {
+        return legs.stream().map(leg -> new TransferIntent.Leg(leg.account().getId(), leg.amount())).toList();
+    }
+
+    private static void restore(LedgerAccount account, long balance) {
+        long delta = balance - account.getBalance();
+        if (delta > 0) {
+            account.deposit(delta);
+        } else if (delta < 0) {
+            account.withdraw(-delta);
+        }
+    }
+
+    private static BankAccountDto toAccountDto(LedgerAccount account) {
+        return new BankAccountDto(account.getId(),
+                account.getAccountNumber(),
+                account.getBalance(),
+                account.getAccountHolderName(),
+                account.getBankName());
+    }
+}
@@ -0,0 +1,232 @@
+package com.azki.banking_system.engine;
+
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BatchItemResult;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.exceptions.MoneyOverflowException;
+import com.azki.banking_system.ledger.InMemoryLedger;
+import com.azki.banking_system.ledger.LedgerAccount;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.sharding.AccountShard;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import com.azki.banking_system.transactions.TransactionStrategy;
+import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.azki.banking_system.utils.Constants.*;
+
+@Component
+@ConditionalOnProperty(name = "bank.engine", havingValue = "sharded")
+public class ShardedAccountEngine implements AccountEngine {
+
+    private final InMemoryLedger ledger;
+    private final AccountShard[] shards;
+
+    @Autowired
+    public ShardedAccountEngine(InMemoryLedger ledger,
+                                @Value("${shard.count}") int shardCount,
+                                @Value("${shard.queue.capacity}") int queueCapacity,
+                                @Value("${shard.batch.size}") int batchSize,
+                                BankMetrics metrics) {
+        this.ledger = ledger;
+        this.shards = new AccountShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new AccountShard(i, ledger, queueCapacity, batchSize);
+            metrics.gauge("bank.shard.queue.depth", "shard", String.valueOf(i), shards[i], AccountShard::queueDepth);
+        }
+    }
+
+    @Override
+    public BankAccountDto getAccount(String accountNumber) {
+        return toAccountDto(ledger.get(accountNumber));
+    }
+
+    @Override
+    public AccountChange process(String accountNumber, long amount, TransactionStrategy strategy) {
+        return await(shardFor(accountNumber).submit(() -> List.of(ledger.get(accountNumber)), accounts -> {
+            strategy.processTransaction(accounts.get(0), amount);
+            return changed(accounts.get(0), Instant.now());
+        }));
+    }
+
+    // A transfer across shards runs as a journaled two-phase transaction, see ShardTransaction.
+    @Override
+    public List<AccountChange> transfer(String origin, String destination, long amount) {
+        AccountShard originShard = shardFor(origin);
+        AccountShard destShard = shardFor(destination);
+
+        if (originShard == destShard) {
+            return await(originShard.submit(() -> List.of(ledger.get(origin), ledger.get(destination)), accounts -> {
+                transfer(accounts.get(0), accounts.get(1), amount);
+                Instant time = Instant.now();
+                return List.of(changed(accounts.get(0), time), changed(accounts.get(1), time));
+            }));
+        }
+
+        var outcome = new ShardTransaction(ledger, this::shardFor)
+                .apply(List.of(new BatchOperation(TRANSFER, origin, destination, amount)), 0);
+        if (!outcome.succeeded()) {
+            throw outcome.failure();
+        }
+        var result = outcome.result(0);
+        return List.of(new AccountChange(outcome.accounts().get(origin), result.sequence(), result.time()),
+                new AccountChange(outcome.accounts().get(destination), result.destinationSequence(), result.time()));
+    }
+
+    // An all-or-nothing batch within one shard is applied by that shard; one spanning shards runs as a
+    // ShardTransaction. Best-effort batches are split into independent operations, queued on the shards in
+    // submission order; a transfer across shards is finished before the operations after it are queued, so they
+    // see its credit.
+    @Override
+    public List<BatchItemResult> processBatch(List<BatchOperation> operations, int firstIndex, boolean atomic) {
+        Set<String> accountNumbers = BatchApplication.accountNumbers(operations);
+        if (atomic) {
+            AccountShard shard = accountNumbers.isEmpty() ? shards[0] : shardFor(accountNumbers.iterator().next());
+            if (accountNumbers.stream().anyMatch(accountNumber -> shardFor(accountNumber) != shard)) {
+                var outcome = new ShardTransaction(ledger, this::shardFor).apply(operations, firstIndex);
+                List<BatchItemResult> results = new ArrayList<>(operations.size());
+                for (int i = 0; i < operations.size(); i++) {
+                    results.add(outcome.result(firstIndex + i));
+                }
+                return results;
+            }
+            return await(shard.submit(() -> resolve(accountNumbers), accounts -> {
+                Map<String, LedgerAccount> byNumber = new HashMap<>();
+                accounts.forEach(account -> byNumber.put(account.getAccountNumber(), account));
+                var batch = new BatchApplication(operations, firstIndex, byNumber, true);
+                batch.apply();
+                return batch.results();
+            }));
+        }
+
+        List<CompletableFuture<BatchItemResult>> pending = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            int index = firstIndex + i;
+            BatchOperation operation = operations.get(i);
+            String invalid = BatchApplication.invalid(operation);
+            if (invalid != null) {
+                pending.add(CompletableFuture.completedFuture(new BatchItemResult(index, false, invalid)));
+                continue;
+            }
+            if (TRANSFER.equals(operation.type())) {
+                if (operation.accountNumber() == null || operation.destination() == null) {
+                    pending.add(CompletableFuture.completedFuture(new BatchItemResult(index, false, ACCOUNT_NOT_FOUND_ERROR_MESSAGE)));
+                    continue;
+                }
+                AccountShard originShard = shardFor(operation.accountNumber());
+                if (originShard == shardFor(operation.destination())) {
+                    pending.add(originShard.submit(() -> List.of(ledger.get(operation.accountNumber()), ledger.get(operation.destination())),
+                                    accounts -> {
+                                        transfer(accounts.get(0), accounts.get(1), operation.amount());
+                                        return new BatchItemResult(index, true, SUCCESS,
+                                                accounts.get(0).getBalance(), accounts.get(1).getBalance(),
+                                                accounts.get(0).nextSequence(), accounts.get(1).nextSequence(), Instant.now());
+                                    })
+                            .exceptionally(error -> failed(index, error)));
+                } else {
+                    var outcome = new ShardTransaction(ledger, this::shardFor).apply(List.of(operation), index);
+                    pending.add(CompletableFuture.completedFuture(outcome.result(index)));
+                }
+                continue;
+            }
+            TransactionStrategy strategy = DEPOSIT.equals(operation.type()) ? new DepositTransactionStrategy()
+                    : WITHDRAW.equals(operation.type()) ? new WithdrawTransactionStrategy() : null;
+            if (strategy == null || operation.accountNumber() == null) {
+                pending.add(CompletableFuture.completedFuture(new BatchItemResult(index, false,
+                        strategy == null ? UNKNOWN_OPERATION_ERROR_MESSAGE : ACCOUNT_NOT_FOUND_ERROR_MESSAGE)));
+                continue;
+            }
+            pending.add(shardFor(operation.accountNumber())
+                    .submit(() -> List.of(ledger.get(operation.accountNumber())), accounts -> {
+                        strategy.processTransaction(accounts.get(0), operation.amount());
+                        return new BatchItemResult(index, true, SUCCESS, accounts.get(0).getBalance(), null,
+                                accounts.get(0).nextSequence(), null, Instant.now());
+                    })
+                    .exceptionally(error -> failed(index, error)));
+        }
+        return pending.stream().map(CompletableFuture::join).toList();
+    }
+
+    @Override
+    public void evict(String accountNumber) {
+        await(shardFor(accountNumber).submit(List::of, accounts -> {
+            ledger.evict(accountNumber);
+            return null;
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (AccountShard shard : shards) {
+            shard.stop();
+        }
+    }
+
+    private static void transfer(LedgerAccount origin, LedgerAccount destination, long amount) {
+        origin.withdraw(amount);
+        try {
+            destination.deposit(amount);
+        } catch (MoneyOverflowException e) {
+            origin.deposit(amount);
+            throw e;
+        }
+    }
+
+    private List<LedgerAccount> resolve(Set<String> accountNumbers) {
+        List<LedgerAccount> accounts = new ArrayList<>();
+        for (String accountNumber : accountNumbers) {
+            try {
+                accounts.add(ledger.get(accountNumber));
+            } catch (AccountNotFoundException e) {
+                // reported per operation by the batch
+            }
+        }
+        return accounts;
+    }
+
+    AccountShard shardFor(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return shards[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.length];
+    }
+
+    private static BatchItemResult failed(int index, Throwable error) {
+        return new BatchItemResult(index, false, ShardTransaction.messageFor(error));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private AccountChange changed(LedgerAccount account, Instant time) {
+        return new AccountChange(toAccountDto(account), account.nextSequence(), time);
+    }
+
+    private BankAccountDto toAccountDto(LedgerAccount account) {
+        return new BankAccountDto(account.getId(),
+                account.getAccountNumber(),
+                account.getBalance(),
+                account.getAccountHolderName(),
+                account.getBankName());
+    }
+}
@@ -0,0 +1,23 @@
+package com.azki.banking_system.entities;
+
+import com.azki.banking_system.utils.AccountNumbers;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.UUID;
+
+// Keeps account numbers as strings in the domain while storing them as a 16-byte UUID column.
+// Hibernate also applies the converter to query parameters compared against the attribute.
+@Converter
+public class AccountNumberConverter implements AttributeConverter<String, UUID> {
+
+    @Override
+    public UUID convertToDatabaseColumn(String accountNumber) {
+        return AccountNumbers.parse(accountNumber);
+    }
+
+    @Override
+    public String convertToEntityAttribute(UUID accountNumber) {
+        return accountNumber == null ? null : accountNumber.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.azki.banking_system.entities;
+
+import jakarta.persistence.*;
+
+// One slice of a hot account's balance. The account's balance is its own row plus the sum of its cells;
+// deposits land on a single cell row, so concurrent depositors do not queue on the account row.
+@Entity
+@Table(name = BalanceCellEntity.TABLE_NAME,
+        uniqueConstraints = @UniqueConstraint(name = "uk_balance_cell", columnNames = {"account_number", "cell"}))
+public class BalanceCellEntity {
+
+    public static final String TABLE_NAME = "balance-cell";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_cell_id")
+    @SequenceGenerator(name = "balance_cell_id", sequenceName = "balance-cell_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    @Convert(converter = AccountNumberConverter.class)
+    private String accountNumber;
+
+    @Column(nullable = false)
+    private int cell;
+
+    @Column(nullable = false)
+    private long balance;
+
+    public BalanceCellEntity() {
+    }
+
+    public BalanceCellEntity(String accountNumber, int cell) {
+        this.accountNumber = accountNumber;
+        this.cell = cell;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public int getCell() {
+        return cell;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public void setBalance(long balance) {
+        this.balance = balance;
+    }
+}
@@ -1,25 +1,35 @@
 package com.azki.banking_system.entities;
 
 import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.transactions.Account;
+import com.azki.banking_system.utils.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
 
 import static com.azki.banking_system.utils.Constants.NOT_ENOUGH_BALANCE_ERROR_MESSAGE;
 
 @Entity
-@Table(name = "bank-account")
-public class BankAccountEntity {
+@Table(name = BankAccountEntity.TABLE_NAME)
+public class BankAccountEntity implements Account {
+
+    public static final String TABLE_NAME = "bank-account";
+    public static final String ID_SEQUENCE = "bank-account_seq";
+    // Each sequence value reserves a block of ids; bulk imports draw from the same blocks.
+    public static final int ID_BLOCK_SIZE = 50;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bank_account_id")
+    @SequenceGenerator(name = "bank_account_id", sequenceName = ID_SEQUENCE, allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     @Column(unique = true, nullable = false)
+    @Convert(converter = AccountNumberConverter.class)
     @Size(min = 5)
     private String accountNumber;
 
     @Column
-    private double balance;
+    private long balance;
 
     @Column(nullable = false)
     @Size(min = 3)
@@ -29,10 +39,18 @@ public class BankAccountEntity {
     @Size(min = 3)
     private String bankName;
 
+    @Version
+    private long version;
+
+    // Sequence of the latest change recorded in the account's history; rows from before it start at 0.
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long historySequence;
+
     public BankAccountEntity() {
     }
 
-    public BankAccountEntity(String accountNumber, double balance, String accountHolderName, String bankName) {
+    public BankAccountEntity(String accountNumber, long balance, String accountHolderName, String bankName) {
         this.accountNumber = accountNumber;
         this.balance = balance;
         this.accountHolderName = accountHolderName;
@@ -55,11 +73,12 @@ public class BankAccountEntity {
         this.accountNumber = accountNumber;
     }
 
-    public double getBalance() {
+    @Override
+    public long getBalance() {
         return balance;
     }
 
-    public void setBalance(double balance) {
+    public void setBalance(long balance) {
         this.balance = balance;
     }
 
@@ -79,6 +98,19 @@ public class BankAccountEntity {
         this.accountHolderName = accountHolderName;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public long getHistorySequence() {
+        return historySequence;
+    }
+
+    // Used by the write-behind ledger, whose accounts number their changes in memory.
+    public void raiseHistorySequence(long sequence) {
+        historySequence = Math.max(historySequence, sequence);
+    }
+
     @Override
     public String toString() {
         return "BankAccountEntity{" +
@@ -89,19 +121,26 @@ public class BankAccountEntity {
                 '}';
     }
 
-    public void deposit(double amount) {
-        double oldBalance = this.getBalance();
+    @Override
+    public void deposit(long amount) {
+        long oldBalance = this.getBalance();
 
-        this.setBalance(oldBalance + amount);
+        this.setBalance(Money.add(oldBalance, amount));
     }
 
-    public void withdraw(double amount) {
-        double oldBalance = this.getBalance();
+    @Override
+    public void withdraw(long amount) {
+        long oldBalance = this.getBalance();
 
         if (oldBalance < amount) {
             throw new NotEnoughBalanceException(NOT_ENOUGH_BALANCE_ERROR_MESSAGE);
         }
 
-        this.setBalance(oldBalance - amount);
+        this.setBalance(Money.subtract(oldBalance, amount));
+    }
+
+    @Override
+    public long nextSequence() {
+        return ++historySequence;
     }
 }
@@ -0,0 +1,134 @@
+package com.azki.banking_system.entities;
+
+import com.azki.banking_system.dto.Recurrence;
+import com.azki.banking_system.dto.ScheduleStatus;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// A standing order. occurrence counts the runs taken so far and nextRunAt is the time of the next one; running is
+// set while a run is in flight, so a run is never started twice and one cut short by a restart can be told apart.
+@Entity
+@Table(name = ScheduledTransferEntity.TABLE_NAME,
+        indexes = @Index(name = "idx_scheduled_transfer_origin", columnList = "origin, id"))
+public class ScheduledTransferEntity {
+
+    public static final String TABLE_NAME = "scheduled-transfer";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scheduled_transfer_id")
+    @SequenceGenerator(name = "scheduled_transfer_id", sequenceName = "scheduled-transfer_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    @Convert(converter = AccountNumberConverter.class)
+    private String origin;
+
+    @Column(nullable = false)
+    @Convert(converter = AccountNumberConverter.class)
+    private String destination;
+
+    @Column(nullable = false)
+    private long amount;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Recurrence recurrence;
+
+    @Column(nullable = false)
+    private Instant firstRunAt;
+
+    @Column(nullable = false)
+    private Instant nextRunAt;
+
+    @Column(nullable = false)
+    private long occurrence;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ScheduleStatus status;
+
+    @Column(nullable = false)
+    private boolean running;
+
+    @Column(nullable = false)
+    private long runs;
+
+    @Column(nullable = false)
+    private long failures;
+
+    @Column
+    private Instant lastRunAt;
+
+    @Column
+    private String lastError;
+
+    public ScheduledTransferEntity() {
+    }
+
+    public ScheduledTransferEntity(String origin, String destination, long amount, Recurrence recurrence, Instant firstRunAt) {
+        this.origin = origin;
+        this.destination = destination;
+        this.amount = amount;
+        this.recurrence = recurrence;
+        this.firstRunAt = firstRunAt;
+        this.nextRunAt = firstRunAt;
+        this.status = ScheduleStatus.ACTIVE;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    public Instant getFirstRunAt() {
+        return firstRunAt;
+    }
+
+    public Instant getNextRunAt() {
+        return nextRunAt;
+    }
+
+    public long getOccurrence() {
+        return occurrence;
+    }
+
+    public ScheduleStatus getStatus() {
+        return status;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public Instant getLastRunAt() {
+        return lastRunAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
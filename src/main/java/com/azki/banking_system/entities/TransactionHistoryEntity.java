@@ -0,0 +1,82 @@
+package com.azki.banking_system.entities;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+// One row per balance change, numbered per account by the engine that made it. Statements read a single account's
+// slice of the (account, sequence, id) index; deposits into a hot account's cells share the sequence of the change
+// before them and are told apart by id. The time index finds where a range or a past balance starts.
+@Entity
+@Table(name = "transaction-history",
+        indexes = {@Index(name = "idx_history_account_sequence", columnList = "account_number, sequence, id"),
+                @Index(name = "idx_history_account_time", columnList = "account_number, created_at")})
+public class TransactionHistoryEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_history_id")
+    @SequenceGenerator(name = "transaction_history_id", sequenceName = "transaction-history_seq", allocationSize = 1000)
+    private Long id;
+
+    @Column(nullable = false)
+    @Convert(converter = AccountNumberConverter.class)
+    private String accountNumber;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long sequence;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private String transactionType;
+
+    @Column(nullable = false)
+    private long amount;
+
+    @Column
+    private Long balanceAfter;
+
+    public TransactionHistoryEntity() {
+    }
+
+    public TransactionHistoryEntity(String accountNumber, long sequence, Instant createdAt, String transactionType,
+                                    long amount, Long balanceAfter) {
+        this.accountNumber = accountNumber;
+        this.sequence = sequence;
+        this.createdAt = createdAt;
+        this.transactionType = transactionType;
+        this.amount = amount;
+        this.balanceAfter = balanceAfter;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getTransactionType() {
+        return transactionType;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public Long getBalanceAfter() {
+        return balanceAfter;
+    }
+}
@@ -0,0 +1,8 @@
+package com.azki.banking_system.exceptions;
+
+public class BatchTooLargeException extends RuntimeException {
+
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.azki.banking_system.exceptions;
+
+public class ConcurrentUpdateException extends RuntimeException {
+
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.azki.banking_system.exceptions;
+
+public class HotAccountsUnsupportedException extends RuntimeException {
+
+    public HotAccountsUnsupportedException(String message) {
+        super(message);
+    }
+}
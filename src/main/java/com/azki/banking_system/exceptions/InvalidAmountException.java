@@ -0,0 +1,8 @@
+package com.azki.banking_system.exceptions;
+
+public class InvalidAmountException extends RuntimeException {
+
+    public InvalidAmountException(String message) {
+        super(message);
+    }
+}
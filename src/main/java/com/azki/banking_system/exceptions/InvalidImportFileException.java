@@ -0,0 +1,8 @@
+package com.azki.banking_system.exceptions;
+
+public class InvalidImportFileException extends RuntimeException {
+
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.azki.banking_system.exceptions;
+
+public class InvalidPageTokenException extends RuntimeException {
+
+    public InvalidPageTokenException(String message) {
+        super(message);
+    }
+}
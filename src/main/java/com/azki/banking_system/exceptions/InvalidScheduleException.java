@@ -0,0 +1,8 @@
+package com.azki.banking_system.exceptions;
+
+public class InvalidScheduleException extends RuntimeException {
+
+    public InvalidScheduleException(String message) {
+        super(message);
+    }
+}
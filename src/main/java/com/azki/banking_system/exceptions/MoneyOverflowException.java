@@ -0,0 +1,8 @@
+package com.azki.banking_system.exceptions;
+
+public class MoneyOverflowException extends RuntimeException {
+
+    public MoneyOverflowException(String message) {
+        super(message);
+    }
+}
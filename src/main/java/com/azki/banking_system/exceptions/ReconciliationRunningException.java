@@ -0,0 +1,8 @@
+package com.azki.banking_system.exceptions;
+
+public class ReconciliationRunningException extends RuntimeException {
+
+    public ReconciliationRunningException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.azki.banking_system.exceptions;
+
+public class SameAccountTransferException extends RuntimeException {
+
+    public SameAccountTransferException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.azki.banking_system.exceptions;
+
+public class ScheduleNotFoundException extends RuntimeException {
+
+    public ScheduleNotFoundException(String message) {
+        super(message);
+    }
+}
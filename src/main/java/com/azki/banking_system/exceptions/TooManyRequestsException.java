@@ -0,0 +1,8 @@
+package com.azki.banking_system.exceptions;
+
+public class TooManyRequestsException extends RuntimeException {
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
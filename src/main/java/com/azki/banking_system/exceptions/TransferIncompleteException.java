@@ -0,0 +1,8 @@
+package com.azki.banking_system.exceptions;
+
+public class TransferIncompleteException extends RuntimeException {
+
+    public TransferIncompleteException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,51 @@
+package com.azki.banking_system.hot;
+
+import com.azki.banking_system.entities.BalanceCellEntity;
+import com.azki.banking_system.repositories.BalanceCellRepository;
+import com.azki.banking_system.transactions.Account;
+import com.azki.banking_system.transactions.TransactionStrategy;
+import com.azki.banking_system.utils.Money;
+
+import java.util.List;
+
+// Runs inside the engine's transaction for the account row: locks the cells, moves their balances onto the row
+// and leaves the account with the requested number of empty cells, so no deposit can be counted twice or lost.
+class FoldCellsStrategy implements TransactionStrategy {
+
+    static final int KEEP_CELLS = -1;
+
+    private final BalanceCellRepository balanceCellRepository;
+    private final String accountNumber;
+    private final int cells;
+    private long folded;
+
+    FoldCellsStrategy(BalanceCellRepository balanceCellRepository, String accountNumber, int cells) {
+        this.balanceCellRepository = balanceCellRepository;
+        this.accountNumber = accountNumber;
+        this.cells = cells;
+    }
+
+    @Override
+    public void processTransaction(Account account, long amount) {
+        List<BalanceCellEntity> existing = balanceCellRepository.findForUpdate(accountNumber);
+        int keep = cells == KEEP_CELLS ? existing.size() : cells;
+
+        folded = 0;
+        for (BalanceCellEntity cell : existing) {
+            folded = Money.add(folded, cell.getBalance());
+            if (cell.getCell() < keep) {
+                cell.setBalance(0);
+            } else {
+                balanceCellRepository.delete(cell);
+            }
+        }
+        for (int cell = existing.size(); cell < keep; cell++) {
+            balanceCellRepository.save(new BalanceCellEntity(accountNumber, cell));
+        }
+        account.deposit(folded);
+    }
+
+    long folded() {
+        return folded;
+    }
+}
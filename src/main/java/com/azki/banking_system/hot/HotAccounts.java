@@ -0,0 +1,233 @@
+package com.azki.banking_system.hot;
+
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.engine.AccountChange;
+import com.azki.banking_system.engine.AccountEngine;
+import com.azki.banking_system.entities.BalanceCellEntity;
+import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.exceptions.HotAccountsUnsupportedException;
+import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.repositories.BalanceCellRepository;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import com.azki.banking_system.transactions.TransactionStrategy;
+import com.azki.banking_system.utils.AccountNumbers;
+import io.micrometer.core.instrument.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.azki.banking_system.utils.Constants.*;
+
+// Accounts that take too many deposits for one row get their balance split over several cell rows. Each thread
+// deposits into its own cell with a single UPDATE and never touches the account row or its lock. Anything that
+// needs the whole balance folds the cells back onto the row in the engine's transaction; reads add the cells up.
+// A deposit reports the account row plus an in-memory tally of the cells instead of reading them all back, so
+// its balance may trail concurrent deposits and folds; balance reads are exact. Cell deposits take no lock to
+// order them, so in the history they share the sequence of the last change made on the row. The set of hot
+// accounts lives in this JVM, so only the jpa engine, which already assumes a single instance, supports them.
+@Component
+public class HotAccounts {
+
+    private static final Logger log = LoggerFactory.getLogger(HotAccounts.class);
+
+    // Zero rows updated means the cell is gone (the account cooled down) or the deposit would overflow it.
+    private static final String DEPOSIT_SQL = "update \"" + BalanceCellEntity.TABLE_NAME + "\" set balance = balance + ?"
+            + " where account_number = ? and cell = ? and balance <= ?";
+    private static final String SUPPORTED_ENGINE = "jpa";
+    // Engines that can still fold cells left by an earlier run, because they work on the rows in a transaction. The
+    // others keep balances of their own that a fold behind their back would not reach, so they refuse to start.
+    private static final Set<String> FOLDING_ENGINES = Set.of("optimistic", "pessimistic");
+
+    private record HotAccount(int cells, LongAdder inCells, AtomicLong sequence) {
+    }
+
+    private final Map<String, HotAccount> hotAccounts = new ConcurrentHashMap<>();
+    private final AccountEngine accountEngine;
+    private final BalanceCellRepository balanceCellRepository;
+    private final DataSource dataSource;
+    private final boolean supported;
+    private final Counter cellDeposits;
+    private final Counter folds;
+
+    @Autowired
+    public HotAccounts(AccountEngine accountEngine,
+                       BalanceCellRepository balanceCellRepository,
+                       DataSource dataSource,
+                       @Value("${bank.engine}") String engine,
+                       BankMetrics metrics) {
+        this.accountEngine = accountEngine;
+        this.balanceCellRepository = balanceCellRepository;
+        this.dataSource = dataSource;
+        this.supported = SUPPORTED_ENGINE.equals(engine);
+        this.cellDeposits = metrics.counter("bank.hot.operations", "operation", "cell_deposit");
+        this.folds = metrics.counter("bank.hot.operations", "operation", "fold");
+        metrics.gauge("bank.hot.accounts", hotAccounts, Map::size);
+
+        for (Object[] row : balanceCellRepository.summarizeByAccount()) {
+            String accountNumber = (String) row[0];
+            if (supported) {
+                // folding once gives the cell deposits a sequence to follow
+                var change = accountEngine.process(accountNumber, 0,
+                        new FoldCellsStrategy(balanceCellRepository, accountNumber, FoldCellsStrategy.KEEP_CELLS));
+                hotAccounts.put(accountNumber, new HotAccount(((Number) row[1]).intValue(), new LongAdder(),
+                        new AtomicLong(change.sequence())));
+            } else if (FOLDING_ENGINES.contains(engine)) {
+                log.warn("Engine {} does not support hot accounts, folding the cells of account {}", engine, accountNumber);
+                accountEngine.process(accountNumber, 0, new FoldCellsStrategy(balanceCellRepository, accountNumber, 0));
+            } else {
+                throw new IllegalStateException(String.format(HOT_ACCOUNT_CELLS_LEFT_ERROR_MESSAGE, accountNumber, engine));
+            }
+        }
+    }
+
+    public boolean isHot(String accountNumber) {
+        return !hotAccounts.isEmpty() && hotAccounts.containsKey(accountNumber);
+    }
+
+    // Marking an account that is already hot reshapes it; its current cells are folded first.
+    public void markHot(String accountNumber, int cells) {
+        if (!supported) {
+            throw new HotAccountsUnsupportedException(HOT_ACCOUNTS_UNSUPPORTED_ERROR_MESSAGE);
+        }
+        var change = accountEngine.process(accountNumber, 0, new FoldCellsStrategy(balanceCellRepository, accountNumber, cells));
+        hotAccounts.put(accountNumber, new HotAccount(cells, new LongAdder(), new AtomicLong(change.sequence())));
+    }
+
+    // Deposits that already picked a cell find it gone and fall back to the account row.
+    public void unmarkHot(String accountNumber) {
+        if (hotAccounts.remove(accountNumber) == null) {
+            accountEngine.getAccount(accountNumber);
+            return;
+        }
+        accountEngine.process(accountNumber, 0, new FoldCellsStrategy(balanceCellRepository, accountNumber, 0));
+    }
+
+    public BankAccountDto getAccount(String accountNumber) {
+        return withTotal(accountEngine.getAccount(accountNumber));
+    }
+
+    public AccountChange process(String accountNumber, long amount, TransactionStrategy strategy) {
+        HotAccount hot = hotAccounts.get(accountNumber);
+        if (hot != null && strategy instanceof DepositTransactionStrategy && depositToCell(accountNumber, hot, amount)) {
+            var account = accountEngine.getAccount(accountNumber);
+            return new AccountChange(new BankAccountDto(account.id(), accountNumber, account.balance() + hot.inCells().sum(),
+                    account.accountHolderName(), account.bankName()), hot.sequence().get(), Instant.now());
+        }
+        try {
+            return withTotal(sequenced(accountEngine.process(accountNumber, amount, strategy)));
+        } catch (NotEnoughBalanceException e) {
+            fold(accountNumber);
+            return withTotal(sequenced(accountEngine.process(accountNumber, amount, strategy)));
+        }
+    }
+
+    // Deposits into a hot destination go to the account row, in the same transaction as the withdrawal.
+    public List<AccountChange> transfer(String origin, String destination, long amount) {
+        List<AccountChange> changes;
+        try {
+            changes = accountEngine.transfer(origin, destination, amount);
+        } catch (NotEnoughBalanceException e) {
+            if (!isHot(origin)) {
+                throw e;
+            }
+            fold(origin);
+            changes = accountEngine.transfer(origin, destination, amount);
+        }
+        return List.of(withTotal(sequenced(changes.get(0))), withTotal(sequenced(changes.get(1))));
+    }
+
+    // Batches change the rows of hot accounts behind this class's back, so the caller reports their sequences.
+    public void sequenced(String accountNumber, long sequence) {
+        HotAccount hot = hotAccounts.get(accountNumber);
+        if (hot != null) {
+            hot.sequence().accumulateAndGet(sequence, Math::max);
+        }
+    }
+
+    // Batches work on the account rows only, so every hot account a batch may take money from is folded first.
+    public void foldForBatch(List<BatchOperation> operations) {
+        Set<String> folded = new HashSet<>();
+        for (BatchOperation operation : operations) {
+            String accountNumber = operation.accountNumber();
+            if (accountNumber != null && !DEPOSIT.equals(operation.type()) && isHot(accountNumber) && folded.add(accountNumber)) {
+                fold(accountNumber);
+            }
+        }
+    }
+
+    // Called in the transaction that deletes the account.
+    public void forget(String accountNumber) {
+        if (hotAccounts.remove(accountNumber) != null) {
+            balanceCellRepository.deleteByAccountNumber(accountNumber);
+        }
+    }
+
+    private AccountChange sequenced(AccountChange change) {
+        sequenced(change.account().accountNumber(), change.sequence());
+        return change;
+    }
+
+    private AccountChange withTotal(AccountChange change) {
+        return new AccountChange(withTotal(change.account()), change.sequence(), change.time());
+    }
+
+    public BankAccountDto withTotal(BankAccountDto account) {
+        if (!isHot(account.accountNumber())) {
+            return account;
+        }
+        long balance = balanceCellRepository.totalBalance(AccountNumbers.parse(account.accountNumber()))
+                .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+        return new BankAccountDto(account.id(), account.accountNumber(), balance,
+                account.accountHolderName(), account.bankName());
+    }
+
+    private void fold(String accountNumber) {
+        var strategy = new FoldCellsStrategy(balanceCellRepository, accountNumber, FoldCellsStrategy.KEEP_CELLS);
+        var change = accountEngine.process(accountNumber, 0, strategy);
+        HotAccount hot = hotAccounts.get(accountNumber);
+        if (hot != null) {
+            hot.inCells().add(-strategy.folded());
+            hot.sequence().accumulateAndGet(change.sequence(), Math::max);
+        }
+        folds.increment();
+    }
+
+    // Threads stick to one cell, so a fixed pool of depositors rarely shares a row. The update is a statement
+    // of its own in auto-commit mode; it goes straight to JDBC because it runs for every deposit.
+    private boolean depositToCell(String accountNumber, HotAccount hot, long amount) {
+        int cell = (int) Math.floorMod(Thread.currentThread().getId(), (long) hot.cells());
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement update = connection.prepareStatement(DEPOSIT_SQL)) {
+            update.setLong(1, amount);
+            update.setObject(2, AccountNumbers.parse(accountNumber));
+            update.setInt(3, cell);
+            update.setLong(4, Long.MAX_VALUE - amount);
+            if (update.executeUpdate() == 0) {
+                return false;
+            }
+        } catch (SQLException e) {
+            log.warn("Deposit into cell {} of account {} failed, using the account row", cell, accountNumber, e);
+            return false;
+        }
+        hot.inCells().add(amount);
+        cellDeposits.increment();
+        return true;
+    }
+}
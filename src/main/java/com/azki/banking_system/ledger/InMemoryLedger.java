@@ -0,0 +1,473 @@
+package com.azki.banking_system.ledger;
+
+import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.exceptions.TransactionLogFailedException;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.repositories.BankAccountRepository;
+import com.azki.banking_system.repositories.TransactionHistoryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.azki.banking_system.utils.Constants.ACCOUNT_NOT_FOUND_ERROR_MESSAGE;
+
+@Component
+@ConditionalOnExpression("'${bank.engine:jpa}' == 'ledger' or '${bank.engine:jpa}' == 'sharded'")
+public class InMemoryLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryLedger.class);
+
+    private final Map<String, LedgerAccount> accounts = new ConcurrentHashMap<>();
+    private final Set<LedgerAccount> dirtyAccounts = ConcurrentHashMap.newKeySet();
+    // Mutations hold the read side while they journal; a flush or snapshot cycle takes the write side to cut a segment.
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+    // One flush at a time, from cut to markFlushed: a flush finding nothing dirty may only mark the closed segments
+    // flushed once no other flush is still persisting one of them.
+    private final Object flushMutex = new Object();
+    private final AtomicLong journalFailures = new AtomicLong();
+    // Transactions spanning shards whose journal records must be kept until they are settled.
+    private final Map<Long, PendingTransfer> pendingTransfers = new ConcurrentHashMap<>();
+    private final AtomicLong transferIds = new AtomicLong();
+
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionHistoryRepository transactionHistoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerJournal journal;
+    private final LedgerSnapshots snapshots;
+    private final boolean snapshotsEnabled;
+    private final int flushBatchSize;
+    private final BankMetrics.JournalRecorder journalMetrics;
+    private final BankMetrics.JournalRecorder snapshotMetrics;
+    private final ScheduledExecutorService flusher;
+    private final ScheduledExecutorService snapshotter;
+
+    // Segments up to the lower of these two are no longer needed to rebuild the ledger.
+    private long flushedSegment;
+    private long snapshotCut;
+    private long recoveryMillis;
+
+    @Autowired
+    public InMemoryLedger(BankAccountRepository bankAccountRepository,
+                          TransactionHistoryRepository transactionHistoryRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${ledger.journal.dir}") String journalDir,
+                          @Value("${ledger.journal.fsync}") boolean fsync,
+                          @Value("${ledger.flush.interval.ms}") long flushIntervalMs,
+                          @Value("${ledger.flush.batch.size}") int flushBatchSize,
+                          @Value("${ledger.snapshot.interval.ms}") long snapshotIntervalMs,
+                          BankMetrics metrics) throws IOException {
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionHistoryRepository = transactionHistoryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = new LedgerJournal(Path.of(journalDir), fsync);
+        this.snapshots = new LedgerSnapshots(Path.of(journalDir));
+        this.snapshotsEnabled = snapshotIntervalMs > 0;
+        this.flushBatchSize = flushBatchSize;
+        this.journalMetrics = metrics.journal("ledger");
+        this.snapshotMetrics = metrics.journal("snapshot");
+        metrics.gauge("bank.ledger.dirty.accounts", dirtyAccounts, Set::size);
+        metrics.gauge("bank.ledger.recovery.millis", this, ledger -> ledger.recoveryMillis);
+        metrics.gauge("bank.ledger.pending.transfers", pendingTransfers, Map::size);
+
+        recover();
+
+        flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        snapshotter = Executors.newSingleThreadScheduledExecutor();
+        if (snapshotsEnabled) {
+            snapshotter.scheduleWithFixedDelay(this::snapshot, snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public LedgerAccount get(String accountNumber) {
+        LedgerAccount account = accounts.get(accountNumber);
+        if (account != null) {
+            return account;
+        }
+        var accountEntity = bankAccountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+        return accounts.computeIfAbsent(accountNumber, key -> seeded(new LedgerAccount(accountEntity)));
+    }
+
+    // Rows trail the accounts the ledger holds until the next flush; null when the ledger does not hold the account.
+    public Long heldBalance(String accountNumber) {
+        LedgerAccount account = accounts.get(accountNumber);
+        return account == null ? null : account.getBalance();
+    }
+
+    // Callers must hold the account locks of every account in the list.
+    public void apply(List<LedgerAccount> touched, Runnable mutation) {
+        apply(touched, List.of(), mutation);
+    }
+
+    // The intents are read once the mutation has run, so the mutation may still add to them.
+    public void apply(List<LedgerAccount> touched, List<TransferIntent> intents, Runnable mutation) {
+        flushLock.readLock().lock();
+        try {
+            long[] before = new long[touched.size()];
+            for (int i = 0; i < before.length; i++) {
+                before[i] = touched.get(i).getBalance();
+            }
+
+            try {
+                mutation.run();
+            } catch (RuntimeException e) {
+                restore(touched, before);
+                throw e;
+            }
+
+            long start = System.nanoTime();
+            try {
+                journal.append(touched, intents);
+                journalMetrics.record(start, touched.size());
+            } catch (IOException e) {
+                restore(touched, before);
+                journalFailures.incrementAndGet();
+                throw new TransactionLogFailedException();
+            }
+            dirtyAccounts.addAll(touched);
+            for (TransferIntent intent : intents) {
+                track(journal.currentSegment(), intent);
+            }
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    public long nextTransferId() {
+        return transferIds.incrementAndGet();
+    }
+
+    // Once settled, recovery no longer looks at the transaction and its journal segments may be retired.
+    public void settle(long transferId) {
+        flushLock.readLock().lock();
+        try {
+            journal.appendSettlement(TransferIntent.settled(transferId));
+            pendingTransfers.remove(transferId);
+        } catch (IOException e) {
+            log.error("Could not journal the settlement of transfer {}, it is checked again on the next start", transferId, e);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    public int pendingTransfers() {
+        return pendingTransfers.size();
+    }
+
+    public void evict(String accountNumber) {
+        flushLock.readLock().lock();
+        try {
+            LedgerAccount account = accounts.remove(accountNumber);
+            if (account != null) {
+                dirtyAccounts.remove(account);
+                if (snapshotsEnabled) {
+                    journal.appendRemoval(account.getId());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not journal the eviction of account {}", accountNumber, e);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    public void flush() {
+        synchronized (flushMutex) {
+            List<LedgerAccount> batch;
+            Map<Long, Long> balances = new HashMap<>();
+            Map<Long, Long> sequences = new HashMap<>();
+            long segment;
+
+            flushLock.writeLock().lock();
+            try {
+                if (dirtyAccounts.isEmpty()) {
+                    // nothing pending, so every closed segment is already in the database
+                    segment = journal.currentSegment() - 1;
+                    batch = List.of();
+                } else {
+                    segment = journal.roll();
+                    batch = new ArrayList<>(dirtyAccounts);
+                    dirtyAccounts.clear();
+                    for (LedgerAccount account : batch) {
+                        balances.put(account.getId(), account.getBalance());
+                        sequences.put(account.getId(), account.getSequence());
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Could not roll the ledger journal", e);
+                return;
+            } finally {
+                flushLock.writeLock().unlock();
+            }
+
+            try {
+                persist(balances, sequences);
+                markFlushed(segment);
+            } catch (RuntimeException e) {
+                log.error("Write-behind flush of {} accounts failed, retrying in the next cycle", batch.size(), e);
+                dirtyAccounts.addAll(batch);
+            }
+        }
+    }
+
+    // Cutting the journal is the only part that holds up traffic; the accounts are then copied while mutations
+    // go on. A balance read after the cut can only be newer than the cut, and every change after the cut is
+    // in the journal with its absolute balance, so replaying from the cut settles any account caught mid-change.
+    public void snapshot() {
+        long cut;
+        long failures;
+        flushLock.writeLock().lock();
+        try {
+            cut = journal.roll();
+            failures = journalFailures.get();
+        } catch (IOException e) {
+            log.error("Could not roll the ledger journal for a snapshot", e);
+            return;
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+
+        try {
+            long start = System.nanoTime();
+            Path written = snapshots.write(cut, accounts.values());
+            // wait out mutations still in flight; one that failed may have left a rolled back balance in the copy
+            flushLock.writeLock().lock();
+            boolean clean;
+            try {
+                clean = journalFailures.get() == failures;
+            } finally {
+                flushLock.writeLock().unlock();
+            }
+            if (!clean) {
+                Files.deleteIfExists(written);
+                log.warn("Discarded ledger snapshot {} after a journal write failure", cut);
+                return;
+            }
+            snapshotMetrics.record(start, accounts.size());
+            snapshots.deleteOlderThan(cut);
+            synchronized (this) {
+                snapshotCut = cut;
+            }
+            retireSegments();
+        } catch (IOException e) {
+            log.error("Could not write ledger snapshot {}", cut, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        flusher.shutdown();
+        snapshotter.shutdown();
+        flusher.awaitTermination(1, TimeUnit.MINUTES);
+        snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+        flush();
+        if (snapshotsEnabled) {
+            snapshot();
+        }
+        journal.close();
+    }
+
+    private void markFlushed(long segment) {
+        synchronized (this) {
+            if (segment <= flushedSegment) {
+                return;
+            }
+            flushedSegment = segment;
+        }
+        retireSegments();
+    }
+
+    private synchronized void retireSegments() {
+        long upTo = snapshotsEnabled ? Math.min(flushedSegment, snapshotCut) : flushedSegment;
+        for (PendingTransfer pending : pendingTransfers.values()) {
+            upTo = Math.min(upTo, pending.firstSegment() - 1);
+        }
+        try {
+            journal.deleteUpTo(upTo);
+        } catch (IOException e) {
+            log.error("Could not delete retired ledger journal segments", e);
+        }
+    }
+
+    // Loads the latest snapshot and replays only the segments cut after it. Segments older than the snapshot are
+    // still on disk when the database had not caught up with them; their accounts are flushed again. Transactions
+    // spanning shards that were not settled are finished once the balances are in place.
+    private void recover() throws IOException {
+        long start = System.currentTimeMillis();
+        var snapshot = snapshotsEnabled ? snapshots.loadLatest() : null;
+        if (!snapshotsEnabled) {
+            snapshots.deleteAll();
+        }
+        Map<Long, LedgerAccount> restored = new HashMap<>();
+        if (snapshot != null) {
+            for (LedgerAccount account : snapshot.accounts()) {
+                accounts.put(account.getAccountNumber(), seeded(account));
+                restored.put(account.getId(), account);
+            }
+            snapshotCut = snapshot.cut();
+        }
+
+        Map<Long, Long> balances = new HashMap<>();
+        long[] replayed = new long[1];
+        long lastSegment = journal.replay(0, snapshotCut, (id, balance) -> {
+            replayed[0]++;
+            LedgerAccount account = restored.get(id);
+            if (account != null) {
+                dirtyAccounts.add(account);
+            } else if (balance == LedgerJournal.REMOVED) {
+                balances.remove(id);
+            } else {
+                balances.put(id, balance);
+            }
+        }, this::recoverIntent);
+        lastSegment = Math.max(lastSegment, journal.replay(snapshotCut + 1, Long.MAX_VALUE, (id, balance) -> {
+            replayed[0]++;
+            LedgerAccount account = restored.get(id);
+            if (balance == LedgerJournal.REMOVED) {
+                balances.remove(id);
+                if (account != null) {
+                    restored.remove(id);
+                    accounts.remove(account.getAccountNumber());
+                    dirtyAccounts.remove(account);
+                }
+            } else if (account != null) {
+                account.setBalance(balance);
+                dirtyAccounts.add(account);
+            } else {
+                balances.put(id, balance);
+            }
+        }, this::recoverIntent));
+        if (!balances.isEmpty()) {
+            persist(balances, Map.of());
+        }
+        int unsettled = pendingTransfers.size();
+        settlePendingTransfers();
+        flushedSegment = dirtyAccounts.isEmpty() ? lastSegment : 0;
+        retireSegments();
+
+        recoveryMillis = System.currentTimeMillis() - start;
+        log.info("Ledger ready in {} ms ({} accounts from snapshot, {} journal entries replayed, {} unsettled transfers finished)",
+                recoveryMillis, restored.size(), replayed[0], unsettled - pendingTransfers.size());
+    }
+
+    private void recoverIntent(long segment, TransferIntent intent) {
+        transferIds.accumulateAndGet(intent.id(), Math::max);
+        track(segment, intent);
+    }
+
+    private void track(long segment, TransferIntent intent) {
+        if (intent.step() == TransferIntent.Step.SETTLED) {
+            pendingTransfers.remove(intent.id());
+        } else {
+            pendingTransfers.computeIfAbsent(intent.id(), id -> new PendingTransfer(id, segment)).record(intent);
+        }
+    }
+
+    // A transaction whose parts all prepared is credited, any other is refunded. A committed transaction whose
+    // credits can no longer land (an account was closed, or a balance would overflow) is refunded instead while
+    // none of its credits has landed. Whatever cannot be settled either way stays pending: it is logged, its
+    // journal segments are kept and it is tried again on the next start.
+    private void settlePendingTransfers() {
+        for (PendingTransfer pending : List.copyOf(pendingTransfers.values())) {
+            boolean settled = pending.committed()
+                    ? creditRemaining(pending) || !pending.anyCredited() && refundRemaining(pending)
+                    : refundRemaining(pending);
+            if (settled) {
+                settle(pending.id());
+            } else {
+                log.error("Transfer {} could not be {} and stays pending", pending.id(),
+                        pending.committed() ? "credited or refunded" : "refunded");
+            }
+        }
+    }
+
+    private boolean creditRemaining(PendingTransfer pending) {
+        for (TransferIntent part : pending.prepared().values()) {
+            if (!pending.isCredited(part.part()) && !part.credits().isEmpty()
+                    && !deposit(part.credits(), TransferIntent.credited(pending.id(), part.part()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean refundRemaining(PendingTransfer pending) {
+        for (TransferIntent part : pending.prepared().values()) {
+            if (!pending.isRefunded(part.part()) && !part.debits().isEmpty()
+                    && !deposit(part.debits(), TransferIntent.refunded(pending.id(), part.part()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean deposit(List<TransferIntent.Leg> legs, TransferIntent step) {
+        try {
+            List<LedgerAccount> touched = new ArrayList<>(legs.size());
+            for (TransferIntent.Leg leg : legs) {
+                touched.add(bankAccountRepository.findById(leg.accountId())
+                        .map(entity -> get(entity.getAccountNumber()))
+                        .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE)));
+            }
+            apply(touched, List.of(step), () -> {
+                for (int i = 0; i < legs.size(); i++) {
+                    touched.get(i).deposit(legs.get(i).amount());
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not apply the {} step of transfer {}", step.step(), step.id(), e);
+            return false;
+        }
+    }
+
+    private static void restore(List<LedgerAccount> touched, long[] before) {
+        for (int i = before.length - 1; i >= 0; i--) {
+            touched.get(i).setBalance(before[i]);
+        }
+    }
+
+    // Snapshots and the journal do not carry sequences; the account continues after the last one its history holds.
+    private LedgerAccount seeded(LedgerAccount account) {
+        account.seedSequence(() -> transactionHistoryRepository.lastSequence(account.getAccountNumber()));
+        return account;
+    }
+
+    private void persist(Map<Long, Long> balances, Map<Long, Long> sequences) {
+        List<Long> ids = new ArrayList<>(balances.keySet());
+        for (int from = 0; from < ids.size(); from += flushBatchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + flushBatchSize, ids.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                var entities = bankAccountRepository.findAllById(chunk);
+                for (var entity : entities) {
+                    entity.setBalance(balances.get(entity.getId()));
+                    entity.raiseHistorySequence(sequences.getOrDefault(entity.getId(), 0L));
+                }
+                bankAccountRepository.saveAll(entities);
+            });
+        }
+    }
+}
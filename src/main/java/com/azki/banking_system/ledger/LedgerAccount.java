@@ -0,0 +1,94 @@
+package com.azki.banking_system.ledger;
+
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.transactions.Account;
+import com.azki.banking_system.utils.Money;
+
+import java.util.function.LongSupplier;
+
+import static com.azki.banking_system.utils.Constants.NOT_ENOUGH_BALANCE_ERROR_MESSAGE;
+
+public class LedgerAccount implements Account {
+
+    private final long id;
+    private final String accountNumber;
+    private final String accountHolderName;
+    private final String bankName;
+    private volatile long balance;
+    // The row's sequence trails the history after a crash, so the history is asked too before the first change.
+    private volatile long sequence;
+    private LongSupplier sequenceSeed;
+
+    public LedgerAccount(BankAccountEntity accountEntity) {
+        this(accountEntity.getId(), accountEntity.getAccountNumber(), accountEntity.getAccountHolderName(),
+                accountEntity.getBankName(), accountEntity.getBalance());
+        this.sequence = accountEntity.getHistorySequence();
+    }
+
+    LedgerAccount(long id, String accountNumber, String accountHolderName, String bankName, long balance) {
+        this.id = id;
+        this.accountNumber = accountNumber;
+        this.accountHolderName = accountHolderName;
+        this.bankName = bankName;
+        this.balance = balance;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public String getAccountHolderName() {
+        return accountHolderName;
+    }
+
+    public String getBankName() {
+        return bankName;
+    }
+
+    @Override
+    public long getBalance() {
+        return balance;
+    }
+
+    void setBalance(long balance) {
+        this.balance = balance;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    void seedSequence(LongSupplier seed) {
+        this.sequenceSeed = seed;
+    }
+
+    @Override
+    public void deposit(long amount) {
+        balance = Money.add(balance, amount);
+    }
+
+    @Override
+    public void withdraw(long amount) {
+        long oldBalance = balance;
+
+        if (oldBalance < amount) {
+            throw new NotEnoughBalanceException(NOT_ENOUGH_BALANCE_ERROR_MESSAGE);
+        }
+
+        balance = Money.subtract(oldBalance, amount);
+    }
+
+    @Override
+    public long nextSequence() {
+        if (sequenceSeed != null) {
+            sequence = Math.max(sequence, sequenceSeed.getAsLong());
+            sequenceSeed = null;
+        }
+        return ++sequence;
+    }
+}
@@ -0,0 +1,335 @@
+package com.azki.banking_system.ledger;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Every record carries the absolute balances it produced, so replaying a segment twice is harmless.
+public class LedgerJournal implements Closeable {
+
+    public interface EntryConsumer {
+        void accept(long accountId, long balance);
+    }
+
+    public interface IntentConsumer {
+        void accept(long segment, TransferIntent intent);
+    }
+
+    interface ChannelOpener {
+        FileChannel open(Path path) throws IOException;
+    }
+
+    // Balance recorded when an account leaves the ledger, so a replay drops it instead of restoring it.
+    public static final long REMOVED = Long.MIN_VALUE;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int ENTRY_SIZE = Long.BYTES + Long.BYTES;
+    // Set in a record's count when transfer intents follow its balances.
+    private static final int WITH_INTENTS = 1 << 30;
+    private static final int INTENT_HEADER_SIZE = Long.BYTES + 1 + Integer.BYTES * 4;
+    private static final TransferIntent.Step[] STEPS = TransferIntent.Step.values();
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ChannelOpener opener;
+    private final Object syncLock = new Object();
+
+    private FileChannel channel;
+    private long segment;
+    private long written;
+    private volatile long synced;
+    // Set when a failed write could not be cut off; the next write moves on to a fresh segment.
+    private boolean poisoned;
+
+    public LedgerJournal(Path directory, boolean fsync) throws IOException {
+        this(directory, fsync, path -> FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND));
+    }
+
+    LedgerJournal(Path directory, boolean fsync, ChannelOpener opener) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.opener = opener;
+        Files.createDirectories(directory);
+        segment = segmentIds().stream().mapToLong(Long::longValue).max().orElse(0) + 1;
+        channel = open(segment);
+    }
+
+    public long currentSegment() {
+        return segment;
+    }
+
+    public void append(List<LedgerAccount> accounts) throws IOException {
+        append(accounts, List.of());
+    }
+
+    // The intents share the record, and so the checksum, of the balances they describe.
+    public void append(List<LedgerAccount> accounts, List<TransferIntent> intents) throws IOException {
+        write(encode(accounts, intents), true);
+    }
+
+    // Not forced: the next forced record covers it, and losing it only makes recovery look at a settled transfer again.
+    public void appendSettlement(TransferIntent intent) throws IOException {
+        write(encode(List.of(), List.of(intent)), false);
+    }
+
+    public void appendRemoval(long accountId) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + ENTRY_SIZE + Integer.BYTES);
+        buffer.putInt(1);
+        buffer.putLong(accountId);
+        buffer.putLong(REMOVED);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        write(buffer, true);
+    }
+
+    private static ByteBuffer encode(List<LedgerAccount> accounts, List<TransferIntent> intents) {
+        int intentBytes = 0;
+        for (TransferIntent intent : intents) {
+            intentBytes += INTENT_HEADER_SIZE + (intent.debits().size() + intent.credits().size()) * ENTRY_SIZE;
+        }
+        int size = Integer.BYTES + accounts.size() * ENTRY_SIZE + Integer.BYTES;
+        if (!intents.isEmpty()) {
+            size += Integer.BYTES + Integer.BYTES + intentBytes;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(intents.isEmpty() ? accounts.size() : accounts.size() | WITH_INTENTS);
+        for (LedgerAccount account : accounts) {
+            buffer.putLong(account.getId());
+            buffer.putLong(account.getBalance());
+        }
+        if (!intents.isEmpty()) {
+            buffer.putInt(Integer.BYTES + intentBytes);
+            buffer.putInt(intents.size());
+            for (TransferIntent intent : intents) {
+                buffer.putLong(intent.id());
+                buffer.put((byte) intent.step().ordinal());
+                buffer.putInt(intent.part());
+                buffer.putInt(intent.parts());
+                putLegs(buffer, intent.debits());
+                putLegs(buffer, intent.credits());
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return buffer;
+    }
+
+    private static void putLegs(ByteBuffer buffer, List<TransferIntent.Leg> legs) {
+        buffer.putInt(legs.size());
+        for (TransferIntent.Leg leg : legs) {
+            buffer.putLong(leg.accountId());
+            buffer.putLong(leg.amount());
+        }
+    }
+
+    private static List<TransferIntent.Leg> getLegs(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        List<TransferIntent.Leg> legs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            legs.add(new TransferIntent.Leg(buffer.getLong(), buffer.getLong()));
+        }
+        return legs;
+    }
+
+    private void write(ByteBuffer buffer, boolean force) throws IOException {
+        buffer.flip();
+        long position;
+        synchronized (this) {
+            if (poisoned) {
+                reopen();
+            }
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                discardFailedWrite();
+                throw e;
+            }
+            written += buffer.limit();
+            position = written;
+        }
+        if (fsync && force) {
+            sync(position);
+        }
+    }
+
+    // A record that was cut short would hide every record after it from replay, so the segment is cut back to
+    // the last whole record. If even that fails, the segment is left as it is and no longer written to.
+    private void discardFailedWrite() {
+        try {
+            channel.truncate(written);
+        } catch (IOException e) {
+            poisoned = true;
+        }
+    }
+
+    // Forcing the old segment first keeps every whole record in it; a torn tail left by a poisoned segment is
+    // where replay of that segment stops.
+    private void reopen() throws IOException {
+        if (channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+        channel = open(segment + 1);
+        segment++;
+        written = 0;
+        synced = 0;
+        poisoned = false;
+    }
+
+    // Group commit: whoever forces the channel also covers every record written before it.
+    private void sync(long position) throws IOException {
+        if (synced >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            FileChannel forced;
+            long target;
+            synchronized (this) {
+                forced = channel;
+                target = written;
+            }
+            forced.force(false);
+            synchronized (this) {
+                // a reopen in between has already forced the old segment and started counting afresh
+                if (channel == forced) {
+                    synced = target;
+                }
+            }
+        }
+    }
+
+    // Callers must make sure no append is in flight.
+    public synchronized long roll() throws IOException {
+        long closed = segment;
+        reopen();
+        return closed;
+    }
+
+    public void deleteUpTo(long segmentId) throws IOException {
+        for (long id : segmentIds()) {
+            if (id <= segmentId) {
+                Files.deleteIfExists(segmentPath(id));
+            }
+        }
+    }
+
+    public long replay(EntryConsumer consumer) throws IOException {
+        return replay(0, Long.MAX_VALUE, consumer, (segment, intent) -> {
+        });
+    }
+
+    // Replays the closed segments numbered from..to (inclusive) and returns the last one replayed, or 0.
+    public long replay(long from, long to, EntryConsumer consumer, IntentConsumer intents) throws IOException {
+        long last = 0;
+        for (long id : segmentIds()) {
+            if (id < from || id > to || id >= segment) {
+                continue;
+            }
+            replaySegment(id, consumer, intents);
+            last = id;
+        }
+        return last;
+    }
+
+    private void replaySegment(long id, EntryConsumer consumer, IntentConsumer intents) throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segmentPath(id))))) {
+            while (true) {
+                int header;
+                try {
+                    header = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                if (header < 0) {
+                    return;
+                }
+                int count = header & ~WITH_INTENTS;
+                ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + count * ENTRY_SIZE);
+                buffer.putInt(header);
+                ByteBuffer intentBuffer = null;
+                try {
+                    in.readFully(buffer.array(), Integer.BYTES, count * ENTRY_SIZE);
+                    CRC32 crc = new CRC32();
+                    crc.update(buffer.array());
+                    if ((header & WITH_INTENTS) != 0) {
+                        int length = in.readInt();
+                        if (length < Integer.BYTES) {
+                            return;
+                        }
+                        intentBuffer = ByteBuffer.allocate(Integer.BYTES + length);
+                        intentBuffer.putInt(length);
+                        in.readFully(intentBuffer.array(), Integer.BYTES, length);
+                        crc.update(intentBuffer.array());
+                    }
+                    if (in.readInt() != (int) crc.getValue()) {
+                        return;
+                    }
+                } catch (EOFException e) {
+                    // torn tail of a record that was never acknowledged
+                    return;
+                }
+                buffer.position(Integer.BYTES);
+                for (int i = 0; i < count; i++) {
+                    consumer.accept(buffer.getLong(), buffer.getLong());
+                }
+                if (intentBuffer != null) {
+                    intentBuffer.position(Integer.BYTES);
+                    int intentCount = intentBuffer.getInt();
+                    for (int i = 0; i < intentCount; i++) {
+                        long intentId = intentBuffer.getLong();
+                        TransferIntent.Step step = STEPS[intentBuffer.get()];
+                        int part = intentBuffer.getInt();
+                        int parts = intentBuffer.getInt();
+                        intents.accept(id, new TransferIntent(intentId, step, part, parts, getLegs(intentBuffer), getLegs(intentBuffer)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private FileChannel open(long id) throws IOException {
+        return opener.open(segmentPath(id));
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> segmentIds() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.azki.banking_system.ledger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Checkpoints of every ledger account, named after the journal segment they were cut at. A snapshot is written
+// to a temporary file and renamed once complete, and carries a CRC, so a crash mid-write leaves the previous one.
+// Only the newest is kept: the journal is truncated up to its cut, so an older one could not be caught up.
+public class LedgerSnapshots {
+
+    public record Snapshot(long cut, List<LedgerAccount> accounts) {
+    }
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    private static final int MAGIC = 0x4C534E50;
+
+    private final Path directory;
+
+    public LedgerSnapshots(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(path -> path.getFileName().toString().endsWith(".tmp")).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    public Path write(long cut, Iterable<LedgerAccount> accounts) throws IOException {
+        Path temporary = directory.resolve(PREFIX + cut + ".tmp");
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            var out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+            out.writeInt(MAGIC);
+            out.writeLong(cut);
+            for (LedgerAccount account : accounts) {
+                UUID accountNumber = UUID.fromString(account.getAccountNumber());
+                out.writeBoolean(true);
+                out.writeLong(account.getId());
+                out.writeLong(accountNumber.getMostSignificantBits());
+                out.writeLong(accountNumber.getLeastSignificantBits());
+                out.writeLong(account.getBalance());
+                out.writeUTF(account.getAccountHolderName());
+                out.writeUTF(account.getBankName());
+                count++;
+            }
+            out.writeBoolean(false);
+            out.writeLong(count);
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, path(cut), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return path(cut);
+    }
+
+    // Newest snapshot, or null when there is none or it does not read back intact.
+    public Snapshot loadLatest() throws IOException {
+        List<Long> cuts = cuts();
+        return cuts.isEmpty() ? null : read(path(cuts.get(cuts.size() - 1)));
+    }
+
+    public void deleteOlderThan(long cut) throws IOException {
+        for (long id : cuts()) {
+            if (id < cut) {
+                Files.deleteIfExists(path(id));
+            }
+        }
+    }
+
+    public void deleteAll() throws IOException {
+        deleteOlderThan(Long.MAX_VALUE);
+    }
+
+    private Snapshot read(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        try (var in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16), crc))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            long cut = in.readLong();
+            List<LedgerAccount> accounts = new ArrayList<>();
+            while (in.readBoolean()) {
+                long id = in.readLong();
+                UUID accountNumber = new UUID(in.readLong(), in.readLong());
+                long balance = in.readLong();
+                accounts.add(new LedgerAccount(id, accountNumber.toString(), in.readUTF(), in.readUTF(), balance));
+            }
+            long count = in.readLong();
+            int expected = (int) crc.getValue();
+            if (count != accounts.size() || in.readInt() != expected) {
+                return null;
+            }
+            return new Snapshot(cut, accounts);
+        } catch (IOException e) {
+            // truncated or unreadable
+            return null;
+        }
+    }
+
+    private Path path(long cut) {
+        return directory.resolve(String.format("%s%012d%s", PREFIX, cut, SUFFIX));
+    }
+
+    private List<Long> cuts() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted(Comparator.naturalOrder())
+                    .toList();
+        }
+    }
+}
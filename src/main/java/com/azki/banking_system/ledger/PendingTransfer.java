@@ -0,0 +1,64 @@
+package com.azki.banking_system.ledger;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// What the journal holds about a transaction that has not been settled yet.
+class PendingTransfer {
+
+    private final long id;
+    private final long firstSegment;
+    private final Map<Integer, TransferIntent> prepared = new TreeMap<>();
+    private final Set<Integer> credited = new HashSet<>();
+    private final Set<Integer> refunded = new HashSet<>();
+    private int parts;
+
+    PendingTransfer(long id, long firstSegment) {
+        this.id = id;
+        this.firstSegment = firstSegment;
+    }
+
+    long id() {
+        return id;
+    }
+
+    long firstSegment() {
+        return firstSegment;
+    }
+
+    void record(TransferIntent intent) {
+        switch (intent.step()) {
+            case PREPARED -> {
+                prepared.put(intent.part(), intent);
+                parts = intent.parts();
+            }
+            case CREDITED -> credited.add(intent.part());
+            case REFUNDED -> refunded.add(intent.part());
+            default -> {
+            }
+        }
+    }
+
+    // Parts are only credited after every part has prepared, so a missing part means the transaction never committed.
+    boolean committed() {
+        return parts > 0 && prepared.size() == parts;
+    }
+
+    boolean anyCredited() {
+        return !credited.isEmpty();
+    }
+
+    Map<Integer, TransferIntent> prepared() {
+        return prepared;
+    }
+
+    boolean isCredited(int part) {
+        return credited.contains(part);
+    }
+
+    boolean isRefunded(int part) {
+        return refunded.contains(part);
+    }
+}
@@ -0,0 +1,33 @@
+package com.azki.banking_system.ledger;
+
+import java.util.List;
+
+// One step of a transaction that spans shards, journaled in the same record as the balances the step changed.
+// Every shard taking part first journals PREPARED with the debits it took and the credits it still owes; the
+// transaction is committed once all of its parts are prepared, and each part is then CREDITED, or REFUNDED when
+// the transaction is rolled back. SETTLED closes the transaction so recovery leaves it alone.
+public record TransferIntent(long id, Step step, int part, int parts, List<Leg> debits, List<Leg> credits) {
+
+    public enum Step {
+        PREPARED, CREDITED, REFUNDED, SETTLED
+    }
+
+    public record Leg(long accountId, long amount) {
+    }
+
+    public static TransferIntent prepared(long id, int part, int parts, List<Leg> debits, List<Leg> credits) {
+        return new TransferIntent(id, Step.PREPARED, part, parts, debits, credits);
+    }
+
+    public static TransferIntent credited(long id, int part) {
+        return new TransferIntent(id, Step.CREDITED, part, 0, List.of(), List.of());
+    }
+
+    public static TransferIntent refunded(long id, int part) {
+        return new TransferIntent(id, Step.REFUNDED, part, 0, List.of(), List.of());
+    }
+
+    public static TransferIntent settled(long id) {
+        return new TransferIntent(id, Step.SETTLED, 0, 0, List.of(), List.of());
+    }
+}
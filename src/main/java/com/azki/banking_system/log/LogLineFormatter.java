@@ -0,0 +1,27 @@
+package com.azki.banking_system.log;
+
+import com.azki.banking_system.utils.Money;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+public final class LogLineFormatter {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter
+            .ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", Locale.US)
+            .withZone(ZoneId.systemDefault());
+
+    private LogLineFormatter() {
+    }
+
+    public static StringBuilder appendLine(StringBuilder builder, long timestamp, String accountNumber,
+                                           String transactionType, long amount) {
+        return builder.append('[').append(DATE_FORMAT.format(Instant.ofEpochMilli(timestamp))).append("] --- Account: ")
+                .append(accountNumber)
+                .append(", Transaction: ").append(transactionType)
+                .append(", Amount: ").append(Money.format(amount))
+                .append('\n');
+    }
+}
@@ -1,4 +1,15 @@
 package com.azki.banking_system.log;
 
-public record LogModel(String accountNumber, String transactionType, double amount) {
+import java.time.Instant;
+
+// balanceAfter is the balance the operation left on the account, or null when the caller does not know it.
+// sequence and time are given by the engine while it holds the account, so they follow the account's changes
+// whatever order the event is delivered in.
+public record LogModel(String accountNumber, String transactionType, long amount, Long balanceAfter,
+                       long sequence, Instant time) {
+
+    // An event from outside the engines has no place in the account's history; it is numbered 0 and timed now.
+    public LogModel(String accountNumber, String transactionType, long amount) {
+        this(accountNumber, transactionType, amount, null, 0, Instant.now());
+    }
 }
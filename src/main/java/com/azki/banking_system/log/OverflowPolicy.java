@@ -0,0 +1,7 @@
+package com.azki.banking_system.log;
+
+public enum OverflowPolicy {
+    BLOCK,
+    DROP,
+    FAIL
+}
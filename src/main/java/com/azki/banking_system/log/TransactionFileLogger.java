@@ -1,32 +1,43 @@
 package com.azki.banking_system.log;
 
-import com.azki.banking_system.exceptions.TransactionLogFailedException;
+import com.azki.banking_system.metrics.BankMetrics;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.Date;
+import java.nio.file.Path;
 
 @Component
+@ConditionalOnProperty(name = "log.text.enabled", havingValue = "true", matchIfMissing = true)
 public class TransactionFileLogger implements TransactionLogger {
 
-    private String filePath;
+    private final TransactionJournalWriter writer;
 
     @Autowired
-    public TransactionFileLogger(@Value("${log.file.path}") String filePath) {
-        this.filePath = filePath;
+    public TransactionFileLogger(@Value("${log.file.path}") String filePath,
+                                 @Value("${log.queue.capacity}") int queueCapacity,
+                                 @Value("${log.batch.size}") int batchSize,
+                                 @Value("${log.fsync.policy}") FsyncPolicy fsyncPolicy,
+                                 @Value("${log.fsync.interval.ms}") long fsyncIntervalMs,
+                                 @Value("${log.rotation.size.bytes}") long rotationSizeBytes,
+                                 @Value("${log.overflow.policy}") OverflowPolicy overflowPolicy,
+                                 BankMetrics metrics) throws IOException {
+        this.writer = new TransactionJournalWriter(Path.of(filePath), queueCapacity, batchSize, fsyncPolicy,
+                fsyncIntervalMs, rotationSizeBytes, overflowPolicy, metrics.journal("text"));
+        metrics.gauge("bank.journal.queue.depth", "journal", "text", writer, TransactionJournalWriter::queueDepth);
+        metrics.gauge("bank.journal.dropped", "journal", "text", writer, TransactionJournalWriter::droppedCount);
     }
 
     @Override
-    public void onTransaction(String accountNumber, String transactionType, double amount) {
-        try (FileWriter fileWriter = new FileWriter(filePath, true);
-             PrintWriter printWriter = new PrintWriter(fileWriter)) {
-            printWriter.printf("[%s] --- Account: %s, Transaction: %s, Amount: %.2f\n", new Date(), accountNumber, transactionType, amount);
-        } catch (IOException e) {
-            throw new TransactionLogFailedException();
-        }
+    public void onTransaction(String accountNumber, String transactionType, long amount) {
+        writer.append(new LogModel(accountNumber, transactionType, amount));
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        writer.close();
     }
 }
@@ -0,0 +1,114 @@
+package com.azki.banking_system.log;
+
+import com.azki.banking_system.concurrency.MpscRingBuffer;
+import com.azki.banking_system.entities.TransactionHistoryEntity;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.repositories.TransactionHistoryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Persists every balance change to the transaction-history table. Callers only enqueue; one writer thread
+// inserts in batches so the history never adds a database round trip to a deposit or withdrawal.
+@Component
+@ConditionalOnProperty(name = "history.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionHistoryRecorder implements TransactionLogger {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionHistoryRecorder.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final TransactionHistoryRepository transactionHistoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MpscRingBuffer<TransactionHistoryEntity> queue;
+    private final int batchSize;
+    private final BankMetrics.JournalRecorder journalMetrics;
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final Thread consumer;
+    private volatile boolean running = true;
+
+    @Autowired
+    public TransactionHistoryRecorder(TransactionHistoryRepository transactionHistoryRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      @Value("${history.queue.capacity}") int queueCapacity,
+                                      @Value("${history.batch.size}") int batchSize,
+                                      BankMetrics metrics) {
+        this.transactionHistoryRepository = transactionHistoryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new MpscRingBuffer<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.journalMetrics = metrics.journal("history");
+        metrics.gauge("bank.journal.queue.depth", "journal", "history", queue, MpscRingBuffer::size);
+
+        consumer = new Thread(this::drainLoop, "transaction-history-writer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @Override
+    public void onTransaction(String accountNumber, String transactionType, long amount) {
+        onTransaction(new LogModel(accountNumber, transactionType, amount));
+    }
+
+    @Override
+    public void onTransaction(LogModel logModel) {
+        var entry = new TransactionHistoryEntity(logModel.accountNumber(), logModel.sequence(), logModel.time(),
+                logModel.transactionType(), logModel.amount(), logModel.balanceAfter());
+        enqueued.incrementAndGet();
+        while (!queue.offer(entry)) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    // Waits until everything recorded before the call has been written (or failed to write).
+    public void flush() {
+        long target = enqueued.get();
+        while (completed.get() < target && consumer.isAlive()) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    private void drainLoop() {
+        List<TransactionHistoryEntity> batch = new ArrayList<>(batchSize);
+        while (running || queue.size() > 0) {
+            TransactionHistoryEntity entry;
+            while (batch.size() < batchSize && (entry = queue.poll()) != null) {
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status -> transactionHistoryRepository.saveAll(batch));
+                journalMetrics.record(start, batch.size());
+            } catch (RuntimeException e) {
+                log.error("Could not write {} transaction history entries", batch.size(), e);
+            }
+            completed.addAndGet(batch.size());
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.azki.banking_system.log;
+
+import com.azki.banking_system.concurrency.MpscRingBuffer;
+import com.azki.banking_system.exceptions.TransactionLogFailedException;
+import com.azki.banking_system.metrics.BankMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class TransactionJournalWriter implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionJournalWriter.class);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long RETRY_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int SHUTDOWN_WRITE_ATTEMPTS = 3;
+
+    private record Entry(LogModel logModel, long timestamp) {
+    }
+
+    private final Path path;
+    private final MpscRingBuffer<Entry> queue;
+    private final int batchSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final long rotationSizeBytes;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong dropped = new AtomicLong();
+    private final BankMetrics.JournalRecorder journalMetrics;
+    private final Thread consumer;
+
+    private FileChannel channel;
+    private long lastFsync = System.nanoTime();
+    // Written but not yet forced under the interval policy; an idle consumer only wakes on its own to force it.
+    private boolean unsynced;
+    private volatile boolean running = true;
+    private volatile boolean idle;
+
+    public TransactionJournalWriter(Path path, int queueCapacity, int batchSize, FsyncPolicy fsyncPolicy,
+                                    long fsyncIntervalMs, long rotationSizeBytes, OverflowPolicy overflowPolicy,
+                                    BankMetrics.JournalRecorder journalMetrics) throws IOException {
+        this.path = path;
+        this.queue = new MpscRingBuffer<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        this.rotationSizeBytes = rotationSizeBytes;
+        this.overflowPolicy = overflowPolicy;
+        this.journalMetrics = journalMetrics;
+        this.channel = open();
+
+        consumer = new Thread(this::drainLoop, "transaction-journal-writer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    public void append(LogModel logModel) {
+        var entry = new Entry(logModel, System.currentTimeMillis());
+        if (queue.offer(entry)) {
+            wake();
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP -> dropped.incrementAndGet();
+            case FAIL -> throw new TransactionLogFailedException();
+            case BLOCK -> {
+                while (!queue.offer(entry)) {
+                    if (!running) {
+                        throw new TransactionLogFailedException();
+                    }
+                    LockSupport.parkNanos(FULL_PARK_NANOS);
+                }
+                wake();
+            }
+        }
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        StringBuilder batch = new StringBuilder(batchSize * 96);
+        while (running || queue.size() > 0) {
+            int drained = 0;
+            Entry entry;
+            while (drained < batchSize && (entry = queue.poll()) != null) {
+                format(batch, entry);
+                drained++;
+            }
+            if (drained == 0) {
+                syncIfDue();
+                // size() reads the tail a producer claims before it checks idle, so a wake-up is never lost
+                idle = true;
+                if (queue.size() == 0 && running) {
+                    if (unsynced) {
+                        LockSupport.parkNanos(this, fsyncIntervalNanos - (System.nanoTime() - lastFsync));
+                    } else {
+                        LockSupport.park(this);
+                    }
+                }
+                idle = false;
+                continue;
+            }
+            long start = System.nanoTime();
+            if (writeOrRetry(batch, drained)) {
+                journalMetrics.record(start, drained);
+            }
+            batch.setLength(0);
+        }
+    }
+
+    private void wake() {
+        if (idle) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    // A batch that cannot be written is kept and retried, while the queue fills up behind it and the overflow
+    // policy takes over. Only at shutdown are entries given up on; they are counted with the dropped ones.
+    private boolean writeOrRetry(StringBuilder batch, int entries) {
+        ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(buffer);
+                if (attempt > 1) {
+                    log.info("Wrote {} transaction log entries to {} after {} attempts", entries, path, attempt);
+                }
+                return true;
+            } catch (IOException e) {
+                if (attempt == 1) {
+                    log.error("Could not write {} transaction log entries to {}, retrying", entries, path, e);
+                }
+                if (!running && attempt >= SHUTDOWN_WRITE_ATTEMPTS) {
+                    dropped.addAndGet(entries);
+                    log.error("Gave up on {} transaction log entries for {} at shutdown", entries, path, e);
+                    return false;
+                }
+                LockSupport.parkNanos(RETRY_PARK_NANOS);
+            }
+        }
+    }
+
+    private void format(StringBuilder batch, Entry entry) {
+        LogModel logModel = entry.logModel();
+        LogLineFormatter.appendLine(batch, entry.timestamp(), logModel.accountNumber(),
+                logModel.transactionType(), logModel.amount());
+    }
+
+    // Resumes where a failed attempt left the buffer, so a retry never writes part of a batch twice.
+    private void write(ByteBuffer buffer) throws IOException {
+        if (!channel.isOpen()) {
+            channel = open();
+        }
+        if (rotationSizeBytes > 0 && buffer.position() == 0 && channel.size() > 0
+                && channel.size() + buffer.remaining() > rotationSizeBytes) {
+            rotate();
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsyncPolicy == FsyncPolicy.BATCH) {
+            channel.force(false);
+        } else {
+            unsynced = fsyncPolicy == FsyncPolicy.INTERVAL;
+            syncIfDue();
+        }
+    }
+
+    private void syncIfDue() {
+        if (!unsynced || !channel.isOpen() || System.nanoTime() - lastFsync < fsyncIntervalNanos) {
+            return;
+        }
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            log.error("Could not fsync transaction log {}", path, e);
+        }
+        unsynced = false;
+        lastFsync = System.nanoTime();
+    }
+
+    private void rotate() throws IOException {
+        channel.force(false);
+        channel.close();
+        int index = 1;
+        Path rotated;
+        do {
+            rotated = path.resolveSibling(path.getFileName() + "." + index++);
+        } while (Files.exists(rotated));
+        Files.move(path, rotated);
+        channel = open();
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!channel.isOpen()) {
+            return;
+        }
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            channel.force(false);
+        }
+        channel.close();
+    }
+}
@@ -0,0 +1,233 @@
+package com.azki.banking_system.log;
+
+import com.azki.banking_system.concurrency.MpscRingBuffer;
+import com.azki.banking_system.metrics.BankMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.azki.banking_system.utils.Constants.DISPATCH_OVERFLOW_POLICY_ERROR_MESSAGE;
+
+// Hands transaction events to every registered observer off the calling thread. Each observer gets its own
+// lanes, each a bounded queue with a dedicated consumer, so a slow or failing observer only delays itself.
+// An account always maps to the same lane, so one observer sees an account's events in publishing order.
+// Events are published after the operation is applied, so a full queue can only hold the publisher up or skip
+// the event; failing the request at that point would report an applied operation as failed.
+@Component
+public class TransactionLogDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionLogDispatcher.class);
+    private static final long WAIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private record Envelope(LogModel logModel, long publishedNanos) {
+    }
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final int queueCapacity;
+    private final int lanes;
+    private final OverflowPolicy overflowPolicy;
+    private final BankMetrics metrics;
+
+    @Autowired
+    public TransactionLogDispatcher(List<TransactionLogger> loggers,
+                                    @Value("${log.dispatch.queue.capacity}") int queueCapacity,
+                                    @Value("${log.dispatch.lanes}") int lanes,
+                                    @Value("${log.dispatch.overflow.policy}") OverflowPolicy overflowPolicy,
+                                    BankMetrics metrics) {
+        if (overflowPolicy == OverflowPolicy.FAIL) {
+            throw new IllegalArgumentException(DISPATCH_OVERFLOW_POLICY_ERROR_MESSAGE);
+        }
+        this.queueCapacity = queueCapacity;
+        this.lanes = lanes;
+        this.overflowPolicy = overflowPolicy;
+        this.metrics = metrics;
+        loggers.forEach(this::register);
+    }
+
+    public synchronized void register(TransactionLogger observer) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.observer == observer) {
+                return;
+            }
+        }
+        subscriptions.add(new Subscription(observer));
+    }
+
+    // Events already queued for the observer are still delivered before it is detached.
+    public synchronized void unregister(TransactionLogger observer) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.observer == observer) {
+                subscriptions.remove(subscription);
+                subscription.close();
+                return;
+            }
+        }
+    }
+
+    public void publish(LogModel logModel) {
+        var envelope = new Envelope(logModel, System.nanoTime());
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(envelope);
+        }
+    }
+
+    // Waits until every event published before the call has been handed to every observer.
+    public void flush() {
+        for (Subscription subscription : subscriptions) {
+            subscription.flush();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+        subscriptions.clear();
+    }
+
+    private final class Subscription {
+        private final TransactionLogger observer;
+        private final String name;
+        private final Lane[] lanes;
+        private final Timer lag;
+        private final Counter failures;
+        private final Counter dropped;
+
+        private Subscription(TransactionLogger observer) {
+            this.observer = observer;
+            this.name = observer.getClass().getSimpleName();
+            this.lag = metrics.observerLag(name);
+            this.failures = metrics.counter("bank.observer.failures", "observer", name);
+            this.dropped = metrics.counter("bank.observer.dropped", "observer", name);
+            this.lanes = new Lane[TransactionLogDispatcher.this.lanes];
+            for (int i = 0; i < this.lanes.length; i++) {
+                this.lanes[i] = new Lane(this, name + "-" + i);
+            }
+            metrics.gauge("bank.observer.queue.depth", "observer", name, this, Subscription::queueDepth);
+        }
+
+        private void offer(Envelope envelope) {
+            Lane lane = lanes[(envelope.logModel().accountNumber().hashCode() & Integer.MAX_VALUE) % lanes.length];
+            if (lane.queue.offer(envelope)) {
+                lane.published.incrementAndGet();
+                lane.wake();
+                return;
+            }
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                dropped.increment();
+                return;
+            }
+            while (!lane.queue.offer(envelope)) {
+                if (!lane.running) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.parkNanos(WAIT_PARK_NANOS);
+            }
+            lane.published.incrementAndGet();
+            lane.wake();
+        }
+
+        private void deliver(Envelope envelope) {
+            try {
+                observer.onTransaction(envelope.logModel());
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.error("Observer {} failed on a {} event for account {}", name,
+                        envelope.logModel().transactionType(), envelope.logModel().accountNumber(), e);
+            }
+            lag.record(System.nanoTime() - envelope.publishedNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        private void flush() {
+            for (Lane lane : lanes) {
+                lane.flush();
+            }
+        }
+
+        private void close() {
+            for (Lane lane : lanes) {
+                lane.close();
+            }
+        }
+
+        private double queueDepth() {
+            int depth = 0;
+            for (Lane lane : lanes) {
+                depth += lane.queue.size();
+            }
+            return depth;
+        }
+    }
+
+    private final class Lane {
+        private final Subscription subscription;
+        private final MpscRingBuffer<Envelope> queue = new MpscRingBuffer<>(queueCapacity);
+        private final AtomicLong published = new AtomicLong();
+        private final AtomicLong delivered = new AtomicLong();
+        private final Thread consumer;
+        private volatile boolean running = true;
+        private volatile boolean idle;
+
+        private Lane(Subscription subscription, String name) {
+            this.subscription = subscription;
+            consumer = new Thread(this::drainLoop, "observer-" + name);
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+
+        private void drainLoop() {
+            while (true) {
+                Envelope envelope = queue.poll();
+                if (envelope != null) {
+                    subscription.deliver(envelope);
+                    delivered.incrementAndGet();
+                } else if (!running) {
+                    return;
+                } else {
+                    // size() reads the tail a producer claims before it checks idle, so a wake-up is never lost
+                    idle = true;
+                    if (queue.size() == 0 && running) {
+                        LockSupport.park(this);
+                    }
+                    idle = false;
+                }
+            }
+        }
+
+        private void wake() {
+            if (idle) {
+                LockSupport.unpark(consumer);
+            }
+        }
+
+        private void flush() {
+            long target = published.get();
+            while (delivered.get() < target && consumer.isAlive()) {
+                LockSupport.parkNanos(WAIT_PARK_NANOS);
+            }
+        }
+
+        private void close() {
+            running = false;
+            LockSupport.unpark(consumer);
+            try {
+                consumer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -1,22 +1,23 @@
 package com.azki.banking_system.log;
 
-import java.util.ArrayList;
-import java.util.List;
-
+// Publishing only enqueues; observers run on the dispatcher's threads, so one that is slow or throws
+// cannot hold up or fail an operation that has already been applied.
 public abstract class TransactionLogSubject {
-    private final List<TransactionLogger> observers = new ArrayList<>();
+    private final TransactionLogDispatcher dispatcher;
+
+    protected TransactionLogSubject(TransactionLogDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
 
     public void addObserver(TransactionLogger observer) {
-        observers.add(observer);
+        dispatcher.register(observer);
     }
 
     public void removeObserver(TransactionLogger observer) {
-        observers.remove(observer);
+        dispatcher.unregister(observer);
     }
 
     protected void notifyObservers(LogModel logModel) {
-        for (TransactionLogger observer : observers) {
-            observer.onTransaction(logModel.accountNumber(), logModel.transactionType(), logModel.amount());
-        }
+        dispatcher.publish(logModel);
     }
 }
@@ -1,5 +1,9 @@
 package com.azki.banking_system.log;
 
 public interface TransactionLogger {
-    void onTransaction(String accountNumber, String transactionType, double amount);
+    void onTransaction(String accountNumber, String transactionType, long amount);
+
+    default void onTransaction(LogModel logModel) {
+        onTransaction(logModel.accountNumber(), logModel.transactionType(), logModel.amount());
+    }
 }
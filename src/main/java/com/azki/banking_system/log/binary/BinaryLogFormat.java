@@ -0,0 +1,79 @@
+package com.azki.banking_system.log.binary;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import static com.azki.banking_system.utils.Constants.CLOSE;
+import static com.azki.banking_system.utils.Constants.DEPOSIT;
+import static com.azki.banking_system.utils.Constants.OPEN;
+import static com.azki.banking_system.utils.Constants.WITHDRAW;
+
+// Fixed-width big-endian record:
+// sequence(8) timestamp(8) account msb(8) account lsb(8) amount in minor units(8) type(4) crc32(4)
+public final class BinaryLogFormat {
+
+    public static final int RECORD_SIZE = 48;
+    static final int SEQUENCE_OFFSET = 0;
+    static final int TIMESTAMP_OFFSET = 8;
+    static final int ACCOUNT_MSB_OFFSET = 16;
+    static final int ACCOUNT_LSB_OFFSET = 24;
+    static final int AMOUNT_OFFSET = 32;
+    static final int TYPE_OFFSET = 40;
+    static final int CRC_OFFSET = 44;
+
+    static final byte UNKNOWN_TYPE = 0;
+    static final byte DEPOSIT_TYPE = 1;
+    static final byte WITHDRAW_TYPE = 2;
+    static final byte OPEN_TYPE = 3;
+    static final byte CLOSE_TYPE = 4;
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".bin";
+
+    private BinaryLogFormat() {
+    }
+
+    static byte typeCode(String transactionType) {
+        if (DEPOSIT.equals(transactionType)) {
+            return DEPOSIT_TYPE;
+        } else if (WITHDRAW.equals(transactionType)) {
+            return WITHDRAW_TYPE;
+        } else if (OPEN.equals(transactionType)) {
+            return OPEN_TYPE;
+        } else if (CLOSE.equals(transactionType)) {
+            return CLOSE_TYPE;
+        }
+        return UNKNOWN_TYPE;
+    }
+
+    static String typeName(byte code) {
+        return switch (code) {
+            case DEPOSIT_TYPE -> DEPOSIT;
+            case WITHDRAW_TYPE -> WITHDRAW;
+            case OPEN_TYPE -> OPEN;
+            case CLOSE_TYPE -> CLOSE;
+            default -> "unknown";
+        };
+    }
+
+    static void write(ByteBuffer buffer, int offset, long sequence, long timestamp, UUID account, long amount, byte type) {
+        buffer.putLong(offset + SEQUENCE_OFFSET, sequence);
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        buffer.putLong(offset + ACCOUNT_MSB_OFFSET, account.getMostSignificantBits());
+        buffer.putLong(offset + ACCOUNT_LSB_OFFSET, account.getLeastSignificantBits());
+        buffer.putLong(offset + AMOUNT_OFFSET, amount);
+        buffer.putInt(offset + TYPE_OFFSET, type);
+        buffer.putInt(offset + CRC_OFFSET, crc(buffer, offset));
+    }
+
+    static boolean isValid(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + SEQUENCE_OFFSET) != 0 && buffer.getInt(offset + CRC_OFFSET) == crc(buffer, offset);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+}
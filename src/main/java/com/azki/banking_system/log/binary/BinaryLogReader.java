@@ -0,0 +1,88 @@
+package com.azki.banking_system.log.binary;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.azki.banking_system.log.binary.BinaryLogFormat.RECORD_SIZE;
+
+@Component
+public class BinaryLogReader {
+
+    private final Path directory;
+
+    @Autowired
+    public BinaryLogReader(@Value("${log.binary.dir}") String directory) {
+        this.directory = Path.of(directory);
+    }
+
+    public List<Long> segments() throws IOException {
+        return BinaryLogSegments.ids(directory);
+    }
+
+    // Streams every valid record of one segment; safe to call for different segments from several threads.
+    public long readSegment(long segment, Consumer<BinaryLogRecord> consumer) throws IOException {
+        BinaryLogRecord record = new BinaryLogRecord();
+        MappedByteBuffer buffer = map(BinaryLogSegments.path(directory, segment));
+        int records = buffer.capacity() / RECORD_SIZE;
+        long visited = 0;
+        for (int slot = 0; slot < records; slot++) {
+            int offset = slot * RECORD_SIZE;
+            if (!BinaryLogFormat.isValid(buffer, offset)) {
+                break;
+            }
+            record.moveTo(buffer, offset);
+            consumer.accept(record);
+            visited++;
+        }
+        return visited;
+    }
+
+    // Streams every valid record with fromSequence <= sequence <= toSequence and returns how many were visited.
+    public long read(long fromSequence, long toSequence, Consumer<BinaryLogRecord> consumer) throws IOException {
+        BinaryLogRecord record = new BinaryLogRecord();
+        long visited = 0;
+        for (long id : BinaryLogSegments.ids(directory)) {
+            MappedByteBuffer buffer = map(BinaryLogSegments.path(directory, id));
+            int records = buffer.capacity() / RECORD_SIZE;
+            if (records == 0 || !BinaryLogFormat.isValid(buffer, 0)) {
+                continue;
+            }
+            long first = buffer.getLong(0);
+            if (first > toSequence) {
+                break;
+            }
+            if (first + records <= fromSequence) {
+                continue;
+            }
+            int slot = (int) Math.max(0, fromSequence - first);
+            for (; slot < records; slot++) {
+                int offset = slot * RECORD_SIZE;
+                if (!BinaryLogFormat.isValid(buffer, offset)) {
+                    break;
+                }
+                record.moveTo(buffer, offset);
+                if (record.sequence() > toSequence) {
+                    return visited;
+                }
+                consumer.accept(record);
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
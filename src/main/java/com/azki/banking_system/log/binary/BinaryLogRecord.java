@@ -0,0 +1,46 @@
+package com.azki.banking_system.log.binary;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static com.azki.banking_system.log.binary.BinaryLogFormat.*;
+
+// Flyweight view over a mapped segment; it is repositioned for every record and must not be retained.
+public class BinaryLogRecord {
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    void moveTo(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public long sequence() {
+        return buffer.getLong(offset + SEQUENCE_OFFSET);
+    }
+
+    public long timestamp() {
+        return buffer.getLong(offset + TIMESTAMP_OFFSET);
+    }
+
+    public long accountMostSignificantBits() {
+        return buffer.getLong(offset + ACCOUNT_MSB_OFFSET);
+    }
+
+    public long accountLeastSignificantBits() {
+        return buffer.getLong(offset + ACCOUNT_LSB_OFFSET);
+    }
+
+    public String accountNumber() {
+        return new UUID(accountMostSignificantBits(), accountLeastSignificantBits()).toString();
+    }
+
+    public long amountMinorUnits() {
+        return buffer.getLong(offset + AMOUNT_OFFSET);
+    }
+
+    public String transactionType() {
+        return typeName((byte) buffer.getInt(offset + TYPE_OFFSET));
+    }
+}
@@ -0,0 +1,33 @@
+package com.azki.banking_system.log.binary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.azki.banking_system.log.binary.BinaryLogFormat.SEGMENT_PREFIX;
+import static com.azki.banking_system.log.binary.BinaryLogFormat.SEGMENT_SUFFIX;
+
+final class BinaryLogSegments {
+
+    private BinaryLogSegments() {
+    }
+
+    static Path path(Path directory, long id) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    static List<Long> ids(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
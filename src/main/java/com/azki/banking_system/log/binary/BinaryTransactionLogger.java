@@ -0,0 +1,129 @@
+package com.azki.banking_system.log.binary;
+
+import com.azki.banking_system.exceptions.TransactionLogFailedException;
+import com.azki.banking_system.log.LogModel;
+import com.azki.banking_system.log.TransactionLogger;
+import com.azki.banking_system.utils.AccountNumbers;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.azki.banking_system.log.binary.BinaryLogFormat.RECORD_SIZE;
+
+@Component
+@ConditionalOnProperty(name = "log.binary.enabled", havingValue = "true")
+public class BinaryTransactionLogger implements TransactionLogger {
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryTransactionLogger.class);
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final AtomicLong rejected = new AtomicLong();
+
+    private long segment;
+    private MappedByteBuffer buffer;
+    private int slot;
+    private long nextSequence = 1;
+
+    @Autowired
+    public BinaryTransactionLogger(@Value("${log.binary.dir}") String directory,
+                                   @Value("${log.binary.segment.records}") int segmentRecords) throws IOException {
+        this.directory = Path.of(directory);
+        this.segmentRecords = segmentRecords;
+        Files.createDirectories(this.directory);
+
+        List<Long> segments = BinaryLogSegments.ids(this.directory);
+        segment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        buffer = map(segment);
+        while (slot < segmentRecords && BinaryLogFormat.isValid(buffer, slot * RECORD_SIZE)) {
+            nextSequence = buffer.getLong(slot * RECORD_SIZE) + 1;
+            slot++;
+        }
+        // a stop right after a roll leaves the newest segment empty; the numbering goes on from the ones before it
+        for (int i = segments.size() - 2; slot == 0 && nextSequence == 1 && i >= 0; i--) {
+            nextSequence = lastSequence(BinaryLogSegments.path(this.directory, segments.get(i))) + 1;
+        }
+    }
+
+    @Override
+    public void onTransaction(String accountNumber, String transactionType, long amount) {
+        onTransaction(new LogModel(accountNumber, transactionType, amount));
+    }
+
+    // Records carry the time the engine gave the operation, not the time it is delivered, so they line up with the
+    // statement however long the event waited in its lane.
+    @Override
+    public void onTransaction(LogModel logModel) {
+        // Records hold the account as 16 bytes, so only canonical UUID account numbers can be logged.
+        UUID account = AccountNumbers.parse(logModel.accountNumber());
+        if (account == null) {
+            rejected.incrementAndGet();
+            log.warn("Not logging a {} of {} for account {}, which is not a UUID",
+                    logModel.transactionType(), logModel.amount(), logModel.accountNumber());
+            return;
+        }
+        byte type = BinaryLogFormat.typeCode(logModel.transactionType());
+        long timestamp = logModel.time().toEpochMilli();
+
+        synchronized (this) {
+            if (slot == segmentRecords) {
+                roll();
+            }
+            BinaryLogFormat.write(buffer, slot * RECORD_SIZE, nextSequence++, timestamp, account, logModel.amount(), type);
+            slot++;
+        }
+    }
+
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    private void roll() {
+        buffer.force();
+        segment++;
+        try {
+            buffer = map(segment);
+        } catch (IOException e) {
+            throw new TransactionLogFailedException();
+        }
+        slot = 0;
+    }
+
+    // Read-only and at the file's own size, so an older segment is never grown to the current segment size.
+    private static long lastSequence(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer old = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            long last = 0;
+            for (int offset = 0; offset + RECORD_SIZE <= old.capacity() && BinaryLogFormat.isValid(old, offset); offset += RECORD_SIZE) {
+                last = old.getLong(offset);
+            }
+            return last;
+        }
+    }
+
+    private MappedByteBuffer map(long id) throws IOException {
+        try (FileChannel channel = FileChannel.open(BinaryLogSegments.path(directory, id),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        buffer.force();
+    }
+}
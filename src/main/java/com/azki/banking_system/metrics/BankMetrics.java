@@ -0,0 +1,98 @@
+package com.azki.banking_system.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+// Meters are registered once and handed to the hot paths, which only call record(); gauges are pulled at scrape time.
+@Component
+public class BankMetrics {
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public BankMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer operation(String name) {
+        return Timer.builder("bank.operation")
+                .description("Service-level latency of a banking operation, including executor queueing")
+                .tag("operation", name)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public Timer lockWait() {
+        return Timer.builder("bank.lock.wait")
+                .description("Time spent waiting to acquire account lock stripes")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public JournalRecorder journal(String name) {
+        Timer writes = Timer.builder("bank.journal.write")
+                .description("Latency of one journal write, including fsync when it is part of the write")
+                .tag("journal", name)
+                .publishPercentileHistogram()
+                .register(registry);
+        DistributionSummary batches = DistributionSummary.builder("bank.journal.batch.size")
+                .description("Records written per journal write")
+                .tag("journal", name)
+                .register(registry);
+        return new JournalRecorder(writes, batches);
+    }
+
+    public Timer observerLag(String observer) {
+        return Timer.builder("bank.observer.lag")
+                .description("Time from publishing a transaction event to an observer finishing with it")
+                .tag("observer", observer)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public Counter counter(String name, String tagKey, String tagValue) {
+        return Counter.builder(name).tag(tagKey, tagValue).register(registry);
+    }
+
+    public void monitorExecutor(ExecutorService executorService) {
+        if (executorService instanceof ThreadPoolExecutor pool) {
+            gauge("bank.executor.queued", pool, executor -> executor.getQueue().size());
+            gauge("bank.executor.active", pool, ThreadPoolExecutor::getActiveCount);
+            gauge("bank.executor.pool.size", pool, ThreadPoolExecutor::getPoolSize);
+        }
+    }
+
+    public <T> void gauge(String name, T target, ToDoubleFunction<T> value) {
+        Gauge.builder(name, target, value).register(registry);
+    }
+
+    public <T> void gauge(String name, String tagKey, String tagValue, T target, ToDoubleFunction<T> value) {
+        Gauge.builder(name, target, value).tag(tagKey, tagValue).register(registry);
+    }
+
+    public static final class JournalRecorder {
+
+        private final Timer writes;
+        private final DistributionSummary batches;
+
+        private JournalRecorder(Timer writes, DistributionSummary batches) {
+            this.writes = writes;
+            this.batches = batches;
+        }
+
+        public void record(long startNanos, int records) {
+            writes.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            batches.record(records);
+        }
+    }
+}
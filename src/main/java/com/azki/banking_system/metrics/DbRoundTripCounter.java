@@ -0,0 +1,70 @@
+package com.azki.banking_system.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Hibernate hands every SQL statement it prepares to the inspector, so this counts round trips per statement kind.
+// A JDBC batch is prepared once and therefore counted once.
+@Component
+public class DbRoundTripCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private final Counter selects;
+    private final Counter inserts;
+    private final Counter updates;
+    private final Counter deletes;
+    private final Counter others;
+
+    @Autowired
+    public DbRoundTripCounter(MeterRegistry registry) {
+        selects = counter(registry, "select");
+        inserts = counter(registry, "insert");
+        updates = counter(registry, "update");
+        deletes = counter(registry, "delete");
+        others = counter(registry, "other");
+    }
+
+    @Override
+    public String inspect(String sql) {
+        counterFor(sql).increment();
+        return sql;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    private Counter counterFor(String sql) {
+        int start = 0;
+        while (start < sql.length() && Character.isWhitespace(sql.charAt(start))) {
+            start++;
+        }
+        if (sql.regionMatches(true, start, "select", 0, 6)) {
+            return selects;
+        }
+        if (sql.regionMatches(true, start, "insert", 0, 6)) {
+            return inserts;
+        }
+        if (sql.regionMatches(true, start, "update", 0, 6)) {
+            return updates;
+        }
+        if (sql.regionMatches(true, start, "delete", 0, 6)) {
+            return deletes;
+        }
+        return others;
+    }
+
+    private static Counter counter(MeterRegistry registry, String statement) {
+        return Counter.builder("bank.db.statements")
+                .description("SQL statements prepared by Hibernate")
+                .tag("statement", statement)
+                .register(registry);
+    }
+}
@@ -0,0 +1,72 @@
+package com.azki.banking_system.repositories;
+
+import com.azki.banking_system.cache.AccountIdIndex;
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.utils.AccountNumbers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+
+// Resolves account numbers through the in-process id index so repeat lookups go straight to the primary key.
+@Component
+public class AccountLookup {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final AccountIdIndex accountIdIndex;
+
+    @Autowired
+    public AccountLookup(BankAccountRepository bankAccountRepository, AccountIdIndex accountIdIndex) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.accountIdIndex = accountIdIndex;
+    }
+
+    public Optional<BankAccountEntity> find(String accountNumber) {
+        UUID key = AccountNumbers.parse(accountNumber);
+        if (key == null) {
+            return Optional.empty();
+        }
+        long id = accountIdIndex.get(key);
+        if (id != AccountIdIndex.NOT_FOUND) {
+            var accountEntity = bankAccountRepository.findById(id);
+            if (matches(accountEntity, accountNumber)) {
+                return accountEntity;
+            }
+            accountIdIndex.remove(key);
+        }
+        return remember(key, bankAccountRepository.findByAccountNumber(accountNumber));
+    }
+
+    public Optional<BankAccountEntity> findForUpdate(String accountNumber) {
+        UUID key = AccountNumbers.parse(accountNumber);
+        if (key == null) {
+            return Optional.empty();
+        }
+        long id = accountIdIndex.get(key);
+        if (id != AccountIdIndex.NOT_FOUND) {
+            var accountEntity = bankAccountRepository.findForUpdateById(id);
+            if (matches(accountEntity, accountNumber)) {
+                return accountEntity;
+            }
+            accountIdIndex.remove(key);
+        }
+        return remember(key, bankAccountRepository.findForUpdate(accountNumber));
+    }
+
+    public void forget(String accountNumber) {
+        UUID key = AccountNumbers.parse(accountNumber);
+        if (key != null) {
+            accountIdIndex.remove(key);
+        }
+    }
+
+    private Optional<BankAccountEntity> remember(UUID key, Optional<BankAccountEntity> accountEntity) {
+        accountEntity.map(BankAccountEntity::getId).ifPresent(id -> accountIdIndex.put(key, id));
+        return accountEntity;
+    }
+
+    private static boolean matches(Optional<BankAccountEntity> accountEntity, String accountNumber) {
+        return accountEntity.isPresent() && accountEntity.get().getAccountNumber().equals(accountNumber);
+    }
+}
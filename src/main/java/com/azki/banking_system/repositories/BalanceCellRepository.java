@@ -0,0 +1,34 @@
+package com.azki.banking_system.repositories;
+
+import com.azki.banking_system.entities.BalanceCellEntity;
+import com.azki.banking_system.entities.BankAccountEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BalanceCellRepository extends JpaRepository<BalanceCellEntity, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from BalanceCellEntity c where c.accountNumber = :accountNumber order by c.cell")
+    List<BalanceCellEntity> findForUpdate(@Param("accountNumber") String accountNumber);
+
+    @Query("select c.accountNumber, count(c), sum(c.balance) from BalanceCellEntity c group by c.accountNumber")
+    List<Object[]> summarizeByAccount();
+
+    // The account row and its cells are read by one statement, so a concurrent fold is either fully seen or not at all.
+    @Query(value = "select a.balance + coalesce((select sum(c.balance) from \"" + BalanceCellEntity.TABLE_NAME + "\" c " +
+            "where c.account_number = a.account_number), 0) from \"" + BankAccountEntity.TABLE_NAME + "\" a where a.account_number = :accountNumber",
+            nativeQuery = true)
+    Optional<Long> totalBalance(@Param("accountNumber") UUID accountNumber);
+
+    @Modifying
+    @Query("delete from BalanceCellEntity c where c.accountNumber = :accountNumber")
+    int deleteByAccountNumber(@Param("accountNumber") String accountNumber);
+}
@@ -1,14 +1,56 @@
 package com.azki.banking_system.repositories;
 
+import com.azki.banking_system.entities.BalanceCellEntity;
 import com.azki.banking_system.entities.BankAccountEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface BankAccountRepository extends JpaRepository<BankAccountEntity, Long> {
 
     Optional<BankAccountEntity> findByAccountNumber(@Param("accountNumber") String accountNumber);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from BankAccountEntity a where a.accountNumber = :accountNumber")
+    Optional<BankAccountEntity> findForUpdate(@Param("accountNumber") String accountNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from BankAccountEntity a where a.id = :id")
+    Optional<BankAccountEntity> findForUpdateById(@Param("id") Long id);
+
+    List<BankAccountEntity> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    List<BankAccountEntity> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
     void deleteByAccountNumber(String accountNumber);
+
+    // Rows of (bank name, account count, total balance), hot accounts' cells included.
+    @Query(value = "select a.bank_name, count(*), sum(a.balance + coalesce((select sum(c.balance) from \"" +
+            BalanceCellEntity.TABLE_NAME + "\" c where c.account_number = a.account_number), 0)) from \"" +
+            BankAccountEntity.TABLE_NAME + "\" a group by a.bank_name",
+            nativeQuery = true)
+    List<Object[]> summarizeByBank();
+
+    // Guarded single-statement updates: zero rows updated means the guard failed or the account does not exist.
+    @Modifying
+    @Query("update BankAccountEntity a set a.balance = a.balance + :amount, a.version = a.version + 1, " +
+            "a.historySequence = a.historySequence + 1 " +
+            "where a.accountNumber = :accountNumber and a.balance <= :maxBalanceBefore")
+    int depositAtomically(@Param("accountNumber") String accountNumber,
+                          @Param("amount") long amount,
+                          @Param("maxBalanceBefore") long maxBalanceBefore);
+
+    @Modifying
+    @Query("update BankAccountEntity a set a.balance = a.balance - :amount, a.version = a.version + 1, " +
+            "a.historySequence = a.historySequence + 1 " +
+            "where a.accountNumber = :accountNumber and a.balance >= :amount")
+    int withdrawAtomically(@Param("accountNumber") String accountNumber, @Param("amount") long amount);
 }
@@ -0,0 +1,51 @@
+package com.azki.banking_system.repositories;
+
+import com.azki.banking_system.dto.ScheduleStatus;
+import com.azki.banking_system.entities.ScheduledTransferEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransferEntity, Long> {
+
+    List<ScheduledTransferEntity> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    List<ScheduledTransferEntity> findByOriginAndIdGreaterThanOrderByIdAsc(String origin, long id, Limit limit);
+
+    List<ScheduledTransferEntity> findByRunningTrue();
+
+    // Rows of (id, nextRunAt), a keyset page at a time, so millions of schedules load without holding entities.
+    @Query("select s.id, s.nextRunAt from ScheduledTransferEntity s where s.status = :status and s.id > :afterId order by s.id")
+    List<Object[]> findDueTimes(@Param("status") ScheduleStatus status, @Param("afterId") long afterId, Limit limit);
+
+    // Zero rows updated means the run was already taken, by another instance or an earlier tick.
+    @Modifying
+    @Query("update ScheduledTransferEntity s set s.running = true where s.id = :id and s.occurrence = :occurrence " +
+            "and s.status = :status and s.running = false")
+    int claim(@Param("id") long id, @Param("occurrence") long occurrence, @Param("status") ScheduleStatus status);
+
+    @Modifying
+    @Query("update ScheduledTransferEntity s set s.running = false where s.id = :id")
+    int release(@Param("id") long id);
+
+    @Modifying
+    @Query("update ScheduledTransferEntity s set s.running = false, s.occurrence = s.occurrence + 1, " +
+            "s.nextRunAt = :nextRunAt, s.runs = s.runs + :succeeded, s.failures = s.failures + :failed, " +
+            "s.lastRunAt = :ranAt, s.lastError = :error where s.id = :id")
+    int recordRun(@Param("id") long id,
+                  @Param("nextRunAt") Instant nextRunAt,
+                  @Param("succeeded") long succeeded,
+                  @Param("failed") long failed,
+                  @Param("ranAt") Instant ranAt,
+                  @Param("error") String error);
+
+    // Only an active schedule changes status, so a cancellation is never undone by a run finishing after it.
+    @Modifying
+    @Query("update ScheduledTransferEntity s set s.status = :status where s.id = :id and s.status = :active")
+    int finish(@Param("id") long id, @Param("status") ScheduleStatus status, @Param("active") ScheduleStatus active);
+}
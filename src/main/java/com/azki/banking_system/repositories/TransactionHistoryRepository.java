@@ -0,0 +1,59 @@
+package com.azki.banking_system.repositories;
+
+import com.azki.banking_system.entities.TransactionHistoryEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+import static com.azki.banking_system.utils.Constants.DEPOSIT;
+import static com.azki.banking_system.utils.Constants.OPEN;
+
+public interface TransactionHistoryRepository extends JpaRepository<TransactionHistoryEntity, Long> {
+
+    // Keyset page in sequence order, starting strictly after the given (sequence, id) position.
+    @Query("select h from TransactionHistoryEntity h where h.accountNumber = :accountNumber " +
+            "and h.createdAt >= :from and h.createdAt < :to " +
+            "and (h.sequence > :afterSequence or (h.sequence = :afterSequence and h.id > :afterId)) " +
+            "order by h.sequence, h.id")
+    List<TransactionHistoryEntity> findPage(@Param("accountNumber") String accountNumber,
+                                            @Param("from") Instant from,
+                                            @Param("to") Instant to,
+                                            @Param("afterSequence") long afterSequence,
+                                            @Param("afterId") long afterId,
+                                            Limit limit);
+
+    List<TransactionHistoryEntity> findByAccountNumberAndCreatedAtLessThanEqualAndBalanceAfterIsNotNullOrderBySequenceDescIdDesc(
+            String accountNumber, Instant at, Limit limit);
+
+    List<TransactionHistoryEntity> findByAccountNumberAndCreatedAtGreaterThanAndBalanceAfterIsNotNullOrderBySequenceAscIdAsc(
+            String accountNumber, Instant at, Limit limit);
+
+    // Deposits minus withdrawals after the given (sequence, id) position, up to and including the instant.
+    @Query("select coalesce(sum(case when h.transactionType in ('" + DEPOSIT + "', '" + OPEN + "') then h.amount else -h.amount end), 0) " +
+            "from TransactionHistoryEntity h where h.accountNumber = :accountNumber and h.createdAt <= :at " +
+            "and (h.sequence > :afterSequence or (h.sequence = :afterSequence and h.id > :afterId))")
+    long netChangeSince(@Param("accountNumber") String accountNumber,
+                        @Param("afterSequence") long afterSequence,
+                        @Param("afterId") long afterId,
+                        @Param("at") Instant at);
+
+    // Deposits minus withdrawals after the instant and before the given (sequence, id) position.
+    @Query("select coalesce(sum(case when h.transactionType in ('" + DEPOSIT + "', '" + OPEN + "') then h.amount else -h.amount end), 0) " +
+            "from TransactionHistoryEntity h where h.accountNumber = :accountNumber and h.createdAt > :at " +
+            "and (h.sequence < :beforeSequence or (h.sequence = :beforeSequence and h.id < :beforeId))")
+    long netChangeUntil(@Param("accountNumber") String accountNumber,
+                        @Param("at") Instant at,
+                        @Param("beforeSequence") long beforeSequence,
+                        @Param("beforeId") long beforeId);
+
+    @Query("select coalesce(sum(case when h.transactionType in ('" + DEPOSIT + "', '" + OPEN + "') then h.amount else -h.amount end), 0) " +
+            "from TransactionHistoryEntity h where h.accountNumber = :accountNumber and h.createdAt > :afterTime")
+    long netChangeAfter(@Param("accountNumber") String accountNumber, @Param("afterTime") Instant afterTime);
+
+    @Query("select coalesce(max(h.sequence), 0) from TransactionHistoryEntity h where h.accountNumber = :accountNumber")
+    long lastSequence(@Param("accountNumber") String accountNumber);
+}
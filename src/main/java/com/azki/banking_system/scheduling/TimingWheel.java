@@ -0,0 +1,121 @@
+package com.azki.banking_system.scheduling;
+
+import java.util.Arrays;
+
+// Hierarchical timing wheel of ids. Level 0 has one slot per tick; every level above covers a whole turn of the
+// level below in each slot, so with 64 slots and 4 levels a one-second tick reaches about 194 days ahead. Entries
+// further out wait in the farthest slot of the top level and are placed again when it comes round. An entry moves
+// down one level at a time as its slot comes up, so scheduling and firing cost O(1) per entry whatever the number
+// of pending ids. Entries are two longs in per-slot arrays, about 16 bytes each.
+final class TimingWheel {
+
+    private static final int MIN_BUCKET = 8;
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final Bucket[][] buckets;
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, int slotBits, int levels, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.bits = slotBits;
+        this.mask = (1 << slotBits) - 1;
+        this.buckets = new Bucket[levels][1 << slotBits];
+        for (Bucket[] level : buckets) {
+            for (int slot = 0; slot < level.length; slot++) {
+                level[slot] = new Bucket();
+            }
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    // An id that is already due fires on the next tick.
+    synchronized void schedule(long id, long dueAtMillis) {
+        long dueTick = Math.max((dueAtMillis + tickMillis - 1) / tickMillis, currentTick + 1);
+        place(id, dueTick);
+        size++;
+    }
+
+    // Moves the wheel up to nowMillis and returns the ids that came due, in the order of their ticks.
+    synchronized long[] advance(long nowMillis) {
+        var due = new Bucket();
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = buckets.length - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            Bucket bucket = buckets[0][(int) (currentTick & mask)];
+            for (int i = 0; i < bucket.size; i++) {
+                due.add(bucket.ids[i], bucket.ticks[i]);
+            }
+            size -= bucket.size;
+            bucket.clear();
+        }
+        return Arrays.copyOf(due.ids, due.size);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private void cascade(int level) {
+        Bucket bucket = buckets[level][(int) ((currentTick >>> (bits * level)) & mask)];
+        long[] ids = bucket.ids;
+        long[] ticks = bucket.ticks;
+        int count = bucket.size;
+        bucket.reset();
+        for (int i = 0; i < count; i++) {
+            place(ids[i], ticks[i]);
+        }
+    }
+
+    private void place(long id, long dueTick) {
+        long delta = Math.max(0, dueTick - currentTick);
+        for (int level = 0; level < buckets.length; level++) {
+            if (delta < 1L << (bits * (level + 1))) {
+                buckets[level][(int) ((Math.max(dueTick, currentTick) >>> (bits * level)) & mask)].add(id, dueTick);
+                return;
+            }
+        }
+        int top = buckets.length - 1;
+        long parked = currentTick + (1L << (bits * buckets.length)) - 1;
+        buckets[top][(int) ((parked >>> (bits * top)) & mask)].add(id, dueTick);
+    }
+
+    private static final class Bucket {
+        private long[] ids = new long[0];
+        private long[] ticks = new long[0];
+        private int size;
+
+        private void add(long id, long tick) {
+            if (size == ids.length) {
+                int capacity = Math.max(MIN_BUCKET, size * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                ticks = Arrays.copyOf(ticks, capacity);
+            }
+            ids[size] = id;
+            ticks[size] = tick;
+            size++;
+        }
+
+        // Large arrays left behind by a burst are dropped rather than kept for the next turn.
+        private void clear() {
+            if (ids.length > MIN_BUCKET * 8) {
+                reset();
+            } else {
+                size = 0;
+            }
+        }
+
+        private void reset() {
+            ids = new long[0];
+            ticks = new long[0];
+            size = 0;
+        }
+    }
+}
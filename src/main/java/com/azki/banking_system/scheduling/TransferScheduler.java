@@ -0,0 +1,254 @@
+package com.azki.banking_system.scheduling;
+
+import com.azki.banking_system.dto.ScheduleStatus;
+import com.azki.banking_system.entities.ScheduledTransferEntity;
+import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.exceptions.ConcurrentUpdateException;
+import com.azki.banking_system.exceptions.MoneyOverflowException;
+import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.exceptions.TooManyRequestsException;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.repositories.ScheduledTransferRepository;
+import com.azki.banking_system.services.BankService;
+import io.micrometer.core.instrument.Counter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.azki.banking_system.utils.Constants.INTERRUPTED_RUN_ERROR_MESSAGE;
+
+// Runs standing orders. Only the ids and due times of active schedules are kept in memory, in a timing wheel;
+// each tick loads whatever came due a chunk at a time, claims the chunk in one transaction, runs the transfers
+// through BankService concurrently and records the outcomes in a second transaction. A run is claimed before
+// the money moves, so a restart in between loses that run instead of paying it twice; it is recorded as failed.
+// Schedules that fell behind while the application was down run every missed occurrence, one per tick.
+@Component
+public class TransferScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferScheduler.class);
+
+    private static final int SLOT_BITS = 6;
+    private static final int LEVELS = 4;
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private enum Outcome {
+        SUCCEEDED,
+        FAILED,
+        ACCOUNT_GONE,
+        RETRY
+    }
+
+    private record Run(ScheduledTransferEntity schedule, Outcome outcome, String error) {
+    }
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final BankService bankService;
+    private final TransactionTemplate transactionTemplate;
+    private final long tickMillis;
+    private final int batchSize;
+    private final TimingWheel wheel;
+    private final ScheduledExecutorService ticker;
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter retried;
+
+    @Autowired
+    public TransferScheduler(ScheduledTransferRepository scheduledTransferRepository,
+                             BankService bankService,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${scheduled.enabled}") boolean enabled,
+                             @Value("${scheduled.tick.ms}") long tickMillis,
+                             @Value("${scheduled.batch.size}") int batchSize,
+                             BankMetrics metrics) {
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.bankService = bankService;
+        this.transactionTemplate = transactionTemplate;
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel(tickMillis, SLOT_BITS, LEVELS, System.currentTimeMillis());
+        this.succeeded = metrics.counter("bank.scheduled.runs", "result", "succeeded");
+        this.failed = metrics.counter("bank.scheduled.runs", "result", "failed");
+        this.retried = metrics.counter("bank.scheduled.runs", "result", "retried");
+        metrics.gauge("bank.scheduled.pending", wheel, TimingWheel::size);
+
+        if (enabled) {
+            recoverInterruptedRuns();
+            load();
+            ticker = Executors.newSingleThreadScheduledExecutor();
+            ticker.scheduleWithFixedDelay(this::tickSafely, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        } else {
+            ticker = null;
+        }
+    }
+
+    public void add(long id, Instant runAt) {
+        if (ticker != null) {
+            wheel.schedule(id, runAt.toEpochMilli());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (ticker != null) {
+            ticker.shutdown();
+            ticker.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    // A chunk that fails as a whole, say while the database is unreachable, goes back on the wheel for the next tick.
+    void tick() {
+        long[] due = wheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.length; from += batchSize) {
+            long[] chunk = Arrays.copyOfRange(due, from, Math.min(due.length, from + batchSize));
+            try {
+                runChunk(chunk).forEach(this::add);
+            } catch (RuntimeException e) {
+                log.error("Running {} scheduled transfers failed, retrying them on the next tick", chunk.length, e);
+                Instant retryAt = Instant.now().plusMillis(tickMillis);
+                for (long id : chunk) {
+                    add(id, retryAt);
+                }
+            }
+        }
+    }
+
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            log.error("Scheduled transfer tick failed", e);
+        }
+    }
+
+    // Returns when each schedule that is still active runs next. Every id that leaves the wheel goes back exactly
+    // once while its schedule is active, so no schedule is ever queued twice.
+    private Map<Long, Instant> runChunk(long[] ids) {
+        Instant now = Instant.now();
+        Map<Long, Instant> requeue = new LinkedHashMap<>();
+        List<ScheduledTransferEntity> due = new ArrayList<>();
+        for (ScheduledTransferEntity schedule : scheduledTransferRepository.findAllById(Arrays.stream(ids).boxed().toList())) {
+            if (schedule.getStatus() != ScheduleStatus.ACTIVE) {
+                continue;
+            }
+            if (schedule.getNextRunAt().isAfter(now)) {
+                requeue.put(schedule.getId(), schedule.getNextRunAt());
+            } else {
+                due.add(schedule);
+            }
+        }
+
+        List<ScheduledTransferEntity> claimed = transactionTemplate.execute(status -> {
+            List<ScheduledTransferEntity> won = new ArrayList<>();
+            for (ScheduledTransferEntity schedule : due) {
+                if (scheduledTransferRepository.claim(schedule.getId(), schedule.getOccurrence(), ScheduleStatus.ACTIVE) == 1) {
+                    won.add(schedule);
+                } else {
+                    requeue.put(schedule.getId(), now.plusMillis(tickMillis));
+                }
+            }
+            return won;
+        });
+
+        List<CompletableFuture<Run>> runs = new ArrayList<>(claimed.size());
+        for (ScheduledTransferEntity schedule : claimed) {
+            runs.add(bankService.transferFundAsync(schedule.getOrigin(), schedule.getDestination(), schedule.getAmount())
+                    .handle((accounts, error) -> toRun(schedule, error)));
+        }
+        List<Run> results = runs.stream().map(CompletableFuture::join).toList();
+
+        transactionTemplate.executeWithoutResult(status -> results.forEach(run -> record(run, now)));
+        for (Run run : results) {
+            if (run.outcome() == Outcome.RETRY) {
+                requeue.put(run.schedule().getId(), now.plusMillis(tickMillis));
+                continue;
+            }
+            Instant next = next(run.schedule());
+            if (next != null && run.outcome() != Outcome.ACCOUNT_GONE) {
+                requeue.put(run.schedule().getId(), next);
+            }
+        }
+        return requeue;
+    }
+
+    private Run toRun(ScheduledTransferEntity schedule, Throwable error) {
+        if (error == null) {
+            succeeded.increment();
+            return new Run(schedule, Outcome.SUCCEEDED, null);
+        }
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        if (cause instanceof TooManyRequestsException || cause instanceof ConcurrentUpdateException) {
+            retried.increment();
+            return new Run(schedule, Outcome.RETRY, null);
+        }
+        failed.increment();
+        if (cause instanceof AccountNotFoundException) {
+            return new Run(schedule, Outcome.ACCOUNT_GONE, cause.getMessage());
+        }
+        if (!(cause instanceof NotEnoughBalanceException) && !(cause instanceof MoneyOverflowException)) {
+            log.error("Scheduled transfer {} failed", schedule.getId(), cause);
+        }
+        return new Run(schedule, Outcome.FAILED, cause.getMessage());
+    }
+
+    private void record(Run run, Instant ranAt) {
+        long id = run.schedule().getId();
+        if (run.outcome() == Outcome.RETRY) {
+            scheduledTransferRepository.release(id);
+            return;
+        }
+        Instant next = next(run.schedule());
+        boolean ok = run.outcome() == Outcome.SUCCEEDED;
+        scheduledTransferRepository.recordRun(id, next != null ? next : run.schedule().getNextRunAt(),
+                ok ? 1 : 0, ok ? 0 : 1, ranAt, run.error());
+        if (run.outcome() == Outcome.ACCOUNT_GONE || next == null) {
+            ScheduleStatus status = ok ? ScheduleStatus.COMPLETED : ScheduleStatus.FAILED;
+            scheduledTransferRepository.finish(id, status, ScheduleStatus.ACTIVE);
+        }
+    }
+
+    private static Instant next(ScheduledTransferEntity schedule) {
+        return schedule.getRecurrence().occurrence(schedule.getFirstRunAt(), schedule.getOccurrence() + 1);
+    }
+
+    // A run still marked as running was cut short by the last shutdown; whether its money moved is unknown.
+    private void recoverInterruptedRuns() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (ScheduledTransferEntity schedule : scheduledTransferRepository.findByRunningTrue()) {
+                log.warn("Scheduled transfer {} was interrupted at {}, skipping that run", schedule.getId(), schedule.getNextRunAt());
+                record(new Run(schedule, Outcome.FAILED, INTERRUPTED_RUN_ERROR_MESSAGE), Instant.now());
+            }
+        });
+    }
+
+    private void load() {
+        long afterId = 0;
+        int loaded = 0;
+        List<Object[]> page;
+        do {
+            page = scheduledTransferRepository.findDueTimes(ScheduleStatus.ACTIVE, afterId, Limit.of(LOAD_PAGE_SIZE));
+            for (Object[] row : page) {
+                afterId = (Long) row[0];
+                wheel.schedule(afterId, ((Instant) row[1]).toEpochMilli());
+            }
+            loaded += page.size();
+        } while (page.size() == LOAD_PAGE_SIZE);
+        log.info("Loaded {} scheduled transfers", loaded);
+    }
+}
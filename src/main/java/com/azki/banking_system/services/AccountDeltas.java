@@ -0,0 +1,168 @@
+package com.azki.banking_system.services;
+
+import com.azki.banking_system.log.binary.BinaryLogRecord;
+
+import static com.azki.banking_system.utils.Constants.*;
+
+// Per-account net change keyed by the account's UUID bits, in flat open-addressed arrays so that millions of
+// accounts cost a few dozen bytes each instead of a boxed map entry.
+final class AccountDeltas {
+
+    // A slot is two UUID halves, a delta and a flag byte. Growing at half load leaves up to four slots per account,
+    // and grow() holds the old arrays next to the new ones, so at its worst moment an account costs six slots.
+    static final int BYTES_PER_SLOT = 3 * Long.BYTES + 1;
+    static final int BYTES_PER_ACCOUNT = 6 * BYTES_PER_SLOT;
+
+    private static final byte USED = 1;
+    private static final byte OPENED = 2;
+    private static final byte CLOSED = 4;
+    private static final byte SEEN = 8;
+
+    private long[] msbs;
+    private long[] lsbs;
+    private long[] deltas;
+    private byte[] flags;
+    private int size;
+    private long records;
+
+    AccountDeltas(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected) * 2 - 1) << 1;
+        msbs = new long[capacity];
+        lsbs = new long[capacity];
+        deltas = new long[capacity];
+        flags = new byte[capacity];
+    }
+
+    static long hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L + lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 33);
+    }
+
+    // The high half picks the pass, the low half the slot, so one pass still spreads over the whole table.
+    static int partition(long msb, long lsb, int passes) {
+        return (int) Long.remainderUnsigned(hash(msb, lsb) >>> 32, passes);
+    }
+
+    void apply(BinaryLogRecord record) {
+        records++;
+        long amount = record.amountMinorUnits();
+        switch (record.transactionType()) {
+            case OPEN -> add(record.accountMostSignificantBits(), record.accountLeastSignificantBits(), amount, OPENED);
+            case DEPOSIT -> add(record.accountMostSignificantBits(), record.accountLeastSignificantBits(), amount, (byte) 0);
+            case WITHDRAW -> add(record.accountMostSignificantBits(), record.accountLeastSignificantBits(), -amount, (byte) 0);
+            case CLOSE -> add(record.accountMostSignificantBits(), record.accountLeastSignificantBits(), -amount, CLOSED);
+            default -> {
+            }
+        }
+    }
+
+    void mergeFrom(AccountDeltas other) {
+        records += other.records;
+        for (int slot = 0; slot < other.flags.length; slot++) {
+            if (other.flags[slot] != 0) {
+                add(other.msbs[slot], other.lsbs[slot], other.deltas[slot], (byte) (other.flags[slot] & ~USED));
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long records() {
+        return records;
+    }
+
+    int find(long msb, long lsb) {
+        int mask = flags.length - 1;
+        for (int slot = (int) hash(msb, lsb) & mask; flags[slot] != 0; slot = (slot + 1) & mask) {
+            if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    int capacity() {
+        return flags.length;
+    }
+
+    boolean isUsed(int slot) {
+        return flags[slot] != 0;
+    }
+
+    boolean isOpened(int slot) {
+        return (flags[slot] & OPENED) != 0;
+    }
+
+    boolean isClosed(int slot) {
+        return (flags[slot] & CLOSED) != 0;
+    }
+
+    boolean isSeen(int slot) {
+        return (flags[slot] & SEEN) != 0;
+    }
+
+    void markSeen(int slot) {
+        flags[slot] |= SEEN;
+    }
+
+    long delta(int slot) {
+        return deltas[slot];
+    }
+
+    long msb(int slot) {
+        return msbs[slot];
+    }
+
+    long lsb(int slot) {
+        return lsbs[slot];
+    }
+
+    private void add(long msb, long lsb, long delta, byte flag) {
+        int mask = flags.length - 1;
+        int slot = (int) hash(msb, lsb) & mask;
+        while (flags[slot] != 0) {
+            if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                deltas[slot] += delta;
+                flags[slot] |= flag;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        msbs[slot] = msb;
+        lsbs[slot] = lsb;
+        deltas[slot] = delta;
+        flags[slot] = (byte) (USED | flag);
+        if (++size * 2 > flags.length) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        long[] oldMsbs = msbs;
+        long[] oldLsbs = lsbs;
+        long[] oldDeltas = deltas;
+        byte[] oldFlags = flags;
+        msbs = new long[oldFlags.length * 2];
+        lsbs = new long[oldFlags.length * 2];
+        deltas = new long[oldFlags.length * 2];
+        flags = new byte[oldFlags.length * 2];
+        int mask = flags.length - 1;
+        for (int old = 0; old < oldFlags.length; old++) {
+            if (oldFlags[old] == 0) {
+                continue;
+            }
+            int slot = (int) hash(oldMsbs[old], oldLsbs[old]) & mask;
+            while (flags[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            msbs[slot] = oldMsbs[old];
+            lsbs[slot] = oldLsbs[old];
+            deltas[slot] = oldDeltas[old];
+            flags[slot] = oldFlags[old];
+        }
+    }
+}
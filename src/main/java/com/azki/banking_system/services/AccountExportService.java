@@ -0,0 +1,120 @@
+package com.azki.banking_system.services;
+
+import com.azki.banking_system.dto.AccountFileFormat;
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.entities.BalanceCellEntity;
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.ledger.InMemoryLedger;
+import com.azki.banking_system.utils.CsvLines;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Walks the whole table with one forward-only cursor and writes rows as they arrive. H2 only streams a result
+// lazily when LAZY_QUERY_EXECUTION is on, so the export enables it for its own session and switches it back off.
+// The output uses the same columns as the import, so an export can be re-imported as is. The ledger engines write
+// balances behind, so the balances the ledger holds replace those of their rows as they stream past.
+@Service
+public class AccountExportService {
+
+    private static final String SELECT_SQL = "select a.id, a.account_number, a.balance, a.account_holder_name, a.bank_name,"
+            + " coalesce((select sum(c.balance) from \"" + BalanceCellEntity.TABLE_NAME
+            + "\" c where c.account_number = a.account_number), 0) from \"" + BankAccountEntity.TABLE_NAME + "\" a order by a.id";
+
+    private final DataSource dataSource;
+    private final ObjectProvider<InMemoryLedger> ledger;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    @Autowired
+    public AccountExportService(DataSource dataSource,
+                                ObjectProvider<InMemoryLedger> ledger,
+                                ObjectMapper objectMapper,
+                                @Value("${export.fetch.size}") int fetchSize) {
+        this.dataSource = dataSource;
+        this.ledger = ledger;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    public long exportAccounts(OutputStream out, AccountFileFormat format) throws IOException, SQLException {
+        InMemoryLedger heldBalances = ledger.getIfAvailable();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            setLazy(connection, true);
+            try (PreparedStatement select = connection.prepareStatement(SELECT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                select.setFetchSize(fetchSize);
+                try (ResultSet rows = select.executeQuery()) {
+                    long exported = format == AccountFileFormat.CSV
+                            ? writeCsv(rows, writer, heldBalances)
+                            : writeNdjson(rows, writer, heldBalances);
+                    writer.flush();
+                    return exported;
+                }
+            } finally {
+                connection.rollback();
+                setLazy(connection, false);
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private static long writeCsv(ResultSet rows, Writer writer, InMemoryLedger heldBalances) throws SQLException, IOException {
+        writer.write("id,accountNumber,accountHolderName,bankName,balance\n");
+        StringBuilder line = new StringBuilder(128);
+        long exported = 0;
+        while (rows.next()) {
+            line.setLength(0);
+            line.append(rows.getLong(1)).append(',').append(rows.getObject(2)).append(',');
+            CsvLines.appendField(line, rows.getString(4)).append(',');
+            CsvLines.appendField(line, rows.getString(5)).append(',');
+            line.append(balance(rows, heldBalances)).append('\n');
+            writer.append(line);
+            exported++;
+        }
+        return exported;
+    }
+
+    private long writeNdjson(ResultSet rows, Writer writer, InMemoryLedger heldBalances) throws SQLException, IOException {
+        ObjectWriter json = objectMapper.writerFor(BankAccountDto.class);
+        long exported = 0;
+        while (rows.next()) {
+            writer.write(json.writeValueAsString(new BankAccountDto(rows.getLong(1), rows.getObject(2).toString(),
+                    balance(rows, heldBalances), rows.getString(4), rows.getString(5))));
+            writer.write('\n');
+            exported++;
+        }
+        return exported;
+    }
+
+    // The row's own balance plus whatever its balance cells hold.
+    private static long balance(ResultSet rows, InMemoryLedger heldBalances) throws SQLException {
+        Long held = heldBalances == null ? null : heldBalances.heldBalance(rows.getString(2));
+        return (held == null ? rows.getLong(3) : held) + rows.getLong(6);
+    }
+
+    private static void setLazy(Connection connection, boolean lazy) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("set lazy_query_execution " + lazy);
+        }
+    }
+}
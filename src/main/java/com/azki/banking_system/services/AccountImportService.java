@@ -0,0 +1,325 @@
+package com.azki.banking_system.services;
+
+import com.azki.banking_system.dto.AccountFileFormat;
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.ImportResult;
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.exceptions.InvalidImportFileException;
+import com.azki.banking_system.log.LogModel;
+import com.azki.banking_system.log.TransactionLogSubject;
+import com.azki.banking_system.log.TransactionLogDispatcher;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.stats.BankAggregates;
+import com.azki.banking_system.utils.AccountNumbers;
+import com.azki.banking_system.utils.CsvLines;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static com.azki.banking_system.entities.BankAccountEntity.ID_BLOCK_SIZE;
+import static com.azki.banking_system.utils.Constants.INVALID_IMPORT_HEADER_ERROR_MESSAGE;
+import static com.azki.banking_system.utils.Constants.OPEN;
+
+// Streams accounts straight into the table with plain JDBC batches. Ids come from the entity's pooled sequence,
+// a whole batch worth of blocks per round trip, so imported rows and JPA-created rows never collide.
+// Every imported account is announced to the transaction observers with its opening balance.
+@Service
+public class AccountImportService extends TransactionLogSubject {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountImportService.class);
+
+    private static final String INSERT_SQL = "insert into \"" + BankAccountEntity.TABLE_NAME + "\""
+            + " (id, account_number, balance, account_holder_name, bank_name, version, history_sequence)"
+            + " values (?, ?, ?, ?, ?, 0, 1)";
+    private static final String ALLOCATE_SQL = "select next value for \"" + BankAccountEntity.ID_SEQUENCE + "\""
+            + " from system_range(1, ?)";
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final BankAggregates bankAggregates;
+    private final int batchSize;
+    private final int progressInterval;
+    private final Path rejectsDir;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    @Autowired
+    public AccountImportService(DataSource dataSource,
+                                ObjectMapper objectMapper,
+                                BankAggregates bankAggregates,
+                                @Value("${import.batch.size}") int batchSize,
+                                @Value("${import.progress.interval}") int progressInterval,
+                                @Value("${import.rejects.dir}") String rejectsDir,
+                                TransactionLogDispatcher dispatcher,
+                                BankMetrics metrics) {
+        super(dispatcher);
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.bankAggregates = bankAggregates;
+        this.batchSize = batchSize;
+        this.progressInterval = progressInterval;
+        this.rejectsDir = Path.of(rejectsDir);
+        importedRows = metrics.counter("bank.import.rows", "result", "imported");
+        rejectedRows = metrics.counter("bank.import.rows", "result", "rejected");
+    }
+
+    public ImportResult importAccounts(InputStream in, AccountFileFormat format) throws IOException, SQLException {
+        long start = System.currentTimeMillis();
+        try (var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+             var run = new ImportRun(dataSource.getConnection(), rejectsDir.resolve("rejected-" + start + ".csv"))) {
+            RowParser parser = format == AccountFileFormat.CSV ? csvParser(reader.readLine()) : this::parseJson;
+            long lineNumber = format == AccountFileFormat.CSV ? 1 : 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Row row;
+                try {
+                    row = parser.parse(lineNumber, line);
+                } catch (InvalidRowException e) {
+                    run.reject(lineNumber, line, e.getMessage());
+                    continue;
+                }
+                run.add(row);
+                if (run.pending.size() >= batchSize) {
+                    run.flush();
+                }
+            }
+            run.flush();
+            log.info("Imported {} accounts, rejected {}", run.imported, run.rejected);
+            return new ImportResult(run.imported, run.rejected,
+                    run.rejects == null ? null : run.rejectsFile.toString(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private RowParser csvParser(String header) {
+        List<String> columns = header == null ? List.of() : CsvLines.split(header.strip());
+        int holder = columns.indexOf("accountHolderName");
+        int bank = columns.indexOf("bankName");
+        int balance = columns.indexOf("balance");
+        int accountNumber = columns.indexOf("accountNumber");
+        if (holder < 0 || bank < 0 || balance < 0) {
+            throw new InvalidImportFileException(INVALID_IMPORT_HEADER_ERROR_MESSAGE);
+        }
+        return (lineNumber, line) -> {
+            List<String> fields = CsvLines.split(line);
+            if (fields.size() != columns.size()) {
+                throw new InvalidRowException("expected " + columns.size() + " fields but found " + fields.size());
+            }
+            long amount;
+            try {
+                amount = Long.parseLong(fields.get(balance).strip());
+            } catch (NumberFormatException e) {
+                throw new InvalidRowException("balance is not a whole number of minor units");
+            }
+            return validate(lineNumber, line, accountNumber < 0 ? null : fields.get(accountNumber).strip(),
+                    amount, fields.get(holder).strip(), fields.get(bank).strip());
+        };
+    }
+
+    private Row parseJson(long lineNumber, String line) {
+        BankAccountDto account;
+        try {
+            account = objectMapper.readValue(line, BankAccountDto.class);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRowException("malformed JSON");
+        }
+        return validate(lineNumber, line, account.accountNumber(), account.balance(),
+                account.accountHolderName(), account.bankName());
+    }
+
+    private static Row validate(long lineNumber, String line, String accountNumber, long balance,
+                                String accountHolderName, String bankName) {
+        UUID key;
+        if (accountNumber == null || accountNumber.isEmpty()) {
+            key = AccountNumbers.nextUuid();
+        } else if ((key = AccountNumbers.parse(accountNumber.toLowerCase(Locale.ROOT))) == null) {
+            throw new InvalidRowException("accountNumber is not a UUID");
+        }
+        if (balance < 0) {
+            throw new InvalidRowException("balance is negative");
+        }
+        if (accountHolderName == null || accountHolderName.length() < 3) {
+            throw new InvalidRowException("accountHolderName needs at least 3 characters");
+        }
+        if (bankName == null || bankName.length() < 3) {
+            throw new InvalidRowException("bankName needs at least 3 characters");
+        }
+        return new Row(lineNumber, line, key, balance, accountHolderName, bankName);
+    }
+
+    private record Row(long lineNumber, String line, UUID accountNumber, long balance,
+                       String accountHolderName, String bankName) {
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        Row parse(long lineNumber, String line);
+    }
+
+    private static final class InvalidRowException extends RuntimeException {
+        private InvalidRowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private final class ImportRun implements AutoCloseable {
+        private final Connection connection;
+        private final PreparedStatement insert;
+        private final PreparedStatement allocate;
+        private final Path rejectsFile;
+        private final List<Row> pending = new ArrayList<>(batchSize);
+        private BufferedWriter rejects;
+        private long[] blockEnds = new long[0];
+        private int nextBlock;
+        private long nextId = 1;
+        private long blockEnd;
+        private long imported;
+        private long rejected;
+        private long reported;
+
+        private ImportRun(Connection connection, Path rejectsFile) throws SQLException {
+            this.connection = connection;
+            this.rejectsFile = rejectsFile;
+            connection.setAutoCommit(false);
+            insert = connection.prepareStatement(INSERT_SQL);
+            allocate = connection.prepareStatement(ALLOCATE_SQL);
+        }
+
+        private void add(Row row) {
+            pending.add(row);
+        }
+
+        private void flush() throws SQLException, IOException {
+            if (pending.isEmpty()) {
+                return;
+            }
+            for (Row row : pending) {
+                bind(row);
+                insert.addBatch();
+            }
+            try {
+                insert.executeBatch();
+                connection.commit();
+                imported += pending.size();
+                importedRows.increment(pending.size());
+                pending.forEach(this::opened);
+            } catch (SQLException e) {
+                connection.rollback();
+                insert.clearBatch();
+                insertOneByOne();
+            }
+            pending.clear();
+            if (imported + rejected - reported >= progressInterval) {
+                reported = imported + rejected;
+                log.info("Import progress: {} rows read, {} imported, {} rejected", reported, imported, rejected);
+            }
+        }
+
+        // A failed batch (usually a duplicate account number) is retried row by row to find the offenders.
+        private void insertOneByOne() throws SQLException, IOException {
+            for (Row row : pending) {
+                bind(row);
+                try {
+                    insert.executeUpdate();
+                    connection.commit();
+                    imported++;
+                    importedRows.increment();
+                    opened(row);
+                } catch (SQLException e) {
+                    connection.rollback();
+                    reject(row.lineNumber(), row.line(), e instanceof SQLIntegrityConstraintViolationException
+                            ? "accountNumber already exists" : e.getMessage().lines().findFirst().orElse(""));
+                }
+            }
+        }
+
+        private void opened(Row row) {
+            bankAggregates.opened(row.bankName(), row.balance());
+            notifyObservers(new LogModel(row.accountNumber().toString(), OPEN, row.balance(), row.balance(), 1, Instant.now()));
+        }
+
+        private void bind(Row row) throws SQLException {
+            insert.setLong(1, nextId());
+            insert.setObject(2, row.accountNumber());
+            insert.setLong(3, row.balance());
+            insert.setString(4, row.accountHolderName());
+            insert.setString(5, row.bankName());
+        }
+
+        // Same block layout as Hibernate's pooled optimizer: a sequence value v owns (v - blockSize, v].
+        private long nextId() throws SQLException {
+            if (nextId > blockEnd) {
+                if (nextBlock == blockEnds.length) {
+                    allocateBlocks(Math.max(1, (pending.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE));
+                }
+                blockEnd = blockEnds[nextBlock++];
+                nextId = Math.max(1, blockEnd - ID_BLOCK_SIZE + 1);
+            }
+            return nextId++;
+        }
+
+        private void allocateBlocks(int blocks) throws SQLException {
+            blockEnds = new long[blocks];
+            nextBlock = 0;
+            allocate.setInt(1, blocks);
+            try (ResultSet resultSet = allocate.executeQuery()) {
+                for (int i = 0; i < blocks && resultSet.next(); i++) {
+                    blockEnds[i] = resultSet.getLong(1);
+                }
+            }
+        }
+
+        private void reject(long lineNumber, String line, String reason) throws IOException {
+            if (rejects == null) {
+                Files.createDirectories(rejectsFile.getParent());
+                rejects = Files.newBufferedWriter(rejectsFile);
+                rejects.write("line,reason,row\n");
+            }
+            StringBuilder out = new StringBuilder().append(lineNumber).append(',');
+            CsvLines.appendField(out, reason).append(',');
+            CsvLines.appendField(out, line).append('\n');
+            rejects.append(out);
+            rejected++;
+            rejectedRows.increment();
+        }
+
+        @Override
+        public void close() throws SQLException, IOException {
+            try {
+                if (rejects != null) {
+                    rejects.close();
+                }
+            } finally {
+                connection.close();
+            }
+        }
+    }
+}
@@ -1,26 +1,51 @@
 package com.azki.banking_system.services;
 
+import com.azki.banking_system.admission.AdmissionControl;
+import com.azki.banking_system.dto.AccountPage;
 import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BankStats;
+import com.azki.banking_system.dto.BatchItemResult;
+import com.azki.banking_system.dto.BatchMode;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.dto.BatchResult;
+import com.azki.banking_system.engine.AccountChange;
+import com.azki.banking_system.engine.AccountEngine;
 import com.azki.banking_system.entities.BankAccountEntity;
 import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.exceptions.BatchTooLargeException;
+import com.azki.banking_system.exceptions.InvalidAmountException;
+import com.azki.banking_system.exceptions.SameAccountTransferException;
+import com.azki.banking_system.exceptions.TooManyRequestsException;
+import com.azki.banking_system.hot.HotAccounts;
+import com.azki.banking_system.ledger.InMemoryLedger;
 import com.azki.banking_system.log.LogModel;
-import com.azki.banking_system.log.TransactionFileLogger;
 import com.azki.banking_system.log.TransactionLogSubject;
+import com.azki.banking_system.log.TransactionLogDispatcher;
+import com.azki.banking_system.metrics.BankMetrics;
 import com.azki.banking_system.repositories.BankAccountRepository;
+import com.azki.banking_system.stats.BankAggregates;
 import com.azki.banking_system.transactions.TransactionStrategy;
+import com.azki.banking_system.utils.AccountNumbers;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static com.azki.banking_system.utils.Constants.*;
 
@@ -28,131 +53,391 @@ import static com.azki.banking_system.utils.Constants.*;
 public class BankService extends TransactionLogSubject {
 
     private final BankAccountRepository bankAccountRepository;
-    private final ReentrantLock lock = new ReentrantLock();
+    private final AccountEngine accountEngine;
+    private final ObjectProvider<InMemoryLedger> ledger;
+    private final HotAccounts hotAccounts;
+    private final AdmissionControl admissionControl;
+    private final BankAggregates bankAggregates;
     private final ExecutorService executorService;
+    private final int batchChunkSize;
+    private final int maxAtomicBatchSize;
+    private final Timer createTimer;
+    private final Timer depositTimer;
+    private final Timer withdrawTimer;
+    private final Timer transferTimer;
+    private final Timer balanceTimer;
+    private final Timer batchTimer;
 
     @Autowired
     public BankService(BankAccountRepository bankAccountRepository,
+                       AccountEngine accountEngine,
+                       ObjectProvider<InMemoryLedger> ledger,
+                       HotAccounts hotAccounts,
+                       AdmissionControl admissionControl,
+                       BankAggregates bankAggregates,
+                       @Value("${execution.mode}") ExecutionMode executionMode,
                        @Value("${thread.pool.capacity}") int threadPoolCapacity,
-                       TransactionFileLogger logger) {
+                       @Value("${batch.chunk.size}") int batchChunkSize,
+                       @Value("${batch.atomic.max.size}") int maxAtomicBatchSize,
+                       TransactionLogDispatcher dispatcher,
+                       BankMetrics metrics) {
+        super(dispatcher);
         this.bankAccountRepository = bankAccountRepository;
-        executorService = Executors.newFixedThreadPool(threadPoolCapacity);
-        addObserver(logger);
+        this.accountEngine = accountEngine;
+        this.ledger = ledger;
+        this.hotAccounts = hotAccounts;
+        this.admissionControl = admissionControl;
+        this.bankAggregates = bankAggregates;
+        this.batchChunkSize = batchChunkSize;
+        this.maxAtomicBatchSize = maxAtomicBatchSize;
+        executorService = TaskExecutors.create(executionMode, threadPoolCapacity);
+
+        createTimer = metrics.operation("create");
+        depositTimer = metrics.operation(DEPOSIT);
+        withdrawTimer = metrics.operation(WITHDRAW);
+        transferTimer = metrics.operation(TRANSFER);
+        balanceTimer = metrics.operation("balance");
+        batchTimer = metrics.operation("batch");
+        metrics.monitorExecutor(executorService);
     }
 
     @Transactional
     public BankAccountDto createAccount(BankAccountDto account) {
-        String accountNumber = UUID.randomUUID().toString();
-        var accountEntity = new BankAccountEntity(
-                accountNumber,
-                account.balance(),
-                account.accountHolderName(),
-                account.bankName());
-        return toAccountDto(bankAccountRepository.save(accountEntity));
+        long start = System.nanoTime();
+        try {
+            String accountNumber = AccountNumbers.next();
+            var accountEntity = new BankAccountEntity(
+                    accountNumber,
+                    account.balance(),
+                    account.accountHolderName(),
+                    account.bankName());
+            long sequence = accountEntity.nextSequence();
+            var created = toAccountDto(bankAccountRepository.save(accountEntity));
+            bankAggregates.opened(created.bankName(), created.balance());
+
+            notifyObservers(new LogModel(accountNumber, OPEN, created.balance(), created.balance(), sequence, Instant.now()));
+            return created;
+        } finally {
+            record(createTimer, start);
+        }
     }
 
+    // The closing record carries the balance the account still held, so the log nets out to zero. Its sequence comes
+    // from the row, which the ledger engines only bring up to date on their next flush; a closed account has no
+    // statement any more, so the record only needs to come last among what the table already holds.
     @Transactional
     public void deleteAccountByNumber(String accountNumber) {
-        bankAccountRepository.findByAccountNumber(accountNumber)
+        var accountEntity = bankAccountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+        var account = getAccountByNumber(accountNumber);
+        long sequence = accountEntity.nextSequence();
 
+        hotAccounts.forget(accountNumber);
         bankAccountRepository.deleteByAccountNumber(accountNumber);
+        accountEngine.evict(accountNumber);
+        bankAggregates.closed(account.bankName(), account.balance());
+        notifyObservers(new LogModel(accountNumber, CLOSE, account.balance(), 0L, sequence, Instant.now()));
+    }
+
+    // Keyset paging by id: each page is an index range scan no matter how deep the client has paged. The ledger
+    // engines write balances behind, so the balances the ledger holds replace those of their rows.
+    public AccountPage listAccounts(long afterId, int limit) {
+        InMemoryLedger heldBalances = ledger.getIfAvailable();
+        var accounts = bankAccountRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit)).stream()
+                .map(this::toAccountDto)
+                .map(account -> withHeldBalance(account, heldBalances))
+                .map(hotAccounts::withTotal)
+                .toList();
+        Long nextAfter = accounts.size() < limit ? null : accounts.get(accounts.size() - 1).id();
+        return new AccountPage(accounts, nextAfter);
+    }
+
+    private static BankAccountDto withHeldBalance(BankAccountDto account, InMemoryLedger heldBalances) {
+        Long held = heldBalances == null ? null : heldBalances.heldBalance(account.accountNumber());
+        return held == null ? account
+                : new BankAccountDto(account.id(), account.accountNumber(), held, account.accountHolderName(), account.bankName());
     }
 
-    @Transactional(readOnly = true)
     public BankAccountDto getAccountByNumber(String accountNumber) {
-        Optional<BankAccountEntity> byAccountNumber = bankAccountRepository.findByAccountNumber(accountNumber);
-        var accountEntity = byAccountNumber
-                .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+        return hotAccounts.isHot(accountNumber)
+                ? hotAccounts.getAccount(accountNumber)
+                : accountEngine.getAccount(accountNumber);
+    }
 
-        return toAccountDto(accountEntity);
+    public void markHot(String accountNumber, int cells) {
+        hotAccounts.markHot(accountNumber, cells);
     }
 
-    @Transactional
-    public BankAccountDto deposit(String accountNumber, double amount, TransactionStrategy strategy) throws ExecutionException, InterruptedException {
-        Callable<BankAccountDto> task = () -> {
-            BankAccountEntity accountEntity;
+    public void unmarkHot(String accountNumber) {
+        hotAccounts.unmarkHot(accountNumber);
+    }
+
+    public BankAccountDto deposit(String accountNumber, long amount, TransactionStrategy strategy) throws ExecutionException, InterruptedException {
+        return depositAsync(accountNumber, amount, strategy).get();
+    }
 
-            lock.lock();
+    public CompletableFuture<BankAccountDto> depositAsync(String accountNumber, long amount, TransactionStrategy strategy) {
+        if (amount <= 0) {
+            return invalidAmount();
+        }
+        long start = System.nanoTime();
+        Callable<BankAccountDto> task = () -> {
             try {
-                accountEntity = bankAccountRepository.findByAccountNumber(accountNumber)
-                        .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+                var change = process(accountNumber, amount, strategy);
+                var account = change.account();
+                bankAggregates.deposited(account.bankName(), amount);
 
-                strategy.processTransaction(accountEntity, amount);
-                bankAccountRepository.save(accountEntity);
+                notifyObservers(new LogModel(accountNumber, DEPOSIT, amount, balanceAfter(accountNumber, account.balance()),
+                        change.sequence(), change.time()));
+                return account;
             } finally {
-                lock.unlock();
+                record(depositTimer, start);
             }
-
-            notifyObservers(new LogModel(accountNumber, DEPOSIT, amount));
-            return toAccountDto(accountEntity);
         };
 
-        return executorService.submit(task).get();
+        return submit(accountNumber, task);
     }
 
-    @Transactional
-    public BankAccountDto withdraw(String accountNumber, double amount, TransactionStrategy strategy) throws ExecutionException, InterruptedException {
-        Callable<BankAccountDto> task = () -> {
-            BankAccountEntity accountEntity;
+    public BankAccountDto withdraw(String accountNumber, long amount, TransactionStrategy strategy) throws ExecutionException, InterruptedException {
+        return withdrawAsync(accountNumber, amount, strategy).get();
+    }
 
-            lock.lock();
+    public CompletableFuture<BankAccountDto> withdrawAsync(String accountNumber, long amount, TransactionStrategy strategy) {
+        if (amount <= 0) {
+            return invalidAmount();
+        }
+        long start = System.nanoTime();
+        Callable<BankAccountDto> task = () -> {
             try {
-                accountEntity = bankAccountRepository.findByAccountNumber(accountNumber)
-                        .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+                var change = process(accountNumber, amount, strategy);
+                var account = change.account();
+                bankAggregates.withdrawn(account.bankName(), amount);
 
-                strategy.processTransaction(accountEntity, amount);
-                bankAccountRepository.save(accountEntity);
+                notifyObservers(new LogModel(accountNumber, WITHDRAW, amount, balanceAfter(accountNumber, account.balance()),
+                        change.sequence(), change.time()));
+                return account;
             } finally {
-                lock.unlock();
+                record(withdrawTimer, start);
             }
-
-            notifyObservers(new LogModel(accountNumber, WITHDRAW, amount));
-            return toAccountDto(accountEntity);
         };
 
-        return executorService.submit(task).get();
+        return submit(accountNumber, task);
     }
 
-    @Transactional
-    public List<BankAccountDto> transferFund(String origin, String destination, double amount) throws ExecutionException, InterruptedException {
-        Callable<List<BankAccountDto>> task = () -> {
-
-            BankAccountEntity originEntity;
-            BankAccountEntity destEntity;
+    public List<BankAccountDto> transferFund(String origin, String destination, long amount) throws ExecutionException, InterruptedException {
+        return transferFundAsync(origin, destination, amount).get();
+    }
 
-            lock.lock();
+    public CompletableFuture<List<BankAccountDto>> transferFundAsync(String origin, String destination, long amount) {
+        if (amount <= 0) {
+            return invalidAmount();
+        }
+        if (origin.equals(destination)) {
+            return CompletableFuture.failedFuture(new SameAccountTransferException(SAME_ACCOUNT_TRANSFER_ERROR_MESSAGE));
+        }
+        long start = System.nanoTime();
+        Callable<List<BankAccountDto>> task = () -> {
             try {
-                originEntity = bankAccountRepository.findByAccountNumber(origin)
-                        .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+                var changes = hotAccounts.isHot(origin) || hotAccounts.isHot(destination)
+                        ? hotAccounts.transfer(origin, destination, amount)
+                        : accountEngine.transfer(origin, destination, amount);
+                var originChange = changes.get(0);
+                var destChange = changes.get(1);
+                bankAggregates.withdrawn(originChange.account().bankName(), amount);
+                bankAggregates.deposited(destChange.account().bankName(), amount);
+
+                notifyObservers(new LogModel(origin, WITHDRAW, amount, balanceAfter(origin, originChange.account().balance()),
+                        originChange.sequence(), originChange.time()));
+                notifyObservers(new LogModel(destination, DEPOSIT, amount, balanceAfter(destination, destChange.account().balance()),
+                        destChange.sequence(), destChange.time()));
+
+                return List.of(originChange.account(), destChange.account());
+            } finally {
+                record(transferTimer, start);
+            }
+        };
 
-                destEntity = bankAccountRepository.findByAccountNumber(destination)
-                        .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
+        return submit(origin, task);
+    }
 
-                originEntity.withdraw(amount);
-                destEntity.deposit(amount);
+    // Best-effort batches are applied chunk by chunk while the input is still being read;
+    // an all-or-nothing batch is collected and applied as a single chunk, up to maxAtomicBatchSize operations.
+    public BatchResult processBatch(Iterator<BatchOperation> operations, BatchMode mode) throws ExecutionException, InterruptedException {
+        long start = System.nanoTime();
+        long admittedAt = admissionControl.admit(null);
+        try {
+            return applyBatch(operations, mode);
+        } finally {
+            admissionControl.release(admittedAt);
+            record(batchTimer, start);
+        }
+    }
 
-                bankAccountRepository.save(originEntity);
-                bankAccountRepository.save(destEntity);
+    private BatchResult applyBatch(Iterator<BatchOperation> operations, BatchMode mode) throws ExecutionException, InterruptedException {
+        boolean atomic = mode == BatchMode.ALL_OR_NOTHING;
+        List<BatchItemResult> results = new ArrayList<>();
+        List<BatchOperation> chunk = new ArrayList<>();
 
-            } finally {
-                lock.unlock();
+        while (operations.hasNext()) {
+            chunk.add(operations.next());
+            if (atomic && chunk.size() > maxAtomicBatchSize) {
+                throw new BatchTooLargeException(BATCH_TOO_LARGE_ERROR_MESSAGE);
+            }
+            if (!atomic && chunk.size() == batchChunkSize) {
+                results.addAll(processChunk(chunk, results.size(), false));
+                chunk = new ArrayList<>();
             }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(processChunk(chunk, results.size(), atomic));
+        }
 
-            notifyObservers(new LogModel(origin, WITHDRAW, amount));
-            notifyObservers(new LogModel(destination, DEPOSIT, amount));
+        int succeeded = (int) results.stream().filter(BatchItemResult::succeeded).count();
+        return new BatchResult(results.size(), succeeded, results.size() - succeeded, results);
+    }
 
-            return List.of(toAccountDto(originEntity), toAccountDto(destEntity));
+    private List<BatchItemResult> processChunk(List<BatchOperation> chunk, int firstIndex, boolean atomic) throws ExecutionException, InterruptedException {
+        Callable<List<BatchItemResult>> task = () -> {
+            hotAccounts.foldForBatch(chunk);
+            var results = accountEngine.processBatch(chunk, firstIndex, atomic);
+
+            List<LogModel> events = new ArrayList<>();
+            for (BatchItemResult result : results) {
+                if (!result.succeeded()) {
+                    continue;
+                }
+                var operation = chunk.get(result.index() - firstIndex);
+                if (TRANSFER.equals(operation.type())) {
+                    events.add(new LogModel(operation.accountNumber(), WITHDRAW, operation.amount(),
+                            balanceAfter(operation.accountNumber(), result.balanceAfter()), result.sequence(), result.time()));
+                    events.add(new LogModel(operation.destination(), DEPOSIT, operation.amount(),
+                            balanceAfter(operation.destination(), result.destinationBalanceAfter()), result.destinationSequence(), result.time()));
+                } else {
+                    events.add(new LogModel(operation.accountNumber(), operation.type(), operation.amount(),
+                            balanceAfter(operation.accountNumber(), result.balanceAfter()), result.sequence(), result.time()));
+                }
+            }
+            events.forEach(event -> hotAccounts.sequenced(event.accountNumber(), event.sequence()));
+            events.forEach(this::notifyObservers);
+            aggregate(events, bankNames(events));
+            return results;
         };
 
-        return executorService.submit(task).get();
+        return submit(task).get();
     }
 
-    @Transactional(readOnly = true)
-    public double getBalance(String accountNumber) {
-        var accountEntity = bankAccountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE));
-        return accountEntity.getBalance();
+    // Bank names never change, so they can be read after the engine has let go of the accounts.
+    private Map<String, String> bankNames(List<LogModel> events) {
+        Map<String, String> bankNames = new HashMap<>();
+        for (LogModel event : events) {
+            if (!bankNames.containsKey(event.accountNumber())) {
+                var account = currentAccount(event.accountNumber());
+                bankNames.put(event.accountNumber(), account == null ? null : account.bankName());
+            }
+        }
+        return bankNames;
+    }
+
+    private BankAccountDto currentAccount(String accountNumber) {
+        try {
+            return getAccountByNumber(accountNumber);
+        } catch (AccountNotFoundException e) {
+            return null;
+        }
+    }
+
+    // An account deleted before its bank was looked up is left to the periodic verification.
+    private void aggregate(List<LogModel> events, Map<String, String> bankNames) {
+        for (LogModel event : events) {
+            String bankName = bankNames.get(event.accountNumber());
+            if (bankName == null) {
+                continue;
+            }
+            if (DEPOSIT.equals(event.transactionType())) {
+                bankAggregates.deposited(bankName, event.amount());
+            } else {
+                bankAggregates.withdrawn(bankName, event.amount());
+            }
+        }
+    }
+
+    public List<BankStats> bankStats() {
+        return bankAggregates.snapshot();
+    }
+
+    public long getBalance(String accountNumber) {
+        long start = System.nanoTime();
+        try {
+            return getAccountByNumber(accountNumber).balance();
+        } finally {
+            record(balanceTimer, start);
+        }
+    }
+
+    // Deposits into a hot account's cells race every other change to it, so no change to a hot account has a
+    // single balance after it; the history leaves it out and past balances are added up from an earlier entry.
+    private Long balanceAfter(String accountNumber, Long balance) {
+        return hotAccounts.isHot(accountNumber) ? null : balance;
+    }
+
+    private AccountChange process(String accountNumber, long amount, TransactionStrategy strategy) {
+        return hotAccounts.isHot(accountNumber)
+                ? hotAccounts.process(accountNumber, amount, strategy)
+                : accountEngine.process(accountNumber, amount, strategy);
+    }
+
+    // A negative withdrawal would credit the account and a negative transfer would drain the destination unchecked,
+    // so amounts are refused before admission, the same way a batch refuses them per operation.
+    private static <T> CompletableFuture<T> invalidAmount() {
+        return CompletableFuture.failedFuture(new InvalidAmountException(INVALID_AMOUNT_ERROR_MESSAGE));
+    }
+
+    // Admission is decided before the task is queued; a rejected operation fails its future right away. An
+    // operation the pool refuses never runs its release, so its admission is cancelled here instead.
+    private <T> CompletableFuture<T> submit(String accountNumber, Callable<T> task) {
+        long admittedAt;
+        try {
+            admittedAt = admissionControl.admit(accountNumber);
+        } catch (TooManyRequestsException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            return submit(() -> {
+                try {
+                    return task.call();
+                } finally {
+                    admissionControl.release(admittedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            admissionControl.cancel(accountNumber);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Engines open their own transaction inside the account locks, so no transaction may be active here.
+    // The returned future fails with the task's own exception, so get() keeps reporting it as the cause.
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        if (executorService == null) {
+            try {
+                return CompletableFuture.completedFuture(task.call());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executorService.execute(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
     }
 
     private BankAccountDto toAccountDto(BankAccountEntity accountEntity) {
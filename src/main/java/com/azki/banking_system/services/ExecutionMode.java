@@ -0,0 +1,7 @@
+package com.azki.banking_system.services;
+
+public enum ExecutionMode {
+    DIRECT,
+    VIRTUAL,
+    POOL
+}
@@ -0,0 +1,278 @@
+package com.azki.banking_system.services;
+
+import com.azki.banking_system.dto.Discrepancy;
+import com.azki.banking_system.dto.DiscrepancyKind;
+import com.azki.banking_system.dto.ReconciliationReport;
+import com.azki.banking_system.entities.BalanceCellEntity;
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.exceptions.ReconciliationRunningException;
+import com.azki.banking_system.ledger.InMemoryLedger;
+import com.azki.banking_system.log.TransactionLogDispatcher;
+import com.azki.banking_system.log.binary.BinaryLogReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.azki.banking_system.utils.Constants.RECONCILIATION_NOT_CONSISTENT_NOTE;
+import static com.azki.banking_system.utils.Constants.RECONCILIATION_RUNNING_ERROR_MESSAGE;
+
+// Proves the table against the binary transaction log: every account must equal its opening record plus deposits
+// minus withdrawals. Each worker takes log segments off a shared counter and folds them into one map of its own;
+// the maps are then merged into the largest. When that many maps would not fit in the memory budget at once,
+// accounts are split by hash into several passes; each pass rescans the log but only keeps its own share.
+@Service
+public class ReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+
+    // A hot account's balance includes its cells.
+    private static final String SELECT_SQL = "select a.account_number, a.balance + coalesce((select sum(c.balance) from \""
+            + BalanceCellEntity.TABLE_NAME + "\" c where c.account_number = a.account_number), 0) from \""
+            + BankAccountEntity.TABLE_NAME + "\" a";
+    private static final String COUNT_SQL = "select count(*) from \"" + BankAccountEntity.TABLE_NAME + "\"";
+
+    private final BinaryLogReader binaryLogReader;
+    private final TransactionLogDispatcher dispatcher;
+    private final DataSource dataSource;
+    private final ObjectProvider<InMemoryLedger> ledger;
+    private final long memoryBudgetBytes;
+    private final int parallelism;
+    private final int maxReported;
+    private final int fetchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public ReconciliationService(BinaryLogReader binaryLogReader,
+                                 TransactionLogDispatcher dispatcher,
+                                 DataSource dataSource,
+                                 ObjectProvider<InMemoryLedger> ledger,
+                                 @Value("${reconcile.memory.budget.bytes}") long memoryBudgetBytes,
+                                 @Value("${reconcile.parallelism}") int parallelism,
+                                 @Value("${reconcile.max.reported}") int maxReported,
+                                 @Value("${export.fetch.size}") int fetchSize) {
+        this.binaryLogReader = binaryLogReader;
+        this.dispatcher = dispatcher;
+        this.dataSource = dataSource;
+        this.ledger = ledger;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.maxReported = maxReported;
+        this.fetchSize = fetchSize;
+    }
+
+    public ReconciliationReport reconcile() throws IOException, SQLException {
+        if (!running.compareAndSet(false, true)) {
+            throw new ReconciliationRunningException(RECONCILIATION_RUNNING_ERROR_MESSAGE);
+        }
+        try {
+            return run();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReconciliationReport run() throws IOException, SQLException {
+        long start = System.currentTimeMillis();
+        // the log should hold at least every event published before the run
+        dispatcher.flush();
+        // the ledger engines write balances behind; the table should hold at least what the log was flushed with
+        ledger.ifAvailable(InMemoryLedger::flush);
+        List<Long> segments = binaryLogReader.segments();
+        long accounts = Math.max(1, countAccounts());
+        // every worker's map may hold every account of the pass, and the merge grows one of them in place
+        long needed = parallelism * accounts * AccountDeltas.BYTES_PER_ACCOUNT;
+        int passes = (int) Math.max(1, (needed + memoryBudgetBytes - 1) / memoryBudgetBytes);
+        log.info("Reconciling {} accounts against {} log segments in {} pass(es)", accounts, segments.size(), passes);
+
+        var tally = new Tally();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int pass = 0; pass < passes; pass++) {
+                AccountDeltas deltas;
+                try {
+                    deltas = scan(pool, segments, pass, passes);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                tally.records += deltas.records();
+                compare(deltas, pass, passes, tally);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        var report = new ReconciliationReport(tally.records, tally.checked, tally.matched, tally.discrepancyCount,
+                tally.discrepancies, passes, System.currentTimeMillis() - start, RECONCILIATION_NOT_CONSISTENT_NOTE);
+        if (report.discrepancyCount() > 0) {
+            log.warn("Reconciliation found {} discrepancies in {} accounts", report.discrepancyCount(), report.accountsChecked());
+        } else {
+            log.info("Reconciliation matched all {} accounts over {} records in {} ms",
+                    report.accountsChecked(), report.recordsScanned(), report.elapsedMillis());
+        }
+        return report;
+    }
+
+    private AccountDeltas scan(ForkJoinPool pool, List<Long> segments, int pass, int passes) {
+        AtomicInteger next = new AtomicInteger();
+        List<ForkJoinTask<AccountDeltas>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, Math.min(parallelism, segments.size())); i++) {
+            workers.add(pool.submit(new SegmentWorker(segments, next, pass, passes)));
+        }
+        List<AccountDeltas> maps = new ArrayList<>(workers.size());
+        workers.forEach(worker -> maps.add(worker.join()));
+
+        AccountDeltas merged = maps.stream().max(Comparator.comparingInt(AccountDeltas::size)).orElseThrow();
+        for (AccountDeltas deltas : maps) {
+            if (deltas != merged) {
+                merged.mergeFrom(deltas);
+            }
+        }
+        return merged;
+    }
+
+    private void compare(AccountDeltas deltas, int pass, int passes, Tally tally) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            setLazy(connection, true);
+            try (PreparedStatement select = connection.prepareStatement(SELECT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                select.setFetchSize(fetchSize);
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        UUID accountNumber = rows.getObject(1, UUID.class);
+                        long msb = accountNumber.getMostSignificantBits();
+                        long lsb = accountNumber.getLeastSignificantBits();
+                        if (AccountDeltas.partition(msb, lsb, passes) == pass) {
+                            compareStored(deltas, accountNumber, rows.getLong(2), tally);
+                        }
+                    }
+                }
+            } finally {
+                connection.rollback();
+                setLazy(connection, false);
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+
+        for (int slot = 0; slot < deltas.capacity(); slot++) {
+            if (!deltas.isUsed(slot) || deltas.isSeen(slot)) {
+                continue;
+            }
+            tally.checked++;
+            String accountNumber = new UUID(deltas.msb(slot), deltas.lsb(slot)).toString();
+            if (!deltas.isClosed(slot)) {
+                tally.add(new Discrepancy(accountNumber, DiscrepancyKind.MISSING_ACCOUNT, null, deltas.delta(slot)));
+            } else if (deltas.delta(slot) != 0) {
+                tally.add(new Discrepancy(accountNumber, DiscrepancyKind.BALANCE_MISMATCH, null, deltas.delta(slot)));
+            } else {
+                tally.matched++;
+            }
+        }
+    }
+
+    private void compareStored(AccountDeltas deltas, UUID accountNumber, long balance, Tally tally) {
+        tally.checked++;
+        int slot = deltas.find(accountNumber.getMostSignificantBits(), accountNumber.getLeastSignificantBits());
+        long logged = slot < 0 ? 0 : deltas.delta(slot);
+        if (slot >= 0) {
+            deltas.markSeen(slot);
+        }
+        if (slot < 0 || !deltas.isOpened(slot)) {
+            tally.add(new Discrepancy(accountNumber.toString(), DiscrepancyKind.NO_OPENING_RECORD, balance, logged));
+        } else if (deltas.isClosed(slot)) {
+            tally.add(new Discrepancy(accountNumber.toString(), DiscrepancyKind.CLOSED_BUT_PRESENT, balance, logged));
+        } else if (logged != balance) {
+            tally.add(new Discrepancy(accountNumber.toString(), DiscrepancyKind.BALANCE_MISMATCH, balance, logged));
+        } else {
+            tally.matched++;
+        }
+    }
+
+    private long countAccounts() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(COUNT_SQL)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void setLazy(Connection connection, boolean lazy) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("set lazy_query_execution " + lazy);
+        }
+    }
+
+    private final class Tally {
+        private final List<Discrepancy> discrepancies = new ArrayList<>();
+        private long records;
+        private long checked;
+        private long matched;
+        private long discrepancyCount;
+
+        private void add(Discrepancy discrepancy) {
+            discrepancyCount++;
+            if (discrepancies.size() < maxReported) {
+                discrepancies.add(discrepancy);
+            }
+        }
+    }
+
+    private final class SegmentWorker implements Callable<AccountDeltas> {
+        private final List<Long> segments;
+        private final AtomicInteger next;
+        private final int pass;
+        private final int passes;
+
+        private SegmentWorker(List<Long> segments, AtomicInteger next, int pass, int passes) {
+            this.segments = segments;
+            this.next = next;
+            this.pass = pass;
+            this.passes = passes;
+        }
+
+        @Override
+        public AccountDeltas call() {
+            var deltas = new AccountDeltas(1024);
+            for (int segment = next.getAndIncrement(); segment < segments.size(); segment = next.getAndIncrement()) {
+                read(segments.get(segment), deltas);
+            }
+            return deltas;
+        }
+
+        private void read(long segment, AccountDeltas deltas) {
+            try {
+                binaryLogReader.readSegment(segment, record -> {
+                    if (passes == 1 || AccountDeltas.partition(record.accountMostSignificantBits(),
+                            record.accountLeastSignificantBits(), passes) == pass) {
+                        deltas.apply(record);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.azki.banking_system.services;
+
+import com.azki.banking_system.dto.Recurrence;
+import com.azki.banking_system.dto.ScheduleStatus;
+import com.azki.banking_system.dto.ScheduledTransferDto;
+import com.azki.banking_system.dto.ScheduledTransferPage;
+import com.azki.banking_system.entities.ScheduledTransferEntity;
+import com.azki.banking_system.exceptions.InvalidScheduleException;
+import com.azki.banking_system.exceptions.ScheduleNotFoundException;
+import com.azki.banking_system.repositories.ScheduledTransferRepository;
+import com.azki.banking_system.scheduling.TransferScheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+import static com.azki.banking_system.utils.Constants.INVALID_SCHEDULE_ERROR_MESSAGE;
+import static com.azki.banking_system.utils.Constants.SCHEDULE_NOT_FOUND_ERROR_MESSAGE;
+
+@Service
+public class ScheduledTransferService {
+
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final TransferScheduler transferScheduler;
+    private final BankService bankService;
+
+    @Autowired
+    public ScheduledTransferService(ScheduledTransferRepository scheduledTransferRepository,
+                                    TransferScheduler transferScheduler,
+                                    BankService bankService) {
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.transferScheduler = transferScheduler;
+        this.bankService = bankService;
+    }
+
+    // The schedule is committed before it is put on the wheel, so the scheduler always finds the row it fires for.
+    public ScheduledTransferDto schedule(String origin, String destination, long amount, Instant firstRunAt, Recurrence recurrence) {
+        if (amount <= 0 || origin == null || destination == null || origin.equals(destination)) {
+            throw new InvalidScheduleException(INVALID_SCHEDULE_ERROR_MESSAGE);
+        }
+        bankService.getAccountByNumber(origin);
+        bankService.getAccountByNumber(destination);
+
+        var schedule = scheduledTransferRepository.save(new ScheduledTransferEntity(origin, destination, amount,
+                recurrence == null ? Recurrence.ONCE : recurrence, firstRunAt == null ? Instant.now() : firstRunAt));
+        transferScheduler.add(schedule.getId(), schedule.getNextRunAt());
+        return toDto(schedule);
+    }
+
+    public ScheduledTransferDto getSchedule(long id) {
+        return scheduledTransferRepository.findById(id)
+                .map(this::toDto)
+                .orElseThrow(() -> new ScheduleNotFoundException(SCHEDULE_NOT_FOUND_ERROR_MESSAGE));
+    }
+
+    // Keyset paging by id, over one origin account's schedules or over all of them.
+    public ScheduledTransferPage listSchedules(String origin, long afterId, int limit) {
+        var schedules = (origin == null
+                ? scheduledTransferRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit))
+                : scheduledTransferRepository.findByOriginAndIdGreaterThanOrderByIdAsc(origin, afterId, Limit.of(limit)))
+                .stream()
+                .map(this::toDto)
+                .toList();
+        Long nextAfter = schedules.size() < limit ? null : schedules.get(schedules.size() - 1).id();
+        return new ScheduledTransferPage(schedules, nextAfter);
+    }
+
+    // A run already in flight still completes; the schedule takes no further runs. Returns false when the schedule
+    // had already finished or been cancelled.
+    @Transactional
+    public boolean cancel(long id) {
+        getSchedule(id);
+        return scheduledTransferRepository.finish(id, ScheduleStatus.CANCELLED, ScheduleStatus.ACTIVE) == 1;
+    }
+
+    private ScheduledTransferDto toDto(ScheduledTransferEntity schedule) {
+        return new ScheduledTransferDto(schedule.getId(),
+                schedule.getOrigin(),
+                schedule.getDestination(),
+                schedule.getAmount(),
+                schedule.getRecurrence(),
+                schedule.getFirstRunAt(),
+                schedule.getNextRunAt(),
+                schedule.getStatus(),
+                schedule.getRuns(),
+                schedule.getFailures(),
+                schedule.getLastRunAt(),
+                schedule.getLastError());
+    }
+}
@@ -0,0 +1,93 @@
+package com.azki.banking_system.services;
+
+import com.azki.banking_system.dto.StatementEntry;
+import com.azki.banking_system.dto.StatementPage;
+import com.azki.banking_system.engine.AccountEngine;
+import com.azki.banking_system.entities.TransactionHistoryEntity;
+import com.azki.banking_system.exceptions.InvalidPageTokenException;
+import com.azki.banking_system.hot.HotAccounts;
+import com.azki.banking_system.repositories.TransactionHistoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+import static com.azki.banking_system.utils.Constants.DEPOSIT;
+import static com.azki.banking_system.utils.Constants.INVALID_PAGE_TOKEN_ERROR_MESSAGE;
+import static com.azki.banking_system.utils.Constants.OPEN;
+
+// Reads the transaction history, which is written asynchronously and trails the balances by a few milliseconds.
+@Service
+public class StatementService {
+
+    private final TransactionHistoryRepository transactionHistoryRepository;
+    private final AccountEngine accountEngine;
+    private final HotAccounts hotAccounts;
+
+    @Autowired
+    public StatementService(TransactionHistoryRepository transactionHistoryRepository, AccountEngine accountEngine,
+                            HotAccounts hotAccounts) {
+        this.transactionHistoryRepository = transactionHistoryRepository;
+        this.accountEngine = accountEngine;
+        this.hotAccounts = hotAccounts;
+    }
+
+    public StatementPage statement(String accountNumber, Instant from, Instant to, String pageToken, int limit) {
+        accountEngine.getAccount(accountNumber);
+
+        long afterSequence = -1;
+        long afterId = Long.MAX_VALUE;
+        if (pageToken != null) {
+            int separator = pageToken.indexOf('_');
+            try {
+                afterSequence = Long.parseLong(pageToken.substring(0, separator));
+                afterId = Long.parseLong(pageToken.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new InvalidPageTokenException(INVALID_PAGE_TOKEN_ERROR_MESSAGE);
+            }
+        }
+
+        var rows = transactionHistoryRepository.findPage(accountNumber, from, to, afterSequence, afterId, Limit.of(limit));
+        var entries = rows.stream()
+                .map(row -> new StatementEntry(row.getSequence(), row.getCreatedAt(), row.getTransactionType(),
+                        row.getAmount(), row.getBalanceAfter()))
+                .toList();
+        String nextPageToken = null;
+        if (rows.size() == limit) {
+            var last = rows.get(rows.size() - 1);
+            nextPageToken = last.getSequence() + "_" + last.getId();
+        }
+        return new StatementPage(accountNumber, entries, nextPageToken);
+    }
+
+    // Deposits into a hot account's cells record no balance, so the answer starts from the nearest change that
+    // did: the last one at or before the instant plus what came after it, or the first one after the instant
+    // undone along with what came before it, or, with neither, the current balance less everything since.
+    // "After" and "before" follow the account's sequence, which the engines assign in the order of the changes.
+    public long balanceAt(String accountNumber, Instant at) {
+        var account = accountEngine.getAccount(accountNumber);
+
+        var before = transactionHistoryRepository
+                .findByAccountNumberAndCreatedAtLessThanEqualAndBalanceAfterIsNotNullOrderBySequenceDescIdDesc(accountNumber, at, Limit.of(1));
+        if (!before.isEmpty()) {
+            var known = before.get(0);
+            return known.getBalanceAfter() + transactionHistoryRepository.netChangeSince(accountNumber,
+                    known.getSequence(), known.getId(), at);
+        }
+        var after = transactionHistoryRepository
+                .findByAccountNumberAndCreatedAtGreaterThanAndBalanceAfterIsNotNullOrderBySequenceAscIdAsc(accountNumber, at, Limit.of(1));
+        if (!after.isEmpty()) {
+            var known = after.get(0);
+            return balanceBefore(known) - transactionHistoryRepository.netChangeUntil(accountNumber,
+                    at, known.getSequence(), known.getId());
+        }
+        return hotAccounts.withTotal(account).balance() - transactionHistoryRepository.netChangeAfter(accountNumber, at);
+    }
+
+    private static long balanceBefore(TransactionHistoryEntity change) {
+        return DEPOSIT.equals(change.getTransactionType()) || OPEN.equals(change.getTransactionType())
+                ? change.getBalanceAfter() - change.getAmount()
+                : change.getBalanceAfter() + change.getAmount();
+    }
+}
@@ -0,0 +1,34 @@
+package com.azki.banking_system.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+final class TaskExecutors {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskExecutors.class);
+
+    private TaskExecutors() {
+    }
+
+    // DIRECT runs on the caller thread, so there is no executor at all.
+    static ExecutorService create(ExecutionMode mode, int threadPoolCapacity) {
+        return switch (mode) {
+            case DIRECT -> null;
+            case VIRTUAL -> newVirtualThreadPerTaskExecutor(threadPoolCapacity);
+            case POOL -> Executors.newFixedThreadPool(threadPoolCapacity);
+        };
+    }
+
+    // Looked up reflectively so the project still builds and runs on Java 17.
+    private static ExecutorService newVirtualThreadPerTaskExecutor(int threadPoolCapacity) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads need Java 21, falling back to a pool of {} platform threads", threadPoolCapacity);
+            return Executors.newFixedThreadPool(threadPoolCapacity);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.azki.banking_system.sharding;
+
+import com.azki.banking_system.concurrency.MpscRingBuffer;
+import com.azki.banking_system.ledger.InMemoryLedger;
+import com.azki.banking_system.ledger.LedgerAccount;
+import com.azki.banking_system.ledger.TransferIntent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Owns a slice of the accounts: only this thread mutates them, so no account locks are needed.
+// Commands drained together are journaled as one ledger record.
+public class AccountShard {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final InMemoryLedger ledger;
+    private final MpscRingBuffer<ShardCommand<?>> queue;
+    private final ShardCommand<?>[] batch;
+    private final Thread thread;
+    private volatile boolean sleeping;
+    private volatile boolean running = true;
+
+    public AccountShard(int index, InMemoryLedger ledger, int queueCapacity, int batchSize) {
+        this.ledger = ledger;
+        this.queue = new MpscRingBuffer<>(queueCapacity);
+        this.batch = new ShardCommand<?>[batchSize];
+        this.thread = new Thread(this::run, "account-shard-" + index);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<List<LedgerAccount>> resolver, Function<List<LedgerAccount>, T> action) {
+        return submit(resolver, action, null);
+    }
+
+    // The intent derived from the action's result is journaled in the same record as the balances it changed.
+    public <T> CompletableFuture<T> submit(Supplier<List<LedgerAccount>> resolver, Function<List<LedgerAccount>, T> action,
+                                           Function<T, TransferIntent> intent) {
+        var command = new ShardCommand<>(resolver, action, intent);
+        while (!queue.offer(command)) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+        return command.future();
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        while (running || queue.size() > 0) {
+            int drained = 0;
+            ShardCommand<?> command;
+            while (drained < batch.length && (command = queue.poll()) != null) {
+                batch[drained++] = command;
+            }
+            if (drained == 0) {
+                idle();
+                continue;
+            }
+            process(drained);
+        }
+    }
+
+    private void process(int drained) {
+        List<LedgerAccount> touched = new ArrayList<>();
+        List<TransferIntent> intents = new ArrayList<>();
+        for (int i = 0; i < drained; i++) {
+            batch[i].resolve(touched);
+        }
+        try {
+            Runnable mutation = () -> {
+                for (int i = 0; i < drained; i++) {
+                    batch[i].execute(intents);
+                }
+            };
+            if (touched.isEmpty()) {
+                mutation.run();
+            } else {
+                ledger.apply(touched, intents, mutation);
+            }
+            for (int i = 0; i < drained; i++) {
+                batch[i].complete();
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i < drained; i++) {
+                batch[i].fail(e);
+            }
+        }
+        for (int i = 0; i < drained; i++) {
+            batch[i] = null;
+        }
+    }
+
+    private void idle() {
+        sleeping = true;
+        if (queue.size() == 0 && running) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        sleeping = false;
+    }
+}
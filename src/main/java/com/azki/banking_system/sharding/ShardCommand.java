@@ -0,0 +1,67 @@
+package com.azki.banking_system.sharding;
+
+import com.azki.banking_system.ledger.LedgerAccount;
+import com.azki.banking_system.ledger.TransferIntent;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+class ShardCommand<T> {
+
+    private final Supplier<List<LedgerAccount>> resolver;
+    private final Function<List<LedgerAccount>, T> action;
+    private final Function<T, TransferIntent> intent;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private List<LedgerAccount> accounts;
+    private T result;
+    private RuntimeException error;
+
+    ShardCommand(Supplier<List<LedgerAccount>> resolver, Function<List<LedgerAccount>, T> action,
+                 Function<T, TransferIntent> intent) {
+        this.resolver = resolver;
+        this.action = action;
+        this.intent = intent;
+    }
+
+    CompletableFuture<T> future() {
+        return future;
+    }
+
+    void resolve(List<LedgerAccount> touched) {
+        try {
+            accounts = resolver.get();
+            touched.addAll(accounts);
+        } catch (RuntimeException e) {
+            error = e;
+        }
+    }
+
+    // A command that succeeded adds its intent, if any, to the record the shard journals for the drained batch.
+    void execute(List<TransferIntent> intents) {
+        if (error != null) {
+            return;
+        }
+        try {
+            result = action.apply(accounts);
+            if (intent != null) {
+                intents.add(intent.apply(result));
+            }
+        } catch (RuntimeException e) {
+            error = e;
+        }
+    }
+
+    void complete() {
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(result);
+        }
+    }
+
+    void fail(RuntimeException e) {
+        future.completeExceptionally(e);
+    }
+}
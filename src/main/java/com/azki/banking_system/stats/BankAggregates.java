@@ -0,0 +1,221 @@
+package com.azki.banking_system.stats;
+
+import com.azki.banking_system.dto.BankStats;
+import com.azki.banking_system.ledger.InMemoryLedger;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.repositories.BankAccountRepository;
+import io.micrometer.core.instrument.Counter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-bank totals kept up to date by the operations themselves, so reading them costs nothing like a GROUP BY over
+// the account table. Every update goes to striped counters and never blocks an operation. The table stays the
+// source of truth: a periodic pass compares it with the counters and corrects drift left by operations that
+// change the table without coming through here, or by other instances sharing the database.
+@Component
+public class BankAggregates {
+
+    private static final Logger log = LoggerFactory.getLogger(BankAggregates.class);
+
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+    private record Drift(long accounts, long balance) {
+    }
+
+    private record Day(long epochDay, LongAdder inflow, LongAdder outflow) {
+        Day(long epochDay) {
+            this(epochDay, new LongAdder(), new LongAdder());
+        }
+    }
+
+    private static final class BankTotals {
+        private final LongAdder accounts = new LongAdder();
+        private final LongAdder balance = new LongAdder();
+        // bumped by every change, so a verification can tell whether the bank was quiet while it read the table
+        private final LongAdder updates = new LongAdder();
+        private volatile Day day = new Day(today());
+
+        private Day day(long epochDay) {
+            Day current = day;
+            if (current.epochDay() == epochDay) {
+                return current;
+            }
+            synchronized (this) {
+                if (day.epochDay() != epochDay) {
+                    day = new Day(epochDay);
+                }
+                return day;
+            }
+        }
+    }
+
+    private final Map<String, BankTotals> banks = new ConcurrentHashMap<>();
+    private final Map<String, Drift> suspected = new HashMap<>();
+    private final BankAccountRepository bankAccountRepository;
+    private final ObjectProvider<InMemoryLedger> ledger;
+    private final ScheduledExecutorService verifier;
+    private final Counter corrections;
+
+    @Autowired
+    public BankAggregates(BankAccountRepository bankAccountRepository,
+                          ObjectProvider<InMemoryLedger> ledger,
+                          @Value("${stats.verify.interval.ms}") long verifyIntervalMs,
+                          BankMetrics metrics) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.ledger = ledger;
+        this.corrections = metrics.counter("bank.stats.corrections", "source", "verification");
+        metrics.gauge("bank.stats.banks", banks, Map::size);
+
+        load();
+        if (verifyIntervalMs > 0) {
+            verifier = Executors.newSingleThreadScheduledExecutor();
+            verifier.scheduleWithFixedDelay(this::verifySafely, verifyIntervalMs, verifyIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            verifier = null;
+        }
+    }
+
+    public void opened(String bankName, long balance) {
+        BankTotals totals = totals(bankName);
+        totals.accounts.increment();
+        totals.balance.add(balance);
+        totals.updates.increment();
+    }
+
+    public void closed(String bankName, long balance) {
+        BankTotals totals = totals(bankName);
+        totals.accounts.decrement();
+        totals.balance.add(-balance);
+        totals.updates.increment();
+    }
+
+    public void deposited(String bankName, long amount) {
+        BankTotals totals = totals(bankName);
+        totals.balance.add(amount);
+        totals.day(today()).inflow().add(amount);
+        totals.updates.increment();
+    }
+
+    public void withdrawn(String bankName, long amount) {
+        BankTotals totals = totals(bankName);
+        totals.balance.add(-amount);
+        totals.day(today()).outflow().add(amount);
+        totals.updates.increment();
+    }
+
+    public List<BankStats> snapshot() {
+        long today = today();
+        List<BankStats> stats = new ArrayList<>(banks.size());
+        banks.forEach((bankName, totals) -> {
+            Day day = totals.day;
+            boolean current = day.epochDay() == today;
+            stats.add(new BankStats(bankName, totals.accounts.sum(), totals.balance.sum(),
+                    current ? day.inflow().sum() : 0, current ? day.outflow().sum() : 0));
+        });
+        stats.sort(Comparator.comparing(BankStats::bankName));
+        return stats;
+    }
+
+    // Only banks that saw no update while the table was read are compared. A drift is corrected once a second
+    // pass finds the same one: an operation that has reached the table but not yet the counters shows up as a
+    // drift once and is gone by the next pass. Returns the number of banks corrected.
+    public synchronized int verify() {
+        ledger.ifAvailable(InMemoryLedger::flush);
+        Map<String, Long> updatesBefore = new HashMap<>();
+        banks.forEach((bankName, totals) -> updatesBefore.put(bankName, totals.updates.sum()));
+
+        Map<String, Drift> drifts = new HashMap<>();
+        Map<String, long[]> stored = stored();
+        Set<String> bankNames = new HashSet<>(stored.keySet());
+        bankNames.addAll(updatesBefore.keySet());
+        for (String bankName : bankNames) {
+            BankTotals totals = totals(bankName);
+            if (totals.updates.sum() != updatesBefore.getOrDefault(bankName, 0L)) {
+                continue;
+            }
+            long[] row = stored.getOrDefault(bankName, new long[2]);
+            var drift = new Drift(row[0] - totals.accounts.sum(), row[1] - totals.balance.sum());
+            if (drift.accounts() != 0 || drift.balance() != 0) {
+                drifts.put(bankName, drift);
+            }
+        }
+
+        int corrected = 0;
+        Map<String, Drift> unconfirmed = new HashMap<>();
+        for (var entry : drifts.entrySet()) {
+            Drift drift = entry.getValue();
+            if (!drift.equals(suspected.get(entry.getKey()))) {
+                unconfirmed.put(entry.getKey(), drift);
+                continue;
+            }
+            BankTotals totals = totals(entry.getKey());
+            totals.accounts.add(drift.accounts());
+            totals.balance.add(drift.balance());
+            log.warn("Corrected totals of bank {} by {} accounts and a balance of {}", entry.getKey(), drift.accounts(), drift.balance());
+            corrected++;
+        }
+        suspected.clear();
+        suspected.putAll(unconfirmed);
+        corrections.increment(corrected);
+        return corrected;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (verifier != null) {
+            verifier.shutdownNow();
+        }
+    }
+
+    private void load() {
+        ledger.ifAvailable(InMemoryLedger::flush);
+        stored().forEach((bankName, row) -> {
+            BankTotals totals = totals(bankName);
+            totals.accounts.add(row[0]);
+            totals.balance.add(row[1]);
+        });
+    }
+
+    private void verifySafely() {
+        try {
+            verify();
+        } catch (RuntimeException e) {
+            log.error("Verification of the bank totals failed, retrying in the next cycle", e);
+        }
+    }
+
+    private Map<String, long[]> stored() {
+        Map<String, long[]> stored = new HashMap<>();
+        for (Object[] row : bankAccountRepository.summarizeByBank()) {
+            stored.put((String) row[0], new long[]{((Number) row[1]).longValue(), ((Number) row[2]).longValue()});
+        }
+        return stored;
+    }
+
+    private BankTotals totals(String bankName) {
+        BankTotals totals = banks.get(bankName);
+        return totals != null ? totals : banks.computeIfAbsent(bankName, name -> new BankTotals());
+    }
+
+    private static long today() {
+        return System.currentTimeMillis() / MILLIS_PER_DAY;
+    }
+}
@@ -0,0 +1,12 @@
+package com.azki.banking_system.transactions;
+
+public interface Account {
+    long getBalance();
+
+    void deposit(long amount);
+
+    void withdraw(long amount);
+
+    // Numbers the changes of this account for its history. Callers hold the account, so the numbers follow the changes.
+    long nextSequence();
+}
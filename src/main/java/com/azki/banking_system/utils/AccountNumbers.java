@@ -0,0 +1,42 @@
+package com.azki.banking_system.utils;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+// Account numbers are UUIDv7 strings: a 48-bit millisecond timestamp followed by 74 random bits.
+// New keys therefore land at the right edge of the index instead of splitting random B-tree pages.
+public final class AccountNumbers {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int CANONICAL_LENGTH = 36;
+
+    private AccountNumbers() {
+    }
+
+    public static String next() {
+        return nextUuid().toString();
+    }
+
+    public static UUID nextUuid() {
+        long timestamp = System.currentTimeMillis();
+        long random = RANDOM.nextLong();
+        long msb = (timestamp << 16) | 0x7000L | (random & 0x0FFFL);
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    // Returns null for anything that is not a canonical (lower-case) UUID string, which no stored account can match.
+    // Lock stripes, caches, shards and hot-account state all key on the string, so an upper-case spelling of a
+    // stored number must not reach the same row under a second key.
+    public static UUID parse(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() != CANONICAL_LENGTH) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(accountNumber);
+            return uuid.toString().equals(accountNumber) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
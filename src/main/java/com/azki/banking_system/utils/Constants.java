@@ -4,8 +4,33 @@ public class Constants {
 
     public static final String ACCOUNT_NOT_FOUND_ERROR_MESSAGE = "Account not found";
     public static final String NOT_ENOUGH_BALANCE_ERROR_MESSAGE = "Balance is less than requested amount";
+    public static final String AMOUNT_OVERFLOW_ERROR_MESSAGE = "Amount is out of range";
+    public static final String AMOUNT_PRECISION_ERROR_MESSAGE = "Amount has more than two decimal places";
     public static final String SOMETHING_WENT_WRONG = "Something went wrong";
     public static final String SUCCESS = "SUCCESS";
     public static final String DEPOSIT = "deposit";
     public static final String WITHDRAW = "withdraw";
+    public static final String TRANSFER = "transfer";
+    public static final String OPEN = "open";
+    public static final String CLOSE = "close";
+    public static final String UNKNOWN_OPERATION_ERROR_MESSAGE = "Unknown operation type";
+    public static final String INVALID_AMOUNT_ERROR_MESSAGE = "Amount must be positive";
+    public static final String SAME_ACCOUNT_TRANSFER_ERROR_MESSAGE = "A transfer needs two different accounts";
+    public static final String CONCURRENT_UPDATE_ERROR_MESSAGE = "Account is being updated concurrently, please retry";
+    public static final String BATCH_TOO_LARGE_ERROR_MESSAGE = "All-or-nothing batch has more operations than allowed";
+    public static final String TRANSFER_INCOMPLETE_ERROR_MESSAGE = "The transfer is taken but not every credit could be paid; the rest is paid on the next start";
+    public static final String BATCH_ROLLED_BACK_MESSAGE = "Rolled back because another operation in the batch failed";
+    public static final String INVALID_IMPORT_HEADER_ERROR_MESSAGE = "CSV imports need a header with accountHolderName, bankName and balance columns";
+    public static final String INVALID_PAGE_TOKEN_ERROR_MESSAGE = "Page token is not valid";
+    public static final String RECONCILIATION_RUNNING_ERROR_MESSAGE = "A reconciliation is already running";
+    public static final String RECONCILIATION_NOT_CONSISTENT_NOTE = "The log and the table are not read at one consistent point; operations during the run can show up as transient mismatches";
+    public static final String DISPATCH_OVERFLOW_POLICY_ERROR_MESSAGE = "log.dispatch.overflow.policy must be block or drop: events are published after the operation is applied";
+    public static final String HOT_ACCOUNTS_UNSUPPORTED_ERROR_MESSAGE = "Hot accounts need the jpa engine";
+    public static final String HOT_ACCOUNT_CELLS_LEFT_ERROR_MESSAGE = "Account %s still has balance cells, which the %s engine cannot fold; start once with the jpa, optimistic or pessimistic engine to fold them";
+    public static final String INVALID_CELL_COUNT_ERROR_MESSAGE = "Cell count is out of range";
+    public static final String OVERLOADED_ERROR_MESSAGE = "The bank is busy, please retry shortly";
+    public static final String ACCOUNT_RATE_LIMITED_ERROR_MESSAGE = "Too many requests for this account, please retry shortly";
+    public static final String SCHEDULE_NOT_FOUND_ERROR_MESSAGE = "Scheduled transfer not found";
+    public static final String INVALID_SCHEDULE_ERROR_MESSAGE = "A scheduled transfer needs a positive amount and two different accounts";
+    public static final String INTERRUPTED_RUN_ERROR_MESSAGE = "Interrupted by a restart, not retried";
 }
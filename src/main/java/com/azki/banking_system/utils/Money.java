@@ -0,0 +1,58 @@
+package com.azki.banking_system.utils;
+
+import com.azki.banking_system.exceptions.InvalidAmountException;
+import com.azki.banking_system.exceptions.MoneyOverflowException;
+
+import java.math.BigDecimal;
+
+import static com.azki.banking_system.utils.Constants.AMOUNT_OVERFLOW_ERROR_MESSAGE;
+import static com.azki.banking_system.utils.Constants.AMOUNT_PRECISION_ERROR_MESSAGE;
+
+// Amounts are carried as long minor units (cents) everywhere. The shell reads and prints decimals; REST bodies
+// and account files carry minor units as JSON integers.
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    public static long add(long amount, long other) {
+        try {
+            return Math.addExact(amount, other);
+        } catch (ArithmeticException e) {
+            throw new MoneyOverflowException(AMOUNT_OVERFLOW_ERROR_MESSAGE);
+        }
+    }
+
+    public static long subtract(long amount, long other) {
+        try {
+            return Math.subtractExact(amount, other);
+        } catch (ArithmeticException e) {
+            throw new MoneyOverflowException(AMOUNT_OVERFLOW_ERROR_MESSAGE);
+        }
+    }
+
+    // Never rounds: an amount with more than two decimal places is refused.
+    public static long fromDecimal(BigDecimal amount) {
+        BigDecimal scaled;
+        try {
+            scaled = amount.setScale(SCALE);
+        } catch (ArithmeticException e) {
+            throw new InvalidAmountException(AMOUNT_PRECISION_ERROR_MESSAGE);
+        }
+        try {
+            return scaled.unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new MoneyOverflowException(AMOUNT_OVERFLOW_ERROR_MESSAGE);
+        }
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static String format(long minorUnits) {
+        return toDecimal(minorUnits).toPlainString();
+    }
+}
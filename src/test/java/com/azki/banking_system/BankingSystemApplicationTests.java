@@ -1,11 +1,24 @@
 package com.azki.banking_system;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
-@SpringBootTest
+import java.nio.file.Path;
+
+@SpringBootTest(properties = "spring.shell.interactive.enabled=false")
 class BankingSystemApplicationTests {
 
+	@TempDir
+	static Path workDir;
+
+	@DynamicPropertySource
+	static void workDirectories(DynamicPropertyRegistry registry) {
+		TestDirectories.register(registry, workDir);
+	}
+
 	@Test
 	void contextLoads() {
 	}
@@ -0,0 +1,21 @@
+package com.azki.banking_system;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.nio.file.Path;
+
+// Every file a context writes goes under its own directory, so contexts that stay alive side by side in the test
+// JVM never append to or map the same file.
+public final class TestDirectories {
+
+    private TestDirectories() {
+    }
+
+    public static void register(DynamicPropertyRegistry registry, Path directory) {
+        registry.add("log.file.path", () -> directory.resolve("transactions.log").toString());
+        registry.add("log.binary.dir", () -> directory.resolve("transactions").toString());
+        registry.add("ledger.journal.dir", () -> directory.resolve("ledger").toString());
+        registry.add("import.rejects.dir", () -> directory.resolve("imports").toString());
+        registry.add("spring.shell.history.enabled", () -> "false");
+    }
+}
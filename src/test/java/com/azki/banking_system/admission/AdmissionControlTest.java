@@ -0,0 +1,135 @@
+package com.azki.banking_system.admission;
+
+import com.azki.banking_system.exceptions.TooManyRequestsException;
+import com.azki.banking_system.metrics.BankMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.azki.banking_system.utils.Constants.ACCOUNT_RATE_LIMITED_ERROR_MESSAGE;
+import static com.azki.banking_system.utils.Constants.OVERLOADED_ERROR_MESSAGE;
+
+public class AdmissionControlTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testAccountBucketEmptiesAndRefills() {
+        var limiter = new AccountRateLimiter(1000, 10, 5);
+        Assertions.assertEquals(1024, limiter.size());
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertTrue(limiter.tryAcquire("a", 0));
+        }
+        Assertions.assertFalse(limiter.tryAcquire("a", 0));
+        Assertions.assertTrue(limiter.tryAcquire("b", 0));
+
+        // 10 per second is one token every 100 ms
+        Assertions.assertFalse(limiter.tryAcquire("a", 99));
+        Assertions.assertTrue(limiter.tryAcquire("a", 100));
+        Assertions.assertFalse(limiter.tryAcquire("a", 150));
+
+        // an idle account gets its burst back, never more
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertTrue(limiter.tryAcquire("a", 60_000));
+        }
+        Assertions.assertFalse(limiter.tryAcquire("a", 60_000));
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyHoldsAndShrinksWhenItRises() {
+        var limit = new AdaptiveLimit(20, 8, 1000);
+        long now = System.nanoTime();
+
+        for (int window = 0; window < 50; window++) {
+            now = window(limit, now, TimeUnit.MILLISECONDS.toNanos(1), limit.limit());
+        }
+        int grown = limit.limit();
+        Assertions.assertTrue(grown > 40, "limit " + grown);
+
+        for (int window = 0; window < 5; window++) {
+            now = window(limit, now, TimeUnit.MILLISECONDS.toNanos(10), limit.limit());
+        }
+        Assertions.assertTrue(limit.limit() < grown * 3 / 4, "limit " + limit.limit());
+    }
+
+    @Test
+    void testLimitDoesNotGrowWhenItIsNotUsed() {
+        var limit = new AdaptiveLimit(20, 8, 1000);
+        long now = System.nanoTime();
+
+        for (int window = 0; window < 20; window++) {
+            now = window(limit, now, TimeUnit.MILLISECONDS.toNanos(1), 2);
+        }
+        Assertions.assertEquals(20, limit.limit());
+    }
+
+    @Test
+    void testRejectsOverTheLimitUntilAPermitIsReleased() {
+        var admissionControl = new AdmissionControl(true, 2, 2, 2, 0, 0, 16, new BankMetrics(meterRegistry));
+
+        long first = admissionControl.admit("a");
+        admissionControl.admit("b");
+        var rejected = Assertions.assertThrows(TooManyRequestsException.class, () -> admissionControl.admit("c"));
+        Assertions.assertEquals(OVERLOADED_ERROR_MESSAGE, rejected.getMessage());
+
+        admissionControl.release(first);
+        admissionControl.admit(null);
+        Assertions.assertEquals(2, meterRegistry.get("bank.admission.inflight").gauge().value());
+        Assertions.assertEquals(1, meterRegistry.get("bank.admission.rejected").tag("reason", "overloaded").counter().count());
+    }
+
+    @Test
+    void testRateLimitedAccountDoesNotHoldAPermit() {
+        var admissionControl = new AdmissionControl(true, 10, 10, 10, 1, 1, 16, new BankMetrics(meterRegistry));
+
+        admissionControl.release(admissionControl.admit("a"));
+        var rejected = Assertions.assertThrows(TooManyRequestsException.class, () -> admissionControl.admit("a"));
+        Assertions.assertEquals(ACCOUNT_RATE_LIMITED_ERROR_MESSAGE, rejected.getMessage());
+        Assertions.assertEquals(0, meterRegistry.get("bank.admission.inflight").gauge().value());
+        Assertions.assertEquals(1, meterRegistry.get("bank.admission.rejected").tag("reason", "account_rate").counter().count());
+    }
+
+    @Test
+    void testOverloadedRequestGivesItsAccountTokenBack() {
+        var admissionControl = new AdmissionControl(true, 1, 1, 1, 1, 1, 16, new BankMetrics(meterRegistry));
+
+        long held = admissionControl.admit(null);
+        var rejected = Assertions.assertThrows(TooManyRequestsException.class, () -> admissionControl.admit("a"));
+        Assertions.assertEquals(OVERLOADED_ERROR_MESSAGE, rejected.getMessage());
+
+        admissionControl.release(held);
+        admissionControl.admit("a");
+        Assertions.assertEquals(0, meterRegistry.get("bank.admission.rejected").tag("reason", "account_rate").counter().count());
+    }
+
+    @Test
+    void testCancelledAdmissionGivesBackItsPermitAndToken() {
+        var admissionControl = new AdmissionControl(true, 1, 1, 1, 1, 1, 16, new BankMetrics(meterRegistry));
+
+        admissionControl.admit("a");
+        admissionControl.cancel("a");
+
+        admissionControl.admit("a");
+        Assertions.assertEquals(1, meterRegistry.get("bank.admission.inflight").gauge().value());
+    }
+
+    @Test
+    void testDisabledAdmitsEverything() {
+        var admissionControl = new AdmissionControl(false, 1, 1, 1, 1, 1, 16, new BankMetrics(meterRegistry));
+        for (int i = 0; i < 100; i++) {
+            admissionControl.admit("a");
+        }
+    }
+
+    private static long window(AdaptiveLimit limit, long start, long rtt, int inflight) {
+        for (int sample = 0; sample < 10; sample++) {
+            limit.sample(rtt, inflight, start + WINDOW * sample / 9);
+        }
+        return start + WINDOW;
+    }
+}
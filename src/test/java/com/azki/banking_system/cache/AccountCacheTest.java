@@ -0,0 +1,47 @@
+package com.azki.banking_system.cache;
+
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.metrics.BankMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AccountCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testLeastRecentlyUsedAccountIsEvicted() {
+        // 16 segments of one entry each; "a" and "q" share a segment.
+        var cache = new AccountCache(16, 60000, new BankMetrics(meterRegistry));
+
+        cache.put(account("a", 100));
+        cache.put(account("q", 200));
+
+        Assertions.assertNull(cache.get("a"));
+        Assertions.assertEquals(200, cache.get("q").balance());
+        Assertions.assertEquals(1, meterRegistry.get("bank.cache.evictions").tag("cause", "size").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("bank.cache.requests").tag("result", "hit").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("bank.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void testExpiredAndInvalidatedAccountsAreMisses() throws InterruptedException {
+        var expiring = new AccountCache(100, 1, new BankMetrics(meterRegistry));
+        expiring.put(account("a", 100));
+        Thread.sleep(5);
+        Assertions.assertNull(expiring.get("a"));
+        Assertions.assertEquals(1, meterRegistry.get("bank.cache.evictions").tag("cause", "expired").counter().count());
+
+        var cache = new AccountCache(100, 60000, new BankMetrics(new SimpleMeterRegistry()));
+        cache.put(account("b", 100));
+        cache.put(account("b", 150));
+        Assertions.assertEquals(150, cache.get("b").balance());
+        cache.invalidate("b");
+        Assertions.assertNull(cache.get("b"));
+    }
+
+    private static BankAccountDto account(String accountNumber, long balance) {
+        return new BankAccountDto(1L, accountNumber, balance, "Test", "TestBank");
+    }
+}
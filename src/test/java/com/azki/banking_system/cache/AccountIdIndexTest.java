@@ -0,0 +1,49 @@
+package com.azki.banking_system.cache;
+
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.utils.AccountNumbers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class AccountIdIndexTest {
+
+    @Test
+    void testEntriesSurviveGrowthAndRemoval() {
+        var index = new AccountIdIndex(1_000_000, new BankMetrics(new SimpleMeterRegistry()));
+        List<UUID> keys = new ArrayList<>();
+        for (int i = 1; i <= 200_000; i++) {
+            UUID key = AccountNumbers.nextUuid();
+            keys.add(key);
+            index.put(key, i);
+        }
+        Assertions.assertEquals(keys.size(), index.size());
+
+        for (int i = 0; i < keys.size(); i += 2) {
+            index.remove(keys.get(i));
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            long expected = i % 2 == 0 ? AccountIdIndex.NOT_FOUND : i + 1;
+            Assertions.assertEquals(expected, index.get(keys.get(i)));
+        }
+        Assertions.assertEquals(keys.size() / 2, index.size());
+    }
+
+    @Test
+    void testFullSegmentsStopIndexingNewKeys() {
+        var index = new AccountIdIndex(64, new BankMetrics(new SimpleMeterRegistry()));
+        for (int i = 1; i <= 10_000; i++) {
+            index.put(UUID.randomUUID(), i);
+        }
+        Assertions.assertEquals(64, index.size());
+
+        var disabled = new AccountIdIndex(0, new BankMetrics(new SimpleMeterRegistry()));
+        UUID key = UUID.randomUUID();
+        disabled.put(key, 1);
+        Assertions.assertEquals(AccountIdIndex.NOT_FOUND, disabled.get(key));
+    }
+}
@@ -0,0 +1,97 @@
+package com.azki.banking_system.concurrency;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+public class MpscRingBufferTest {
+
+    @Test
+    void testCapacityRoundsUpAndFullBufferRejectsOffers() {
+        var buffer = new MpscRingBuffer<Integer>(3);
+
+        Assertions.assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(buffer.offer(i));
+        }
+        Assertions.assertFalse(buffer.offer(4));
+        Assertions.assertEquals(4, buffer.size());
+
+        Assertions.assertEquals(0, buffer.poll());
+        Assertions.assertTrue(buffer.offer(4));
+        Assertions.assertFalse(buffer.offer(5));
+    }
+
+    @Test
+    void testWrapsAroundInOrder() {
+        var buffer = new MpscRingBuffer<Integer>(4);
+
+        int next = 0;
+        for (int round = 0; round < 100; round++) {
+            Assertions.assertTrue(buffer.offer(round * 3));
+            Assertions.assertTrue(buffer.offer(round * 3 + 1));
+            Assertions.assertTrue(buffer.offer(round * 3 + 2));
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertEquals(next++, buffer.poll());
+            }
+            Assertions.assertNull(buffer.poll());
+            Assertions.assertEquals(0, buffer.size());
+        }
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothingAndKeepTheirOwnOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        var buffer = new MpscRingBuffer<long[]>(64);
+        var start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                await(start);
+                for (long seq = 0; seq < perProducer; seq++) {
+                    long[] element = {producer, seq};
+                    while (!buffer.offer(element)) {
+                        LockSupport.parkNanos(1000);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] expected = new long[producers];
+        start.countDown();
+        int received = 0;
+        while (received < producers * perProducer) {
+            long[] element = buffer.poll();
+            if (element == null) {
+                LockSupport.parkNanos(1000);
+                continue;
+            }
+            Assertions.assertEquals(expected[(int) element[0]]++, element[1]);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertNull(buffer.poll());
+        for (long count : expected) {
+            Assertions.assertEquals(perProducer, count);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
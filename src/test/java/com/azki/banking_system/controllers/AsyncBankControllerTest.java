@@ -0,0 +1,115 @@
+package com.azki.banking_system.controllers;
+
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.exceptions.ConcurrentUpdateException;
+import com.azki.banking_system.exceptions.MoneyOverflowException;
+import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.exceptions.TooManyRequestsException;
+import com.azki.banking_system.services.BankService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncBankControllerTest {
+
+    private static final String ACCOUNT = "5f0c6f0e-6a43-4a4c-9d39-6d1d3c1f2a10";
+    private static final String OTHER_ACCOUNT = "0b8e54a1-3c1e-4f7a-8d7e-2f4a9b6c1d22";
+
+    @Mock
+    private BankService bankService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new AsyncBankController(bankService)).build();
+    }
+
+    // The handler returns while the operation is still running; the response is only written once the future completes.
+    @Test
+    void testRequestThreadIsReleasedUntilTheOperationCompletes() throws Exception {
+        CompletableFuture<BankAccountDto> pending = new CompletableFuture<>();
+        Mockito.when(bankService.depositAsync(ArgumentMatchers.eq(ACCOUNT), ArgumentMatchers.eq(500L), ArgumentMatchers.any()))
+                .thenReturn(pending);
+
+        MvcResult started = deposit(500);
+        Assertions.assertFalse(pending.isDone());
+        Mockito.verify(bankService).depositAsync(ArgumentMatchers.eq(ACCOUNT), ArgumentMatchers.eq(500L), ArgumentMatchers.any());
+
+        pending.complete(new BankAccountDto(1L, ACCOUNT, 1500, "Holder", "TestBank"));
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value(ACCOUNT))
+                .andExpect(jsonPath("$.balance").value(1500));
+    }
+
+    @Test
+    void testCompletedTransferReturnsBothAccounts() throws Exception {
+        Mockito.when(bankService.transferFundAsync(ACCOUNT, OTHER_ACCOUNT, 300)).thenReturn(CompletableFuture.completedFuture(List.of(
+                new BankAccountDto(1L, ACCOUNT, 700, "Holder", "TestBank"),
+                new BankAccountDto(2L, OTHER_ACCOUNT, 300, "Holder", "TestBank"))));
+
+        MvcResult started = mockMvc.perform(post("/bank/async/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"origin\":\"" + ACCOUNT + "\",\"dest\":\"" + OTHER_ACCOUNT + "\",\"amount\":300}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].balance").value(700))
+                .andExpect(jsonPath("$[1].balance").value(300));
+    }
+
+    @Test
+    void testFailuresAreMappedToStatuses() throws Exception {
+        expectStatus(new AccountNotFoundException("missing"), 404);
+        expectStatus(new NotEnoughBalanceException("short"), 400);
+        expectStatus(new MoneyOverflowException("overflow"), 400);
+        expectStatus(new ConcurrentUpdateException("busy"), 409);
+        expectStatus(new TooManyRequestsException("slow down"), 429);
+    }
+
+    private void expectStatus(RuntimeException failure, int expected) throws Exception {
+        Mockito.when(bankService.withdrawAsync(ArgumentMatchers.eq(ACCOUNT), ArgumentMatchers.eq(100L), ArgumentMatchers.any()))
+                .thenReturn(CompletableFuture.supplyAsync(() -> {
+                    throw failure;
+                }));
+
+        MvcResult started = mockMvc.perform(post("/bank/async/withdraw/" + ACCOUNT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":100}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().is(expected));
+    }
+
+    private MvcResult deposit(long amount) throws Exception {
+        return mockMvc.perform(post("/bank/async/deposit/" + ACCOUNT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":" + amount + "}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+}
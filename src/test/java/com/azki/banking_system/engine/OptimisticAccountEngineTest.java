@@ -0,0 +1,114 @@
+package com.azki.banking_system.engine;
+
+import com.azki.banking_system.TestDirectories;
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.repositories.AccountLookup;
+import com.azki.banking_system.repositories.BankAccountRepository;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest(properties = {
+        "spring.shell.interactive.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:optimistic",
+        "bank.engine=optimistic",
+        "optimistic.max.attempts=1000"
+})
+public class OptimisticAccountEngineTest {
+
+    @TempDir
+    static Path workDir;
+
+    @DynamicPropertySource
+    static void workDirectories(DynamicPropertyRegistry registry) {
+        TestDirectories.register(registry, workDir);
+    }
+
+    private static final int CALLERS = 8;
+    private static final int DEPOSITS_PER_CALLER = 50;
+
+    @Autowired
+    private AccountEngine engine;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AccountLookup accountLookup;
+
+    @Autowired
+    private BankMetrics metrics;
+
+    @Test
+    void testConflictingDepositsAreRetriedWithoutLosingUpdates() throws Exception {
+        Assertions.assertInstanceOf(OptimisticAccountEngine.class, engine);
+        String accountNumber = createAccount(0);
+
+        depositConcurrently(engine, accountNumber);
+
+        var account = bankAccountRepository.findByAccountNumber(accountNumber).orElseThrow();
+        Assertions.assertEquals(CALLERS * DEPOSITS_PER_CALLER, account.getBalance());
+        Assertions.assertEquals(CALLERS * DEPOSITS_PER_CALLER, account.getVersion());
+    }
+
+    @Test
+    void testAtomicUpdatesGuardBalanceAndNeverConflict() throws Exception {
+        var atomicEngine = new OptimisticAccountEngine(bankAccountRepository, transactionTemplate, accountLookup, true, 1, 100, 1000, metrics);
+        String accountNumber = createAccount(0);
+        String other = createAccount(100);
+
+        depositConcurrently(atomicEngine, accountNumber);
+
+        Assertions.assertEquals(CALLERS * DEPOSITS_PER_CALLER, atomicEngine.getAccount(accountNumber).balance());
+        Assertions.assertThrows(NotEnoughBalanceException.class,
+                () -> atomicEngine.process(other, 101, new WithdrawTransactionStrategy()));
+        Assertions.assertThrows(NotEnoughBalanceException.class,
+                () -> atomicEngine.transfer(other, accountNumber, 101));
+
+        var changes = atomicEngine.transfer(other, accountNumber, 100);
+        Assertions.assertEquals(0, changes.get(0).account().balance());
+        Assertions.assertEquals(CALLERS * DEPOSITS_PER_CALLER + 100, changes.get(1).account().balance());
+    }
+
+    private void depositConcurrently(AccountEngine target, String accountNumber) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int c = 0; c < CALLERS; c++) {
+            results.add(callers.submit(() -> {
+                for (int i = 0; i < DEPOSITS_PER_CALLER; i++) {
+                    target.process(accountNumber, 1, new DepositTransactionStrategy());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        callers.shutdown();
+    }
+
+    private String createAccount(long balance) {
+        var account = new BankAccountEntity(UUID.randomUUID().toString(), balance, "Test", "TestBank");
+        return bankAccountRepository.save(account).getAccountNumber();
+    }
+}
@@ -0,0 +1,107 @@
+package com.azki.banking_system.engine;
+
+import com.azki.banking_system.BankingSystemApplication;
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.services.BankService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Two application instances share one file-based database; only the row locks keep them consistent.
+public class PessimisticAccountEngineTest {
+
+    private static final int ACCOUNTS = 20;
+    private static final long INITIAL_BALANCE = 10_000;
+
+    @TempDir
+    Path workDir;
+
+    private ConfigurableApplicationContext first;
+    private ConfigurableApplicationContext second;
+
+    @BeforeEach
+    public void setUp() {
+        first = start("first");
+        second = start("second");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        second.close();
+        first.close();
+    }
+
+    @Test
+    void testTransfersFromTwoInstancesConserveMoney() throws Exception {
+        BankService firstService = first.getBean(BankService.class);
+        BankService secondService = second.getBean(BankService.class);
+        Assertions.assertInstanceOf(PessimisticAccountEngine.class, first.getBean(AccountEngine.class));
+
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountNumbers.add(firstService.createAccount(
+                    new BankAccountDto(null, null, INITIAL_BALANCE, "Test", "TestBank")).accountNumber());
+        }
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int c = 0; c < 8; c++) {
+            BankService service = c % 2 == 0 ? firstService : secondService;
+            results.add(callers.submit(() -> {
+                var random = ThreadLocalRandom.current();
+                for (int i = 0; i < 100; i++) {
+                    int origin = random.nextInt(ACCOUNTS);
+                    try {
+                        service.transferFund(accountNumbers.get(origin),
+                                accountNumbers.get((origin + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS), random.nextLong(1, 5000));
+                    } catch (ExecutionException e) {
+                        if (!(e.getCause() instanceof NotEnoughBalanceException)) {
+                            throw e;
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        callers.shutdown();
+
+        long total = 0;
+        for (String accountNumber : accountNumbers) {
+            long balance = secondService.getBalance(accountNumber);
+            Assertions.assertTrue(balance >= 0);
+            total += balance;
+        }
+        Assertions.assertEquals(ACCOUNTS * INITIAL_BALANCE, total);
+    }
+
+    private ConfigurableApplicationContext start(String instance) {
+        return new SpringApplicationBuilder(BankingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.shell.interactive.enabled=false",
+                        "--spring.shell.noninteractive.enabled=false",
+                        "--spring.datasource.url=jdbc:h2:file:" + workDir.resolve("bankdb") + ";LOCK_TIMEOUT=10000",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--bank.engine=pessimistic",
+                        "--log.file.path=" + workDir.resolve(instance + ".log"),
+                        "--log.binary.dir=" + workDir.resolve(instance),
+                        "--spring.shell.history.enabled=false");
+    }
+}
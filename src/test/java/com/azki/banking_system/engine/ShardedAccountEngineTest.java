@@ -0,0 +1,238 @@
+package com.azki.banking_system.engine;
+
+import com.azki.banking_system.dto.BatchItemResult;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.ledger.InMemoryLedger;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.repositories.BankAccountRepository;
+import com.azki.banking_system.repositories.TransactionHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.azki.banking_system.utils.Constants.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ShardedAccountEngineTest {
+
+    private static final int ACCOUNTS = 500;
+    private static final long INITIAL_BALANCE = 100000;
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private TransactionHistoryRepository transactionHistoryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDir;
+
+    private final Map<String, BankAccountEntity> accounts = new ConcurrentHashMap<>();
+    private final List<String> accountNumbers = new ArrayList<>();
+
+    private InMemoryLedger ledger;
+    private ShardedAccountEngine engine;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            var account = new BankAccountEntity(UUID.randomUUID().toString(), INITIAL_BALANCE, "Test", "TestBank");
+            account.setId((long) i);
+            accounts.put(account.getAccountNumber(), account);
+            accountNumbers.add(account.getAccountNumber());
+        }
+        Mockito.when(bankAccountRepository.findByAccountNumber(ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(accounts.get(invocation.<String>getArgument(0))));
+        var metrics = new BankMetrics(new SimpleMeterRegistry());
+        ledger = new InMemoryLedger(bankAccountRepository, transactionHistoryRepository, transactionManager, journalDir.toString(), false, 60000, 500, 0, metrics);
+        engine = new ShardedAccountEngine(ledger, 4, 1024, 64, metrics);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        engine.shutdown();
+        ledger.shutdown();
+    }
+
+    @Test
+    void testCrossShardTransfersConserveMoney() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        List<Future<?>> results = new ArrayList<>();
+        for (int c = 0; c < 16; c++) {
+            results.add(callers.submit(() -> {
+                var random = ThreadLocalRandom.current();
+                for (int i = 0; i < 500; i++) {
+                    try {
+                        engine.transfer(accountNumbers.get(random.nextInt(ACCOUNTS)),
+                                accountNumbers.get(random.nextInt(ACCOUNTS)), random.nextLong(1, 50000));
+                    } catch (NotEnoughBalanceException e) {
+                        // expected for random amounts
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        callers.shutdown();
+
+        long total = accountNumbers.stream().mapToLong(accountNumber -> engine.getAccount(accountNumber).balance()).sum();
+        Assertions.assertEquals(ACCOUNTS * INITIAL_BALANCE, total);
+        Assertions.assertEquals(0, ledger.pendingTransfers());
+    }
+
+    @Test
+    void testAllOrNothingBatchAcrossShards() {
+        String first = accountNumbers.get(0);
+        String second = onAnotherShard(first);
+
+        var results = engine.processBatch(List.of(
+                new BatchOperation(DEPOSIT, first, null, 50000),
+                new BatchOperation(TRANSFER, first, second, 150000),
+                new BatchOperation(WITHDRAW, second, null, 250000)), 0, true);
+
+        Assertions.assertTrue(results.stream().allMatch(BatchItemResult::succeeded));
+        Assertions.assertEquals(INITIAL_BALANCE + 50000, results.get(0).balanceAfter());
+        Assertions.assertEquals(0, results.get(1).balanceAfter());
+        Assertions.assertEquals(INITIAL_BALANCE + 150000, results.get(1).destinationBalanceAfter());
+        Assertions.assertEquals(0, results.get(2).balanceAfter());
+        Assertions.assertEquals(0, engine.getAccount(first).balance());
+        Assertions.assertEquals(0, engine.getAccount(second).balance());
+        Assertions.assertEquals(0, ledger.pendingTransfers());
+    }
+
+    @Test
+    void testFailedAllOrNothingBatchAcrossShardsIsRefunded() {
+        String first = accountNumbers.get(0);
+        String second = onAnotherShard(first);
+
+        var results = engine.processBatch(List.of(
+                new BatchOperation(TRANSFER, first, second, 1000),
+                new BatchOperation(WITHDRAW, second, null, INITIAL_BALANCE * 2)), 0, true);
+
+        Assertions.assertEquals(BATCH_ROLLED_BACK_MESSAGE, results.get(0).message());
+        Assertions.assertEquals(NOT_ENOUGH_BALANCE_ERROR_MESSAGE, results.get(1).message());
+        Assertions.assertEquals(INITIAL_BALANCE, engine.getAccount(first).balance());
+        Assertions.assertEquals(INITIAL_BALANCE, engine.getAccount(second).balance());
+        Assertions.assertEquals(0, ledger.pendingTransfers());
+    }
+
+    @Test
+    void testTransferToMissingAccountIsRefunded() {
+        String first = accountNumbers.get(0);
+        String missing = UUID.randomUUID().toString();
+        while (engine.shardFor(missing) == engine.shardFor(first)) {
+            missing = UUID.randomUUID().toString();
+        }
+        String destination = missing;
+
+        Assertions.assertThrows(AccountNotFoundException.class, () -> engine.transfer(first, destination, 500));
+        Assertions.assertEquals(INITIAL_BALANCE, engine.getAccount(first).balance());
+        Assertions.assertEquals(0, ledger.pendingTransfers());
+    }
+
+    // The withdrawal only succeeds if it runs after the cross-shard transfer queued before it has been credited.
+    @Test
+    void testBestEffortBatchKeepsSubmissionOrder() {
+        String first = accountNumbers.get(0);
+        String second = onAnotherShard(first);
+
+        var results = engine.processBatch(List.of(
+                new BatchOperation(TRANSFER, first, second, INITIAL_BALANCE),
+                new BatchOperation(WITHDRAW, second, null, INITIAL_BALANCE * 2 - 10),
+                new BatchOperation(TRANSFER, second, first, 10)), 0, false);
+
+        Assertions.assertTrue(results.stream().allMatch(BatchItemResult::succeeded));
+        Assertions.assertEquals(10, engine.getAccount(first).balance());
+        Assertions.assertEquals(0, engine.getAccount(second).balance());
+    }
+
+    @Test
+    void testCreditThatFailsAfterAnotherLandedIsRetried() {
+        String origin = accountNumbers.get(0);
+        String paid = onAnotherShard(origin);
+        String retried = onAnotherShard(origin, paid);
+
+        var outcome = new ShardTransaction(failingCredits(retried, 1), engine::shardFor).apply(List.of(
+                new BatchOperation(TRANSFER, origin, paid, 100),
+                new BatchOperation(TRANSFER, origin, retried, 100)), 0);
+
+        Assertions.assertTrue(outcome.succeeded());
+        Assertions.assertEquals(INITIAL_BALANCE - 200, engine.getAccount(origin).balance());
+        Assertions.assertEquals(INITIAL_BALANCE + 100, engine.getAccount(paid).balance());
+        Assertions.assertEquals(INITIAL_BALANCE + 100, engine.getAccount(retried).balance());
+        Assertions.assertEquals(0, ledger.pendingTransfers());
+    }
+
+    @Test
+    void testCreditThatKeepsFailingAfterAnotherLandedIsReported() {
+        String origin = accountNumbers.get(0);
+        String paid = onAnotherShard(origin);
+        String unpaid = onAnotherShard(origin, paid);
+
+        var outcome = new ShardTransaction(failingCredits(unpaid, Integer.MAX_VALUE), engine::shardFor).apply(List.of(
+                new BatchOperation(TRANSFER, origin, paid, 100),
+                new BatchOperation(TRANSFER, origin, unpaid, 100)), 0);
+
+        Assertions.assertFalse(outcome.succeeded());
+        Assertions.assertEquals(TRANSFER_INCOMPLETE_ERROR_MESSAGE, outcome.result(0).message());
+        Assertions.assertEquals(TRANSFER_INCOMPLETE_ERROR_MESSAGE, outcome.result(1).message());
+        Assertions.assertEquals(INITIAL_BALANCE - 200, engine.getAccount(origin).balance());
+        Assertions.assertEquals(INITIAL_BALANCE + 100, engine.getAccount(paid).balance());
+        Assertions.assertEquals(INITIAL_BALANCE, engine.getAccount(unpaid).balance());
+        Assertions.assertEquals(1, ledger.pendingTransfers());
+    }
+
+    // The first lookup of the account is the prepare; the given number of lookups after it, the credits, fail.
+    private InMemoryLedger failingCredits(String accountNumber, int failures) {
+        var failing = Mockito.spy(ledger);
+        AtomicInteger lookups = new AtomicInteger();
+        Mockito.lenient().doAnswer(invocation -> {
+            if (accountNumber.equals(invocation.getArgument(0))) {
+                int lookup = lookups.incrementAndGet();
+                if (lookup > 1 && lookup - 1 <= failures) {
+                    throw new AccountNotFoundException(ACCOUNT_NOT_FOUND_ERROR_MESSAGE);
+                }
+            }
+            return invocation.callRealMethod();
+        }).when(failing).get(ArgumentMatchers.anyString());
+        return failing;
+    }
+
+    private String onAnotherShard(String... accountNumbers) {
+        return this.accountNumbers.stream()
+                .filter(other -> Arrays.stream(accountNumbers).allMatch(taken -> engine.shardFor(other) != engine.shardFor(taken)))
+                .findFirst()
+                .orElseThrow();
+    }
+}
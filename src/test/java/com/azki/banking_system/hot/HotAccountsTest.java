@@ -0,0 +1,98 @@
+package com.azki.banking_system.hot;
+
+import com.azki.banking_system.TestDirectories;
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BatchMode;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.repositories.BalanceCellRepository;
+import com.azki.banking_system.repositories.BankAccountRepository;
+import com.azki.banking_system.services.BankService;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.azki.banking_system.utils.Constants.WITHDRAW;
+
+@SpringBootTest(properties = {
+        "spring.shell.interactive.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:hot"
+})
+public class HotAccountsTest {
+
+    @TempDir
+    static Path workDir;
+
+    @DynamicPropertySource
+    static void workDirectories(DynamicPropertyRegistry registry) {
+        TestDirectories.register(registry, workDir);
+    }
+
+    private static final int DEPOSITORS = 8;
+    private static final int DEPOSITS_PER_DEPOSITOR = 200;
+
+    @Autowired
+    private BankService bankService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private BalanceCellRepository balanceCellRepository;
+
+    @Test
+    void testDepositsSpreadOverCellsAndBalanceStaysExact() throws Exception {
+        String hot = bankService.createAccount(new BankAccountDto(null, null, 1000, "Merchant", "TestBank")).accountNumber();
+        bankService.markHot(hot, 4);
+
+        ExecutorService depositors = Executors.newFixedThreadPool(DEPOSITORS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int d = 0; d < DEPOSITORS; d++) {
+            results.add(depositors.submit(() -> {
+                for (int i = 0; i < DEPOSITS_PER_DEPOSITOR; i++) {
+                    bankService.deposit(hot, 1, new DepositTransactionStrategy());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        depositors.shutdown();
+
+        long deposited = DEPOSITORS * DEPOSITS_PER_DEPOSITOR;
+        Assertions.assertEquals(1000 + deposited, bankService.getBalance(hot));
+        Assertions.assertEquals(1000 + deposited, bankService.getAccountByNumber(hot).balance());
+        Assertions.assertEquals(1000, bankAccountRepository.findByAccountNumber(hot).orElseThrow().getBalance());
+
+        // more than the account row holds, so the cells are folded first
+        var account = bankService.withdraw(hot, 1000 + deposited - 100, new WithdrawTransactionStrategy());
+        Assertions.assertEquals(100, account.balance());
+        Assertions.assertEquals(4, balanceCellRepository.findAll().stream()
+                .filter(cell -> cell.getAccountNumber().equals(hot) && cell.getBalance() == 0).count());
+
+        bankService.deposit(hot, 50, new DepositTransactionStrategy());
+        var batch = bankService.processBatch(List.of(new BatchOperation(WITHDRAW, hot, null, 150)).iterator(), BatchMode.BEST_EFFORT);
+        Assertions.assertEquals(1, batch.succeeded());
+        Assertions.assertEquals(0, bankService.getBalance(hot));
+
+        bankService.deposit(hot, 70, new DepositTransactionStrategy());
+        bankService.unmarkHot(hot);
+        Assertions.assertEquals(70, bankAccountRepository.findByAccountNumber(hot).orElseThrow().getBalance());
+        Assertions.assertTrue(balanceCellRepository.findAll().stream().noneMatch(cell -> cell.getAccountNumber().equals(hot)));
+        bankService.deposit(hot, 5, new DepositTransactionStrategy());
+        Assertions.assertEquals(75, bankService.getBalance(hot));
+    }
+}
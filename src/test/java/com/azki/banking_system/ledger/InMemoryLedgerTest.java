@@ -0,0 +1,226 @@
+package com.azki.banking_system.ledger;
+
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.repositories.BankAccountRepository;
+import com.azki.banking_system.repositories.TransactionHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class InMemoryLedgerTest {
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private TransactionHistoryRepository transactionHistoryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDir;
+
+    private final Map<String, BankAccountEntity> accounts = new HashMap<>();
+    private final BankMetrics metrics = new BankMetrics(new SimpleMeterRegistry());
+
+    @BeforeEach
+    public void setUp() {
+        for (long id = 1; id <= 3; id++) {
+            var account = new BankAccountEntity(UUID.randomUUID().toString(), 1000, "Test", "TestBank");
+            account.setId(id);
+            accounts.put(account.getAccountNumber(), account);
+        }
+        Mockito.when(bankAccountRepository.findByAccountNumber(ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(accounts.get(invocation.<String>getArgument(0))));
+        Mockito.when(bankAccountRepository.findById(ArgumentMatchers.anyLong()))
+                .thenAnswer(invocation -> accounts.values().stream()
+                        .filter(account -> account.getId().equals(invocation.getArgument(0)))
+                        .findFirst());
+        Mockito.when(bankAccountRepository.findAllById(ArgumentMatchers.anyIterable()))
+                .thenAnswer(invocation -> {
+                    List<Long> ids = new ArrayList<>();
+                    invocation.<Iterable<Long>>getArgument(0).forEach(ids::add);
+                    return accounts.values().stream().filter(account -> ids.contains(account.getId())).toList();
+                });
+    }
+
+    @Test
+    void testRestartLoadsSnapshotAndReplaysLaterEntries() throws Exception {
+        List<String> accountNumbers = List.copyOf(accounts.keySet());
+        var ledger = ledger();
+        for (String accountNumber : accountNumbers) {
+            deposit(ledger, accountNumber, 100);
+        }
+        ledger.snapshot();
+        deposit(ledger, accountNumbers.get(0), 50);
+        ledger.evict(accountNumbers.get(2));
+
+        // the first ledger never shuts down, as after a crash
+        var restarted = ledger();
+        try {
+            Assertions.assertEquals(1150, restarted.get(accountNumbers.get(0)).getBalance());
+            Assertions.assertEquals(1100, restarted.get(accountNumbers.get(1)).getBalance());
+            Mockito.verify(bankAccountRepository, Mockito.times(3)).findByAccountNumber(ArgumentMatchers.anyString());
+
+            Assertions.assertEquals(1000, restarted.get(accountNumbers.get(2)).getBalance());
+            Mockito.verify(bankAccountRepository, Mockito.times(4)).findByAccountNumber(ArgumentMatchers.anyString());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void testCleanShutdownLeavesNothingToReplay() throws Exception {
+        var ledger = ledger();
+        String accountNumber = accounts.keySet().iterator().next();
+        deposit(ledger, accountNumber, 100);
+        ledger.shutdown();
+
+        try (Stream<Path> files = Files.list(journalDir)) {
+            Assertions.assertEquals(1, files.filter(path -> path.getFileName().toString().startsWith("snapshot-")).count());
+        }
+        var journal = new LedgerJournal(journalDir, false);
+        long[] entries = new long[1];
+        journal.replay((id, balance) -> entries[0]++);
+        journal.close();
+        Assertions.assertEquals(0, entries[0]);
+
+        var restarted = ledger();
+        Assertions.assertEquals(1100, restarted.get(accountNumber).getBalance());
+        restarted.shutdown();
+    }
+
+    @Test
+    void testCommittedTransferIsCreditedOnRestart() throws Exception {
+        var ledger = ledger();
+        var origin = ledger.get(accountNumber(1));
+        var destination = ledger.get(accountNumber(2));
+        ledger.apply(List.of(origin), List.of(TransferIntent.prepared(ledger.nextTransferId(), 0, 1,
+                List.of(new TransferIntent.Leg(1, 300)), List.of(new TransferIntent.Leg(2, 300)))), () -> origin.withdraw(300));
+        Assertions.assertEquals(1, ledger.pendingTransfers());
+
+        // the first ledger never shuts down, as after a crash between the debit and the credit
+        var restarted = ledger();
+        Assertions.assertEquals(0, restarted.pendingTransfers());
+        Assertions.assertEquals(700, restarted.get(origin.getAccountNumber()).getBalance());
+        Assertions.assertEquals(1300, restarted.get(destination.getAccountNumber()).getBalance());
+
+        // settled, so a second crash and restart does not credit it again
+        var again = ledger();
+        try {
+            Assertions.assertEquals(1300, again.get(destination.getAccountNumber()).getBalance());
+        } finally {
+            again.shutdown();
+        }
+    }
+
+    @Test
+    void testUncommittedTransferIsRefundedOnRestart() throws Exception {
+        var ledger = ledger();
+        var origin = ledger.get(accountNumber(1));
+        ledger.apply(List.of(origin), List.of(TransferIntent.prepared(ledger.nextTransferId(), 0, 2,
+                List.of(new TransferIntent.Leg(1, 300)), List.of())), () -> origin.withdraw(300));
+
+        var restarted = ledger();
+        try {
+            Assertions.assertEquals(0, restarted.pendingTransfers());
+            Assertions.assertEquals(1000, restarted.get(origin.getAccountNumber()).getBalance());
+            Assertions.assertEquals(1000, restarted.get(accountNumber(2)).getBalance());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void testCorruptSnapshotIsIgnored() throws IOException {
+        var snapshots = new LedgerSnapshots(journalDir);
+        var account = new LedgerAccount(7, UUID.randomUUID().toString(), "Test", "TestBank", 500);
+        Path written = snapshots.write(3, List.of(account));
+        Assertions.assertEquals(500, snapshots.loadLatest().accounts().get(0).getBalance());
+
+        byte[] bytes = Files.readAllBytes(written);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(written, bytes);
+        Assertions.assertNull(snapshots.loadLatest());
+    }
+
+    @Test
+    void testFlushWithNothingDirtyWaitsForTheFlushStillPersisting() throws Exception {
+        var ledger = new InMemoryLedger(bankAccountRepository, transactionHistoryRepository, transactionManager,
+                journalDir.toString(), false, 3600000, 500, 0, metrics);
+        deposit(ledger, accountNumber(1), 100);
+        var persisting = new CountDownLatch(1);
+        var persisted = new CountDownLatch(1);
+        Mockito.when(bankAccountRepository.findAllById(ArgumentMatchers.anyIterable()))
+                .thenAnswer(invocation -> {
+                    persisting.countDown();
+                    persisted.await();
+                    return List.of(accounts.get(accountNumber(1)));
+                });
+
+        var first = CompletableFuture.runAsync(ledger::flush);
+        persisting.await();
+        var second = CompletableFuture.runAsync(ledger::flush);
+        try {
+            Assertions.assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+            // the segment holding the deposit is kept until its balance is in the database
+            Assertions.assertEquals(2, journalSegments());
+        } finally {
+            persisted.countDown();
+        }
+        first.get();
+        second.get();
+        Assertions.assertEquals(1, journalSegments());
+        Assertions.assertEquals(1100, accounts.get(accountNumber(1)).getBalance());
+        ledger.shutdown();
+    }
+
+    private long journalSegments() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("journal-")).count();
+        }
+    }
+
+    private InMemoryLedger ledger() throws IOException {
+        return new InMemoryLedger(bankAccountRepository, transactionHistoryRepository, transactionManager, journalDir.toString(), false,
+                3600000, 500, 3600000, metrics);
+    }
+
+    private String accountNumber(long id) {
+        return accounts.values().stream().filter(account -> account.getId() == id).findFirst().orElseThrow().getAccountNumber();
+    }
+
+    private static void deposit(InMemoryLedger ledger, String accountNumber, long amount) {
+        var account = ledger.get(accountNumber);
+        ledger.apply(List.of(account), () -> account.deposit(amount));
+    }
+}
@@ -0,0 +1,221 @@
+package com.azki.banking_system.ledger;
+
+import com.azki.banking_system.entities.BankAccountEntity;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LedgerJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReplayKeepsLatestBalancePerAccount() throws IOException {
+        var first = account(1L, 100);
+        var second = account(2L, 200);
+        try (var journal = new LedgerJournal(directory, true)) {
+            journal.append(List.of(first));
+            first.deposit(50);
+            second.withdraw(20);
+            journal.append(List.of(first, second));
+            journal.roll();
+            second.deposit(5);
+            journal.append(List.of(second));
+        }
+
+        Map<Long, Long> balances = new HashMap<>();
+        try (var journal = new LedgerJournal(directory, true)) {
+            journal.replay(balances::put);
+        }
+
+        Assertions.assertEquals(Map.of(1L, 150L, 2L, 185L), balances);
+    }
+
+    @Test
+    void testReplayIgnoresTornTail() throws IOException {
+        var first = account(1L, 100);
+        try (var journal = new LedgerJournal(directory, true)) {
+            journal.append(List.of(first));
+        }
+        try (var files = Files.list(directory)) {
+            Path segment = files.findFirst().orElseThrow();
+            Files.write(segment, new byte[]{0, 0, 0, 1, 0, 0}, StandardOpenOption.APPEND);
+        }
+
+        Map<Long, Long> balances = new HashMap<>();
+        try (var journal = new LedgerJournal(directory, true)) {
+            journal.replay(balances::put);
+        }
+
+        Assertions.assertEquals(Map.of(1L, 100L), balances);
+    }
+
+    @Test
+    void testFailedWriteIsCutOffAndLaterAppendsReplay() throws IOException {
+        assertFailedWriteLeavesLaterAppendsReadable(false);
+    }
+
+    @Test
+    void testFailedWriteThatCannotBeCutOffMovesToANewSegment() throws IOException {
+        assertFailedWriteLeavesLaterAppendsReadable(true);
+    }
+
+    private void assertFailedWriteLeavesLaterAppendsReadable(boolean failTruncate) throws IOException {
+        var first = account(1L, 100);
+        var second = account(2L, 200);
+        AtomicBoolean failNextWrite = new AtomicBoolean();
+        try (var journal = new LedgerJournal(directory, true,
+                path -> new FailingChannel(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND), failNextWrite, failTruncate))) {
+            journal.append(List.of(first));
+            failNextWrite.set(true);
+            first.deposit(50);
+            Assertions.assertThrows(IOException.class, () -> journal.append(List.of(first)));
+            first.withdraw(50);
+            journal.append(List.of(second));
+            second.deposit(5);
+            journal.append(List.of(first, second));
+            Assertions.assertEquals(failTruncate ? 2 : 1, journal.currentSegment());
+        }
+
+        Map<Long, Long> balances = new HashMap<>();
+        try (var journal = new LedgerJournal(directory, true)) {
+            journal.replay(balances::put);
+        }
+
+        Assertions.assertEquals(Map.of(1L, 100L, 2L, 205L), balances);
+    }
+
+    private LedgerAccount account(long id, long balance) {
+        var entity = new BankAccountEntity(UUID.randomUUID().toString(), balance, "Test", "TestBank");
+        entity.setId(id);
+        return new LedgerAccount(entity);
+    }
+
+    // Writes half of the record it is told to fail on, like a full disk would.
+    private static class FailingChannel extends FileChannel {
+
+        private final FileChannel delegate;
+        private final AtomicBoolean failNextWrite;
+        private final boolean failTruncate;
+
+        FailingChannel(FileChannel delegate, AtomicBoolean failNextWrite, boolean failTruncate) {
+            this.delegate = delegate;
+            this.failNextWrite = failNextWrite;
+            this.failTruncate = failTruncate;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failNextWrite.compareAndSet(true, false)) {
+                ByteBuffer half = src.duplicate();
+                half.limit(src.position() + src.remaining() / 2);
+                delegate.write(half);
+                throw new IOException("No space left on device");
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failTruncate) {
+                throw new IOException("Input/output error");
+            }
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
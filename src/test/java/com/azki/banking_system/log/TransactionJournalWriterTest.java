@@ -0,0 +1,149 @@
+package com.azki.banking_system.log;
+
+import com.azki.banking_system.exceptions.TransactionLogFailedException;
+import com.azki.banking_system.metrics.BankMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static com.azki.banking_system.utils.Constants.DEPOSIT;
+
+public class TransactionJournalWriterTest {
+
+    private final BankMetrics metrics = new BankMetrics(new SimpleMeterRegistry());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testBlockPolicyWaitsForRoomAndLosesNothing() throws IOException, InterruptedException {
+        Path path = directory.resolve("transactions.log");
+        var writer = writer(path, 2, 8, 0, OverflowPolicy.BLOCK);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            String account = "account-" + p;
+            Thread producer = new Thread(() -> {
+                for (int amount = 1; amount <= 2000; amount++) {
+                    writer.append(new LogModel(account, DEPOSIT, amount));
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        writer.close();
+
+        List<String> lines = Files.readAllLines(path);
+        Assertions.assertEquals(8000, lines.size());
+        Assertions.assertEquals(0, writer.droppedCount());
+        for (int p = 0; p < 4; p++) {
+            String account = "Account: account-" + p + ",";
+            Assertions.assertEquals(2000, lines.stream().filter(line -> line.contains(account)).count());
+        }
+    }
+
+    // Once closed the consumer no longer drains, which leaves a full queue to try the overflow policies against.
+    @Test
+    void testOverflowPoliciesOnAFullQueue() throws IOException {
+        var dropping = writer(directory.resolve("drop.log"), 2, 8, 0, OverflowPolicy.DROP);
+        var failing = writer(directory.resolve("fail.log"), 2, 8, 0, OverflowPolicy.FAIL);
+        var blocking = writer(directory.resolve("block.log"), 2, 8, 0, OverflowPolicy.BLOCK);
+        for (var writer : List.of(dropping, failing, blocking)) {
+            writer.close();
+            writer.append(new LogModel("account", DEPOSIT, 1));
+            writer.append(new LogModel("account", DEPOSIT, 2));
+        }
+
+        dropping.append(new LogModel("account", DEPOSIT, 3));
+        dropping.append(new LogModel("account", DEPOSIT, 4));
+        Assertions.assertEquals(2, dropping.droppedCount());
+        Assertions.assertThrows(TransactionLogFailedException.class, () -> failing.append(new LogModel("account", DEPOSIT, 3)));
+        Assertions.assertThrows(TransactionLogFailedException.class, () -> blocking.append(new LogModel("account", DEPOSIT, 3)));
+    }
+
+    @Test
+    void testRotatesToNumberedFiles() throws IOException {
+        Path path = directory.resolve("transactions.log");
+        var writer = writer(path, 16, 1, 1, OverflowPolicy.BLOCK);
+        for (int amount = 1; amount <= 4; amount++) {
+            writer.append(new LogModel("account", DEPOSIT, amount));
+        }
+        writer.close();
+
+        for (int index = 1; index <= 3; index++) {
+            Assertions.assertEquals(1, Files.readAllLines(path.resolveSibling("transactions.log." + index)).size());
+        }
+        Assertions.assertEquals(1, Files.readAllLines(path).size());
+        Assertions.assertFalse(Files.exists(path.resolveSibling("transactions.log.4")));
+    }
+
+    // The file disappearing under the writer makes the next rotation fail; the batch is kept and written on retry.
+    @Test
+    void testFailedWriteIsRetriedWithoutLosingTheBatch() throws IOException, InterruptedException {
+        Path path = directory.resolve("transactions.log");
+        var writer = writer(path, 16, 1, 1, OverflowPolicy.BLOCK);
+        writer.append(new LogModel("account", DEPOSIT, 1));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((!Files.exists(path) || Files.size(path) == 0) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Files.delete(path);
+
+        writer.append(new LogModel("account", DEPOSIT, 2));
+        writer.append(new LogModel("account", DEPOSIT, 3));
+        writer.close();
+
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                lines.addAll(Files.readAllLines(file));
+            }
+        }
+        Assertions.assertEquals(2, lines.size());
+        Assertions.assertTrue(lines.stream().anyMatch(line -> line.endsWith("Amount: 0.02")));
+        Assertions.assertTrue(lines.stream().anyMatch(line -> line.endsWith("Amount: 0.03")));
+        Assertions.assertEquals(0, writer.droppedCount());
+    }
+
+    @Test
+    void testIdleWriterParksUntilAnEntryArrives() throws IOException, InterruptedException {
+        Path path = directory.resolve("transactions.log");
+        var writer = writer(path, 16, 8, 0, OverflowPolicy.BLOCK);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        Thread consumer = null;
+        while (consumer == null && System.nanoTime() < deadline) {
+            // parked on the writer without a timeout, rather than polling the queue
+            consumer = Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> LockSupport.getBlocker(thread) == writer && thread.getState() == Thread.State.WAITING)
+                    .findFirst().orElse(null);
+            Thread.sleep(5);
+        }
+        Assertions.assertNotNull(consumer);
+
+        writer.append(new LogModel("account", DEPOSIT, 1));
+        while (Files.size(path) == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        writer.close();
+        Assertions.assertEquals(1, Files.readAllLines(path).size());
+        Assertions.assertFalse(consumer.isAlive());
+    }
+
+    private TransactionJournalWriter writer(Path path, int capacity, int batchSize, long rotationSizeBytes,
+                                            OverflowPolicy overflowPolicy) throws IOException {
+        return new TransactionJournalWriter(path, capacity, batchSize, FsyncPolicy.NONE, 1000, rotationSizeBytes,
+                overflowPolicy, metrics.journal("test"));
+    }
+}
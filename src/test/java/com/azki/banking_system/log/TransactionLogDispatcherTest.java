@@ -0,0 +1,118 @@
+package com.azki.banking_system.log;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.azki.banking_system.exceptions.TransactionLogFailedException;
+import com.azki.banking_system.metrics.BankMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.azki.banking_system.utils.Constants.DEPOSIT;
+
+public class TransactionLogDispatcherTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BankMetrics metrics = new BankMetrics(registry);
+    private final Logger dispatcherLog = (Logger) LoggerFactory.getLogger(TransactionLogDispatcher.class);
+
+    // The failing observer is expected to fail on every event; its stack traces are not worth printing.
+    @BeforeEach
+    void silenceObserverFailures() {
+        dispatcherLog.setLevel(Level.OFF);
+    }
+
+    @AfterEach
+    void restoreLogLevel() {
+        dispatcherLog.setLevel(null);
+    }
+
+    @Test
+    void testSlowAndFailingObserversDoNotAffectPublisherOrOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionLogger slow = (accountNumber, transactionType, amount) -> await(release);
+        TransactionLogger failing = (accountNumber, transactionType, amount) -> {
+            throw new TransactionLogFailedException();
+        };
+        Map<String, List<Long>> seen = new ConcurrentHashMap<>();
+        TransactionLogger recording = (accountNumber, transactionType, amount) ->
+                seen.computeIfAbsent(accountNumber, key -> new ArrayList<>()).add(amount);
+
+        var dispatcher = new TransactionLogDispatcher(List.of(slow, failing, recording), 1024, 4, OverflowPolicy.BLOCK, metrics);
+        List<String> accounts = List.of(UUID.randomUUID().toString(), UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        long start = System.nanoTime();
+        for (long amount = 1; amount <= 200; amount++) {
+            dispatcher.publish(new LogModel(accounts.get((int) (amount % accounts.size())), DEPOSIT, amount));
+        }
+        Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        release.countDown();
+        dispatcher.flush();
+        for (String account : accounts) {
+            List<Long> amounts = seen.get(account);
+            Assertions.assertEquals(amounts.stream().sorted().toList(), amounts);
+        }
+        Assertions.assertEquals(200, seen.values().stream().mapToInt(List::size).sum());
+        Assertions.assertEquals(200, registry.get("bank.observer.failures").counters().stream().mapToDouble(counter -> counter.count()).sum());
+        dispatcher.close();
+    }
+
+    @Test
+    void testDropPolicySkipsEventsWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionLogger stuck = (accountNumber, transactionType, amount) -> await(release);
+        var dispatcher = new TransactionLogDispatcher(List.of(stuck), 4, 1, OverflowPolicy.DROP, metrics);
+
+        for (int i = 0; i < 20; i++) {
+            dispatcher.publish(new LogModel(UUID.randomUUID().toString(), DEPOSIT, 1));
+        }
+        Assertions.assertTrue(registry.get("bank.observer.dropped").counters().stream().mapToDouble(counter -> counter.count()).sum() > 0);
+
+        release.countDown();
+        dispatcher.flush();
+        dispatcher.close();
+    }
+
+    @Test
+    void testIdleLaneWakesUpForTheNextEvent() {
+        List<Long> seen = new ArrayList<>();
+        TransactionLogger recording = (accountNumber, transactionType, amount) -> seen.add(amount);
+        var dispatcher = new TransactionLogDispatcher(List.of(recording), 16, 1, OverflowPolicy.BLOCK, metrics);
+
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (long amount = 1; amount <= 3; amount++) {
+                Thread.sleep(50);
+                dispatcher.publish(new LogModel(UUID.randomUUID().toString(), DEPOSIT, amount));
+                dispatcher.flush();
+            }
+        });
+        Assertions.assertEquals(List.of(1L, 2L, 3L), seen);
+        dispatcher.close();
+    }
+
+    @Test
+    void testFailPolicyIsRefused() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TransactionLogDispatcher(List.of(), 16, 1, OverflowPolicy.FAIL, metrics));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.azki.banking_system.log.binary;
+
+import com.azki.banking_system.log.LogModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.azki.banking_system.utils.Constants.DEPOSIT;
+import static com.azki.banking_system.utils.Constants.WITHDRAW;
+
+public class BinaryLogReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReadsRangeAcrossSegmentsAndRestarts() throws IOException {
+        String account = UUID.randomUUID().toString();
+        var logger = new BinaryTransactionLogger(directory.toString(), 4);
+        for (int i = 1; i <= 6; i++) {
+            logger.onTransaction(account, i % 2 == 0 ? WITHDRAW : DEPOSIT, i * 125L);
+        }
+        logger.close();
+
+        logger = new BinaryTransactionLogger(directory.toString(), 4);
+        for (int i = 7; i <= 10; i++) {
+            logger.onTransaction(account, DEPOSIT, i * 125L);
+        }
+        logger.close();
+
+        List<Long> sequences = new ArrayList<>();
+        List<Long> amounts = new ArrayList<>();
+        long read = new BinaryLogReader(directory.toString()).read(3, 9, record -> {
+            Assertions.assertEquals(account, record.accountNumber());
+            sequences.add(record.sequence());
+            amounts.add(record.amountMinorUnits());
+        });
+
+        Assertions.assertEquals(7, read);
+        Assertions.assertEquals(List.of(3L, 4L, 5L, 6L, 7L, 8L, 9L), sequences);
+        Assertions.assertEquals(375L, amounts.get(0));
+        Assertions.assertEquals(1125L, amounts.get(6));
+    }
+
+    @Test
+    void testNumberingGoesOnAfterAnEmptyNewestSegment() throws IOException {
+        String account = UUID.randomUUID().toString();
+        var logger = new BinaryTransactionLogger(directory.toString(), 4);
+        for (int i = 1; i <= 4; i++) {
+            logger.onTransaction(account, DEPOSIT, i * 125L);
+        }
+        logger.close();
+        // the segment a roll maps before anything is written to it
+        Files.write(BinaryLogSegments.path(directory, 2), new byte[4 * BinaryLogFormat.RECORD_SIZE]);
+
+        logger = new BinaryTransactionLogger(directory.toString(), 4);
+        logger.onTransaction(account, DEPOSIT, 625);
+        logger.close();
+
+        List<Long> sequences = new ArrayList<>();
+        new BinaryLogReader(directory.toString()).read(1, 10, record -> sequences.add(record.sequence()));
+
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sequences);
+    }
+
+    @Test
+    void testRecordsCarryTheOperationTime() throws IOException {
+        String account = UUID.randomUUID().toString();
+        Instant operated = Instant.parse("2024-03-01T10:15:30.250Z");
+        var logger = new BinaryTransactionLogger(directory.toString(), 4);
+        logger.onTransaction(new LogModel(account, DEPOSIT, 125, 1125L, 7, operated));
+        logger.close();
+
+        List<Long> timestamps = new ArrayList<>();
+        new BinaryLogReader(directory.toString()).read(1, 1, record -> timestamps.add(record.timestamp()));
+
+        Assertions.assertEquals(List.of(operated.toEpochMilli()), timestamps);
+    }
+}
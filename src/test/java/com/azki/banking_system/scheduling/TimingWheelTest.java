@@ -0,0 +1,60 @@
+package com.azki.banking_system.scheduling;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TimingWheelTest {
+
+    @Test
+    void testEntriesFireOnTheirTickAtEveryLevel() {
+        // 4 slots and 3 levels reach 64 ticks ahead
+        var wheel = new TimingWheel(10, 2, 3, 0);
+        wheel.schedule(1, 0);
+        wheel.schedule(2, 25);
+        wheel.schedule(3, 40);
+        wheel.schedule(4, 170);
+        wheel.schedule(5, 630);
+        wheel.schedule(6, 640);
+        wheel.schedule(7, 2000);
+        Assertions.assertEquals(7, wheel.size());
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        for (long now = 10; now <= 2500; now += 10) {
+            for (long id : wheel.advance(now)) {
+                Assertions.assertNull(firedAt.put(id, now), "fired twice: " + id);
+            }
+        }
+        Assertions.assertEquals(Map.of(1L, 10L, 2L, 30L, 3L, 40L, 4L, 170L, 5L, 630L, 6L, 640L, 7L, 2000L), firedAt);
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testEveryEntryFiresExactlyOnceInTheStepThatReachesIt() {
+        var random = new Random(7);
+        var wheel = new TimingWheel(1, 3, 2, 1000);
+        Map<Long, Long> due = new HashMap<>();
+        for (long id = 0; id < 20_000; id++) {
+            long dueAt = 1000 + random.nextInt(10_000);
+            due.put(id, dueAt);
+            wheel.schedule(id, dueAt);
+        }
+
+        long now = 1000;
+        int fired = 0;
+        while (now < 12_000) {
+            long previous = now;
+            now += 1 + random.nextInt(300);
+            for (long id : wheel.advance(now)) {
+                long dueAt = Math.max(due.remove(id), 1001);
+                Assertions.assertTrue(dueAt > previous && dueAt <= now, "id " + id + " due " + dueAt + " fired at " + now);
+                fired++;
+            }
+        }
+        Assertions.assertEquals(20_000, fired);
+        Assertions.assertEquals(0, wheel.size());
+    }
+}
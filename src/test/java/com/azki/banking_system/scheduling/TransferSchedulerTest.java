@@ -0,0 +1,127 @@
+package com.azki.banking_system.scheduling;
+
+import com.azki.banking_system.TestDirectories;
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.Recurrence;
+import com.azki.banking_system.dto.ScheduleStatus;
+import com.azki.banking_system.dto.ScheduledTransferDto;
+import com.azki.banking_system.exceptions.InvalidScheduleException;
+import com.azki.banking_system.services.BankService;
+import com.azki.banking_system.services.ScheduledTransferService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Predicate;
+
+import static com.azki.banking_system.utils.Constants.NOT_ENOUGH_BALANCE_ERROR_MESSAGE;
+
+@SpringBootTest(properties = {
+        "spring.shell.interactive.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:scheduled",
+        "scheduled.tick.ms=20"
+})
+public class TransferSchedulerTest {
+
+    @TempDir
+    static Path workDir;
+
+    @DynamicPropertySource
+    static void workDirectories(DynamicPropertyRegistry registry) {
+        TestDirectories.register(registry, workDir);
+    }
+
+    @Autowired
+    private BankService bankService;
+
+    @Autowired
+    private ScheduledTransferService scheduledTransferService;
+
+    @Test
+    void testOneOffTransferRunsOnceAndCompletes() throws InterruptedException {
+        String origin = account(1000);
+        String destination = account(0);
+
+        var schedule = scheduledTransferService.schedule(origin, destination, 300, null, null);
+        var done = await(schedule.id(), s -> s.status() != ScheduleStatus.ACTIVE);
+
+        Assertions.assertEquals(ScheduleStatus.COMPLETED, done.status());
+        Assertions.assertEquals(1, done.runs());
+        Assertions.assertEquals(700, bankService.getBalance(origin));
+        Assertions.assertEquals(300, bankService.getBalance(destination));
+    }
+
+    @Test
+    void testMissedOccurrencesAreCaughtUp() throws InterruptedException {
+        String origin = account(1000);
+        String destination = account(0);
+        Instant firstRunAt = Instant.now().truncatedTo(ChronoUnit.MILLIS).minus(3, ChronoUnit.DAYS).plusSeconds(60);
+
+        var schedule = scheduledTransferService.schedule(origin, destination, 100, firstRunAt, Recurrence.DAILY);
+        var caughtUp = await(schedule.id(), s -> s.runs() == 3);
+
+        Assertions.assertEquals(ScheduleStatus.ACTIVE, caughtUp.status());
+        Assertions.assertEquals(firstRunAt.plus(3, ChronoUnit.DAYS), caughtUp.nextRunAt());
+        Thread.sleep(200);
+        Assertions.assertEquals(3, scheduledTransferService.getSchedule(schedule.id()).runs());
+        Assertions.assertEquals(700, bankService.getBalance(origin));
+        Assertions.assertEquals(300, bankService.getBalance(destination));
+    }
+
+    @Test
+    void testFailedRunIsRecorded() throws InterruptedException {
+        String origin = account(100);
+        String destination = account(0);
+
+        var schedule = scheduledTransferService.schedule(origin, destination, 500, null, Recurrence.ONCE);
+        var done = await(schedule.id(), s -> s.status() != ScheduleStatus.ACTIVE);
+
+        Assertions.assertEquals(ScheduleStatus.FAILED, done.status());
+        Assertions.assertEquals(1, done.failures());
+        Assertions.assertEquals(NOT_ENOUGH_BALANCE_ERROR_MESSAGE, done.lastError());
+        Assertions.assertEquals(100, bankService.getBalance(origin));
+    }
+
+    @Test
+    void testCancelledScheduleDoesNotRun() throws InterruptedException {
+        String origin = account(1000);
+        String destination = account(0);
+
+        var schedule = scheduledTransferService.schedule(origin, destination, 100, Instant.now().plusMillis(300), Recurrence.MONTHLY);
+        Assertions.assertTrue(scheduledTransferService.cancel(schedule.id()));
+        Assertions.assertFalse(scheduledTransferService.cancel(schedule.id()));
+        Thread.sleep(500);
+
+        var cancelled = scheduledTransferService.getSchedule(schedule.id());
+        Assertions.assertEquals(ScheduleStatus.CANCELLED, cancelled.status());
+        Assertions.assertEquals(0, cancelled.runs());
+        Assertions.assertEquals(1000, bankService.getBalance(origin));
+        Assertions.assertEquals(1, scheduledTransferService.listSchedules(origin, 0, 10).schedules().size());
+
+        Assertions.assertThrows(InvalidScheduleException.class,
+                () -> scheduledTransferService.schedule(origin, origin, 100, null, null));
+    }
+
+    private String account(long balance) {
+        return bankService.createAccount(new BankAccountDto(null, null, balance, "Holder", "TestBank")).accountNumber();
+    }
+
+    private ScheduledTransferDto await(long id, Predicate<ScheduledTransferDto> condition) throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(10));
+        while (true) {
+            var schedule = scheduledTransferService.getSchedule(id);
+            if (condition.test(schedule) || Instant.now().isAfter(deadline)) {
+                return schedule;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.azki.banking_system.services;
+
+import com.azki.banking_system.TestDirectories;
+import com.azki.banking_system.dto.AccountFileFormat;
+import com.azki.banking_system.dto.BankAccountDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest(properties = {
+        "spring.shell.interactive.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:export",
+        "export.fetch.size=2"
+})
+public class AccountExportServiceTest {
+
+    @TempDir
+    static Path workDir;
+
+    @DynamicPropertySource
+    static void workDirectories(DynamicPropertyRegistry registry) {
+        TestDirectories.register(registry, workDir);
+    }
+
+    @Autowired
+    private AccountExportService accountExportService;
+
+    @Autowired
+    private BankService bankService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testKeysetPagesAndExportsCoverEveryAccountOnce() throws Exception {
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(bankService.createAccount(new BankAccountDto(null, null, i * 100, "Holder, " + i, "TestBank")).accountNumber());
+        }
+
+        List<String> listed = new ArrayList<>();
+        long after = 0;
+        int pages = 0;
+        for (Long next = 0L; next != null; pages++) {
+            var page = bankService.listAccounts(after, 2);
+            page.accounts().forEach(account -> listed.add(account.accountNumber()));
+            next = page.nextAfter();
+            after = next == null ? after : next;
+        }
+        Assertions.assertEquals(created, listed);
+        Assertions.assertEquals(3, pages);
+
+        var csv = new ByteArrayOutputStream();
+        Assertions.assertEquals(5, accountExportService.exportAccounts(csv, AccountFileFormat.CSV));
+        var csvLines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        Assertions.assertEquals("id,accountNumber,accountHolderName,bankName,balance", csvLines.get(0));
+        Assertions.assertTrue(csvLines.get(1).endsWith("," + created.get(0) + ",\"Holder, 0\",TestBank,0"));
+
+        var ndjson = new ByteArrayOutputStream();
+        Assertions.assertEquals(5, accountExportService.exportAccounts(ndjson, AccountFileFormat.NDJSON));
+        var last = objectMapper.readValue(ndjson.toString(StandardCharsets.UTF_8).lines().toList().get(4), BankAccountDto.class);
+        Assertions.assertEquals(created.get(4), last.accountNumber());
+        Assertions.assertEquals(400, last.balance());
+    }
+}
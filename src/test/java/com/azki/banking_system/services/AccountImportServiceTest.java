@@ -0,0 +1,92 @@
+package com.azki.banking_system.services;
+
+import com.azki.banking_system.TestDirectories;
+import com.azki.banking_system.dto.AccountFileFormat;
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.exceptions.InvalidImportFileException;
+import com.azki.banking_system.repositories.BankAccountRepository;
+import com.azki.banking_system.utils.AccountNumbers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+
+@SpringBootTest(properties = {
+        "spring.shell.interactive.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:import",
+        "import.batch.size=3"
+})
+public class AccountImportServiceTest {
+
+    @TempDir
+    static Path workDir;
+
+    @DynamicPropertySource
+    static void workDirectories(DynamicPropertyRegistry registry) {
+        TestDirectories.register(registry, workDir);
+    }
+
+    @Autowired
+    private AccountImportService accountImportService;
+
+    @Autowired
+    private BankService bankService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Test
+    void testValidRowsAreImportedAndBadRowsRejected() throws Exception {
+        var existing = bankService.createAccount(new BankAccountDto(null, null, 100, "Existing", "TestBank"));
+        String imported = AccountNumbers.next();
+        String csv = """
+                accountNumber,accountHolderName,bankName,balance
+                %s,"Holder, One",TestBank,500
+                ,Holder Two,TestBank,600
+                ,Holder Three,TestBank,not-a-number
+                %s,Duplicate,TestBank,700
+                ,Ho,TestBank,800
+                ,Holder Six,TestBank,900
+                """.formatted(imported, existing.accountNumber());
+
+        var result = accountImportService.importAccounts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), AccountFileFormat.CSV);
+
+        Assertions.assertEquals(3, result.imported());
+        Assertions.assertEquals(3, result.rejected());
+        Assertions.assertEquals(500, bankService.getBalance(imported));
+        Assertions.assertEquals("Holder, One", bankService.getAccountByNumber(imported).accountHolderName());
+        var rejectedLines = Files.readAllLines(Path.of(result.rejectedRowsFile()));
+        Assertions.assertEquals(4, rejectedLines.size());
+        Assertions.assertTrue(rejectedLines.get(1).startsWith("4,"));
+
+        // Ids drawn by the import and by JPA come from the same sequence blocks.
+        bankService.createAccount(new BankAccountDto(null, null, 100, "After", "TestBank"));
+        var ids = new HashSet<Long>();
+        bankAccountRepository.findAll().forEach(account -> Assertions.assertTrue(ids.add(account.getId())));
+    }
+
+    @Test
+    void testNdjsonImportAndMissingCsvHeader() throws Exception {
+        String ndjson = """
+                {"accountHolderName":"Json Holder","bankName":"TestBank","balance":42}
+                {"accountHolderName":
+                """;
+        var result = accountImportService.importAccounts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), AccountFileFormat.NDJSON);
+        Assertions.assertEquals(1, result.imported());
+        Assertions.assertEquals(1, result.rejected());
+
+        Assertions.assertThrows(InvalidImportFileException.class, () -> accountImportService.importAccounts(
+                new ByteArrayInputStream("name,balance\n".getBytes(StandardCharsets.UTF_8)), AccountFileFormat.CSV));
+    }
+}
@@ -0,0 +1,150 @@
+package com.azki.banking_system.services;
+
+import com.azki.banking_system.admission.AdmissionControl;
+import com.azki.banking_system.cache.AccountCache;
+import com.azki.banking_system.cache.AccountIdIndex;
+import com.azki.banking_system.concurrency.AccountLockManager;
+import com.azki.banking_system.engine.JpaAccountEngine;
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.exceptions.NotEnoughBalanceException;
+import com.azki.banking_system.hot.HotAccounts;
+import com.azki.banking_system.ledger.InMemoryLedger;
+import com.azki.banking_system.log.OverflowPolicy;
+import com.azki.banking_system.log.TransactionFileLogger;
+import com.azki.banking_system.log.TransactionLogDispatcher;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.repositories.AccountLookup;
+import com.azki.banking_system.repositories.BankAccountRepository;
+import com.azki.banking_system.stats.BankAggregates;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@ExtendWith(MockitoExtension.class)
+public class BankServiceConcurrencyTest {
+
+    private static final int ACCOUNTS = 2000;
+    private static final int CALLERS = 32;
+    private static final int OPERATIONS_PER_CALLER = 500;
+    private static final long INITIAL_BALANCE = 100000;
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private TransactionFileLogger transactionFileLogger;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private HotAccounts hotAccounts;
+
+    @Mock
+    private ObjectProvider<InMemoryLedger> ledger;
+
+    @Mock
+    private AdmissionControl admissionControl;
+
+    @Mock
+    private BankAggregates bankAggregates;
+
+    private final Map<String, BankAccountEntity> accounts = new ConcurrentHashMap<>();
+    private final List<String> accountNumbers = new ArrayList<>();
+
+    private TransactionLogDispatcher dispatcher;
+    private BankService service;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            var account = new BankAccountEntity(UUID.randomUUID().toString(), INITIAL_BALANCE, "Test", "TestBank");
+            accounts.put(account.getAccountNumber(), account);
+            accountNumbers.add(account.getAccountNumber());
+        }
+        Mockito.when(bankAccountRepository.findByAccountNumber(ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(accounts.get(invocation.<String>getArgument(0))));
+        var metrics = new BankMetrics(new SimpleMeterRegistry());
+        dispatcher = new TransactionLogDispatcher(List.of(transactionFileLogger), 1024, 1, OverflowPolicy.BLOCK, metrics);
+        service = new BankService(bankAccountRepository,
+                new JpaAccountEngine(bankAccountRepository, new AccountLockManager(256, metrics),
+                        new TransactionTemplate(transactionManager), new AccountCache(1000, 60000, metrics),
+                        new AccountLookup(bankAccountRepository, new AccountIdIndex(1000, metrics))),
+                ledger,
+                hotAccounts,
+                admissionControl,
+                bankAggregates,
+                ExecutionMode.POOL, 16, 1000, 10000, dispatcher, metrics);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dispatcher.close();
+    }
+
+    @Test
+    void testMoneyIsConservedUnderConcurrentTransfers() throws InterruptedException, ExecutionException {
+        AtomicLong deposited = new AtomicLong();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Future<?>> results = new ArrayList<>();
+
+        for (int c = 0; c < CALLERS; c++) {
+            results.add(callers.submit(() -> {
+                var random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_CALLER; i++) {
+                    int originIndex = random.nextInt(ACCOUNTS);
+                    String origin = accountNumbers.get(originIndex);
+                    String dest = accountNumbers.get((originIndex + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS);
+                    long amount = random.nextLong(1, 20000);
+                    try {
+                        if (i % 10 == 0) {
+                            service.deposit(dest, amount, new DepositTransactionStrategy());
+                            deposited.addAndGet(amount);
+                        } else {
+                            service.transferFund(origin, dest, amount);
+                        }
+                    } catch (ExecutionException e) {
+                        if (!(e.getCause() instanceof NotEnoughBalanceException)) {
+                            throw e;
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        callers.shutdown();
+        Assertions.assertTrue(callers.awaitTermination(1, TimeUnit.MINUTES));
+
+        long total = accounts.values().stream().mapToLong(BankAccountEntity::getBalance).sum();
+        Assertions.assertEquals(ACCOUNTS * INITIAL_BALANCE + deposited.get(), total);
+        Assertions.assertTrue(accounts.values().stream().allMatch(account -> account.getBalance() >= 0));
+    }
+}
@@ -0,0 +1,116 @@
+package com.azki.banking_system.services;
+
+import com.azki.banking_system.admission.AdmissionControl;
+import com.azki.banking_system.cache.AccountCache;
+import com.azki.banking_system.cache.AccountIdIndex;
+import com.azki.banking_system.concurrency.AccountLockManager;
+import com.azki.banking_system.engine.JpaAccountEngine;
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.exceptions.AccountNotFoundException;
+import com.azki.banking_system.hot.HotAccounts;
+import com.azki.banking_system.ledger.InMemoryLedger;
+import com.azki.banking_system.log.OverflowPolicy;
+import com.azki.banking_system.log.TransactionLogDispatcher;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.repositories.AccountLookup;
+import com.azki.banking_system.repositories.BankAccountRepository;
+import com.azki.banking_system.stats.BankAggregates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+@ExtendWith(MockitoExtension.class)
+public class BankServiceExecutionModeTest {
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private HotAccounts hotAccounts;
+
+    @Mock
+    private ObjectProvider<InMemoryLedger> ledger;
+
+    @Mock
+    private AdmissionControl admissionControl;
+
+    @Mock
+    private BankAggregates bankAggregates;
+
+    private final BankMetrics metrics = new BankMetrics(new SimpleMeterRegistry());
+    private final TransactionLogDispatcher dispatcher = new TransactionLogDispatcher(List.of(), 1024, 1, OverflowPolicy.BLOCK, metrics);
+
+    @AfterEach
+    public void tearDown() {
+        dispatcher.close();
+    }
+
+    // DIRECT has no executor at all, so its operations must run on the calling thread and still complete the future.
+    @ParameterizedTest
+    @EnumSource(ExecutionMode.class)
+    void testDepositAndTransferInEachMode(ExecutionMode mode) throws ExecutionException, InterruptedException {
+        var service = service(mode);
+        var origin = account(5000);
+        var destination = account(0);
+
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        service.deposit(origin.getAccountNumber(), 1000, (account, amount) -> {
+            ranOn.set(Thread.currentThread());
+            account.deposit(amount);
+        });
+        var accounts = service.transferFund(origin.getAccountNumber(), destination.getAccountNumber(), 2500);
+
+        Assertions.assertEquals(mode == ExecutionMode.DIRECT, ranOn.get() == Thread.currentThread());
+        Assertions.assertEquals(3500, accounts.get(0).balance());
+        Assertions.assertEquals(2500, accounts.get(1).balance());
+        Assertions.assertEquals(3500, origin.getBalance());
+        Assertions.assertEquals(2500, destination.getBalance());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ExecutionMode.class)
+    void testFailureIsTheCauseInEachMode(ExecutionMode mode) {
+        var service = service(mode);
+
+        var future = service.withdrawAsync(UUID.randomUUID().toString(), 100, (account, amount) -> account.withdraw(amount));
+
+        var failure = Assertions.assertThrows(ExecutionException.class, future::get);
+        Assertions.assertInstanceOf(AccountNotFoundException.class, failure.getCause());
+    }
+
+    private BankService service(ExecutionMode mode) {
+        return new BankService(bankAccountRepository,
+                new JpaAccountEngine(bankAccountRepository, new AccountLockManager(16, metrics),
+                        new TransactionTemplate(transactionManager), new AccountCache(1000, 60000, metrics),
+                        new AccountLookup(bankAccountRepository, new AccountIdIndex(1000, metrics))),
+                ledger,
+                hotAccounts,
+                admissionControl,
+                bankAggregates,
+                mode, 2, 1000, 10000, dispatcher, metrics);
+    }
+
+    private BankAccountEntity account(long balance) {
+        var account = new BankAccountEntity(UUID.randomUUID().toString(), balance, "Holder", "TestBank");
+        Mockito.when(bankAccountRepository.findByAccountNumber(account.getAccountNumber())).thenReturn(Optional.of(account));
+        return account;
+    }
+}
@@ -1,22 +1,51 @@
 package com.azki.banking_system.services;
 
+import com.azki.banking_system.admission.AdmissionControl;
+import com.azki.banking_system.cache.AccountCache;
+import com.azki.banking_system.cache.AccountIdIndex;
+import com.azki.banking_system.concurrency.AccountLockManager;
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BatchItemResult;
+import com.azki.banking_system.dto.BatchMode;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.engine.JpaAccountEngine;
 import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.exceptions.BatchTooLargeException;
+import com.azki.banking_system.exceptions.InvalidAmountException;
+import com.azki.banking_system.exceptions.SameAccountTransferException;
+import com.azki.banking_system.hot.HotAccounts;
+import com.azki.banking_system.ledger.InMemoryLedger;
+import com.azki.banking_system.log.OverflowPolicy;
 import com.azki.banking_system.log.TransactionFileLogger;
+import com.azki.banking_system.log.TransactionLogDispatcher;
+import com.azki.banking_system.metrics.BankMetrics;
+import com.azki.banking_system.repositories.AccountLookup;
 import com.azki.banking_system.repositories.BankAccountRepository;
+import com.azki.banking_system.stats.BankAggregates;
 import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 
+import static com.azki.banking_system.utils.Constants.*;
+
 @ExtendWith(MockitoExtension.class)
 public class BankServiceUnitTest {
 
@@ -26,33 +55,91 @@ public class BankServiceUnitTest {
     @Mock
     private TransactionFileLogger transactionFileLogger;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private HotAccounts hotAccounts;
+
+    @Mock
+    private ObjectProvider<InMemoryLedger> ledger;
+
+    @Mock
+    private AdmissionControl admissionControl;
+
+    @Mock
+    private BankAggregates bankAggregates;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TransactionLogDispatcher dispatcher;
     private BankService service;
 
     @BeforeEach
     public void setUp() {
         int threadPoolCapacity = 5;
-        service = new BankService(bankAccountRepository, threadPoolCapacity, transactionFileLogger);
+        var metrics = new BankMetrics(meterRegistry);
+        dispatcher = new TransactionLogDispatcher(List.of(transactionFileLogger), 1024, 1, OverflowPolicy.BLOCK, metrics);
+        service = new BankService(bankAccountRepository,
+                new JpaAccountEngine(bankAccountRepository, new AccountLockManager(16, metrics),
+                        new TransactionTemplate(transactionManager), new AccountCache(1000, 60000, metrics),
+                        new AccountLookup(bankAccountRepository, new AccountIdIndex(1000, metrics))),
+                ledger,
+                hotAccounts,
+                admissionControl,
+                bankAggregates,
+                ExecutionMode.POOL, threadPoolCapacity, 1000, 3, dispatcher, metrics);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dispatcher.close();
     }
 
     @Test
     void testDeposit() throws ExecutionException, InterruptedException {
-        double balance = 1000;
+        long balance = 1000;
         var account = new BankAccountEntity(UUID.randomUUID().toString(), balance, "Test", "TestBank");
         Mockito.when(bankAccountRepository.findByAccountNumber(account.getAccountNumber())).thenReturn(Optional.of(account));
 
-        double amount = 5000;
+        long amount = 5000;
         service.deposit(account.getAccountNumber(), amount, new DepositTransactionStrategy());
 
         Assertions.assertEquals(balance + amount, account.getBalance());
     }
 
+    @Test
+    void testBalanceReadsAreServedFromCacheAndSeeDeposits() throws ExecutionException, InterruptedException {
+        var account = new BankAccountEntity(UUID.randomUUID().toString(), 1000, "Test", "TestBank");
+        Mockito.when(bankAccountRepository.findByAccountNumber(account.getAccountNumber())).thenReturn(Optional.of(account));
+
+        Assertions.assertEquals(1000, service.getBalance(account.getAccountNumber()));
+        service.deposit(account.getAccountNumber(), 500, new DepositTransactionStrategy());
+        Assertions.assertEquals(1500, service.getBalance(account.getAccountNumber()));
+        Assertions.assertEquals(1500, service.getBalance(account.getAccountNumber()));
+
+        Mockito.verify(bankAccountRepository, Mockito.times(2)).findByAccountNumber(account.getAccountNumber());
+    }
+
+    @Test
+    void testOperationLatencyIsRecorded() throws ExecutionException, InterruptedException {
+        var account = new BankAccountEntity(UUID.randomUUID().toString(), 1000, "Test", "TestBank");
+        Mockito.when(bankAccountRepository.findByAccountNumber(account.getAccountNumber())).thenReturn(Optional.of(account));
+
+        service.deposit(account.getAccountNumber(), 100, new DepositTransactionStrategy());
+        service.deposit(account.getAccountNumber(), 100, new DepositTransactionStrategy());
+
+        Assertions.assertEquals(2, meterRegistry.get("bank.operation").tag("operation", "deposit").timer().count());
+        Assertions.assertEquals(2, meterRegistry.get("bank.lock.wait").timer().count());
+    }
+
     @Test
     void testWithdraw() throws ExecutionException, InterruptedException {
-        double balance = 5000;
+        long balance = 5000;
         var account = new BankAccountEntity(UUID.randomUUID().toString(), balance, "Test", "TestBank");
         Mockito.when(bankAccountRepository.findByAccountNumber(account.getAccountNumber())).thenReturn(Optional.of(account));
 
-        double amount = 1000;
+        long amount = 1000;
         service.withdraw(account.getAccountNumber(), amount, new WithdrawTransactionStrategy());
 
         Assertions.assertEquals(balance - amount, account.getBalance());
@@ -60,18 +147,128 @@ public class BankServiceUnitTest {
 
     @Test
     void testTransfer() throws ExecutionException, InterruptedException {
-        double balance = 5000;
+        long balance = 5000;
         var origin = new BankAccountEntity(UUID.randomUUID().toString(), balance, "origin", "TestBank");
         Mockito.when(bankAccountRepository.findByAccountNumber(origin.getAccountNumber())).thenReturn(Optional.of(origin));
 
         var dest = new BankAccountEntity(UUID.randomUUID().toString(), balance, "dest", "TestBank");
         Mockito.when(bankAccountRepository.findByAccountNumber(dest.getAccountNumber())).thenReturn(Optional.of(dest));
 
-        double amount = 1000;
+        long amount = 1000;
         service.transferFund(origin.getAccountNumber(), dest.getAccountNumber(), amount);
 
         Assertions.assertEquals(balance - amount, origin.getBalance());
         Assertions.assertEquals(balance + amount, dest.getBalance());
     }
 
+    @Test
+    void testSingleOperationsRefuseNonPositiveAmountsAndSelfTransfers() {
+        String accountNumber = UUID.randomUUID().toString();
+        String other = UUID.randomUUID().toString();
+
+        var withdraw = Assertions.assertThrows(ExecutionException.class,
+                () -> service.withdraw(accountNumber, -100, new WithdrawTransactionStrategy()));
+        Assertions.assertInstanceOf(InvalidAmountException.class, withdraw.getCause());
+        var deposit = Assertions.assertThrows(ExecutionException.class,
+                () -> service.deposit(accountNumber, 0, new DepositTransactionStrategy()));
+        Assertions.assertInstanceOf(InvalidAmountException.class, deposit.getCause());
+        var transfer = Assertions.assertThrows(ExecutionException.class, () -> service.transferFund(accountNumber, other, -100));
+        Assertions.assertEquals(INVALID_AMOUNT_ERROR_MESSAGE, transfer.getCause().getMessage());
+        var selfTransfer = Assertions.assertThrows(ExecutionException.class, () -> service.transferFund(accountNumber, accountNumber, 100));
+        Assertions.assertInstanceOf(SameAccountTransferException.class, selfTransfer.getCause());
+
+        Mockito.verifyNoInteractions(bankAccountRepository, admissionControl);
+    }
+
+    @Test
+    void testListingShowsTheBalancesTheLedgerHolds() {
+        var held = new BankAccountEntity(UUID.randomUUID().toString(), 1000, "Test", "TestBank");
+        held.setId(1L);
+        var flushed = new BankAccountEntity(UUID.randomUUID().toString(), 1000, "Test", "TestBank");
+        flushed.setId(2L);
+        Mockito.when(bankAccountRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(10))).thenReturn(List.of(held, flushed));
+        var inMemoryLedger = Mockito.mock(InMemoryLedger.class);
+        Mockito.when(inMemoryLedger.heldBalance(ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> held.getAccountNumber().equals(invocation.getArgument(0)) ? 1500L : null);
+        Mockito.when(ledger.getIfAvailable()).thenReturn(inMemoryLedger);
+        Mockito.when(hotAccounts.withTotal(ArgumentMatchers.any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        var page = service.listAccounts(0, 10);
+
+        Assertions.assertEquals(List.of(1500L, 1000L), page.accounts().stream().map(BankAccountDto::balance).toList());
+        Mockito.verify(inMemoryLedger, Mockito.never()).flush();
+    }
+
+    @Test
+    void testBestEffortBatchKeepsSuccessfulOperations() throws ExecutionException, InterruptedException {
+        long balance = 5000;
+        var origin = new BankAccountEntity(UUID.randomUUID().toString(), balance, "origin", "TestBank");
+        var dest = new BankAccountEntity(UUID.randomUUID().toString(), balance, "dest", "TestBank");
+        Mockito.when(bankAccountRepository.findByAccountNumberIn(ArgumentMatchers.anyCollection())).thenReturn(List.of(origin, dest));
+
+        var result = service.processBatch(List.of(
+                new BatchOperation("deposit", origin.getAccountNumber(), null, 1000),
+                new BatchOperation("transfer", origin.getAccountNumber(), dest.getAccountNumber(), 10000),
+                new BatchOperation("transfer", origin.getAccountNumber(), dest.getAccountNumber(), 2000)
+        ).iterator(), BatchMode.BEST_EFFORT);
+
+        Assertions.assertEquals(2, result.succeeded());
+        Assertions.assertFalse(result.items().get(1).succeeded());
+        Assertions.assertEquals(balance + 1000, result.items().get(0).balanceAfter());
+        Assertions.assertNull(result.items().get(1).balanceAfter());
+        Assertions.assertEquals(balance + 1000 - 2000, result.items().get(2).balanceAfter());
+        Assertions.assertEquals(balance + 2000, result.items().get(2).destinationBalanceAfter());
+        Assertions.assertEquals(balance + 1000 - 2000, origin.getBalance());
+        Assertions.assertEquals(balance + 2000, dest.getBalance());
+    }
+
+    @Test
+    void testBatchRejectsNonPositiveAmountsAndSelfTransfers() throws ExecutionException, InterruptedException {
+        long balance = 5000;
+        var account = new BankAccountEntity(UUID.randomUUID().toString(), balance, "account", "TestBank");
+        Mockito.when(bankAccountRepository.findByAccountNumberIn(ArgumentMatchers.anyCollection())).thenReturn(List.of(account));
+
+        var result = service.processBatch(List.of(
+                new BatchOperation("deposit", account.getAccountNumber(), null, -1000),
+                new BatchOperation("withdraw", account.getAccountNumber(), null, 0),
+                new BatchOperation("transfer", account.getAccountNumber(), account.getAccountNumber(), 1000)
+        ).iterator(), BatchMode.BEST_EFFORT);
+
+        Assertions.assertEquals(0, result.succeeded());
+        Assertions.assertEquals(List.of(INVALID_AMOUNT_ERROR_MESSAGE, INVALID_AMOUNT_ERROR_MESSAGE, SAME_ACCOUNT_TRANSFER_ERROR_MESSAGE),
+                result.items().stream().map(BatchItemResult::message).toList());
+        Assertions.assertEquals(balance, account.getBalance());
+    }
+
+    @Test
+    void testAllOrNothingBatchRollsBackOnFailure() throws ExecutionException, InterruptedException {
+        long balance = 5000;
+        var origin = new BankAccountEntity(UUID.randomUUID().toString(), balance, "origin", "TestBank");
+        var dest = new BankAccountEntity(UUID.randomUUID().toString(), balance, "dest", "TestBank");
+        Mockito.when(bankAccountRepository.findByAccountNumberIn(ArgumentMatchers.anyCollection())).thenReturn(List.of(origin, dest));
+
+        var result = service.processBatch(List.of(
+                new BatchOperation("deposit", origin.getAccountNumber(), null, 1000),
+                new BatchOperation("transfer", origin.getAccountNumber(), dest.getAccountNumber(), 10000)
+        ).iterator(), BatchMode.ALL_OR_NOTHING);
+
+        Assertions.assertEquals(0, result.succeeded());
+        Assertions.assertEquals(balance, origin.getBalance());
+        Assertions.assertEquals(balance, dest.getBalance());
+    }
+
+    @Test
+    void testAllOrNothingBatchOverTheLimitIsRefused() {
+        String account = UUID.randomUUID().toString();
+        var operations = List.of(
+                new BatchOperation("deposit", account, null, 1),
+                new BatchOperation("deposit", account, null, 1),
+                new BatchOperation("deposit", account, null, 1),
+                new BatchOperation("deposit", account, null, 1));
+
+        Assertions.assertThrows(BatchTooLargeException.class,
+                () -> service.processBatch(operations.iterator(), BatchMode.ALL_OR_NOTHING));
+        Mockito.verifyNoInteractions(bankAccountRepository);
+    }
+
 }
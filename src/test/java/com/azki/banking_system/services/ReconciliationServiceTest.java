@@ -0,0 +1,99 @@
+package com.azki.banking_system.services;
+
+import com.azki.banking_system.TestDirectories;
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.Discrepancy;
+import com.azki.banking_system.dto.DiscrepancyKind;
+import com.azki.banking_system.ledger.InMemoryLedger;
+import com.azki.banking_system.log.TransactionLogDispatcher;
+import com.azki.banking_system.log.binary.BinaryLogReader;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+@SpringBootTest(properties = {
+        "spring.shell.interactive.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:reconciliation",
+        "log.binary.segment.records=4"
+})
+public class ReconciliationServiceTest {
+
+    @TempDir
+    static Path workDir;
+
+    @DynamicPropertySource
+    static void workDirectories(DynamicPropertyRegistry registry) {
+        TestDirectories.register(registry, workDir);
+    }
+
+    @Autowired
+    private BankService bankService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private BinaryLogReader binaryLogReader;
+
+    @Autowired
+    private TransactionLogDispatcher dispatcher;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectProvider<InMemoryLedger> ledger;
+
+    @Test
+    void testReconcilesLogAgainstTableAndReportsTampering() throws Exception {
+        String first = bankService.createAccount(new BankAccountDto(null, null, 1000, "First", "TestBank")).accountNumber();
+        String second = bankService.createAccount(new BankAccountDto(null, null, 500, "Second", "TestBank")).accountNumber();
+        String closed = bankService.createAccount(new BankAccountDto(null, null, 300, "Closed", "TestBank")).accountNumber();
+        bankService.deposit(first, 250, new DepositTransactionStrategy());
+        bankService.withdraw(second, 100, new WithdrawTransactionStrategy());
+        bankService.transferFund(first, second, 400);
+        bankService.transferFund(closed, first, 50);
+        bankService.deleteAccountByNumber(closed);
+
+        var report = reconciliationService.reconcile();
+        Assertions.assertEquals(0, report.discrepancyCount());
+        Assertions.assertEquals(3, report.accountsChecked());
+        Assertions.assertEquals(3, report.accountsMatched());
+        Assertions.assertEquals(10, report.recordsScanned());
+        Assertions.assertNotNull(report.note());
+
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("update \"bank-account\" set balance = balance + 1 where account_number = ?", UUID.fromString(first));
+        String unlogged = UUID.randomUUID().toString();
+        jdbc.update("insert into \"bank-account\" (id, account_number, balance, account_holder_name, bank_name, version)"
+                + " values (-1, ?, 70, 'Unlogged', 'TestBank', 0)", UUID.fromString(unlogged));
+
+        var expected = List.of(
+                new Discrepancy(first, DiscrepancyKind.BALANCE_MISMATCH, 901L, 900),
+                new Discrepancy(unlogged, DiscrepancyKind.NO_OPENING_RECORD, 70L, 0));
+        Assertions.assertEquals(sorted(expected), sorted(reconciliationService.reconcile().discrepancies()));
+
+        var multiPass = new ReconciliationService(binaryLogReader, dispatcher, dataSource, ledger, 400, 2, 10, 100).reconcile();
+        Assertions.assertTrue(multiPass.passes() > 1);
+        Assertions.assertEquals(10, multiPass.recordsScanned());
+        Assertions.assertEquals(sorted(expected), sorted(multiPass.discrepancies()));
+    }
+
+    private static List<Discrepancy> sorted(List<Discrepancy> discrepancies) {
+        return discrepancies.stream().sorted(Comparator.comparing(Discrepancy::accountNumber)).toList();
+    }
+}
@@ -0,0 +1,149 @@
+package com.azki.banking_system.services;
+
+import com.azki.banking_system.TestDirectories;
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BatchMode;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.dto.StatementEntry;
+import com.azki.banking_system.log.TransactionHistoryRecorder;
+import com.azki.banking_system.log.TransactionLogDispatcher;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.azki.banking_system.utils.Constants.*;
+
+@SpringBootTest(properties = {
+        "spring.shell.interactive.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:statement"
+})
+public class StatementServiceTest {
+
+    @TempDir
+    static Path workDir;
+
+    @DynamicPropertySource
+    static void workDirectories(DynamicPropertyRegistry registry) {
+        TestDirectories.register(registry, workDir);
+    }
+
+    @Autowired
+    private BankService bankService;
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private TransactionLogDispatcher dispatcher;
+
+    @Autowired
+    private TransactionHistoryRecorder transactionHistoryRecorder;
+
+    @Test
+    void testStatementPagesAndPointInTimeBalances() throws Exception {
+        String account = bankService.createAccount(new BankAccountDto(null, null, 1000, "Holder", "TestBank")).accountNumber();
+        String other = bankService.createAccount(new BankAccountDto(null, null, 0, "Other", "TestBank")).accountNumber();
+
+        Instant beforeAny = Instant.now();
+        Thread.sleep(2);
+        bankService.deposit(account, 100, new DepositTransactionStrategy());
+        bankService.withdraw(account, 50, new WithdrawTransactionStrategy());
+        dispatcher.flush();
+        transactionHistoryRecorder.flush();
+        Thread.sleep(2);
+        Instant middle = Instant.now();
+        Thread.sleep(2);
+        bankService.transferFund(account, other, 25);
+        bankService.processBatch(List.of(
+                new BatchOperation(DEPOSIT, account, null, 10),
+                new BatchOperation(WITHDRAW, account, null, 5)).iterator(), BatchMode.BEST_EFFORT);
+        dispatcher.flush();
+        transactionHistoryRecorder.flush();
+
+        List<StatementEntry> entries = new ArrayList<>();
+        String pageToken = null;
+        int pages = 0;
+        do {
+            var page = statementService.statement(account, Instant.EPOCH, Instant.now(), pageToken, 2);
+            entries.addAll(page.entries());
+            pageToken = page.nextPageToken();
+            pages++;
+        } while (pageToken != null);
+
+        Assertions.assertEquals(4, pages);
+        Assertions.assertEquals(List.of(OPEN, DEPOSIT, WITHDRAW, WITHDRAW, DEPOSIT, WITHDRAW),
+                entries.stream().map(StatementEntry::transactionType).toList());
+        Assertions.assertEquals(List.of(1000L, 1100L, 1050L, 1025L, 1035L, 1030L),
+                entries.stream().map(StatementEntry::balanceAfter).toList());
+
+        Assertions.assertEquals(1000, statementService.balanceAt(account, beforeAny));
+        Assertions.assertEquals(1050, statementService.balanceAt(account, middle));
+        Assertions.assertEquals(1030, statementService.balanceAt(account, Instant.now()));
+        Assertions.assertEquals(2, statementService.statement(other, Instant.EPOCH, Instant.now(), null, 10).entries().size());
+        Assertions.assertEquals(0, statementService.statement(account, middle, middle.plusNanos(1000), null, 10).entries().size());
+    }
+
+    @Test
+    void testConcurrentChangesAreListedInTheOrderTheyWereApplied() throws Exception {
+        String account = bankService.createAccount(new BankAccountDto(null, null, 0, "Busy", "TestBank")).accountNumber();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(executor.submit(() -> bankService.deposit(account, 10, new DepositTransactionStrategy())));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        dispatcher.flush();
+        transactionHistoryRecorder.flush();
+
+        var entries = statementService.statement(account, Instant.EPOCH, Instant.now(), null, 100).entries();
+        Assertions.assertEquals(41, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Assertions.assertEquals(i + 1, entries.get(i).sequence());
+            Assertions.assertEquals(i * 10L, entries.get(i).balanceAfter());
+        }
+        Assertions.assertEquals(400, statementService.balanceAt(account, entries.get(40).time()));
+    }
+
+    @Test
+    void testBalanceAtAddsUpHotDepositsThatRecordNoBalance() throws Exception {
+        String hot = bankService.createAccount(new BankAccountDto(null, null, 1000, "Merchant", "TestBank")).accountNumber();
+        bankService.markHot(hot, 2);
+
+        bankService.deposit(hot, 100, new DepositTransactionStrategy());
+        bankService.deposit(hot, 200, new DepositTransactionStrategy());
+        dispatcher.flush();
+        transactionHistoryRecorder.flush();
+        Thread.sleep(2);
+        Instant afterDeposits = Instant.now();
+        Thread.sleep(2);
+        bankService.withdraw(hot, 50, new WithdrawTransactionStrategy());
+        bankService.deposit(hot, 10, new DepositTransactionStrategy());
+        dispatcher.flush();
+        transactionHistoryRecorder.flush();
+
+        var entries = statementService.statement(hot, Instant.EPOCH, Instant.now(), null, 10).entries();
+        Assertions.assertEquals(Arrays.asList(1000L, null, null, null, null),
+                entries.stream().map(StatementEntry::balanceAfter).toList());
+        Assertions.assertEquals(1300, statementService.balanceAt(hot, afterDeposits));
+        Assertions.assertEquals(1260, statementService.balanceAt(hot, Instant.now()));
+    }
+}
@@ -0,0 +1,91 @@
+package com.azki.banking_system.stats;
+
+import com.azki.banking_system.TestDirectories;
+import com.azki.banking_system.dto.BankAccountDto;
+import com.azki.banking_system.dto.BankStats;
+import com.azki.banking_system.dto.BatchMode;
+import com.azki.banking_system.dto.BatchOperation;
+import com.azki.banking_system.entities.BankAccountEntity;
+import com.azki.banking_system.services.BankService;
+import com.azki.banking_system.transactions.DepositTransactionStrategy;
+import com.azki.banking_system.transactions.WithdrawTransactionStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.azki.banking_system.utils.Constants.DEPOSIT;
+import static com.azki.banking_system.utils.Constants.TRANSFER;
+
+@SpringBootTest(properties = {
+        "spring.shell.interactive.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:stats",
+        "stats.verify.interval.ms=0"
+})
+public class BankAggregatesTest {
+
+    @TempDir
+    static Path workDir;
+
+    @DynamicPropertySource
+    static void workDirectories(DynamicPropertyRegistry registry) {
+        TestDirectories.register(registry, workDir);
+    }
+
+    @Autowired
+    private BankService bankService;
+
+    @Autowired
+    private BankAggregates bankAggregates;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testTotalsFollowEveryOperation() throws Exception {
+        String a = bankService.createAccount(new BankAccountDto(null, null, 1000, "Alice", "NorthBank")).accountNumber();
+        String b = bankService.createAccount(new BankAccountDto(null, null, 500, "Bob", "NorthBank")).accountNumber();
+        String c = bankService.createAccount(new BankAccountDto(null, null, 200, "Carol", "SouthBank")).accountNumber();
+
+        bankService.deposit(a, 300, new DepositTransactionStrategy());
+        bankService.withdraw(b, 100, new WithdrawTransactionStrategy());
+        bankService.transferFund(a, c, 400);
+        bankService.transferFund(a, b, 50);
+        bankService.processBatch(List.of(
+                new BatchOperation(DEPOSIT, c, null, 25),
+                new BatchOperation(TRANSFER, c, a, 10)).iterator(), BatchMode.BEST_EFFORT);
+
+        Assertions.assertEquals(new BankStats("NorthBank", 2, 1310, 360, 550), stats("NorthBank"));
+        Assertions.assertEquals(new BankStats("SouthBank", 1, 615, 425, 10), stats("SouthBank"));
+
+        bankService.deleteAccountByNumber(c);
+        Assertions.assertEquals(new BankStats("SouthBank", 0, 0, 425, 10), stats("SouthBank"));
+        Assertions.assertEquals(0, bankAggregates.verify());
+    }
+
+    @Test
+    void testDriftIsCorrectedOnceItIsConfirmed() {
+        bankService.createAccount(new BankAccountDto(null, null, 1000, "Dave", "DriftBank"));
+        jdbcTemplate.update("update \"" + BankAccountEntity.TABLE_NAME + "\" set balance = balance + 500 where bank_name = ?", "DriftBank");
+
+        Assertions.assertEquals(0, bankAggregates.verify());
+        Assertions.assertEquals(1000, stats("DriftBank").totalBalance());
+        Assertions.assertEquals(1, bankAggregates.verify());
+        Assertions.assertEquals(1500, stats("DriftBank").totalBalance());
+        Assertions.assertEquals(0, bankAggregates.verify());
+    }
+
+    private BankStats stats(String bankName) {
+        return bankService.bankStats().stream()
+                .filter(stats -> stats.bankName().equals(bankName))
+                .findFirst()
+                .orElseThrow();
+    }
+}
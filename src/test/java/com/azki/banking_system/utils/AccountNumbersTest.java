@@ -0,0 +1,19 @@
+package com.azki.banking_system.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+public class AccountNumbersTest {
+
+    @Test
+    void testOnlyCanonicalSpellingParses() {
+        String accountNumber = AccountNumbers.next();
+
+        Assertions.assertEquals(accountNumber, AccountNumbers.parse(accountNumber).toString());
+        Assertions.assertNull(AccountNumbers.parse(accountNumber.toUpperCase(Locale.ROOT)));
+        Assertions.assertNull(AccountNumbers.parse("1-1-1-1-1"));
+        Assertions.assertNull(AccountNumbers.parse(null));
+    }
+}
@@ -0,0 +1,38 @@
+package com.azki.banking_system.utils;
+
+import com.azki.banking_system.exceptions.InvalidAmountException;
+import com.azki.banking_system.exceptions.MoneyOverflowException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+public class MoneyTest {
+
+    @Test
+    void testDecimalRoundTrip() {
+        for (String amount : new String[]{"0.00", "0.01", "10.50", "-3.07", "92233720368547758.07", "-92233720368547758.08"}) {
+            long minorUnits = Money.fromDecimal(new BigDecimal(amount));
+            Assertions.assertEquals(amount, Money.format(minorUnits));
+            Assertions.assertEquals(new BigDecimal(amount), Money.toDecimal(minorUnits));
+        }
+        Assertions.assertEquals(1050, Money.fromDecimal(new BigDecimal("10.5")));
+        Assertions.assertEquals(1000, Money.fromDecimal(new BigDecimal("10.000")));
+        Assertions.assertEquals(1000, Money.fromDecimal(new BigDecimal("1E+1")));
+    }
+
+    @Test
+    void testMoreThanTwoDecimalPlacesIsAPrecisionError() {
+        Assertions.assertThrows(InvalidAmountException.class, () -> Money.fromDecimal(new BigDecimal("1.005")));
+        Assertions.assertThrows(InvalidAmountException.class, () -> Money.fromDecimal(new BigDecimal("0.001")));
+    }
+
+    @Test
+    void testOutOfRangeIsAnOverflowError() {
+        Assertions.assertThrows(MoneyOverflowException.class, () -> Money.fromDecimal(new BigDecimal("92233720368547758.08")));
+        Assertions.assertThrows(MoneyOverflowException.class, () -> Money.fromDecimal(new BigDecimal("1E+20")));
+        Assertions.assertThrows(MoneyOverflowException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        Assertions.assertThrows(MoneyOverflowException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+        Assertions.assertEquals(Long.MAX_VALUE, Money.add(Long.MAX_VALUE - 1, 1));
+    }
+}